@@ -0,0 +1,160 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.crankier;
+
+import java.time.Instant;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.microsoft.signalr.HubConnection;
+
+import io.reactivex.Completable;
+
+/**
+ * One connection of the load test. Mirrors benchmarkapps/Crankier's Client: it retries the start a few times, then
+ * sends SendPayload at the configured rate. Without a payload it invokes Echo at that rate instead, and with one it
+ * still invokes Echo once a second, which is how the round-trip latency is measured.
+ */
+final class Client {
+    private static final int MAX_CONNECT_RETRIES = 3;
+    private static final long CONNECT_RETRY_DELAY_MILLISECONDS = 1000;
+    private static final long ECHO_INTERVAL_MILLISECONDS = 1000;
+
+    private final HubConnection connection;
+    private final Statistics statistics;
+    private final ScheduledExecutorService scheduler;
+    private volatile ConnectionState state = ConnectionState.CONNECTING;
+    // Only one Echo per connection is in flight at a time, so a slow server shows up as latency instead of as an
+    // ever-growing number of outstanding invocations.
+    private final AtomicBoolean echoPending = new AtomicBoolean();
+    private volatile ScheduledFuture<?> sendTimer;
+    private volatile ScheduledFuture<?> echoTimer;
+
+    private static final Logger logger = LoggerFactory.getLogger(Client.class);
+
+    Client(HubConnection connection, Statistics statistics, ScheduledExecutorService scheduler) {
+        this.connection = connection;
+        this.statistics = statistics;
+        this.scheduler = scheduler;
+
+        connection.on("send", time -> statistics.messagesReceived.increment(), String.class);
+        connection.onClosed(exception -> {
+            // Failed starts close the connection too, those are retried by connect.
+            if (state != ConnectionState.CONNECTED) {
+                return;
+            }
+
+            if (exception == null) {
+                state = ConnectionState.DISCONNECTED;
+            } else {
+                logger.debug("Connection terminated with error: {}.", exception.getMessage());
+                state = ConnectionState.FAULTED;
+            }
+            stopSending();
+        });
+    }
+
+    ConnectionState getState() {
+        return state;
+    }
+
+    void start() {
+        connect(0);
+    }
+
+    private void connect(int attempt) {
+        long startTime = System.nanoTime();
+        connection.start().subscribe(() -> {
+            statistics.connectLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+            statistics.connectsSucceeded.increment();
+            state = ConnectionState.CONNECTED;
+        }, error -> {
+            logger.debug("Connection start failed: {}.", error.getMessage());
+            if (attempt == MAX_CONNECT_RETRIES) {
+                statistics.connectsFailed.increment();
+                state = ConnectionState.FAULTED;
+                return;
+            }
+            scheduler.schedule(() -> connect(attempt + 1), CONNECT_RETRY_DELAY_MILLISECONDS, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * Starts sending on the shared scheduler. The first send is delayed by a random fraction of the interval so that
+     * thousands of connections don't all send in the same instant.
+     *
+     * @param payload The string to send with SendPayload, or null to invoke Echo instead.
+     * @param intervalInNanoseconds The time between two sends.
+     */
+    void startSending(String payload, long intervalInNanoseconds) {
+        long initialDelay = (long) (Math.random() * intervalInNanoseconds);
+        if (payload == null) {
+            sendTimer = scheduler.scheduleAtFixedRate(this::echo, initialDelay, intervalInNanoseconds, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        sendTimer = scheduler.scheduleAtFixedRate(() -> send(payload), initialDelay, intervalInNanoseconds, TimeUnit.NANOSECONDS);
+        long echoDelay = (long) (Math.random() * ECHO_INTERVAL_MILLISECONDS);
+        echoTimer = scheduler.scheduleAtFixedRate(this::echo, echoDelay, ECHO_INTERVAL_MILLISECONDS, TimeUnit.MILLISECONDS);
+    }
+
+    private void send(String payload) {
+        if (state != ConnectionState.CONNECTED) {
+            return;
+        }
+
+        try {
+            connection.send("SendPayload", payload);
+            statistics.messagesSent.increment();
+        } catch (RuntimeException e) {
+            statistics.sendsFailed.increment();
+        }
+    }
+
+    private void echo() {
+        if (state != ConnectionState.CONNECTED || !echoPending.compareAndSet(false, true)) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            statistics.messagesSent.increment();
+            connection.invoke(String.class, "Echo", Instant.now().toString()).subscribe(time -> {
+                statistics.echoLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+                statistics.echoesReceived.increment();
+                echoPending.set(false);
+            }, error -> {
+                statistics.echoesFailed.increment();
+                echoPending.set(false);
+            });
+        } catch (RuntimeException e) {
+            statistics.sendsFailed.increment();
+            echoPending.set(false);
+        }
+    }
+
+    private void stopSending() {
+        cancel(sendTimer);
+        cancel(echoTimer);
+    }
+
+    private static void cancel(ScheduledFuture<?> timer) {
+        if (timer != null) {
+            timer.cancel(false);
+        }
+    }
+
+    Completable stop() {
+        stopSending();
+        if (state != ConnectionState.CONNECTED) {
+            return Completable.complete();
+        }
+        return connection.stop().onErrorComplete();
+    }
+}
@@ -0,0 +1,11 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.crankier;
+
+enum ConnectionState {
+    CONNECTING,
+    CONNECTED,
+    DISCONNECTED,
+    FAULTED,
+}
@@ -0,0 +1,34 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.crankier;
+
+/**
+ * A load generation tool for the Java client, the counterpart of benchmarkapps/Crankier. It opens many
+ * {@link com.microsoft.signalr.HubConnection}s against a hub with the methods of BenchmarkServer's EchoHub and reports
+ * connections per second, messages per second and Echo round-trip latency percentiles.
+ */
+public final class Crankier {
+    private Crankier() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        CrankierOptions options;
+        try {
+            options = CrankierOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println();
+            System.err.println(CrankierOptions.USAGE);
+            System.exit(1);
+            return;
+        }
+
+        if (options.isHelp()) {
+            System.out.println(CrankierOptions.USAGE);
+            return;
+        }
+
+        new Runner(options, System.out).run();
+    }
+}
@@ -0,0 +1,198 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.crankier;
+
+final class CrankierOptions {
+    // Same defaults as benchmarkapps/Crankier where the two tools overlap.
+    static final int DEFAULT_CONNECTIONS = 10_000;
+    static final int DEFAULT_DURATION_SECONDS = 300;
+    static final int DEFAULT_CONNECT_RATE = 100;
+    static final double DEFAULT_SEND_RATE = 1;
+    static final int DEFAULT_PAYLOAD_SIZE = 0;
+    static final int DEFAULT_REPORT_INTERVAL_SECONDS = 5;
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: crankier --target-url <TARGET_URL> [options]",
+            "",
+            "Opens many connections to a hub with the methods of benchmarkapps/BenchmarkServer's EchoHub, sends to it",
+            "and measures how the client keeps up.",
+            "",
+            "Options:",
+            "  --target-url <TARGET_URL>         The hub URL to run the test against.",
+            "  --connections <COUNT>             The number of connections to open (defaults to " + DEFAULT_CONNECTIONS + ").",
+            "  --connect-rate <PER_SECOND>       How many connections to start per second (defaults to " + DEFAULT_CONNECT_RATE + ").",
+            "  --send-rate <PER_SECOND>          How many messages each connection sends per second, 0 to only connect",
+            "                                    (defaults to " + DEFAULT_SEND_RATE + ").",
+            "  --payload-size <BYTES>            The size of the string each connection sends with SendPayload. When 0",
+            "                                    the sends invoke Echo instead, otherwise Echo is invoked once a second",
+            "                                    alongside them (defaults to " + DEFAULT_PAYLOAD_SIZE + ").",
+            "  --duration <SECONDS>              How long to send for once every connection was started",
+            "                                    (defaults to " + DEFAULT_DURATION_SECONDS + ").",
+            "  --report-interval <SECONDS>       How often to print the statistics (defaults to " + DEFAULT_REPORT_INTERVAL_SECONDS + ").",
+            "  --nio                             Use the WebSocket client that shares selector threads between connections.",
+            "  --skip-negotiate                  Connect straight to the WebSocket endpoint.",
+            "  --low-footprint                   Build the connections with shouldUseLowFootprint.",
+            "  --footprint                       Collect garbage before every report and print the heap and threads",
+            "                                    that every 1000 connected connections add. Use with --send-rate 0 to",
+            "                                    measure idle connections.",
+            "  --help                            Show this help.");
+
+    private String targetUrl;
+    private int connections = DEFAULT_CONNECTIONS;
+    private int connectRate = DEFAULT_CONNECT_RATE;
+    private double sendRate = DEFAULT_SEND_RATE;
+    private int payloadSize = DEFAULT_PAYLOAD_SIZE;
+    private int durationSeconds = DEFAULT_DURATION_SECONDS;
+    private int reportIntervalSeconds = DEFAULT_REPORT_INTERVAL_SECONDS;
+    private boolean nio;
+    private boolean skipNegotiate;
+    private boolean lowFootprint;
+    private boolean footprint;
+    private boolean help;
+
+    private CrankierOptions() {
+    }
+
+    static CrankierOptions parse(String... args) {
+        CrankierOptions options = new CrankierOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            switch (name) {
+                case "--target-url":
+                    options.targetUrl = value(args, ++i, name);
+                    break;
+                case "--connections":
+                    options.connections = positiveInt(args, ++i, name);
+                    break;
+                case "--connect-rate":
+                    options.connectRate = positiveInt(args, ++i, name);
+                    break;
+                case "--send-rate":
+                    options.sendRate = nonNegativeDouble(args, ++i, name);
+                    break;
+                case "--payload-size":
+                    options.payloadSize = nonNegativeInt(args, ++i, name);
+                    break;
+                case "--duration":
+                    options.durationSeconds = nonNegativeInt(args, ++i, name);
+                    break;
+                case "--report-interval":
+                    options.reportIntervalSeconds = positiveInt(args, ++i, name);
+                    break;
+                case "--nio":
+                    options.nio = true;
+                    break;
+                case "--skip-negotiate":
+                    options.skipNegotiate = true;
+                    break;
+                case "--low-footprint":
+                    options.lowFootprint = true;
+                    break;
+                case "--footprint":
+                    options.footprint = true;
+                    break;
+                case "--help":
+                case "-h":
+                    options.help = true;
+                    return options;
+                default:
+                    throw new IllegalArgumentException(String.format("Unrecognized option '%s'.", name));
+            }
+        }
+
+        if (options.targetUrl == null) {
+            throw new IllegalArgumentException("The --target-url option is required.");
+        }
+        return options;
+    }
+
+    String getTargetUrl() {
+        return targetUrl;
+    }
+
+    int getConnections() {
+        return connections;
+    }
+
+    int getConnectRate() {
+        return connectRate;
+    }
+
+    double getSendRate() {
+        return sendRate;
+    }
+
+    int getPayloadSize() {
+        return payloadSize;
+    }
+
+    int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    int getReportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+
+    boolean useNio() {
+        return nio;
+    }
+
+    boolean skipNegotiate() {
+        return skipNegotiate;
+    }
+
+    boolean useLowFootprint() {
+        return lowFootprint;
+    }
+
+    boolean measureFootprint() {
+        return footprint;
+    }
+
+    boolean isHelp() {
+        return help;
+    }
+
+    private static String value(String[] args, int index, String name) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(String.format("The %s option requires a value.", name));
+        }
+        return args[index];
+    }
+
+    private static int nonNegativeInt(String[] args, int index, String name) {
+        String value = value(args, index, name);
+        try {
+            int result = Integer.parseInt(value);
+            if (result >= 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException(String.format("Invalid value '%s' for the %s option.", value, name));
+    }
+
+    private static int positiveInt(String[] args, int index, String name) {
+        int result = nonNegativeInt(args, index, name);
+        if (result == 0) {
+            throw new IllegalArgumentException(String.format("Invalid value '%s' for the %s option.", args[index], name));
+        }
+        return result;
+    }
+
+    private static double nonNegativeDouble(String[] args, int index, String name) {
+        String value = value(args, index, name);
+        try {
+            double result = Double.parseDouble(value);
+            if (result >= 0 && !Double.isInfinite(result)) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException(String.format("Invalid value '%s' for the %s option.", value, name));
+    }
+}
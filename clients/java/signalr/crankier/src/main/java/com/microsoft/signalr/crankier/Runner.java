@@ -0,0 +1,248 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.crankier;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.microsoft.signalr.HubConnection;
+import com.microsoft.signalr.HubConnectionBuilder;
+
+import io.reactivex.Completable;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+/**
+ * Starts the connections at the configured rate, lets them send for the configured duration and prints what the
+ * connections achieved every report interval, followed by a summary of the whole run.
+ */
+final class Runner {
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final CrankierOptions options;
+    private final PrintStream out;
+    private final Statistics statistics = new Statistics();
+    private final Collection<Client> clients = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler;
+    private final OkHttpClient httpClient;
+    private int peakConnected;
+    private Footprint baseline;
+    private String lastFootprint;
+
+    Runner(CrankierOptions options, PrintStream out) {
+        this.options = options;
+        this.out = out;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "crankier-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // OkHttp only runs 5 requests per host at a time by default, which would cap the connect rate at whatever 5
+        // negotiate round trips can do. Let as many run as we try to start per second.
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(Math.max(64, options.getConnectRate()));
+        dispatcher.setMaxRequestsPerHost(Math.max(64, options.getConnectRate()));
+        this.httpClient = new OkHttpClient.Builder().dispatcher(dispatcher).build();
+    }
+
+    void run() throws InterruptedException {
+        out.printf("Starting %d connections to %s at %d per second.%n", options.getConnections(), options.getTargetUrl(),
+                options.getConnectRate());
+
+        if (options.measureFootprint()) {
+            // Start our own threads first, so that they aren't counted as the connections'.
+            ((ScheduledThreadPoolExecutor) scheduler).prestartAllCoreThreads();
+            baseline = Footprint.measure();
+        }
+
+        String payload = options.getPayloadSize() == 0 ? null : createPayload(options.getPayloadSize());
+        long sendInterval = options.getSendRate() == 0 ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / options.getSendRate());
+        long connectInterval = TimeUnit.SECONDS.toNanos(1) / options.getConnectRate();
+        for (int i = 0; i < options.getConnections(); i++) {
+            scheduler.schedule(() -> startClient(payload, sendInterval), i * connectInterval, TimeUnit.NANOSECONDS);
+        }
+
+        long startTime = System.nanoTime();
+        long connectPhase = options.getConnections() * connectInterval;
+        long endTime = startTime + connectPhase + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+        long reportInterval = TimeUnit.SECONDS.toNanos(options.getReportIntervalSeconds());
+
+        Snapshot previous = new Snapshot(startTime);
+        LatencyHistogram totalEchoLatency = new LatencyHistogram();
+        long nextReport = startTime + reportInterval;
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= endTime) {
+                break;
+            }
+
+            TimeUnit.NANOSECONDS.sleep(Math.min(nextReport, endTime) - now);
+            if (System.nanoTime() >= nextReport) {
+                previous = report(startTime, previous, totalEchoLatency);
+                nextReport += reportInterval;
+            }
+        }
+        if (System.nanoTime() - previous.time > TimeUnit.MILLISECONDS.toNanos(100)) {
+            report(startTime, previous, totalEchoLatency);
+        }
+
+        out.println("Stopping connections.");
+        List<Completable> stops = new ArrayList<>();
+        for (Client client : clients) {
+            stops.add(client.stop());
+        }
+        if (!Completable.merge(stops).blockingAwait(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            out.printf("Not every connection stopped within %d seconds.%n", STOP_TIMEOUT_SECONDS);
+        }
+        scheduler.shutdownNow();
+
+        printSummary(startTime, totalEchoLatency);
+    }
+
+    private void startClient(String payload, long sendInterval) {
+        HubConnection connection = HubConnectionBuilder.create(options.getTargetUrl())
+                .withOkHttpClient(httpClient)
+                .shouldUseNioWebSockets(options.useNio())
+                .shouldSkipNegotiate(options.skipNegotiate())
+                .shouldUseLowFootprint(options.useLowFootprint())
+                .build();
+
+        Client client = new Client(connection, statistics, scheduler);
+        clients.add(client);
+        client.start();
+        if (sendInterval != 0) {
+            client.startSending(payload, sendInterval);
+        }
+    }
+
+    private Snapshot report(long startTime, Snapshot previous, LatencyHistogram totalEchoLatency) {
+        Snapshot current = new Snapshot(System.nanoTime());
+        double seconds = (current.time - previous.time) / (double) TimeUnit.SECONDS.toNanos(1);
+
+        int connecting = 0;
+        int connected = 0;
+        int disconnected = 0;
+        int faulted = 0;
+        for (Client client : clients) {
+            switch (client.getState()) {
+                case CONNECTING:
+                    connecting++;
+                    break;
+                case CONNECTED:
+                    connected++;
+                    break;
+                case DISCONNECTED:
+                    disconnected++;
+                    break;
+                case FAULTED:
+                    faulted++;
+                    break;
+            }
+        }
+        peakConnected = Math.max(peakConnected, connected);
+
+        LatencyHistogram echoLatency = statistics.echoLatency.snapshotAndReset();
+        totalEchoLatency.add(echoLatency);
+
+        out.printf("[%5ds] connecting %d, connected %d, disconnected %d, faulted %d | connects/sec %.1f | " +
+                        "sent/sec %.1f, received/sec %.1f, errors %d | echo %s%n",
+                TimeUnit.NANOSECONDS.toSeconds(current.time - startTime), connecting, connected, disconnected, faulted,
+                (current.connects - previous.connects) / seconds,
+                (current.sent - previous.sent) / seconds,
+                (current.received - previous.received) / seconds,
+                current.errors - previous.errors,
+                formatLatency(echoLatency));
+        if (baseline != null && connected > 0) {
+            lastFootprint = Footprint.measure().formatPerThousand(baseline, connected);
+            out.printf("        per 1000 connected: %s%n", lastFootprint);
+        }
+        return current;
+    }
+
+    private void printSummary(long startTime, LatencyHistogram totalEchoLatency) {
+        double seconds = (System.nanoTime() - startTime) / (double) TimeUnit.SECONDS.toNanos(1);
+        out.println("Summary:");
+        out.printf("  Connections: %d succeeded, %d failed, %d peak%n", statistics.connectsSucceeded.sum(),
+                statistics.connectsFailed.sum(), peakConnected);
+        out.printf("  Connect latency: %s%n", formatLatency(statistics.connectLatency));
+        out.printf("  Messages: %d sent, %d received, %d echoes, %d errors over %.1fs%n", statistics.messagesSent.sum(),
+                statistics.messagesReceived.sum(), statistics.echoesReceived.sum(),
+                statistics.sendsFailed.sum() + statistics.echoesFailed.sum(), seconds);
+        out.printf("  Echo latency: %s%n", formatLatency(totalEchoLatency));
+        if (lastFootprint != null) {
+            out.printf("  Footprint per 1000 connected: %s%n", lastFootprint);
+        }
+    }
+
+    static String formatLatency(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "n/a";
+        }
+        return String.format("p50 %.2fms, p90 %.2fms, p99 %.2fms, max %.2fms",
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+
+    static String createPayload(int size) {
+        char[] payload = new char[size];
+        Arrays.fill(payload, 'a');
+        return new String(payload);
+    }
+
+    /**
+     * The heap in use after a garbage collection and the number of live threads, which the connections are measured
+     * against. Shared threads, such as the timer and selector threads of the client, count once however many
+     * connections there are.
+     */
+    private static final class Footprint {
+        final long heapBytes;
+        final int threads;
+
+        private Footprint(long heapBytes, int threads) {
+            this.heapBytes = heapBytes;
+            this.threads = threads;
+        }
+
+        static Footprint measure() {
+            System.gc();
+            return new Footprint(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+                    ManagementFactory.getThreadMXBean().getThreadCount());
+        }
+
+        String formatPerThousand(Footprint baseline, int connections) {
+            double scale = 1000.0 / connections;
+            return String.format("heap %.2fMB, threads %.1f",
+                    (heapBytes - baseline.heapBytes) * scale / (1024 * 1024), (threads - baseline.threads) * scale);
+        }
+    }
+
+    private final class Snapshot {
+        final long time;
+        final long connects;
+        final long sent;
+        final long received;
+        final long errors;
+
+        Snapshot(long time) {
+            this.time = time;
+            this.connects = statistics.connectsSucceeded.sum();
+            this.sent = statistics.messagesSent.sum();
+            this.received = statistics.messagesReceived.sum() + statistics.echoesReceived.sum();
+            this.errors = statistics.connectsFailed.sum() + statistics.sendsFailed.sum() + statistics.echoesFailed.sum();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.crankier;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters every {@link Client} updates. They are only ever added to, the {@link Runner} works out the rates from
+ * the difference between two reports.
+ */
+final class Statistics {
+    final LongAdder connectsSucceeded = new LongAdder();
+    final LongAdder connectsFailed = new LongAdder();
+    final LongAdder messagesSent = new LongAdder();
+    final LongAdder sendsFailed = new LongAdder();
+    final LongAdder echoesReceived = new LongAdder();
+    final LongAdder echoesFailed = new LongAdder();
+    final LongAdder messagesReceived = new LongAdder();
+    final LatencyHistogram echoLatency = new LatencyHistogram();
+    final LatencyHistogram connectLatency = new LatencyHistogram();
+}
@@ -0,0 +1,73 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.crankier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class CrankierOptionsTest {
+    @Test
+    public void defaultsMatchCrankier() {
+        CrankierOptions options = CrankierOptions.parse("--target-url", "http://localhost:5000/echo");
+
+        assertEquals("http://localhost:5000/echo", options.getTargetUrl());
+        assertEquals(10_000, options.getConnections());
+        assertEquals(300, options.getDurationSeconds());
+        assertEquals(100, options.getConnectRate());
+        assertEquals(1, options.getSendRate());
+        assertEquals(0, options.getPayloadSize());
+        assertFalse(options.useNio());
+        assertFalse(options.skipNegotiate());
+        assertFalse(options.useLowFootprint());
+        assertFalse(options.measureFootprint());
+    }
+
+    @Test
+    public void allOptionsAreParsed() {
+        CrankierOptions options = CrankierOptions.parse("--target-url", "http://example.com/echo", "--connections", "50",
+                "--connect-rate", "10", "--send-rate", "0.5", "--payload-size", "1024", "--duration", "0",
+                "--report-interval", "2", "--nio", "--skip-negotiate", "--low-footprint", "--footprint");
+
+        assertEquals(50, options.getConnections());
+        assertEquals(10, options.getConnectRate());
+        assertEquals(0.5, options.getSendRate());
+        assertEquals(1024, options.getPayloadSize());
+        assertEquals(0, options.getDurationSeconds());
+        assertEquals(2, options.getReportIntervalSeconds());
+        assertTrue(options.useNio());
+        assertTrue(options.skipNegotiate());
+        assertTrue(options.useLowFootprint());
+        assertTrue(options.measureFootprint());
+    }
+
+    @Test
+    public void targetUrlIsRequired() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> CrankierOptions.parse("--connections", "5"));
+        assertEquals("The --target-url option is required.", exception.getMessage());
+    }
+
+    @Test
+    public void helpDoesNotNeedATargetUrl() {
+        assertTrue(CrankierOptions.parse("--help").isHelp());
+    }
+
+    @Test
+    public void invalidValuesAreRejected() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> CrankierOptions.parse("--target-url", "http://example.com", "--connect-rate", "0"));
+        assertEquals("Invalid value '0' for the --connect-rate option.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> CrankierOptions.parse("--target-url", "http://example.com", "--send-rate", "fast"));
+        assertEquals("Invalid value 'fast' for the --send-rate option.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> CrankierOptions.parse("--target-url"));
+        assertEquals("The --target-url option requires a value.", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> CrankierOptions.parse("--transport", "LongPolling"));
+        assertEquals("Unrecognized option '--transport'.", exception.getMessage());
+    }
+}
@@ -0,0 +1,87 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.crankier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getMaxValue());
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(50, histogram.getCount());
+        assertEquals(25, histogram.getValueAtPercentile(50));
+        assertEquals(45, histogram.getValueAtPercentile(90));
+        assertEquals(50, histogram.getValueAtPercentile(100));
+        assertEquals(50, histogram.getMaxValue());
+    }
+
+    @Test
+    public void largeValuesAreWithinThePrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = { 1_000, 12_345, 250_000, 3_000_000, 60_000_000 };
+        for (long value : values) {
+            histogram.record(value);
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            long reported = histogram.getValueAtPercentile((i + 1) * 100.0 / values.length);
+            assertTrue(reported >= values[i], String.format("%d should be at least %d", reported, values[i]));
+            assertTrue(reported <= values[i] * 1.04, String.format("%d should be within 4%% of %d", reported, values[i]));
+        }
+    }
+
+    @Test
+    public void bucketsAreContiguous() {
+        long previousHighest = -1;
+        for (int index = 0; index < 1000; index++) {
+            long highest = LatencyHistogram.highestValueOf(index);
+            assertEquals(index, LatencyHistogram.indexOf(previousHighest + 1));
+            assertEquals(index, LatencyHistogram.indexOf(highest));
+            previousHighest = highest;
+        }
+    }
+
+    @Test
+    public void negativeAndHugeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals((1L << 40) - 1, histogram.getMaxValue());
+    }
+
+    @Test
+    public void snapshotAndResetMovesTheCounts() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.record(20);
+
+        LatencyHistogram snapshot = histogram.snapshotAndReset();
+        histogram.record(30);
+
+        assertEquals(2, snapshot.getCount());
+        assertEquals(20, snapshot.getMaxValue());
+        assertEquals(1, histogram.getCount());
+
+        snapshot.add(histogram);
+        assertEquals(3, snapshot.getCount());
+        assertEquals(30, snapshot.getMaxValue());
+    }
+}
@@ -0,0 +1,161 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.subjects.SingleSubject;
+
+/**
+ * An {@link HttpClient} built on the JDK's java.net.http client, for applications that don't want to depend on OkHttp.
+ */
+final class JdkHttpClient extends HttpClient {
+    private static final int STREAMING_BUFFER_SIZE = 4096;
+
+    private final java.net.http.HttpClient client;
+
+    public JdkHttpClient() {
+        this(null);
+    }
+
+    // Unlike OkHttp, clients built from the same builder don't share a connection pool, and the cookie handler can't be
+    // swapped out on an existing client. So by default each connection gets its own client and cookies, but they share
+    // one executor instead of the thread pool every client would otherwise create for itself.
+    public JdkHttpClient(java.net.http.HttpClient client) {
+        if (client == null) {
+            client = java.net.http.HttpClient.newBuilder()
+                    .cookieHandler(new CookieManager())
+                    .executor(SharedExecutorHolder.INSTANCE)
+                    .build();
+        }
+        this.client = client;
+    }
+
+    java.net.http.HttpClient getClient() {
+        return client;
+    }
+
+    @Override
+    public Single<HttpResponse> send(HttpRequest httpRequest) {
+        SingleSubject<HttpResponse> responseSubject = SingleSubject.create();
+
+        CompletableFuture<java.net.http.HttpResponse<String>> future = client.sendAsync(buildRequest(httpRequest), BodyHandlers.ofString());
+        future.whenComplete((response, error) -> {
+            if (error != null) {
+                responseSubject.onError(getCause(error));
+                return;
+            }
+
+            // HTTP/2 has no reason phrases and the JDK client doesn't expose HTTP/1.1 ones.
+            responseSubject.onSuccess(new HttpResponse(response.statusCode(), "", response.body()));
+        });
+
+        return responseSubject.doOnDispose(() -> future.cancel(true));
+    }
+
+    @Override
+    public Single<StreamingHttpResponse> sendStreaming(HttpRequest httpRequest) {
+        SingleSubject<StreamingHttpResponse> responseSubject = SingleSubject.create();
+
+        CompletableFuture<java.net.http.HttpResponse<InputStream>> future = client.sendAsync(buildRequest(httpRequest), BodyHandlers.ofInputStream());
+        future.whenComplete((response, error) -> {
+            if (error != null) {
+                responseSubject.onError(getCause(error));
+                return;
+            }
+
+            InputStream body = response.body();
+            Observable<String> content = Observable.create(emitter -> {
+                // Closing the body aborts the exchange.
+                emitter.setCancellable(body::close);
+                try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+                    char[] buffer = new char[STREAMING_BUFFER_SIZE];
+                    int read;
+                    while ((read = reader.read(buffer)) != -1) {
+                        emitter.onNext(new String(buffer, 0, read));
+                    }
+                    emitter.onComplete();
+                } catch (IOException e) {
+                    // Reading fails when the subscription was disposed and the body closed.
+                    emitter.tryOnError(e);
+                }
+            });
+            responseSubject.onSuccess(new StreamingHttpResponse(response.statusCode(), "", content));
+        });
+
+        return responseSubject.doOnDispose(() -> future.cancel(true));
+    }
+
+    @Override
+    public WebSocketWrapper createWebSocket(String url, Map<String, String> headers) {
+        return new JdkWebSocketWrapper(url, headers, client);
+    }
+
+    private static java.net.http.HttpRequest buildRequest(HttpRequest httpRequest) {
+        java.net.http.HttpRequest.Builder requestBuilder = java.net.http.HttpRequest.newBuilder(URI.create(httpRequest.getUrl()));
+
+        switch (httpRequest.getMethod()) {
+            case "GET":
+                requestBuilder.GET();
+                break;
+            case "POST":
+                BodyPublisher body;
+                if (httpRequest.getBody() != null) {
+                    body = BodyPublishers.ofString(httpRequest.getBody());
+                    requestBuilder.header("Content-Type", "text/plain; charset=utf-8");
+                } else {
+                    body = BodyPublishers.noBody();
+                }
+                requestBuilder.POST(body);
+                break;
+            case "DELETE":
+                requestBuilder.DELETE();
+                break;
+        }
+
+        if (httpRequest.getHeaders() != null) {
+            for (Map.Entry<String, String> header : httpRequest.getHeaders().entrySet()) {
+                requestBuilder.header(header.getKey(), header.getValue());
+            }
+        }
+
+        return requestBuilder.build();
+    }
+
+    static Throwable getCause(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            return e.getCause();
+        }
+        return e;
+    }
+
+    private static ExecutorService createSharedExecutor() {
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "signalr-jdk-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Created on first use so that processes which always supply their own client never start it.
+    private static class SharedExecutorHolder {
+        static final ExecutorService INSTANCE = createSharedExecutor();
+    }
+}
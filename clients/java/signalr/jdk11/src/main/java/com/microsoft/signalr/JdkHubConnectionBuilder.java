@@ -0,0 +1,34 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+/**
+ * Creates {@link HttpHubConnectionBuilder}s for connections that use the JDK's java.net.http client instead of OkHttp.
+ */
+public final class JdkHubConnectionBuilder {
+    private JdkHubConnectionBuilder() {
+    }
+
+    /**
+     * Creates a new instance of {@link HttpHubConnectionBuilder} that uses the JDK's java.net.http client.
+     *
+     * @param url The URL of the SignalR hub to connect to.
+     * @return An instance of {@link HttpHubConnectionBuilder}.
+     */
+    public static HttpHubConnectionBuilder create(String url) {
+        return create(url, null);
+    }
+
+    /**
+     * Creates a new instance of {@link HttpHubConnectionBuilder} that uses the given java.net.http client.
+     * Connections created with the same client share its connections, executor and cookie handler.
+     *
+     * @param url The URL of the SignalR hub to connect to.
+     * @param client The java.net.http client to use, or null to create one for the connection.
+     * @return An instance of {@link HttpHubConnectionBuilder}.
+     */
+    public static HttpHubConnectionBuilder create(String url, java.net.http.HttpClient client) {
+        return HubConnectionBuilder.create(url).withHttpClient(new JdkHttpClient(client));
+    }
+}
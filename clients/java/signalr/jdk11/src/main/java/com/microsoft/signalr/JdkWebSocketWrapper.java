@@ -0,0 +1,162 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.reactivex.Completable;
+import io.reactivex.subjects.CompletableSubject;
+
+class JdkWebSocketWrapper extends WebSocketWrapper {
+    private final String url;
+    private final Map<String, String> headers;
+    private final HttpClient client;
+    private OnReceiveCallBack onReceive;
+    private WebSocketOnClosedCallback onClose;
+    private final CompletableSubject startSubject = CompletableSubject.create();
+    private final CompletableSubject closeSubject = CompletableSubject.create();
+
+    // The JDK WebSocket only allows one outstanding send, so every send is chained onto the previous one, starting
+    // with the WebSocket being opened.
+    private final CompletableFuture<WebSocket> opened = new CompletableFuture<>();
+    private final Object sendLock = new Object();
+    private CompletableFuture<WebSocket> lastSend = opened;
+
+    private static final Logger logger = LoggerFactory.getLogger(JdkWebSocketWrapper.class);
+
+    public JdkWebSocketWrapper(String url, Map<String, String> headers, HttpClient client) {
+        this.url = url;
+        this.headers = headers;
+        this.client = client;
+    }
+
+    @Override
+    public Completable start() {
+        WebSocket.Builder builder = client.newWebSocketBuilder();
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+
+        builder.buildAsync(URI.create(url), new SignalRWebSocketListener()).whenComplete((webSocket, error) -> {
+            if (error != null) {
+                Throwable cause = JdkHttpClient.getCause(error);
+                logger.error("WebSocket closed from an error: {}.", cause.getMessage());
+                opened.completeExceptionally(cause);
+                closeSubject.onError(new RuntimeException(cause));
+                onClose.invoke(null, cause.getMessage());
+                checkStartFailure();
+                return;
+            }
+
+            opened.complete(webSocket);
+            startSubject.onComplete();
+        });
+        return startSubject;
+    }
+
+    @Override
+    public Completable stop() {
+        synchronized (sendLock) {
+            lastSend = lastSend.thenCompose(webSocket -> webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "HubConnection stopped."));
+        }
+        return closeSubject;
+    }
+
+    @Override
+    public Completable send(String message) {
+        CompletableFuture<WebSocket> send;
+        synchronized (sendLock) {
+            send = lastSend.thenCompose(webSocket -> webSocket.sendText(message, true));
+            lastSend = send;
+        }
+
+        // Unlike OkHttp, which only queues the message, this completes once the message has been written.
+        CompletableSubject sendSubject = CompletableSubject.create();
+        send.whenComplete((webSocket, error) -> {
+            if (error != null) {
+                sendSubject.onError(JdkHttpClient.getCause(error));
+            } else {
+                sendSubject.onComplete();
+            }
+        });
+        return sendSubject;
+    }
+
+    @Override
+    public void setOnReceive(OnReceiveCallBack onReceive) {
+        this.onReceive = onReceive;
+    }
+
+    @Override
+    public void setOnClose(WebSocketOnClosedCallback onClose) {
+        this.onClose = onClose;
+    }
+
+    private void checkStartFailure() {
+        // If the start task hasn't completed yet, then we need to complete it
+        // exceptionally.
+        if (!startSubject.hasComplete() && !startSubject.hasThrowable()) {
+            startSubject.onError(new RuntimeException("There was an error starting the WebSocket transport."));
+        }
+    }
+
+    private class SignalRWebSocketListener implements WebSocket.Listener {
+        private final StringBuilder partialMessage = new StringBuilder();
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            // Messages are only requested one at a time, so a slow receive callback holds back the reads from the
+            // socket instead of letting frames pile up in memory.
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            if (!last) {
+                partialMessage.append(data);
+                webSocket.request(1);
+                return null;
+            }
+
+            String message;
+            if (partialMessage.length() > 0) {
+                message = partialMessage.append(data).toString();
+                partialMessage.setLength(0);
+            } else {
+                message = data.toString();
+            }
+
+            try {
+                onReceive.invoke(message);
+            } finally {
+                webSocket.request(1);
+            }
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            onClose.invoke(statusCode, reason);
+            closeSubject.onComplete();
+            checkStartFailure();
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            logger.error("WebSocket closed from an error: {}.", error.getMessage());
+            closeSubject.onError(new RuntimeException(error));
+            onClose.invoke(null, error.getMessage());
+            checkStartFailure();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+class JdkHttpClientTest {
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/echo", exchange -> {
+            byte[] body = (exchange.getRequestMethod() + " " + exchange.getRequestHeaders().getFirst("X-Test") + " "
+                    + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.createContext("/stream", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write("data: first\n\n".getBytes(StandardCharsets.UTF_8));
+                output.flush();
+                output.write("data: second\n\n".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void sendSendsMethodHeadersAndBody() {
+        JdkHttpClient client = new JdkHttpClient();
+        HttpRequest request = new HttpRequest();
+        request.addHeader("X-Test", "value");
+        request.setBody("hello");
+
+        HttpResponse response = client.post(baseUrl + "/echo", request).timeout(5, TimeUnit.SECONDS).blockingGet();
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("POST value hello", response.getContent());
+    }
+
+    @Test
+    public void sendStreamingStreamsResponseBody() {
+        JdkHttpClient client = new JdkHttpClient();
+        HttpRequest request = new HttpRequest();
+        request.setUrl(baseUrl + "/stream");
+        request.setMethod("GET");
+
+        StreamingHttpResponse response = client.sendStreaming(request).timeout(5, TimeUnit.SECONDS).blockingGet();
+        List<String> chunks = response.getContent().toList().timeout(5, TimeUnit.SECONDS).blockingGet();
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals("data: first\n\ndata: second\n\n", String.join("", chunks));
+    }
+
+    @Test
+    public void defaultClientsHaveSeparateCookies() {
+        JdkHttpClient first = new JdkHttpClient();
+        JdkHttpClient second = new JdkHttpClient();
+
+        assertNotSame(first.getClient().cookieHandler().get(), second.getClient().cookieHandler().get());
+        assertSame(first.getClient().executor().get(), second.getClient().executor().get());
+    }
+
+    @Test
+    public void hubConnectionCanBeBuiltWithoutOkHttp() {
+        assertThrows(ClassNotFoundException.class, () -> Class.forName("okhttp3.OkHttpClient"));
+
+        HubConnection hubConnection = JdkHubConnectionBuilder.create(baseUrl + "/hub").build();
+
+        assertEquals(HubConnectionState.DISCONNECTED, hubConnection.getConnectionState());
+    }
+}
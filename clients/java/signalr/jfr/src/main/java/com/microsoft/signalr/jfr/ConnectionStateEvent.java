@@ -0,0 +1,21 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.microsoft.signalr.ConnectionState")
+@Label("Hub Connection State")
+@Category({ "SignalR", "Connections" })
+@Description("A hub connection started connecting, connected, failed to connect or closed")
+class ConnectionStateEvent extends HubConnectionEvent {
+    @Label("State")
+    String state;
+
+    @Label("Error")
+    String error;
+}
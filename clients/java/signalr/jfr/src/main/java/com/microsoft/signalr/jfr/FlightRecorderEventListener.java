@@ -0,0 +1,48 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import com.microsoft.signalr.HubConnection;
+import com.microsoft.signalr.HubConnectionEventListener;
+
+/**
+ * Commits a Flight Recorder event whenever the state of the connection changes.
+ */
+class FlightRecorderEventListener implements HubConnectionEventListener {
+    private final String connection;
+
+    FlightRecorderEventListener(String connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public void connectStart(HubConnection hubConnection) {
+        commitState("Connecting", null);
+    }
+
+    @Override
+    public void connectEnd(HubConnection hubConnection) {
+        commitState("Connected", null);
+    }
+
+    @Override
+    public void connectFailed(HubConnection hubConnection, Throwable error) {
+        commitState("Disconnected", error.getMessage());
+    }
+
+    @Override
+    public void connectionClosed(HubConnection hubConnection, String error, long connectedDuration) {
+        commitState("Disconnected", error);
+    }
+
+    private void commitState(String state, String error) {
+        ConnectionStateEvent event = new ConnectionStateEvent();
+        if (event.isEnabled()) {
+            event.connection = connection;
+            event.state = state;
+            event.error = error;
+            event.commit();
+        }
+    }
+}
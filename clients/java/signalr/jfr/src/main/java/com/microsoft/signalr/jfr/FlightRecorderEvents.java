@@ -0,0 +1,33 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import com.microsoft.signalr.HttpHubConnectionBuilder;
+
+/**
+ * Records the activity of a {@link com.microsoft.signalr.HubConnection} as Java Flight Recorder events, to line it up
+ * with GC pauses and thread stalls in a recording. The events are in the SignalR category: messages sent and received,
+ * payload parse times, handler dispatch, invocation start and completion, and connection state changes.
+ *
+ * <p>Like the JDK's own events, they cost next to nothing while no recording has them enabled. Because there is one
+ * per message, the MessageSent, MessageReceived, PayloadReceived and HandlerDispatch events are disabled by default,
+ * enable them in the recording settings or with {@code recording.enable("com.microsoft.signalr.MessageSent")}.</p>
+ */
+public final class FlightRecorderEvents {
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * Adds metrics and an event listener that commit Flight Recorder events to the builder. Metrics and event
+     * listeners added to the builder before or after are still called.
+     *
+     * @param builder The builder of the {@link com.microsoft.signalr.HubConnection} to record.
+     * @param connectionName The name that the events of this connection carry, for example its hub URL.
+     * @return The builder.
+     */
+    public static HttpHubConnectionBuilder record(HttpHubConnectionBuilder builder, String connectionName) {
+        return builder.withMetrics(new FlightRecorderMetrics(connectionName))
+            .withEventListener(new FlightRecorderEventListener(connectionName));
+    }
+}
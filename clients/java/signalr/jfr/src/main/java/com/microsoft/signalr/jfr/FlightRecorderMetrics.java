@@ -0,0 +1,90 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import com.microsoft.signalr.HubConnectionMetrics;
+import com.microsoft.signalr.HubMessageType;
+
+/**
+ * Commits a Flight Recorder event for each measurement. Events are only created and filled in when they are enabled
+ * in a running recording.
+ */
+class FlightRecorderMetrics implements HubConnectionMetrics {
+    private final String connection;
+
+    FlightRecorderMetrics(String connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public void messageSent(HubMessageType type, String target, int length) {
+        MessageSentEvent event = new MessageSentEvent();
+        if (event.isEnabled()) {
+            event.connection = connection;
+            event.type = type.name();
+            event.target = target;
+            event.length = length;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void payloadReceived(int length, int messageCount, long parseDuration) {
+        PayloadReceivedEvent event = new PayloadReceivedEvent();
+        if (event.isEnabled()) {
+            event.connection = connection;
+            event.length = length;
+            event.messageCount = messageCount;
+            event.parseDuration = parseDuration;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void messageReceived(HubMessageType type, String target, int pendingDispatch) {
+        MessageReceivedEvent event = new MessageReceivedEvent();
+        if (event.isEnabled()) {
+            event.connection = connection;
+            event.type = type.name();
+            event.target = target;
+            event.pendingDispatch = pendingDispatch;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void handlersInvoked(String target, long duration) {
+        HandlerDispatchEvent event = new HandlerDispatchEvent();
+        if (event.isEnabled()) {
+            event.connection = connection;
+            event.target = target;
+            event.handlerDuration = duration;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void invocationStarted(String target, int pendingInvocations) {
+        InvocationStartEvent event = new InvocationStartEvent();
+        if (event.isEnabled()) {
+            event.connection = connection;
+            event.target = target;
+            event.pendingInvocations = pendingInvocations;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void invocationCompleted(String target, long duration, boolean succeeded, int pendingInvocations) {
+        InvocationCompletionEvent event = new InvocationCompletionEvent();
+        if (event.isEnabled()) {
+            event.connection = connection;
+            event.target = target;
+            event.invocationDuration = duration;
+            event.succeeded = succeeded;
+            event.pendingInvocations = pendingInvocations;
+            event.commit();
+        }
+    }
+}
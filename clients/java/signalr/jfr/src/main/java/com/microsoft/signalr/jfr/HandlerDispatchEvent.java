@@ -0,0 +1,25 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.microsoft.signalr.HandlerDispatch")
+@Label("Handler Dispatch")
+@Category({ "SignalR", "Handlers" })
+@Description("The handlers registered for a client method ran")
+@Enabled(false)
+class HandlerDispatchEvent extends HubConnectionEvent {
+    @Label("Target")
+    String target;
+
+    @Label("Handler Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long handlerDuration;
+}
@@ -0,0 +1,15 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+// Stack traces would cost more than the events themselves, and the thread already tells where they come from.
+@StackTrace(false)
+abstract class HubConnectionEvent extends Event {
+    @Label("Connection")
+    String connection;
+}
@@ -0,0 +1,29 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.microsoft.signalr.InvocationCompletion")
+@Label("Invocation Completion")
+@Category({ "SignalR", "Invocations" })
+@Description("The server completed an invoke or a stream, or the client cancelled a stream")
+class InvocationCompletionEvent extends HubConnectionEvent {
+    @Label("Target")
+    String target;
+
+    @Label("Invocation Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long invocationDuration;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    @Label("Pending Invocations")
+    int pendingInvocations;
+}
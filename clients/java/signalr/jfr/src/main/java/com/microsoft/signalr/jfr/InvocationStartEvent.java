@@ -0,0 +1,21 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.microsoft.signalr.InvocationStart")
+@Label("Invocation Start")
+@Category({ "SignalR", "Invocations" })
+@Description("An invoke or a stream was sent to the server")
+class InvocationStartEvent extends HubConnectionEvent {
+    @Label("Target")
+    String target;
+
+    @Label("Pending Invocations")
+    int pendingInvocations;
+}
@@ -0,0 +1,28 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.microsoft.signalr.MessageReceived")
+@Label("Hub Message Received")
+@Category({ "SignalR", "Messages" })
+@Description("A hub message is about to be dispatched")
+@Enabled(false)
+class MessageReceivedEvent extends HubConnectionEvent {
+    @Label("Message Type")
+    String type;
+
+    @Label("Target")
+    @Description("The client method of an invocation")
+    String target;
+
+    @Label("Pending Dispatch")
+    @Description("The number of messages of the same payload still to be dispatched")
+    int pendingDispatch;
+}
@@ -0,0 +1,28 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.microsoft.signalr.MessageSent")
+@Label("Hub Message Sent")
+@Category({ "SignalR", "Messages" })
+@Description("A hub message was handed to the transport")
+@Enabled(false)
+class MessageSentEvent extends HubConnectionEvent {
+    @Label("Message Type")
+    String type;
+
+    @Label("Target")
+    @Description("The hub method of an invocation")
+    String target;
+
+    @Label("Length")
+    @Description("The length of the serialized message in characters")
+    int length;
+}
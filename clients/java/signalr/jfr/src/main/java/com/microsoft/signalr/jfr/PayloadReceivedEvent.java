@@ -0,0 +1,30 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.microsoft.signalr.PayloadReceived")
+@Label("Hub Payload Received")
+@Category({ "SignalR", "Messages" })
+@Description("The transport received a payload of one or more hub messages, which was parsed")
+@Enabled(false)
+class PayloadReceivedEvent extends HubConnectionEvent {
+    @Label("Length")
+    @Description("The length of the payload in characters")
+    int length;
+
+    @Label("Message Count")
+    int messageCount;
+
+    @Label("Parse Duration")
+    @Description("The time it took to parse the payload and bind its arguments and results")
+    @Timespan(Timespan.NANOSECONDS)
+    long parseDuration;
+}
@@ -0,0 +1,160 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.microsoft.signalr.HubConnection;
+import com.microsoft.signalr.HubConnectionBuilder;
+import com.microsoft.signalr.HubConnectionMetrics;
+import com.microsoft.signalr.StandInHubServer;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecorderEventsTest {
+    private StandInHubServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new StandInHubServer().start();
+    }
+
+    @AfterEach
+    public void stopServer() throws IOException {
+        server.close();
+    }
+
+    private List<RecordedEvent> record(Runnable action) throws IOException {
+        Path file = Files.createTempFile("signalr", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("MessageSent", "MessageReceived", "PayloadReceived", "HandlerDispatch")) {
+                recording.enable("com.microsoft.signalr." + name);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        // Each thread buffers its own events, so the recording isn't in order.
+        return events.stream()
+            .filter(event -> event.getEventType().getName().equals("com.microsoft.signalr." + name))
+            .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    public void invocationsAndMessagesAreRecorded() throws IOException {
+        HubConnection hubConnection = FlightRecorderEvents.record(HubConnectionBuilder.create(server.getUrl()), "echo").build();
+
+        List<RecordedEvent> events = record(() -> {
+            hubConnection.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+            hubConnection.invoke(String.class, "Echo", "hello").timeout(5, TimeUnit.SECONDS).blockingGet();
+            hubConnection.stop().timeout(5, TimeUnit.SECONDS).blockingAwait();
+        });
+
+        List<RecordedEvent> sent = ofType(events, "MessageSent");
+        assertTrue(sent.stream().anyMatch(event -> "Echo".equals(event.getString("target"))
+                && event.getString("type").equals("INVOCATION")));
+        assertEquals("echo", sent.get(0).getString("connection"));
+
+        RecordedEvent start = ofType(events, "InvocationStart").get(0);
+        assertEquals("Echo", start.getString("target"));
+        assertEquals(1, start.getInt("pendingInvocations"));
+
+        RecordedEvent completion = ofType(events, "InvocationCompletion").get(0);
+        assertEquals("Echo", completion.getString("target"));
+        assertTrue(completion.getBoolean("succeeded"));
+        assertTrue(completion.getDuration("invocationDuration").toNanos() > 0);
+
+        assertFalse(ofType(events, "PayloadReceived").isEmpty());
+        assertTrue(ofType(events, "MessageReceived").stream().anyMatch(event -> event.getString("type").equals("COMPLETION")));
+
+        List<String> states = ofType(events, "ConnectionState").stream()
+            .map(event -> event.getString("state"))
+            .collect(Collectors.toList());
+        assertEquals(List.of("Connecting", "Connected", "Disconnected"), states);
+    }
+
+    @Test
+    public void metricsSetOnTheBuilderAreStillCalled() throws IOException {
+        AtomicInteger started = new AtomicInteger();
+        HubConnectionMetrics metrics = new HubConnectionMetrics() {
+            @Override
+            public void invocationStarted(String target, int pendingInvocations) {
+                started.incrementAndGet();
+            }
+        };
+        HubConnection hubConnection = FlightRecorderEvents.record(HubConnectionBuilder.create(server.getUrl())
+            .withMetrics(metrics), "echo").build();
+
+        List<RecordedEvent> events = record(() -> {
+            hubConnection.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+            hubConnection.invoke(String.class, "Echo", "hello").timeout(5, TimeUnit.SECONDS).blockingGet();
+            hubConnection.stop().timeout(5, TimeUnit.SECONDS).blockingAwait();
+        });
+
+        assertEquals(1, started.get());
+        assertEquals(1, ofType(events, "InvocationStart").size());
+    }
+
+    @Test
+    public void handlerDispatchIsRecorded() throws IOException {
+        HubConnection hubConnection = FlightRecorderEvents.record(HubConnectionBuilder.create(server.getUrl()), "echo").build();
+        hubConnection.on("send", time -> { }, String.class);
+
+        List<RecordedEvent> events = record(() -> {
+            hubConnection.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+            hubConnection.send("EchoAll", "now");
+            // Echo is answered after EchoAll's broadcast, so the handler has run by the time it returns.
+            hubConnection.invoke(String.class, "Echo", "").timeout(5, TimeUnit.SECONDS).blockingGet();
+            hubConnection.stop().timeout(5, TimeUnit.SECONDS).blockingAwait();
+        });
+
+        RecordedEvent dispatch = ofType(events, "HandlerDispatch").get(0);
+        assertEquals("send", dispatch.getString("target"));
+    }
+
+    @Test
+    public void messageEventsAreDisabledByDefault() throws IOException {
+        HubConnection hubConnection = FlightRecorderEvents.record(HubConnectionBuilder.create(server.getUrl()), "echo").build();
+        Path file = Files.createTempFile("signalr", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.start();
+            hubConnection.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+            hubConnection.invoke(String.class, "Echo", "hello").timeout(5, TimeUnit.SECONDS).blockingGet();
+            hubConnection.stop().timeout(5, TimeUnit.SECONDS).blockingAwait();
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertTrue(ofType(events, "MessageSent").isEmpty());
+            assertTrue(ofType(events, "MessageReceived").isEmpty());
+            assertEquals(1, ofType(events, "InvocationCompletion").size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jmx;
+
+import com.microsoft.signalr.HttpHubConnectionBuilder;
+
+/**
+ * Makes a {@link com.microsoft.signalr.HubConnection} visible over JMX. While it is connected, a
+ * {@link HubConnectionMXBean} named {@code com.microsoft.signalr:type=HubConnection,id=<n>,name=<name>} is registered
+ * with the platform MBean server, along with {@code com.microsoft.signalr:type=HubConnections}, a
+ * {@link HubConnectionsMXBean} that sums up every such connection in the process.
+ *
+ * <p>The beans count through the metrics and event listener hooks of the builder, so the connection only pays for them
+ * when they are used.</p>
+ */
+public final class HubConnectionMBeans {
+    private HubConnectionMBeans() {
+    }
+
+    /**
+     * Adds the metrics and event listener that keep the MBean of the connection up to date to the builder. Metrics and
+     * event listeners added to the builder before or after are still called. Use a builder per connection, the bean
+     * counts everything the connections built by the builder send and receive.
+     *
+     * @param builder The builder of the {@link com.microsoft.signalr.HubConnection} to register.
+     * @param connectionName The name of the MBean, for example the hub URL.
+     * @return The builder.
+     */
+    public static HttpHubConnectionBuilder register(HttpHubConnectionBuilder builder, String connectionName) {
+        HubConnectionStatistics statistics = new HubConnectionStatistics(connectionName);
+        return builder.withMetrics(statistics).withEventListener(statistics.getEventListener());
+    }
+}
@@ -0,0 +1,40 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jmx;
+
+/**
+ * The JMX view of a {@link com.microsoft.signalr.HubConnection}, registered by {@link HubConnectionMBeans} while the
+ * connection is connected. Sizes are in characters of the serialized messages.
+ */
+public interface HubConnectionMXBean {
+    /**
+     * @return The name passed to {@link HubConnectionMBeans#register}.
+     */
+    String getName();
+
+    String getState();
+
+    /**
+     * @return How long the connection has been connected, in milliseconds, or 0 if it isn't.
+     */
+    long getUptime();
+
+    /**
+     * @return The number of invocations waiting for the server, as of the last invocation that started or completed.
+     */
+    int getPendingInvocations();
+
+    long getMessagesSent();
+
+    long getMessagesReceived();
+
+    long getBytesSent();
+
+    long getBytesReceived();
+
+    /**
+     * @return The time since the last message from the server, in milliseconds, or -1 if the connection isn't connected.
+     */
+    long getLastMessageAge();
+}
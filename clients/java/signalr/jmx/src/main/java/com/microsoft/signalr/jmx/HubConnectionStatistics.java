@@ -0,0 +1,259 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.microsoft.signalr.HubConnection;
+import com.microsoft.signalr.HubConnectionEventListener;
+import com.microsoft.signalr.HubConnectionMetrics;
+import com.microsoft.signalr.HubConnectionState;
+import com.microsoft.signalr.HubMessageType;
+
+/**
+ * Counts the traffic of a {@link HubConnection} for its {@link HubConnectionMXBean}, and registers the bean while the
+ * connection is connected.
+ */
+class HubConnectionStatistics implements HubConnectionMXBean, HubConnectionMetrics {
+    private static final String DOMAIN = "com.microsoft.signalr";
+    private static final AtomicLong nextId = new AtomicLong();
+    private static final Set<HubConnectionStatistics> registered = ConcurrentHashMap.newKeySet();
+
+    private final String connectionName;
+    private final ObjectName name;
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private volatile HubConnection connection;
+    private volatile int pendingInvocations;
+    private volatile long connectedTime;
+    private volatile long lastMessageTime;
+
+    private static final Logger logger = LoggerFactory.getLogger(HubConnectionStatistics.class);
+
+    HubConnectionStatistics(String connectionName) {
+        this.connectionName = connectionName;
+        try {
+            this.name = new ObjectName(String.format("%s:type=HubConnection,id=%d,name=%s", DOMAIN,
+                    nextId.incrementAndGet(), ObjectName.quote(connectionName)));
+        } catch (JMException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    HubConnectionEventListener getEventListener() {
+        return new HubConnectionEventListener() {
+            @Override
+            public void connectEnd(HubConnection connection) {
+                HubConnectionStatistics.this.connection = connection;
+                connectedTime = System.nanoTime();
+                lastMessageTime = connectedTime;
+                pendingInvocations = 0;
+                register();
+            }
+
+            @Override
+            public void connectionClosed(HubConnection connection, String error, long connectedDuration) {
+                unregister();
+            }
+        };
+    }
+
+    private void register() {
+        if (!registered.add(this)) {
+            return;
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            AggregateStatistics.register(server);
+            server.registerMBean(this, name);
+        } catch (JMException ex) {
+            registered.remove(this);
+            logger.warn("Failed to register the MBean {}: {}.", name, ex.getMessage());
+        }
+    }
+
+    private void unregister() {
+        if (!registered.remove(this)) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException ex) {
+            logger.warn("Failed to unregister the MBean {}: {}.", name, ex.getMessage());
+        }
+    }
+
+    private boolean isConnected() {
+        HubConnection current = connection;
+        return current != null && current.getConnectionState() == HubConnectionState.CONNECTED;
+    }
+
+    @Override
+    public String getName() {
+        return connectionName;
+    }
+
+    @Override
+    public String getState() {
+        HubConnection current = connection;
+        return current != null ? current.getConnectionState().name() : HubConnectionState.DISCONNECTED.name();
+    }
+
+    @Override
+    public long getUptime() {
+        if (!isConnected()) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectedTime);
+    }
+
+    @Override
+    public int getPendingInvocations() {
+        return isConnected() ? pendingInvocations : 0;
+    }
+
+    @Override
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    @Override
+    public long getMessagesReceived() {
+        return messagesReceived.sum();
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    @Override
+    public long getLastMessageAge() {
+        if (!isConnected()) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastMessageTime);
+    }
+
+    @Override
+    public void messageSent(HubMessageType type, String target, int length) {
+        messagesSent.increment();
+        bytesSent.add(length);
+        AggregateStatistics.messagesSent.increment();
+        AggregateStatistics.bytesSent.add(length);
+    }
+
+    @Override
+    public void payloadReceived(int length, int messageCount, long parseDuration) {
+        lastMessageTime = System.nanoTime();
+        messagesReceived.add(messageCount);
+        bytesReceived.add(length);
+        AggregateStatistics.messagesReceived.add(messageCount);
+        AggregateStatistics.bytesReceived.add(length);
+    }
+
+    @Override
+    public void invocationStarted(String target, int pendingInvocations) {
+        this.pendingInvocations = pendingInvocations;
+    }
+
+    @Override
+    public void invocationCompleted(String target, long duration, boolean succeeded, int pendingInvocations) {
+        this.pendingInvocations = pendingInvocations;
+    }
+
+    /**
+     * Sums up every registered connection when it is read, so connections don't pay for it. Messages and sizes are
+     * running totals, so they don't drop when a connection closes.
+     */
+    static final class AggregateStatistics implements HubConnectionsMXBean {
+        private static final AtomicInteger registration = new AtomicInteger();
+        private static final LongAdder messagesSent = new LongAdder();
+        private static final LongAdder messagesReceived = new LongAdder();
+        private static final LongAdder bytesSent = new LongAdder();
+        private static final LongAdder bytesReceived = new LongAdder();
+
+        static void register(MBeanServer server) throws JMException {
+            if (registration.compareAndSet(0, 1)) {
+                server.registerMBean(new AggregateStatistics(), new ObjectName(DOMAIN + ":type=HubConnections"));
+            }
+        }
+
+        @Override
+        public int getConnectionCount() {
+            return registered.size();
+        }
+
+        @Override
+        public int getConnectedCount() {
+            int count = 0;
+            for (HubConnectionStatistics statistics : registered) {
+                if (statistics.isConnected()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public int getPendingInvocations() {
+            int count = 0;
+            for (HubConnectionStatistics statistics : registered) {
+                count += statistics.getPendingInvocations();
+            }
+            return count;
+        }
+
+        @Override
+        public long getMessagesSent() {
+            return messagesSent.sum();
+        }
+
+        @Override
+        public long getMessagesReceived() {
+            return messagesReceived.sum();
+        }
+
+        @Override
+        public long getBytesSent() {
+            return bytesSent.sum();
+        }
+
+        @Override
+        public long getBytesReceived() {
+            return bytesReceived.sum();
+        }
+
+        @Override
+        public long getMaxLastMessageAge() {
+            long max = -1;
+            for (HubConnectionStatistics statistics : registered) {
+                max = Math.max(max, statistics.getLastMessageAge());
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jmx;
+
+/**
+ * The JMX view of all the {@link com.microsoft.signalr.HubConnection}s in the process that were registered with
+ * {@link HubConnectionMBeans}. The message and size totals include the connections that have since closed.
+ */
+public interface HubConnectionsMXBean {
+    /**
+     * @return The number of connections that currently have a {@link HubConnectionMXBean} registered.
+     */
+    int getConnectionCount();
+
+    int getConnectedCount();
+
+    int getPendingInvocations();
+
+    long getMessagesSent();
+
+    long getMessagesReceived();
+
+    long getBytesSent();
+
+    long getBytesReceived();
+
+    /**
+     * @return The longest time any connected connection has gone without a message from the server, in milliseconds,
+     * or -1 if none is connected. A value close to the server timeout points at a stuck connection.
+     */
+    long getMaxLastMessageAge();
+}
@@ -0,0 +1,130 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.jmx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.microsoft.signalr.HubConnection;
+import com.microsoft.signalr.HubConnectionBuilder;
+import com.microsoft.signalr.HubConnectionMetrics;
+import com.microsoft.signalr.StandInHubServer;
+
+class HubConnectionMBeansTest {
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private StandInHubServer hubServer;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        hubServer = new StandInHubServer().start();
+    }
+
+    @AfterEach
+    public void stopServer() throws IOException {
+        hubServer.close();
+    }
+
+    /**
+     * The keep alive timer sends a ping as soon as the connection starts. The connection waits for it, so it isn't
+     * counted by the tests, and the keep alive interval is long enough that no other ping follows.
+     */
+    private HubConnection startHubConnection(String connectionName) throws InterruptedException {
+        CountDownLatch pingSent = new CountDownLatch(1);
+        HubConnection hubConnection = HubConnectionMBeans.register(HubConnectionBuilder.create(hubServer.getUrl()), connectionName)
+                .withMetrics(new HubConnectionMetrics() {
+                    @Override
+                    public void pingSent() {
+                        pingSent.countDown();
+                    }
+                })
+                .build();
+        hubConnection.setKeepAliveInterval(TimeUnit.MINUTES.toMillis(10));
+        hubConnection.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+        assertTrue(pingSent.await(5, TimeUnit.SECONDS));
+        return hubConnection;
+    }
+
+    private static void stop(HubConnection hubConnection) throws InterruptedException {
+        // The bean is unregistered before the closed callbacks run.
+        CountDownLatch closed = new CountDownLatch(1);
+        hubConnection.onClosed(error -> closed.countDown());
+        hubConnection.stop().timeout(5, TimeUnit.SECONDS).blockingAwait();
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+    }
+
+    private Set<ObjectName> find(String connectionName) throws JMException {
+        return server.queryNames(new ObjectName("com.microsoft.signalr:type=HubConnection,name="
+                + ObjectName.quote(connectionName) + ",*"), null);
+    }
+
+    @Test
+    public void mbeanIsOnlyRegisteredWhileConnected() throws Exception {
+        assertTrue(find("registered").isEmpty());
+
+        HubConnection hubConnection = startHubConnection("registered");
+        Set<ObjectName> names = find("registered");
+        assertEquals(1, names.size());
+        ObjectName name = names.iterator().next();
+        assertEquals("CONNECTED", server.getAttribute(name, "State"));
+        assertEquals("registered", server.getAttribute(name, "Name"));
+
+        stop(hubConnection);
+        assertTrue(find("registered").isEmpty());
+    }
+
+    @Test
+    public void mbeanCountsMessagesAndInvocations() throws Exception {
+        HubConnection hubConnection = startHubConnection("counted");
+        ObjectName name = find("counted").iterator().next();
+        long sent = (long) server.getAttribute(name, "MessagesSent");
+        long bytesSent = (long) server.getAttribute(name, "BytesSent");
+
+        hubConnection.invoke(String.class, "Echo", "hello").timeout(5, TimeUnit.SECONDS).blockingGet();
+
+        assertEquals(sent + 1, server.getAttribute(name, "MessagesSent"));
+        assertTrue((long) server.getAttribute(name, "BytesSent") > bytesSent);
+        assertEquals(1L, server.getAttribute(name, "MessagesReceived"));
+        assertTrue((long) server.getAttribute(name, "BytesReceived") > 0);
+        assertEquals(0, server.getAttribute(name, "PendingInvocations"));
+        assertTrue((long) server.getAttribute(name, "LastMessageAge") >= 0);
+        assertTrue((long) server.getAttribute(name, "Uptime") >= 0);
+
+        stop(hubConnection);
+    }
+
+    @Test
+    public void aggregateMBeanKeepsTheTotalsOfClosedConnections() throws Exception {
+        HubConnection first = startHubConnection("first");
+        HubConnection second = startHubConnection("second");
+        ObjectName aggregate = new ObjectName("com.microsoft.signalr:type=HubConnections");
+        first.invoke(String.class, "Echo", "hello").timeout(5, TimeUnit.SECONDS).blockingGet();
+        second.invoke(String.class, "Echo", "hello").timeout(5, TimeUnit.SECONDS).blockingGet();
+
+        int connections = (int) server.getAttribute(aggregate, "ConnectionCount");
+        long sent = (long) server.getAttribute(aggregate, "MessagesSent");
+        long received = (long) server.getAttribute(aggregate, "MessagesReceived");
+        assertTrue(connections >= 2);
+        assertTrue((int) server.getAttribute(aggregate, "ConnectedCount") >= 2);
+
+        stop(first);
+        assertEquals(connections - 1, server.getAttribute(aggregate, "ConnectionCount"));
+        assertEquals(sent, server.getAttribute(aggregate, "MessagesSent"));
+        assertEquals(received, server.getAttribute(aggregate, "MessagesReceived"));
+
+        stop(second);
+    }
+}
@@ -0,0 +1,239 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.processor;
+
+import static com.microsoft.signalr.processor.ProcessorSupport.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a HubClientBinder for every class with HubMethodName methods, which HubConnection.register finds by its
+ * name. Each method gets a HubMethodBinder that reads the arguments straight into the parameter types, with the
+ * matching HubArgumentReader method, and calls the method without reflection. Generic parameter types are read through
+ * a TypeReference created once per binder.
+ */
+@SupportedAnnotationTypes(HubBinderProcessor.HUB_METHOD_NAME)
+public final class HubBinderProcessor extends AbstractProcessor {
+    static final String HUB_METHOD_NAME = "com.microsoft.signalr.HubMethodName";
+    private static final String SUFFIX = "_HubBinder";
+
+    private final ReflectConfig reflectConfig = new ReflectConfig("signalr-hub-binders");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            reflectConfig.write(processingEnv);
+            return false;
+        }
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(HUB_METHOD_NAME);
+        if (annotation == null) {
+            return false;
+        }
+
+        Map<TypeElement, List<ExecutableElement>> methodsByType = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            TypeElement type = (TypeElement) element.getEnclosingElement();
+            if (isAnnotated(type, HubProxyProcessor.HUB_PROXY)) {
+                // The methods of hub proxies are named after the server's methods, and HubProxyProcessor implements them.
+                continue;
+            }
+            methodsByType.computeIfAbsent(type, key -> new ArrayList<>()).add((ExecutableElement) element);
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : methodsByType.entrySet()) {
+            if (validate(entry.getKey(), entry.getValue(), annotation)) {
+                generate(entry.getKey(), entry.getValue(), annotation);
+            }
+        }
+        return true;
+    }
+
+    private boolean validate(TypeElement type, List<ExecutableElement> methods, TypeElement annotation) {
+        boolean valid = true;
+        for (Element enclosing = type; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                error(type, "Classes with @HubMethodName methods can't be private.");
+                valid = false;
+            }
+        }
+
+        Map<String, ExecutableElement> names = new HashMap<>();
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                error(method, "@HubMethodName methods can't be private or static.");
+                valid = false;
+            }
+            if (method.getReturnType().getKind() != TypeKind.VOID) {
+                error(method, "@HubMethodName methods must return void.");
+                valid = false;
+            }
+            if (!method.getTypeParameters().isEmpty()) {
+                error(method, "@HubMethodName methods can't be generic.");
+                valid = false;
+            }
+            for (VariableElement parameter : method.getParameters()) {
+                if (hasTypeVariable(parameter.asType())) {
+                    error(parameter, "The type of a @HubMethodName method parameter can't have type variables.");
+                    valid = false;
+                }
+            }
+
+            String name = getHubMethodName(method, annotation);
+            ExecutableElement existing = names.put(name, method);
+            if (existing != null) {
+                error(method, String.format("The hub method '%s' is already handled by %s.", name, existing.getSimpleName()));
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    private void generate(TypeElement type, List<ExecutableElement> methods, TypeElement annotation) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binderName = getGeneratedName(processingEnv.getElementUtils(), type, SUFFIX);
+        String clientName = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+
+        StringBuilder source = new StringBuilder();
+        appendHeader(source, type, packageName);
+        source.append("public final class ").append(binderName).append(" implements ").append(SIGNALR).append("HubClientBinder<")
+                .append(clientName).append("> {\n");
+
+        for (int i = 0; i < methods.size(); i++) {
+            appendMethodBinder(source, i, methods.get(i), clientName);
+        }
+
+        source.append("    @Override\n");
+        source.append("    public java.util.List<").append(SIGNALR).append("Subscription> bind(").append(SIGNALR)
+                .append("HubConnection connection, ").append(clientName).append(" client) {\n");
+        source.append("        java.util.List<").append(SIGNALR).append("Subscription> subscriptions = new java.util.ArrayList<>();\n");
+        for (int i = 0; i < methods.size(); i++) {
+            source.append("        subscriptions.add(connection.on(\"").append(escape(getHubMethodName(methods.get(i), annotation)))
+                    .append("\", METHOD").append(i).append(", client));\n");
+        }
+        source.append("        return subscriptions;\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        write(processingEnv, type, packageName, binderName, source);
+        reflectConfig.add(packageName, binderName, type);
+    }
+
+    private void appendMethodBinder(StringBuilder source, int index, ExecutableElement method, String clientName) {
+        List<? extends VariableElement> parameters = method.getParameters();
+        String methodBinder = "METHOD" + index;
+        String argumentsClass = "Method" + index + "Arguments";
+        // A single object is passed as it is, anything else is read into a class of its own so it isn't boxed.
+        boolean holder = parameters.size() > 1 || parameters.size() == 1 && parameters.get(0).asType().getKind().isPrimitive();
+
+        for (int i = 0; i < parameters.size(); i++) {
+            TypeMirror type = parameters.get(i).asType();
+            if (isGeneric(type)) {
+                source.append("    private static final java.lang.reflect.Type ").append(methodBinder).append("_TYPE").append(i)
+                        .append(" = new ").append(SIGNALR).append("TypeReference<").append(type).append(">() { }.getType();\n");
+            }
+        }
+
+        source.append("    private static final ").append(SIGNALR).append("HubMethodBinder<").append(clientName).append("> ")
+                .append(methodBinder).append(" = new ").append(SIGNALR).append("HubMethodBinder<").append(clientName).append(">() {\n");
+        source.append("        @Override\n");
+        source.append("        public int getParameterCount() {\n");
+        source.append("            return ").append(parameters.size()).append(";\n");
+        source.append("        }\n\n");
+
+        source.append("        @Override\n");
+        source.append("        public Object readArguments(").append(SIGNALR).append("HubArgumentReader reader) throws java.io.IOException {\n");
+        if (parameters.isEmpty()) {
+            source.append("            return null;\n");
+        } else if (!holder) {
+            source.append("            return ").append(readExpression(parameters.get(0).asType(), methodBinder + "_TYPE0")).append(";\n");
+        } else {
+            source.append("            ").append(argumentsClass).append(" arguments = new ").append(argumentsClass).append("();\n");
+            for (int i = 0; i < parameters.size(); i++) {
+                source.append("            arguments.p").append(i).append(" = ")
+                        .append(readExpression(parameters.get(i).asType(), methodBinder + "_TYPE" + i)).append(";\n");
+            }
+            source.append("            return arguments;\n");
+        }
+        source.append("        }\n\n");
+
+        source.append("        @Override\n");
+        if (!holder && !parameters.isEmpty() && isGeneric(parameters.get(0).asType())) {
+            source.append("        @SuppressWarnings(\"unchecked\")\n");
+        }
+        source.append("        public void invoke(").append(clientName).append(" client, Object arguments) {\n");
+        StringBuilder call = new StringBuilder();
+        if (holder) {
+            source.append("            ").append(argumentsClass).append(" a = (").append(argumentsClass).append(") arguments;\n");
+            for (int i = 0; i < parameters.size(); i++) {
+                call.append(i > 0 ? ", " : "").append("a.p").append(i);
+            }
+        } else if (!parameters.isEmpty()) {
+            call.append("(").append(parameters.get(0).asType()).append(") arguments");
+        }
+        source.append("            client.").append(method.getSimpleName()).append("(").append(call).append(");\n");
+        source.append("        }\n");
+        source.append("    };\n\n");
+
+        if (holder) {
+            source.append("    private static final class ").append(argumentsClass).append(" {\n");
+            for (int i = 0; i < parameters.size(); i++) {
+                source.append("        ").append(parameters.get(i).asType()).append(" p").append(i).append(";\n");
+            }
+            source.append("    }\n\n");
+        }
+    }
+
+    private static String readExpression(TypeMirror type, String typeConstant) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "reader.readBoolean()";
+            case INT:
+                return "reader.readInt()";
+            case LONG:
+                return "reader.readLong()";
+            case DOUBLE:
+                return "reader.readDouble()";
+            case DECLARED:
+                if (type.toString().equals("java.lang.String")) {
+                    return "reader.readString()";
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (isGeneric(type)) {
+            return "reader.read(" + typeConstant + ")";
+        }
+        // Other primitives are read boxed, and unboxed when they are assigned.
+        return "reader.read(" + type + ".class)";
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,335 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.processor;
+
+import static com.microsoft.signalr.processor.ProcessorSupport.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates an implementation of every HubProxy interface, which HubConnection.createProxy finds by its name. Each
+ * method writes its arguments with the HubArgumentWriter method that matches their parameter types, and reads its
+ * result with a HubResultReader created once per proxy, so that nothing is boxed into an array or looked up by
+ * reflection. Generic parameter and result types are written and read through a TypeReference created once per proxy.
+ */
+@SupportedAnnotationTypes(HubProxyProcessor.HUB_PROXY)
+public final class HubProxyProcessor extends AbstractProcessor {
+    static final String HUB_PROXY = "com.microsoft.signalr.HubProxy";
+    private static final String SUFFIX = "_HubProxy";
+
+    private final ReflectConfig reflectConfig = new ReflectConfig("signalr-hub-proxies", SIGNALR + "HubConnection");
+
+    private enum Call {
+        SEND,
+        INVOKE,
+        INVOKE_WITH_RESULT,
+        STREAM
+    }
+
+    private static final class ProxyMethod {
+        final ExecutableElement method;
+        final ExecutableType type;
+        final String name;
+        final Call call;
+
+        ProxyMethod(ExecutableElement method, ExecutableType type, String name, Call call) {
+            this.method = method;
+            this.type = type;
+            this.name = name;
+            this.call = call;
+        }
+
+        TypeMirror getResultType() {
+            return ((DeclaredType) type.getReturnType()).getTypeArguments().get(0);
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            reflectConfig.write(processingEnv);
+            return false;
+        }
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(HUB_PROXY);
+        if (annotation == null) {
+            return false;
+        }
+        TypeElement hubMethodName = processingEnv.getElementUtils().getTypeElement(HubBinderProcessor.HUB_METHOD_NAME);
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.INTERFACE) {
+                error(element, "@HubProxy can only be used on interfaces.");
+                continue;
+            }
+
+            TypeElement type = (TypeElement) element;
+            List<ProxyMethod> methods = new ArrayList<>();
+            if (validate(type, methods, hubMethodName)) {
+                generate(type, methods);
+            }
+        }
+        return true;
+    }
+
+    private boolean validate(TypeElement type, List<ProxyMethod> methods, TypeElement hubMethodName) {
+        boolean valid = true;
+        for (Element enclosing = type; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                error(type, "@HubProxy interfaces can't be private.");
+                valid = false;
+            }
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "@HubProxy interfaces can't be generic.");
+            valid = false;
+        }
+
+        Map<String, ExecutableElement> names = new HashMap<>();
+        DeclaredType declaredType = (DeclaredType) type.asType();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (!method.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+
+            // Methods inherited from generic interfaces get the types of this interface.
+            ExecutableType methodType = (ExecutableType) processingEnv.getTypeUtils().asMemberOf(declaredType, method);
+            if (!method.getTypeParameters().isEmpty()) {
+                error(method, "@HubProxy methods can't be generic.");
+                valid = false;
+            }
+            for (int i = 0; i < methodType.getParameterTypes().size(); i++) {
+                if (hasTypeVariable(methodType.getParameterTypes().get(i))) {
+                    error(method.getParameters().get(i), "The type of a @HubProxy method parameter can't have type variables.");
+                    valid = false;
+                }
+            }
+
+            Call call = getCall(method, methodType);
+            if (call == null) {
+                valid = false;
+                continue;
+            }
+
+            String name = getHubMethodName(method, hubMethodName);
+            ExecutableElement existing = names.put(name, method);
+            if (existing != null) {
+                error(method, String.format("The hub method '%s' is already declared by %s.", name, existing.getSimpleName()));
+                valid = false;
+            }
+            methods.add(new ProxyMethod(method, methodType, name, call));
+        }
+        return valid;
+    }
+
+    private Call getCall(ExecutableElement method, ExecutableType methodType) {
+        TypeMirror returnType = methodType.getReturnType();
+        if (returnType.getKind() == TypeKind.VOID) {
+            return Call.SEND;
+        }
+
+        if (returnType.getKind() == TypeKind.DECLARED) {
+            DeclaredType declaredType = (DeclaredType) returnType;
+            switch (processingEnv.getTypeUtils().erasure(returnType).toString()) {
+                case "io.reactivex.Completable":
+                    return Call.INVOKE;
+                case "io.reactivex.Single":
+                case "io.reactivex.Observable":
+                    if (declaredType.getTypeArguments().size() != 1) {
+                        break;
+                    }
+                    TypeMirror resultType = declaredType.getTypeArguments().get(0);
+                    if ((resultType.getKind() != TypeKind.DECLARED && resultType.getKind() != TypeKind.ARRAY) || hasTypeVariable(resultType)) {
+                        error(method, "The result type of a @HubProxy method can't be a wildcard or have type variables.");
+                        return null;
+                    }
+                    return declaredType.asElement().getSimpleName().contentEquals("Single") ? Call.INVOKE_WITH_RESULT : Call.STREAM;
+                default:
+                    break;
+            }
+        }
+
+        error(method, "@HubProxy methods must return void, Completable, Single or Observable.");
+        return null;
+    }
+
+    private void generate(TypeElement type, List<ProxyMethod> methods) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String proxyName = getGeneratedName(processingEnv.getElementUtils(), type, SUFFIX);
+
+        StringBuilder source = new StringBuilder();
+        appendHeader(source, type, packageName);
+        source.append("public final class ").append(proxyName).append(" implements ").append(type.getQualifiedName()).append(" {\n");
+
+        for (int i = 0; i < methods.size(); i++) {
+            appendConstants(source, i, methods.get(i));
+        }
+        source.append("    private final ").append(SIGNALR).append("HubConnection connection;\n\n");
+
+        source.append("    public ").append(proxyName).append("(").append(SIGNALR).append("HubConnection connection) {\n");
+        source.append("        this.connection = connection;\n");
+        source.append("    }\n");
+
+        for (int i = 0; i < methods.size(); i++) {
+            appendMethod(source, i, methods.get(i));
+        }
+        source.append("}\n");
+
+        write(processingEnv, type, packageName, proxyName, source);
+        reflectConfig.add(packageName, proxyName, type);
+    }
+
+    private static void appendConstants(StringBuilder source, int index, ProxyMethod proxyMethod) {
+        String method = "METHOD" + index;
+        source.append("    private static final ").append(SIGNALR).append("HubProxyMethod ").append(method).append(" = new ")
+                .append(SIGNALR).append("HubProxyMethod(\"").append(escape(proxyMethod.name)).append("\");\n");
+
+        List<? extends TypeMirror> parameterTypes = proxyMethod.type.getParameterTypes();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            if (isGeneric(parameterTypes.get(i))) {
+                appendTypeReference(source, method + "_TYPE" + i, parameterTypes.get(i));
+            }
+        }
+
+        if (proxyMethod.call == Call.INVOKE_WITH_RESULT || proxyMethod.call == Call.STREAM) {
+            TypeMirror resultType = proxyMethod.getResultType();
+            if (isGeneric(resultType)) {
+                appendTypeReference(source, method + "_RESULT_TYPE", resultType);
+            }
+            source.append("    private static final ").append(SIGNALR).append("HubResultReader<").append(resultType).append("> ")
+                    .append(method).append("_RESULT = reader -> ").append(readExpression(resultType, method + "_RESULT_TYPE"))
+                    .append(";\n");
+        }
+        source.append("\n");
+    }
+
+    private static void appendTypeReference(StringBuilder source, String name, TypeMirror type) {
+        source.append("    private static final java.lang.reflect.Type ").append(name).append(" = new ").append(SIGNALR)
+                .append("TypeReference<").append(type).append(">() { }.getType();\n");
+    }
+
+    private static void appendMethod(StringBuilder source, int index, ProxyMethod proxyMethod) {
+        String method = "METHOD" + index;
+        List<? extends TypeMirror> parameterTypes = proxyMethod.type.getParameterTypes();
+
+        source.append("\n");
+        source.append("    @Override\n");
+        source.append("    public ").append(proxyMethod.type.getReturnType()).append(" ").append(proxyMethod.method.getSimpleName()).append("(");
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            String parameterType = parameterTypes.get(i).toString();
+            if (proxyMethod.method.isVarArgs() && i == parameterTypes.size() - 1) {
+                parameterType = parameterType.substring(0, parameterType.length() - 2) + "...";
+            }
+            source.append(i > 0 ? ", " : "").append(parameterType).append(" p").append(i);
+        }
+        source.append(") {\n");
+
+        switch (proxyMethod.call) {
+            case SEND:
+                source.append("        connection.send(").append(method).append(", ");
+                break;
+            case INVOKE:
+                source.append("        return connection.invoke(").append(method).append(", ");
+                break;
+            case INVOKE_WITH_RESULT:
+                source.append("        return connection.invoke(").append(method).append(", ").append(method).append("_RESULT, ");
+                break;
+            case STREAM:
+                source.append("        return connection.stream(").append(method).append(", ").append(method).append("_RESULT, ");
+                break;
+            default:
+                break;
+        }
+        if (parameterTypes.isEmpty()) {
+            source.append("writer -> { });\n");
+        } else {
+            source.append("writer -> {\n");
+            for (int i = 0; i < parameterTypes.size(); i++) {
+                source.append("            ").append(writeExpression(parameterTypes.get(i), "p" + i, method + "_TYPE" + i)).append(";\n");
+            }
+            source.append("        });\n");
+        }
+        source.append("    }\n");
+    }
+
+    private static String writeExpression(TypeMirror type, String parameter, String typeConstant) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "writer.writeBoolean(" + parameter + ")";
+            case BYTE:
+            case SHORT:
+            case INT:
+                return "writer.writeInt(" + parameter + ")";
+            case LONG:
+                return "writer.writeLong(" + parameter + ")";
+            case FLOAT:
+            case DOUBLE:
+                return "writer.writeDouble(" + parameter + ")";
+            case CHAR:
+                return "writer.writeString(String.valueOf(" + parameter + "))";
+            case DECLARED:
+                if (type.toString().equals("java.lang.String")) {
+                    return "writer.writeString(" + parameter + ")";
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (isGeneric(type)) {
+            return "writer.write(" + parameter + ", " + typeConstant + ")";
+        }
+        return "writer.write(" + parameter + ")";
+    }
+
+    private static String readExpression(TypeMirror type, String typeConstant) {
+        switch (type.toString()) {
+            case "java.lang.String":
+                return "reader.readString()";
+            case "java.lang.Boolean":
+                return "reader.readBoolean()";
+            case "java.lang.Integer":
+                return "reader.readInt()";
+            case "java.lang.Long":
+                return "reader.readLong()";
+            case "java.lang.Double":
+                return "reader.readDouble()";
+            default:
+                break;
+        }
+
+        if (isGeneric(type)) {
+            return "reader.read(" + typeConstant + ")";
+        }
+        return "reader.read(" + type + ".class)";
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
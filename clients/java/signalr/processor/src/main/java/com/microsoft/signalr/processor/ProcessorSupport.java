@@ -0,0 +1,119 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+
+/**
+ * What the processors that generate hub binders and hub proxies have in common.
+ */
+final class ProcessorSupport {
+    static final String SIGNALR = "com.microsoft.signalr.";
+
+    private ProcessorSupport() {
+    }
+
+    /**
+     * @return The simple name of the class generated for a type, which is flattened for nested types so that the client
+     * can find it from the binary name of the type.
+     */
+    static String getGeneratedName(Elements elements, TypeElement type, String suffix) {
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(type).toString();
+        return (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_') + suffix;
+    }
+
+    static void appendHeader(StringBuilder source, TypeElement type, String packageName) {
+        source.append("// Generated by signalr-processor from ").append(type.getQualifiedName()).append(". Do not edit.\n");
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n");
+        }
+        source.append("\n");
+    }
+
+    static void write(ProcessingEnvironment processingEnv, TypeElement type, String packageName, String name, StringBuilder source) {
+        String qualifiedName = packageName.isEmpty() ? name : packageName + "." + name;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    String.format("Failed to write %s: %s", qualifiedName, ex.getMessage()), type);
+        }
+    }
+
+    static boolean isAnnotated(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isGeneric(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isGeneric(((ArrayType) type).getComponentType());
+        }
+        if (type.getKind() == TypeKind.DECLARED) {
+            DeclaredType declaredType = (DeclaredType) type;
+            return !declaredType.getTypeArguments().isEmpty() || isGeneric(declaredType.getEnclosingType());
+        }
+        return false;
+    }
+
+    static boolean hasTypeVariable(TypeMirror type) {
+        switch (type.getKind()) {
+            case TYPEVAR:
+                return true;
+            case ARRAY:
+                return hasTypeVariable(((ArrayType) type).getComponentType());
+            case DECLARED:
+                for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                    if (hasTypeVariable(argument)) {
+                        return true;
+                    }
+                }
+                return hasTypeVariable(((DeclaredType) type).getEnclosingType());
+            case WILDCARD:
+                WildcardType wildcard = (WildcardType) type;
+                return wildcard.getExtendsBound() != null && hasTypeVariable(wildcard.getExtendsBound())
+                        || wildcard.getSuperBound() != null && hasTypeVariable(wildcard.getSuperBound());
+            default:
+                return false;
+        }
+    }
+
+    static String getHubMethodName(ExecutableElement method, TypeElement annotation) {
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().asElement().equals(annotation)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet()) {
+                    if (value.getKey().getSimpleName().contentEquals("value")) {
+                        return (String) value.getValue().getValue();
+                    }
+                }
+            }
+        }
+        return method.getSimpleName().toString();
+    }
+
+    static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,99 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * The native-image reflection metadata of the generated classes, which the client loads by name. It is collected over
+ * every round and written once processing is over, next to the classes, so that applications built with native-image
+ * find the binders and proxies without configuring anything. It goes in a directory named after the package of the
+ * application's classes, so that the metadata of several libraries that use the processor don't overwrite each other
+ * when their jars are merged.
+ */
+final class ReflectConfig {
+    private final String name;
+    private final String constructorParameters;
+    private final List<String> classes = new ArrayList<>();
+    private String packageName;
+    private final List<Element> originatingElements = new ArrayList<>();
+
+    /**
+     * @param name The name of the directory of the metadata within the application's, which is unique to each processor.
+     * @param constructorParameterTypes The parameter types of the constructor the client calls.
+     */
+    ReflectConfig(String name, String... constructorParameterTypes) {
+        this.name = name;
+        StringBuilder parameters = new StringBuilder("[");
+        for (int i = 0; i < constructorParameterTypes.length; i++) {
+            parameters.append(i > 0 ? ", " : "").append('"').append(constructorParameterTypes[i]).append('"');
+        }
+        this.constructorParameters = parameters.append(']').toString();
+    }
+
+    void add(String packageName, String name, Element originatingElement) {
+        classes.add(packageName.isEmpty() ? name : packageName + "." + name);
+        originatingElements.add(originatingElement);
+        this.packageName = this.packageName == null ? packageName : commonPackage(this.packageName, packageName);
+    }
+
+    /**
+     * @return The innermost package that contains both packages, or an empty string if they have none in common.
+     */
+    static String commonPackage(String first, String second) {
+        String[] firstParts = first.split("\\.");
+        String[] secondParts = second.split("\\.");
+        StringBuilder common = new StringBuilder();
+        for (int i = 0; i < Math.min(firstParts.length, secondParts.length) && firstParts[i].equals(secondParts[i]); i++) {
+            common.append(i > 0 ? "." : "").append(firstParts[i]);
+        }
+        return common.toString();
+    }
+
+    /**
+     * @return The path of the metadata, in the directory of the package that holds all the generated classes.
+     */
+    String getPath() {
+        String directory = packageName == null || packageName.isEmpty() ? "unnamed" : packageName;
+        return "META-INF/native-image/" + directory + "/" + name + "/reflect-config.json";
+    }
+
+    void write(ProcessingEnvironment processingEnv) {
+        if (classes.isEmpty()) {
+            return;
+        }
+
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < classes.size(); i++) {
+            json.append("  {\n");
+            json.append("    \"name\": \"").append(classes.get(i)).append("\",\n");
+            json.append("    \"methods\": [{ \"name\": \"<init>\", \"parameterTypes\": ").append(constructorParameters).append(" }]\n");
+            json.append(i < classes.size() - 1 ? "  },\n" : "  }\n");
+        }
+        json.append("]\n");
+
+        String path = getPath();
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path,
+                    originatingElements.toArray(new Element[originatingElements.size()]));
+            try (Writer writer = resource.openWriter()) {
+                writer.write(json.toString());
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format("Failed to write %s: %s", path, ex.getMessage()));
+        }
+        classes.clear();
+        originatingElements.clear();
+        packageName = null;
+    }
+}
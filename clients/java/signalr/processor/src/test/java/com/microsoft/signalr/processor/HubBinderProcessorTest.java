@@ -0,0 +1,171 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.microsoft.signalr.HubConnection;
+import com.microsoft.signalr.HubConnectionBuilder;
+import com.microsoft.signalr.StandInHubServer;
+
+class HubBinderProcessorTest {
+    private TestCompiler compiler;
+
+    @BeforeEach
+    public void createCompiler() throws IOException {
+        compiler = new TestCompiler();
+    }
+
+    @AfterEach
+    public void deleteOutput() throws IOException {
+        compiler.close();
+    }
+
+    @Test
+    public void generatesABinderForEveryParameterType() throws IOException {
+        List<String> errors = compiler.compile("example.Client",
+                "package example;\n"
+                + "import com.microsoft.signalr.HubMethodName;\n"
+                + "import java.util.List;\n"
+                + "import java.util.Map;\n"
+                + "public class Client {\n"
+                + "    public static class Order { String id; }\n"
+                + "    @HubMethodName(\"none\") void none() { }\n"
+                + "    @HubMethodName(\"text\") void text(String text) { }\n"
+                + "    @HubMethodName(\"tick\") void tick(long time, double price) { }\n"
+                + "    @HubMethodName(\"count\") void count(int count) { }\n"
+                + "    @HubMethodName(\"flags\") protected void flags(boolean flag, short small, float ratio, byte[] bytes) { }\n"
+                + "    @HubMethodName(\"orders\") public void orders(List<Order> orders) { }\n"
+                + "    @HubMethodName(\"nested\") void nested(Order order, Map<String, List<? extends Order>>[] maps) { }\n"
+                + "}\n");
+
+        assertEquals(Collections.emptyList(), errors);
+        String binder = compiler.readSource("example/Client_HubBinder.java");
+        assertTrue(binder.contains("public final class Client_HubBinder implements com.microsoft.signalr.HubClientBinder<example.Client>"));
+        assertTrue(binder.contains("arguments.p0 = reader.readLong();"));
+        assertTrue(binder.contains("arguments.p1 = reader.readDouble();"));
+        assertTrue(binder.contains("new com.microsoft.signalr.TypeReference<java.util.List<example.Client.Order>>() { }.getType();"));
+        assertTrue(binder.contains("subscriptions.add(connection.on(\"orders\", METHOD5, client));"));
+        assertTrue(compiler.exists("example/Client_HubBinder.class"));
+    }
+
+    @Test
+    public void nestedClassesGetAFlatBinderName() {
+        List<String> errors = compiler.compile("example.Outer",
+                "package example;\n"
+                + "public class Outer {\n"
+                + "    static class Inner {\n"
+                + "        @com.microsoft.signalr.HubMethodName(\"text\") void text(String text) { }\n"
+                + "    }\n"
+                + "}\n");
+
+        assertEquals(Collections.emptyList(), errors);
+        assertTrue(compiler.exists("example/Outer_Inner_HubBinder.class"));
+    }
+
+    @Test
+    public void bindersAreRegisteredForNativeImages() throws IOException {
+        List<String> errors = compiler.compile("example.Client",
+                "package example;\n"
+                + "public class Client {\n"
+                + "    @com.microsoft.signalr.HubMethodName(\"text\") void text(String text) { }\n"
+                + "}\n");
+
+        assertEquals(Collections.emptyList(), errors);
+        String config = compiler.readSource("META-INF/native-image/example/signalr-hub-binders/reflect-config.json");
+        assertEquals("[\n"
+                + "  {\n"
+                + "    \"name\": \"example.Client_HubBinder\",\n"
+                + "    \"methods\": [{ \"name\": \"<init>\", \"parameterTypes\": [] }]\n"
+                + "  }\n"
+                + "]\n", config);
+        assertFalse(compiler.exists("META-INF/native-image/example/signalr-hub-proxies/reflect-config.json"));
+    }
+
+    @Test
+    public void nativeImageMetadataGoesInTheDirectoryOfTheApplicationsPackage() throws IOException {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("com.example.chat.ChatClient",
+                "package com.example.chat;\n"
+                + "public class ChatClient {\n"
+                + "    @com.microsoft.signalr.HubMethodName(\"text\") void text(String text) { }\n"
+                + "}\n");
+        sources.put("com.example.orders.OrderClient",
+                "package com.example.orders;\n"
+                + "public class OrderClient {\n"
+                + "    @com.microsoft.signalr.HubMethodName(\"placed\") void placed(long id) { }\n"
+                + "}\n");
+
+        List<String> errors = compiler.compile(sources);
+
+        assertEquals(Collections.emptyList(), errors);
+        String config = compiler.readSource("META-INF/native-image/com.example/signalr-hub-binders/reflect-config.json");
+        assertTrue(config.contains("\"name\": \"com.example.chat.ChatClient_HubBinder\""));
+        assertTrue(config.contains("\"name\": \"com.example.orders.OrderClient_HubBinder\""));
+    }
+
+    @Test
+    public void invalidMethodsAreReported() {
+        List<String> errors = compiler.compile("example.Client",
+                "package example;\n"
+                + "import com.microsoft.signalr.HubMethodName;\n"
+                + "import java.util.List;\n"
+                + "public class Client<T> {\n"
+                + "    @HubMethodName(\"a\") private void a() { }\n"
+                + "    @HubMethodName(\"b\") static void b() { }\n"
+                + "    @HubMethodName(\"c\") String c() { return null; }\n"
+                + "    @HubMethodName(\"d\") <U> void d(U value) { }\n"
+                + "    @HubMethodName(\"e\") void e(List<T> values) { }\n"
+                + "    @HubMethodName(\"e\") void f() { }\n"
+                + "}\n");
+
+        assertTrue(errors.contains("@HubMethodName methods can't be private or static."));
+        assertTrue(errors.contains("@HubMethodName methods must return void."));
+        assertTrue(errors.contains("@HubMethodName methods can't be generic."));
+        assertTrue(errors.contains("The type of a @HubMethodName method parameter can't have type variables."));
+        assertTrue(errors.contains("The hub method 'e' is already handled by e."));
+        assertFalse(compiler.exists("example/Client_HubBinder.java"));
+    }
+
+    @Test
+    public void registeredClientIsCalledByTheServer() throws Exception {
+        List<String> errors = compiler.compile("example.Client",
+                "package example;\n"
+                + "import java.util.concurrent.BlockingQueue;\n"
+                + "import java.util.concurrent.LinkedBlockingQueue;\n"
+                + "public class Client {\n"
+                + "    public final BlockingQueue<String> messages = new LinkedBlockingQueue<>();\n"
+                + "    @com.microsoft.signalr.HubMethodName(\"send\") void onSend(String message) { messages.add(message); }\n"
+                + "}\n");
+        assertEquals(Collections.emptyList(), errors);
+
+        try (StandInHubServer server = new StandInHubServer().start();
+             URLClassLoader loader = compiler.createClassLoader()) {
+            Object client = loader.loadClass("example.Client").getDeclaredConstructor().newInstance();
+            HubConnection hubConnection = HubConnectionBuilder.create(server.getUrl()).build();
+            hubConnection.register(client);
+            hubConnection.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+
+            hubConnection.send("EchoAll", "hello");
+
+            @SuppressWarnings("unchecked")
+            BlockingQueue<String> messages = (BlockingQueue<String>) client.getClass().getField("messages").get(client);
+            assertEquals("hello", messages.poll(5, TimeUnit.SECONDS));
+            hubConnection.stop().timeout(5, TimeUnit.SECONDS).blockingAwait();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.processor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.microsoft.signalr.HubConnection;
+import com.microsoft.signalr.HubConnectionBuilder;
+import com.microsoft.signalr.StandInHubServer;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+
+class HubProxyProcessorTest {
+    private TestCompiler compiler;
+
+    @BeforeEach
+    public void createCompiler() throws IOException {
+        compiler = new TestCompiler();
+    }
+
+    @AfterEach
+    public void deleteOutput() throws IOException {
+        compiler.close();
+    }
+
+    @Test
+    public void generatesAProxyForEveryKindOfMethod() throws IOException {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("example.Lookup",
+                "package example;\n"
+                + "import io.reactivex.Single;\n"
+                + "interface Lookup<T> {\n"
+                + "    Single<T> find(T key);\n"
+                + "}\n");
+        sources.put("example.ChatHub",
+                "package example;\n"
+                + "import com.microsoft.signalr.HubMethodName;\n"
+                + "import io.reactivex.*;\n"
+                + "import java.util.List;\n"
+                + "import java.util.Map;\n"
+                + "@com.microsoft.signalr.HubProxy\n"
+                + "public interface ChatHub extends Lookup<String> {\n"
+                + "    class Message { String text; }\n"
+                + "    void post(String room, Message message, char flag, float ratio);\n"
+                + "    Completable join(String... rooms);\n"
+                + "    @HubMethodName(\"Count\") Single<Long> count();\n"
+                + "    Single<Map<String, List<Message>>> history(long since, List<String> rooms);\n"
+                + "    Observable<Message[]> watch(boolean all, short limit);\n"
+                + "    default Completable leave() { return join(); }\n"
+                + "}\n");
+
+        List<String> errors = compiler.compile(sources);
+
+        assertEquals(Collections.emptyList(), errors);
+        String proxy = compiler.readSource("example/ChatHub_HubProxy.java");
+        assertTrue(proxy.contains("public final class ChatHub_HubProxy implements example.ChatHub"));
+        assertTrue(proxy.contains("new com.microsoft.signalr.HubProxyMethod(\"Count\")"));
+        assertTrue(proxy.contains("public io.reactivex.Single<java.lang.String> find(java.lang.String p0)"));
+        assertTrue(proxy.contains("public io.reactivex.Completable join(java.lang.String... p0)"));
+        assertTrue(proxy.contains("writer.writeString(String.valueOf(p2));"));
+        assertTrue(proxy.contains("writer.writeDouble(p3);"));
+        assertTrue(proxy.contains("METHOD4_RESULT = reader -> reader.read(METHOD4_RESULT_TYPE);"));
+        assertTrue(proxy.contains("writer.write(p1, METHOD4_TYPE1);"));
+        assertFalse(proxy.contains("leave"));
+        // Methods of hub proxies are named after the server's methods, they aren't client methods.
+        assertFalse(compiler.exists("example/ChatHub_HubBinder.java"));
+        assertTrue(compiler.exists("example/ChatHub_HubProxy.class"));
+        String config = compiler.readSource("META-INF/native-image/example/signalr-hub-proxies/reflect-config.json");
+        assertTrue(config.contains("\"name\": \"example.ChatHub_HubProxy\""));
+        assertTrue(config.contains("\"parameterTypes\": [\"com.microsoft.signalr.HubConnection\"]"));
+    }
+
+    @Test
+    public void invalidProxiesAreReported() {
+        List<String> errors = compiler.compile("example.Hubs",
+                "package example;\n"
+                + "import com.microsoft.signalr.HubMethodName;\n"
+                + "import com.microsoft.signalr.HubProxy;\n"
+                + "import io.reactivex.*;\n"
+                + "public class Hubs {\n"
+                + "    @HubProxy static class NotAnInterface { }\n"
+                + "    @HubProxy interface Generic<T> { void send(T value); }\n"
+                + "    @HubProxy interface Invalid {\n"
+                + "        String a();\n"
+                + "        Single<?> b();\n"
+                + "        <T> void c(T value);\n"
+                + "        void d();\n"
+                + "        @HubMethodName(\"d\") void e(int value);\n"
+                + "    }\n"
+                + "}\n");
+
+        assertTrue(errors.contains("@HubProxy can only be used on interfaces."));
+        assertTrue(errors.contains("@HubProxy interfaces can't be generic."));
+        assertTrue(errors.contains("@HubProxy methods must return void, Completable, Single or Observable."));
+        assertTrue(errors.contains("The result type of a @HubProxy method can't be a wildcard or have type variables."));
+        assertTrue(errors.contains("@HubProxy methods can't be generic."));
+        assertTrue(errors.contains("The hub method 'd' is already declared by d."));
+        assertFalse(compiler.exists("example/Hubs_Invalid_HubProxy.java"));
+    }
+
+    @Test
+    public void proxyInvokesTheServer() throws Exception {
+        List<String> errors = compiler.compile("example.EchoHub",
+                "package example;\n"
+                + "import com.microsoft.signalr.HubMethodName;\n"
+                + "import io.reactivex.*;\n"
+                + "@com.microsoft.signalr.HubProxy\n"
+                + "public interface EchoHub {\n"
+                + "    @HubMethodName(\"Echo\") Single<String> echo(String message);\n"
+                + "    @HubMethodName(\"Stream\") Observable<String> stream(int count, int interval);\n"
+                + "}\n");
+        assertEquals(Collections.emptyList(), errors);
+
+        try (StandInHubServer server = new StandInHubServer().start();
+             URLClassLoader loader = compiler.createClassLoader()) {
+            Class<?> hubInterface = loader.loadClass("example.EchoHub");
+            HubConnection hubConnection = HubConnectionBuilder.create(server.getUrl()).build();
+            Object hub = hubConnection.createProxy(hubInterface);
+            hubConnection.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+
+            Single<?> echo = (Single<?>) hubInterface.getMethod("echo", String.class).invoke(hub, "hello");
+            assertEquals("hello", echo.timeout(5, TimeUnit.SECONDS).blockingGet());
+
+            Observable<?> stream = (Observable<?>) hubInterface.getMethod("stream", int.class, int.class).invoke(hub, 3, 0);
+            assertEquals(3, (long) stream.count().timeout(5, TimeUnit.SECONDS).blockingGet());
+            hubConnection.stop().timeout(5, TimeUnit.SECONDS).blockingAwait();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles a source file with the processors, the way javac runs them from the annotation processor path, into a
+ * directory of its own.
+ */
+final class TestCompiler implements AutoCloseable {
+    private final Path output;
+
+    TestCompiler() throws IOException {
+        output = Files.createTempDirectory("signalr-processor");
+    }
+
+    private static final class Source extends SimpleJavaFileObject {
+        private final String code;
+
+        Source(String className, String code) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    /**
+     * @return The messages of the compiler, other than notes.
+     */
+    List<String> compile(String className, String code) {
+        return compile(Collections.singletonMap(className, code));
+    }
+
+    /**
+     * Compiles each source as a compilation unit of its own, the way javac compiles the files of a project.
+     *
+     * @param sources The code of each class, by the name of the class.
+     * @return The messages of the compiler, other than notes.
+     */
+    List<String> compile(Map<String, String> sources) {
+        List<Source> units = new ArrayList<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            units.add(new Source(source.getKey(), source.getValue()));
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                "-d", output.toString(), "-s", output.toString(), "-Xlint:all");
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, units);
+        task.setProcessors(Arrays.asList(new HubBinderProcessor(), new HubProxyProcessor()));
+        task.call();
+
+        return diagnostics.getDiagnostics().stream()
+            .filter(diagnostic -> diagnostic.getKind() != Diagnostic.Kind.NOTE)
+            .map(diagnostic -> diagnostic.getMessage(null))
+            .collect(Collectors.toList());
+    }
+
+    boolean exists(String path) {
+        return Files.exists(output.resolve(path));
+    }
+
+    String readSource(String path) throws IOException {
+        return new String(Files.readAllBytes(output.resolve(path)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return A class loader for the compiled classes, which finds everything else through the test's class loader.
+     */
+    URLClassLoader createClassLoader() throws IOException {
+        return new URLClassLoader(new URL[] { output.toUri().toURL() }, getClass().getClassLoader());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (Stream<Path> files = Files.walk(output)) {
+            files.sorted(Collections.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.Arrays;
+
+/**
+ * The POJO the benchmarks send and receive. It carries the same values as the primitive arguments, so the two cases
+ * differ only in how they are bound.
+ */
+class BenchmarkPayload {
+    private int id;
+    private double value;
+    private boolean flag;
+    private String text;
+
+    BenchmarkPayload() {
+    }
+
+    BenchmarkPayload(int id, double value, boolean flag, String text) {
+        this.id = id;
+        this.value = value;
+        this.flag = flag;
+        this.text = text;
+    }
+
+    static String createText(int size) {
+        char[] text = new char[size];
+        Arrays.fill(text, 'a');
+        return new String(text);
+    }
+
+    static byte[] createBytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,115 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.reactivex.Observable;
+
+/**
+ * Measures a whole {@link HubConnection}, from the public API through the protocol to an {@link InMemoryHubServer},
+ * over an {@link InMemoryTransport}. Without a network in the way, what is left is the client's own overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HubConnectionBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({ "16", "16384" })
+    public int payloadSize;
+
+    private InMemoryHubServer server;
+    private HubConnection hubConnection;
+    private String payload;
+    private volatile CountDownLatch dispatched;
+
+    @Setup
+    public void setup() {
+        payload = BenchmarkPayload.createText(payloadSize);
+
+        InMemoryTransport transport = new InMemoryTransport();
+        server = new InMemoryHubServer(transport.getPeer())
+            .on("Echo", args -> args[0], String.class)
+            .on("SendPayload", args -> null, String.class)
+            .onStream("Stream", args -> Observable.range(0, (int) args[0]).map(i -> payload), int.class);
+
+        hubConnection = HubConnectionBuilder.create("http://localhost/benchmark")
+            .withTransport(transport)
+            .shouldSkipNegotiate(true)
+            .build();
+        hubConnection.on("send", message -> dispatched.countDown(), String.class);
+        hubConnection.start().blockingAwait();
+    }
+
+    @TearDown
+    public void tearDown() {
+        hubConnection.stop().blockingAwait();
+    }
+
+    /**
+     * One invoke at a time, so this is the round-trip latency.
+     *
+     * @return The echoed payload.
+     */
+    @Benchmark
+    public String invoke() {
+        return hubConnection.invoke(String.class, "Echo", payload).blockingGet();
+    }
+
+    /**
+     * Sends a batch and then waits for an invoke, which the server only answers once it has processed every send
+     * before it.
+     *
+     * @return The echoed payload.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public String send() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            hubConnection.send("SendPayload", payload);
+        }
+        return hubConnection.invoke(String.class, "Echo", "").blockingGet();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long streamItem() {
+        return hubConnection.stream(String.class, "Stream", BATCH_SIZE).count().blockingGet();
+    }
+
+    /**
+     * The server invokes a client method, this measures parsing the invocation and running the handler.
+     *
+     * @throws InterruptedException If the benchmark is interrupted.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void handlerDispatch() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(BATCH_SIZE);
+        dispatched = latch;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            server.send("send", payload);
+        }
+        latch.await();
+    }
+}
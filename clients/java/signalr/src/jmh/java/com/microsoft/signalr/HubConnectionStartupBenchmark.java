@@ -0,0 +1,74 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a cold start: every fork is a new JVM that runs the benchmark once, so the time includes loading and
+ * initializing the classes, which is what short-lived processes pay on their first connection.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class HubConnectionStartupBenchmark {
+    /**
+     * Writes and parses a message of each kind the client sends and receives on a new protocol.
+     *
+     * @return The parsed messages.
+     */
+    @Benchmark
+    public HubMessage[] firstMessages() {
+        JsonHubProtocol protocol = new JsonHubProtocol();
+        InvocationBinder binder = new InvocationBinder() {
+            @Override
+            public Class<?> getReturnType(String invocationId) {
+                return String.class;
+            }
+
+            @Override
+            public List<Class<?>> getParameterTypes(String methodName) {
+                return Collections.singletonList(String.class);
+            }
+        };
+
+        String handshake = HandshakeProtocol.createHandshakeRequestMessage(new HandshakeRequestMessage(protocol.getName(),
+                protocol.getVersion()));
+        HandshakeProtocol.parseHandshakeResponse("{}");
+        String invocation = protocol.writeMessage(new InvocationMessage("1", "Echo", new Object[] { handshake }));
+        return protocol.parseMessages(invocation + "{\"type\":3,\"invocationId\":\"1\",\"result\":\"echo\"}\u001e", binder);
+    }
+
+    /**
+     * Starts a connection to an {@link InMemoryHubServer}, invokes a hub method once and stops it again.
+     *
+     * @return The result of the invocation.
+     */
+    @Benchmark
+    public String firstInvoke() {
+        InMemoryTransport transport = new InMemoryTransport();
+        new InMemoryHubServer(transport.getPeer()).on("Echo", args -> args[0], String.class);
+
+        HubConnection hubConnection = HubConnectionBuilder.create("http://localhost/benchmark")
+            .withTransport(transport)
+            .shouldSkipNegotiate(true)
+            .build();
+        hubConnection.start().blockingAwait();
+        String result = hubConnection.invoke(String.class, "Echo", "hello").blockingGet();
+        hubConnection.stop().blockingAwait();
+        return result;
+    }
+}
@@ -0,0 +1,154 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonHubProtocolParseBenchmark {
+    private static final String RECORD_SEPARATOR = "\u001e";
+    private static final String TARGET = "target";
+    private static final String INVOCATION_ID = "1";
+
+    public enum Message {
+        INVOCATION,
+        // The arguments arrive before the target, so they have to be parsed into a tree before they can be bound.
+        INVOCATION_OUT_OF_ORDER,
+        STREAM_ITEM,
+        COMPLETION,
+        // The result arrives before the invocation ID, so it has to be parsed into a tree before it can be bound.
+        COMPLETION_OUT_OF_ORDER,
+        COMPLETION_ERROR,
+        PING,
+        CLOSE,
+    }
+
+    public enum Arguments {
+        PRIMITIVE,
+        POJO,
+        BINARY,
+        // A timestamp and a price, bound without boxing.
+        LONG_DOUBLE,
+    }
+
+    @Param
+    public Message message;
+
+    @Param
+    public Arguments arguments;
+
+    @Param({ "16", "16384" })
+    public int payloadSize;
+
+    // The number of messages in a single frame.
+    @Param({ "1", "16" })
+    public int batchSize;
+
+    private final JsonHubProtocol protocol = new JsonHubProtocol();
+    private InvocationBinder binder;
+    private String payload;
+
+    @Setup
+    public void setup() {
+        String text = BenchmarkPayload.createText(payloadSize);
+        Object[] args;
+        Object result;
+        List<Class<?>> parameterTypes;
+        Class<?> returnType;
+        if (arguments == Arguments.PRIMITIVE) {
+            args = new Object[] { 42, 3.14, true, text };
+            parameterTypes = Arrays.asList(int.class, double.class, boolean.class, String.class);
+            result = text;
+            returnType = String.class;
+        } else if (arguments == Arguments.LONG_DOUBLE) {
+            args = new Object[] { 1540000000000L, 101.25 };
+            parameterTypes = Arrays.asList(long.class, double.class);
+            result = 101.25;
+            returnType = double.class;
+        } else if (arguments == Arguments.BINARY) {
+            args = new Object[] { BenchmarkPayload.createBytes(payloadSize) };
+            parameterTypes = Collections.singletonList(byte[].class);
+            result = args[0];
+            returnType = byte[].class;
+        } else {
+            args = new Object[] { new BenchmarkPayload(42, 3.14, true, text) };
+            parameterTypes = Collections.singletonList(BenchmarkPayload.class);
+            result = args[0];
+            returnType = BenchmarkPayload.class;
+        }
+
+        binder = new InvocationBinder() {
+            @Override
+            public Class<?> getReturnType(String invocationId) {
+                return returnType;
+            }
+
+            @Override
+            public List<Class<?>> getParameterTypes(String methodName) {
+                return parameterTypes;
+            }
+        };
+
+        String frame = createMessage(BinaryTypeAdapters.register(new GsonBuilder()).create(), args, result, text);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < batchSize; i++) {
+            builder.append(frame).append(RECORD_SEPARATOR);
+        }
+        payload = builder.toString();
+
+        // Fail the setup rather than measuring the cost of an exception.
+        protocol.parseMessages(payload, binder);
+    }
+
+    @Benchmark
+    public Object parseMessages() {
+        return protocol.parseMessages(payload, binder);
+    }
+
+    private String createMessage(Gson gson, Object[] args, Object result, String text) {
+        switch (message) {
+            case INVOCATION:
+                return String.format("{\"type\":1,\"target\":\"%s\",\"arguments\":%s}", TARGET, gson.toJson(args));
+            case INVOCATION_OUT_OF_ORDER:
+                return String.format("{\"arguments\":%s,\"target\":\"%s\",\"type\":1}", gson.toJson(args), TARGET);
+            case STREAM_ITEM:
+                return String.format("{\"type\":2,\"invocationId\":\"%s\",\"item\":%s}", INVOCATION_ID, gson.toJson(result));
+            case COMPLETION:
+                return String.format("{\"type\":3,\"invocationId\":\"%s\",\"result\":%s}", INVOCATION_ID, gson.toJson(result));
+            case COMPLETION_OUT_OF_ORDER:
+                return String.format("{\"result\":%s,\"invocationId\":\"%s\",\"type\":3}", gson.toJson(result), INVOCATION_ID);
+            case COMPLETION_ERROR:
+                return String.format("{\"type\":3,\"invocationId\":\"%s\",\"error\":%s}", INVOCATION_ID, gson.toJson(text));
+            case PING:
+                return "{\"type\":6}";
+            case CLOSE:
+                return String.format("{\"type\":7,\"error\":%s}", gson.toJson(text));
+            default:
+                throw new IllegalStateException(String.format("Unexpected message %s.", message));
+        }
+    }
+}
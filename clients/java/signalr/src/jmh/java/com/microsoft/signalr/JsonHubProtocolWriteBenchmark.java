@@ -0,0 +1,124 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonHubProtocolWriteBenchmark {
+    public enum Message {
+        INVOCATION,
+        PROXY_INVOCATION,
+        STREAM_INVOCATION,
+        CANCEL_INVOCATION,
+        STREAM_ITEM,
+        COMPLETION,
+        COMPLETION_ERROR,
+        PING,
+        CLOSE,
+    }
+
+    public enum Arguments {
+        PRIMITIVE,
+        POJO,
+        BINARY,
+    }
+
+    @Param
+    public Message message;
+
+    @Param
+    public Arguments arguments;
+
+    @Param({ "16", "16384" })
+    public int payloadSize;
+
+    private final JsonHubProtocol protocol = new JsonHubProtocol();
+    private HubMessage hubMessage;
+
+    @Setup
+    public void setup() {
+        String text = BenchmarkPayload.createText(payloadSize);
+        Object[] args;
+        Object result;
+        if (arguments == Arguments.PRIMITIVE) {
+            args = new Object[] { 42, 3.14, true, text };
+            result = text;
+        } else if (arguments == Arguments.BINARY) {
+            args = new Object[] { BenchmarkPayload.createBytes(payloadSize) };
+            result = args[0];
+        } else {
+            args = new Object[] { new BenchmarkPayload(42, 3.14, true, text) };
+            result = args[0];
+        }
+
+        switch (message) {
+            case INVOCATION:
+                hubMessage = new InvocationMessage("1", "target", args);
+                break;
+            case PROXY_INVOCATION:
+                // The same arguments, written the way a generated HubProxy writes them.
+                hubMessage = new InvocationMessage("1", new HubProxyMethod("target"), createProxyArguments(args));
+                break;
+            case STREAM_INVOCATION:
+                hubMessage = new StreamInvocationMessage("1", "target", args);
+                break;
+            case CANCEL_INVOCATION:
+                hubMessage = new CancelInvocationMessage("1");
+                break;
+            case STREAM_ITEM:
+                hubMessage = new StreamItem("1", result);
+                break;
+            case COMPLETION:
+                hubMessage = new CompletionMessage("1", result, null);
+                break;
+            case COMPLETION_ERROR:
+                hubMessage = new CompletionMessage("1", null, text);
+                break;
+            case PING:
+                hubMessage = PingMessage.getInstance();
+                break;
+            case CLOSE:
+                hubMessage = new CloseMessage(text);
+                break;
+            default:
+                throw new IllegalStateException(String.format("Unexpected message %s.", message));
+        }
+    }
+
+    private HubArguments createProxyArguments(Object[] args) {
+        if (arguments == Arguments.PRIMITIVE) {
+            String text = (String) args[3];
+            return writer -> {
+                writer.writeInt(42);
+                writer.writeDouble(3.14);
+                writer.writeBoolean(true);
+                writer.writeString(text);
+            };
+        }
+        return writer -> writer.write(args[0]);
+    }
+
+    @Benchmark
+    public String writeMessage() {
+        return protocol.writeMessage(hubMessage);
+    }
+}
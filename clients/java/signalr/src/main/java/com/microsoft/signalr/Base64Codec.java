@@ -0,0 +1,118 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Base64 with the standard alphabet and padding, which is what the server's JSON protocol uses for binary data.
+ * java.util.Base64 needs Android API 26, and it encodes through intermediate byte arrays. This encodes the bytes
+ * straight from the caller's buffer into the characters of the string, and decodes the characters straight into the
+ * bytes, three bytes to four characters at a time.
+ */
+final class Base64Codec {
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private Base64Codec() {
+    }
+
+    static String encode(byte[] bytes) {
+        return encode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Encodes the remaining bytes of the buffer, without moving its position.
+     */
+    static String encode(ByteBuffer buffer) {
+        int position = buffer.position();
+        int length = buffer.remaining();
+        char[] chars = new char[(length + 2) / 3 * 4];
+        int c = 0;
+        int i = 0;
+        for (; i + 3 <= length; i += 3) {
+            int bits = (buffer.get(position + i) & 0xff) << 16
+                    | (buffer.get(position + i + 1) & 0xff) << 8
+                    | (buffer.get(position + i + 2) & 0xff);
+            chars[c++] = ALPHABET[bits >>> 18];
+            chars[c++] = ALPHABET[(bits >>> 12) & 0x3f];
+            chars[c++] = ALPHABET[(bits >>> 6) & 0x3f];
+            chars[c++] = ALPHABET[bits & 0x3f];
+        }
+
+        int left = length - i;
+        if (left > 0) {
+            int bits = (buffer.get(position + i) & 0xff) << 16;
+            if (left == 2) {
+                bits |= (buffer.get(position + i + 1) & 0xff) << 8;
+            }
+            chars[c++] = ALPHABET[bits >>> 18];
+            chars[c++] = ALPHABET[(bits >>> 12) & 0x3f];
+            chars[c++] = left == 2 ? ALPHABET[(bits >>> 6) & 0x3f] : '=';
+            chars[c] = '=';
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Decodes a base64 string. Like java.util.Base64's decoder, the padding at the end is optional.
+     *
+     * @throws IllegalArgumentException The string isn't valid base64.
+     */
+    static byte[] decode(String value) {
+        int length = value.length();
+        if (length > 0 && value.charAt(length - 1) == '=') {
+            length--;
+            if (length > 0 && value.charAt(length - 1) == '=') {
+                length--;
+            }
+            if (value.length() % 4 != 0) {
+                throw new IllegalArgumentException("The padding of the base64 string is incomplete.");
+            }
+        }
+        if (length % 4 == 1) {
+            throw new IllegalArgumentException("The base64 string has a dangling character.");
+        }
+
+        byte[] bytes = new byte[length / 4 * 3 + Math.max(0, length % 4 - 1)];
+        int b = 0;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            int bits = valueOf(value, i) << 18 | valueOf(value, i + 1) << 12 | valueOf(value, i + 2) << 6
+                    | valueOf(value, i + 3);
+            bytes[b++] = (byte) (bits >>> 16);
+            bytes[b++] = (byte) (bits >>> 8);
+            bytes[b++] = (byte) bits;
+        }
+
+        int left = length - i;
+        if (left > 0) {
+            int bits = valueOf(value, i) << 18 | valueOf(value, i + 1) << 12;
+            bytes[b++] = (byte) (bits >>> 16);
+            if (left == 3) {
+                bits |= valueOf(value, i + 2) << 6;
+                bytes[b] = (byte) (bits >>> 8);
+            }
+        }
+        return bytes;
+    }
+
+    private static int valueOf(String value, int index) {
+        char c = value.charAt(index);
+        int bits = c < VALUES.length ? VALUES[c] : -1;
+        if (bits < 0) {
+            throw new IllegalArgumentException(String.format("Illegal base64 character '%s' at %d.", c, index));
+        }
+        return bits;
+    }
+}
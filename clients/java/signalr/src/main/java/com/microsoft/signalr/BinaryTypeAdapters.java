@@ -0,0 +1,138 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import okio.ByteString;
+
+/**
+ * Writes binary arguments and results as base64 strings, which is how the server's JSON protocol reads and writes
+ * byte arrays. Without them Gson writes a byte[] as an array of numbers.
+ */
+final class BinaryTypeAdapters {
+    private BinaryTypeAdapters() {
+    }
+
+    // Okio comes with OkHttp, which the JDK 11 client leaves out, so ByteString may not be on the classpath.
+    private static final boolean OKIO_PRESENT = isPresent("okio.ByteString");
+
+    static GsonBuilder register(GsonBuilder builder) {
+        builder.registerTypeAdapter(byte[].class, BYTE_ARRAY)
+                .registerTypeHierarchyAdapter(ByteBuffer.class, BYTE_BUFFER);
+        if (OKIO_PRESENT) {
+            ByteStringAdapter.register(builder);
+        }
+        return builder;
+    }
+
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, false, BinaryTypeAdapters.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    static final TypeAdapter<byte[]> BYTE_ARRAY = new TypeAdapter<byte[]>() {
+        @Override
+        public void write(JsonWriter writer, byte[] value) throws IOException {
+            if (value == null) {
+                writer.nullValue();
+                return;
+            }
+            writer.value(Base64Codec.encode(value));
+        }
+
+        @Override
+        public byte[] read(JsonReader reader) throws IOException {
+            return readBytes(reader);
+        }
+    };
+
+    static final TypeAdapter<ByteBuffer> BYTE_BUFFER = new TypeAdapter<ByteBuffer>() {
+        @Override
+        public void write(JsonWriter writer, ByteBuffer value) throws IOException {
+            if (value == null) {
+                writer.nullValue();
+                return;
+            }
+            // Encode the remaining bytes without moving the caller's position.
+            writer.value(Base64Codec.encode(value));
+        }
+
+        @Override
+        public ByteBuffer read(JsonReader reader) throws IOException {
+            byte[] bytes = readBytes(reader);
+            return bytes != null ? ByteBuffer.wrap(bytes) : null;
+        }
+    };
+
+    /**
+     * Holds the ByteString adapter, so that ByteString is only loaded when Okio is on the classpath.
+     */
+    private static final class ByteStringAdapter {
+        static void register(GsonBuilder builder) {
+            builder.registerTypeAdapter(ByteString.class, INSTANCE);
+        }
+
+        static final TypeAdapter<ByteString> INSTANCE = new TypeAdapter<ByteString>() {
+            @Override
+            public void write(JsonWriter writer, ByteString value) throws IOException {
+                if (value == null) {
+                    writer.nullValue();
+                    return;
+                }
+                writer.value(value.base64());
+            }
+
+            @Override
+            public ByteString read(JsonReader reader) throws IOException {
+                byte[] bytes = readBytes(reader);
+                return bytes != null ? ByteString.of(bytes) : null;
+            }
+        };
+    }
+
+    private static byte[] readBytes(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case STRING:
+                try {
+                    return Base64Codec.decode(reader.nextString());
+                } catch (IllegalArgumentException ex) {
+                    throw new RuntimeException("Binary data is not valid base64.", ex);
+                }
+            case BEGIN_ARRAY:
+                // Still read the array of numbers older clients and custom serializers write.
+                ByteBuffer buffer = ByteBuffer.allocate(64);
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (!buffer.hasRemaining()) {
+                        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                        buffer.flip();
+                        larger.put(buffer);
+                        buffer = larger;
+                    }
+                    buffer.put((byte) reader.nextInt());
+                }
+                reader.endArray();
+                byte[] bytes = new byte[buffer.position()];
+                buffer.flip();
+                buffer.get(bytes);
+                return bytes;
+            default:
+                throw new RuntimeException(String.format("Expected binary data as a base64 string but found %s.", reader.peek()));
+        }
+    }
+}
@@ -3,6 +3,7 @@
 
 package com.microsoft.signalr;
 
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -13,13 +14,27 @@ class CallbackMap {
     private final Map<String, List<InvocationHandler>> handlers = new HashMap<>();
     private final ReentrantLock lock = new ReentrantLock();
 
-    public InvocationHandler put(String target, ActionBase action, Class<?>... classes) {
+    public InvocationHandler put(String target, ActionBase action, Type... types) {
+        return put(target, action, null, types);
+    }
+
+    public InvocationHandler put(String target, ActionBase action, PrimitiveActionBase primitiveAction, Type... types) {
+        return put(target, new InvocationHandler(action, primitiveAction, types));
+    }
+
+    public InvocationHandler put(String target, InvocationHandler handler) {
         try {
             lock.lock();
-            InvocationHandler handler = new InvocationHandler(action, classes);
             if (!handlers.containsKey(target)) {
                 handlers.put(target, new ArrayList<>());
             }
+            List<InvocationHandler> existing = handlers.get(target);
+            if (!existing.isEmpty() && existing.get(0).isRaw() != handler.isRaw()) {
+                throw new RuntimeException(String.format("The method '%s' can't have both raw handlers and handlers with typed parameters.", target));
+            }
+            if (!existing.isEmpty() && existing.get(0).getMethodBinder() != handler.getMethodBinder()) {
+                throw new RuntimeException(String.format("The method '%s' is already handled by a different binder.", target));
+            }
             handlers.get(target).add(handler);
             return handler;
         } finally {
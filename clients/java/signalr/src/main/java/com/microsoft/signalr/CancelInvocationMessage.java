@@ -3,7 +3,7 @@
 
 package com.microsoft.signalr;
 
-final class CancelInvocationMessage extends HubMessage {
+final class CancelInvocationMessage extends HubInvocationMessage {
     private final int type = HubMessageType.CANCEL_INVOCATION.value;
     private final String invocationId;
 
@@ -11,6 +11,10 @@ final class CancelInvocationMessage extends HubMessage {
         this.invocationId = invocationId;
     }
 
+    public String getInvocationId() {
+        return invocationId;
+    }
+
     @Override
     public HubMessageType getMessageType() {
         return HubMessageType.CANCEL_INVOCATION;
@@ -3,7 +3,7 @@
 
 package com.microsoft.signalr;
 
-final class CompletionMessage extends HubMessage {
+final class CompletionMessage extends HubInvocationMessage {
     private final int type = HubMessageType.COMPLETION.value;
     private final String invocationId;
     private final Object result;
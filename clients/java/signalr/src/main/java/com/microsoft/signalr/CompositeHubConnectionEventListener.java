@@ -0,0 +1,140 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Passes every event on to each of the listeners added to the builder, in the order they were added.
+ */
+class CompositeHubConnectionEventListener implements HubConnectionEventListener {
+    private final HubConnectionEventListener[] listeners;
+
+    private CompositeHubConnectionEventListener(List<HubConnectionEventListener> listeners) {
+        this.listeners = listeners.toArray(new HubConnectionEventListener[0]);
+    }
+
+    /**
+     * @return Null when there are no listeners, or the listener itself when there is only one.
+     */
+    static HubConnectionEventListener of(List<HubConnectionEventListener> listeners) {
+        List<HubConnectionEventListener> added = new ArrayList<>();
+        for (HubConnectionEventListener listener : listeners) {
+            if (listener != null) {
+                added.add(listener);
+            }
+        }
+
+        if (added.isEmpty()) {
+            return null;
+        }
+        return added.size() == 1 ? added.get(0) : new CompositeHubConnectionEventListener(added);
+    }
+
+    @Override
+    public void connectStart(HubConnection connection) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.connectStart(connection);
+        }
+    }
+
+    @Override
+    public void accessTokenStart(HubConnection connection) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.accessTokenStart(connection);
+        }
+    }
+
+    @Override
+    public void accessTokenEnd(HubConnection connection) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.accessTokenEnd(connection);
+        }
+    }
+
+    @Override
+    public void negotiateStart(HubConnection connection, String url) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.negotiateStart(connection, url);
+        }
+    }
+
+    @Override
+    public void negotiateEnd(HubConnection connection, String url, String redirectUrl) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.negotiateEnd(connection, url, redirectUrl);
+        }
+    }
+
+    @Override
+    public void negotiateFailed(HubConnection connection, String url, Throwable error) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.negotiateFailed(connection, url, error);
+        }
+    }
+
+    @Override
+    public void transportStart(HubConnection connection, String transport, String url) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.transportStart(connection, transport, url);
+        }
+    }
+
+    @Override
+    public void transportEnd(HubConnection connection, String transport) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.transportEnd(connection, transport);
+        }
+    }
+
+    @Override
+    public void transportFailed(HubConnection connection, String transport, Throwable error) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.transportFailed(connection, transport, error);
+        }
+    }
+
+    @Override
+    public void handshakeStart(HubConnection connection) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.handshakeStart(connection);
+        }
+    }
+
+    @Override
+    public void handshakeRequestSent(HubConnection connection) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.handshakeRequestSent(connection);
+        }
+    }
+
+    @Override
+    public void handshakeResponseReceived(HubConnection connection) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.handshakeResponseReceived(connection);
+        }
+    }
+
+    @Override
+    public void connectEnd(HubConnection connection) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.connectEnd(connection);
+        }
+    }
+
+    @Override
+    public void connectFailed(HubConnection connection, Throwable error) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.connectFailed(connection, error);
+        }
+    }
+
+    @Override
+    public void connectionClosed(HubConnection connection, String error, long connectedDuration) {
+        for (HubConnectionEventListener listener : listeners) {
+            listener.connectionClosed(connection, error, connectedDuration);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Passes every measurement on to each of the metrics added to the builder, in the order they were added.
+ */
+class CompositeHubConnectionMetrics implements HubConnectionMetrics {
+    private final HubConnectionMetrics[] metrics;
+
+    private CompositeHubConnectionMetrics(List<HubConnectionMetrics> metrics) {
+        this.metrics = metrics.toArray(new HubConnectionMetrics[0]);
+    }
+
+    /**
+     * @return Null when there are no metrics, so the connection doesn't measure anything, or the metrics themselves
+     * when there is only one.
+     */
+    static HubConnectionMetrics of(List<HubConnectionMetrics> metrics) {
+        List<HubConnectionMetrics> added = new ArrayList<>();
+        for (HubConnectionMetrics m : metrics) {
+            if (m != null) {
+                added.add(m);
+            }
+        }
+
+        if (added.isEmpty()) {
+            return null;
+        }
+        return added.size() == 1 ? added.get(0) : new CompositeHubConnectionMetrics(added);
+    }
+
+    @Override
+    public void messageSent(HubMessageType type, String target, int length) {
+        for (HubConnectionMetrics m : metrics) {
+            m.messageSent(type, target, length);
+        }
+    }
+
+    @Override
+    public void payloadReceived(int length, int messageCount, long parseDuration) {
+        for (HubConnectionMetrics m : metrics) {
+            m.payloadReceived(length, messageCount, parseDuration);
+        }
+    }
+
+    @Override
+    public void messageReceived(HubMessageType type, String target, int pendingDispatch) {
+        for (HubConnectionMetrics m : metrics) {
+            m.messageReceived(type, target, pendingDispatch);
+        }
+    }
+
+    @Override
+    public void handlersInvoked(String target, long duration) {
+        for (HubConnectionMetrics m : metrics) {
+            m.handlersInvoked(target, duration);
+        }
+    }
+
+    @Override
+    public void invocationStarted(String target, int pendingInvocations) {
+        for (HubConnectionMetrics m : metrics) {
+            m.invocationStarted(target, pendingInvocations);
+        }
+    }
+
+    @Override
+    public void invocationCompleted(String target, long duration, boolean succeeded, int pendingInvocations) {
+        for (HubConnectionMetrics m : metrics) {
+            m.invocationCompleted(target, duration, succeeded, pendingInvocations);
+        }
+    }
+
+    @Override
+    public void streamItemReceived(String target) {
+        for (HubConnectionMetrics m : metrics) {
+            m.streamItemReceived(target);
+        }
+    }
+
+    @Override
+    public void pingSent() {
+        for (HubConnectionMetrics m : metrics) {
+            m.pingSent();
+        }
+    }
+
+    @Override
+    public void serverTimeoutElapsed() {
+        for (HubConnectionMetrics m : metrics) {
+            m.serverTimeoutElapsed();
+        }
+    }
+}
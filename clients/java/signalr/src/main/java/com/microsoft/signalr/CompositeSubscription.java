@@ -0,0 +1,25 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.List;
+
+/**
+ * The registrations of all the methods of a client, see {@link HubConnection#register(Object)}.
+ */
+final class CompositeSubscription extends Subscription {
+    private final List<Subscription> subscriptions;
+
+    CompositeSubscription(List<Subscription> subscriptions) {
+        super(null, null, null);
+        this.subscriptions = subscriptions;
+    }
+
+    @Override
+    public void unsubscribe() {
+        for (Subscription subscription : subscriptions) {
+            subscription.unsubscribe();
+        }
+    }
+}
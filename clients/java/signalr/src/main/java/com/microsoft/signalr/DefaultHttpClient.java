@@ -4,20 +4,23 @@
 package com.microsoft.signalr;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.Reader;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.subjects.SingleSubject;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.Cookie;
-import okhttp3.CookieJar;
+import okhttp3.Dispatcher;
 import okhttp3.HttpUrl;
+import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
@@ -25,62 +28,162 @@ import okhttp3.Response;
 import okhttp3.ResponseBody;
 
 final class DefaultHttpClient extends HttpClient {
+    private static final MediaType TEXT_PLAIN = MediaType.parse("text/plain; charset=utf-8");
+    private static final int STREAMING_BUFFER_SIZE = 4096;
+
     private final OkHttpClient client;
+    private final boolean nioWebSockets;
+    private final boolean plainNioWebSockets;
+    private volatile OkHttpClient streamingClient;
 
     public DefaultHttpClient() {
-        this.client = new OkHttpClient.Builder().cookieJar(new CookieJar() {
-            private List<Cookie> cookieList = new ArrayList<>();
-            private Lock cookieLock = new ReentrantLock();
+        this.client = withOwnCookieJar(getSharedClient());
+        this.nioWebSockets = false;
+        this.plainNioWebSockets = false;
+    }
+
+    // Every DefaultHttpClient is derived from a single OkHttpClient (ours or the one set on the builder) so that
+    // connection pools, dispatcher threads and TLS sessions are shared between HubConnections. When the builder isolates
+    // cookies the derived client gets its own cookie jar, otherwise the cookie jar of the base client is used. With a
+    // low footprint only ws:// WebSockets use the selector threads, and wss:// ones, which they don't support, stay on
+    // OkHttp.
+    DefaultHttpClient(HttpHubConnectionBuilder builder) {
+        this.nioWebSockets = builder.isNioWebSockets();
+        this.plainNioWebSockets = builder.isLowFootprint();
+        OkHttpClient baseClient = builder.getOkHttpClient() != null ? builder.getOkHttpClient() : getSharedClient();
+        this.client = builder.isIsolateCookies() ? withOwnCookieJar(baseClient) : baseClient;
+    }
+
+    private static OkHttpClient withOwnCookieJar(OkHttpClient baseClient) {
+        // newBuilder() shares the connection pool, dispatcher and TLS configuration of the base client.
+        return baseClient.newBuilder().cookieJar(new InMemoryCookieJar()).build();
+    }
+
+    static OkHttpClient getSharedClient() {
+        return SharedClientHolder.INSTANCE;
+    }
+
+    OkHttpClient getOkHttpClient() {
+        return client;
+    }
+
+    @Override
+    public Single<HttpResponse> send(HttpRequest httpRequest) {
+        Request request = buildRequest(httpRequest);
+
+        SingleSubject<HttpResponse> responseSubject = SingleSubject.create();
 
+        client.newCall(request).enqueue(new Callback() {
             @Override
-            public void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
-                cookieLock.lock();
-                try {
-                    for (Cookie cookie : cookies) {
-                        boolean replacedCookie = false;
-                        for (int i = 0; i < cookieList.size(); i++) {
-                            Cookie innerCookie = cookieList.get(i);
-                            if (cookie.name().equals(innerCookie.name()) && innerCookie.matches(url)) {
-                                // We have a new cookie that matches an older one so we replace the older one.
-                                cookieList.set(i, innerCookie);
-                                replacedCookie = true;
-                                break;
-                            }
-                        }
-                        if (!replacedCookie) {
-                            cookieList.add(cookie);
-                        }
-                    }
-                } finally {
-                    cookieLock.unlock();
+            public void onFailure(Call call, IOException e) {
+                responseSubject.onError(getCause(e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                try (ResponseBody body = response.body()) {
+                    HttpResponse httpResponse = new HttpResponse(response.code(), response.message(), body.string());
+                    responseSubject.onSuccess(httpResponse);
                 }
             }
+        });
+
+        return responseSubject;
+    }
+
+    @Override
+    public Single<StreamingHttpResponse> sendStreaming(HttpRequest httpRequest) {
+        Request request = buildRequest(httpRequest);
+
+        SingleSubject<StreamingHttpResponse> responseSubject = SingleSubject.create();
+
+        Call call = getStreamingClient().newCall(request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                responseSubject.onError(getCause(e));
+            }
 
             @Override
-            public List<Cookie> loadForRequest(HttpUrl url) {
-                cookieLock.lock();
-                try {
-                    List<Cookie> matchedCookies = new ArrayList<>();
-                    List<Cookie> expiredCookies = new ArrayList<>();
-                    for (Cookie cookie : cookieList) {
-                        if (cookie.expiresAt() < System.currentTimeMillis()) {
-                            expiredCookies.add(cookie);
-                        } else if (cookie.matches(url)) {
-                            matchedCookies.add(cookie);
+            public void onResponse(Call call, Response response) {
+                ResponseBody body = response.body();
+                Observable<String> content = Observable.create(emitter -> {
+                    emitter.setCancellable(call::cancel);
+                    try (Reader reader = body.charStream()) {
+                        char[] buffer = new char[STREAMING_BUFFER_SIZE];
+                        int read;
+                        while ((read = reader.read(buffer)) != -1) {
+                            emitter.onNext(new String(buffer, 0, read));
                         }
+                        emitter.onComplete();
+                    } catch (IOException e) {
+                        // Reading fails when the subscription was disposed and the call canceled.
+                        emitter.tryOnError(getCause(e));
                     }
-
-                    cookieList.removeAll(expiredCookies);
-                    return matchedCookies;
-                } finally {
-                    cookieLock.unlock();
-                }
+                });
+                responseSubject.onSuccess(new StreamingHttpResponse(response.code(), response.message(), content));
             }
-        }).build();
+        });
+
+        return responseSubject.doOnDispose(call::cancel);
     }
 
     @Override
-    public Single<HttpResponse> send(HttpRequest httpRequest) {
+    public WebSocketWrapper createWebSocket(String url, Map<String, String> headers) {
+        if (nioWebSockets || plainNioWebSockets && url.regionMatches(true, 0, "ws:", 0, 3)) {
+            // The upgrade request doesn't go through OkHttp, so cookies such as a load balancer's affinity cookie
+            // have to be added to it here.
+            Map<String, String> upgradeHeaders = new HashMap<>(headers);
+            String cookies = getCookieHeader(url);
+            if (cookies != null) {
+                upgradeHeaders.put("Cookie", cookies);
+            }
+            return new NioWebSocketWrapper(url, upgradeHeaders);
+        }
+        return new OkHttpWebSocketWrapper(url, headers, client);
+    }
+
+    private String getCookieHeader(String url) {
+        HttpUrl httpUrl = HttpUrl.parse(url.replaceFirst("^ws", "http"));
+        if (httpUrl == null) {
+            return null;
+        }
+
+        List<Cookie> cookies = client.cookieJar().loadForRequest(httpUrl);
+        if (cookies.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder header = new StringBuilder();
+        for (Cookie cookie : cookies) {
+            if (header.length() > 0) {
+                header.append("; ");
+            }
+            header.append(cookie.name()).append('=').append(cookie.value());
+        }
+        return header.toString();
+    }
+
+    OkHttpClient getStreamingClient() {
+        OkHttpClient streamingClient = this.streamingClient;
+        if (streamingClient == null) {
+            // Streaming responses like Server-Sent Events can legitimately go quiet for longer than the default read
+            // timeout. The derived client still shares the connection pool.
+            OkHttpClient.Builder builder = client.newBuilder().readTimeout(0, TimeUnit.MILLISECONDS);
+            Dispatcher dispatcher = client.dispatcher();
+            if (dispatcher.getMaxRequests() != Integer.MAX_VALUE || dispatcher.getMaxRequestsPerHost() != Integer.MAX_VALUE) {
+                // Server-Sent Events streams and long polls hold a dispatcher slot for as long as they are open, so a
+                // client with OkHttp's default limit of five requests per host would queue further streams, and every
+                // send, forever. They get an unbounded dispatcher that runs on the same threads instead.
+                builder.dispatcher(createUnboundedDispatcher(dispatcher.executorService()));
+            }
+            streamingClient = builder.build();
+            this.streamingClient = streamingClient;
+        }
+        return streamingClient;
+    }
+
+    private static Request buildRequest(HttpRequest httpRequest) {
         Request.Builder requestBuilder = new Request.Builder().url(httpRequest.getUrl());
 
         switch (httpRequest.getMethod()) {
@@ -88,7 +191,12 @@ final class DefaultHttpClient extends HttpClient {
                 requestBuilder.get();
                 break;
             case "POST":
-                RequestBody body = RequestBody.create(null, new byte[]{});
+                RequestBody body;
+                if (httpRequest.getBody() != null) {
+                    body = RequestBody.create(TEXT_PLAIN, httpRequest.getBody());
+                } else {
+                    body = RequestBody.create(null, new byte[]{});
+                }
                 requestBuilder.post(body);
                 break;
             case "DELETE":
@@ -103,34 +211,35 @@ final class DefaultHttpClient extends HttpClient {
             }
         }
 
-        Request request = requestBuilder.build();
-
-        SingleSubject<HttpResponse> responseSubject = SingleSubject.create();
+        return requestBuilder.build();
+    }
 
-        client.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, IOException e) {
-                Throwable cause = e.getCause();
-                if (cause == null) {
-                    cause = e;
-                }
-                responseSubject.onError(cause);
-            }
+    private static Throwable getCause(IOException e) {
+        Throwable cause = e.getCause();
+        if (cause == null) {
+            cause = e;
+        }
+        return cause;
+    }
 
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                try (ResponseBody body = response.body()) {
-                    HttpResponse httpResponse = new HttpResponse(response.code(), response.message(), body.string());
-                    responseSubject.onSuccess(httpResponse);
-                }
-            }
-        });
+    private static OkHttpClient createSharedClient() {
+        // Server-Sent Events streams occupy a dispatcher slot for as long as they are open, so the default
+        // limit of five requests per host would cap the whole process at five such connections to a server.
+        return new OkHttpClient.Builder()
+                .dispatcher(createUnboundedDispatcher(null))
+                .cookieJar(new InMemoryCookieJar())
+                .build();
+    }
 
-        return responseSubject;
+    private static Dispatcher createUnboundedDispatcher(ExecutorService executorService) {
+        Dispatcher dispatcher = executorService != null ? new Dispatcher(executorService) : new Dispatcher();
+        dispatcher.setMaxRequests(Integer.MAX_VALUE);
+        dispatcher.setMaxRequestsPerHost(Integer.MAX_VALUE);
+        return dispatcher;
     }
 
-    @Override
-    public WebSocketWrapper createWebSocket(String url, Map<String, String> headers) {
-        return new OkHttpWebSocketWrapper(url, headers, client);
+    // Created on first use so that processes which always supply their own client never build it.
+    private static class SharedClientHolder {
+        static final OkHttpClient INSTANCE = createSharedClient();
     }
 }
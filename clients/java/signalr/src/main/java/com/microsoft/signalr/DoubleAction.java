@@ -0,0 +1,13 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+/**
+ * A callback that takes one double parameter, so the value isn't boxed.
+ */
+public interface DoubleAction {
+    // We can't use the @FunctionalInterface annotation because it's only
+    // available on Android API Level 24 and above.
+    void invoke(double param1);
+}
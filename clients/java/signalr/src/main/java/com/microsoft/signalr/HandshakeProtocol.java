@@ -3,18 +3,53 @@
 
 package com.microsoft.signalr;
 
-import com.google.gson.Gson;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+// The handshake messages are read and written with the streaming API rather than a Gson, so that starting a connection
+// needs neither reflection over them nor a Gson of its own.
 final class HandshakeProtocol {
-    private static final Gson gson = new Gson();
     private static final String RECORD_SEPARATOR = "\u001e";
 
     public static String createHandshakeRequestMessage(HandshakeRequestMessage message) {
         // The handshake request is always in the JSON format
-        return gson.toJson(message) + RECORD_SEPARATOR;
+        StringWriter json = new StringWriter();
+        try {
+            JsonWriter writer = new JsonWriter(json);
+            writer.beginObject();
+            writer.name("protocol").value(message.getProtocol());
+            writer.name("version").value(message.getVersion());
+            writer.endObject();
+            writer.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException("Error writing the handshake request.", ex);
+        }
+        return json.append(RECORD_SEPARATOR).toString();
     }
 
     public static HandshakeResponseMessage parseHandshakeResponse(String message) {
-        return gson.fromJson(message, HandshakeResponseMessage.class);
+        String error = null;
+        try {
+            JsonReader reader = new JsonReader(new StringReader(message));
+            // Gson read the response leniently, so this does too.
+            reader.setLenient(true);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("error") && reader.peek() != JsonToken.NULL) {
+                    error = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IOException | IllegalStateException ex) {
+            throw new RuntimeException("Error reading the handshake response.", ex);
+        }
+        return new HandshakeResponseMessage(error);
     }
 }
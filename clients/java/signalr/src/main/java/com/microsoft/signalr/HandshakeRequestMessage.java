@@ -11,4 +11,12 @@ final class HandshakeRequestMessage {
         this.protocol = protocol;
         this.version = version;
     }
+
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public int getVersion() {
+        return version;
+    }
 }
@@ -6,11 +6,13 @@ package com.microsoft.signalr;
 import java.util.HashMap;
 import java.util.Map;
 
+import io.reactivex.Observable;
 import io.reactivex.Single;
 
 class HttpRequest {
     private String method;
     private String url;
+    private String body;
     private final Map<String, String> headers = new HashMap<>();
 
     public void setMethod(String method) {
@@ -21,6 +23,10 @@ class HttpRequest {
         this.url = url;
     }
 
+    public void setBody(String body) {
+        this.body = body;
+    }
+
     public void addHeader(String key, String value) {
         this.headers.put(key, value);
     }
@@ -40,6 +46,10 @@ class HttpRequest {
     public Map<String, String> getHeaders() {
         return headers;
     }
+
+    public String getBody() {
+        return body;
+    }
 }
 
 class HttpResponse {
@@ -74,6 +84,34 @@ class HttpResponse {
     }
 }
 
+class StreamingHttpResponse {
+    private final int statusCode;
+    private final String statusText;
+    private final Observable<String> content;
+
+    public StreamingHttpResponse(int statusCode, String statusText, Observable<String> content) {
+        this.statusCode = statusCode;
+        this.statusText = statusText;
+        this.content = content;
+    }
+
+    /**
+     * The response body, emitted in chunks as it is read. Subscribing starts reading the body and disposing
+     * the subscription aborts the request.
+     */
+    public Observable<String> getContent() {
+        return content;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getStatusText() {
+        return statusText;
+    }
+}
+
 abstract class HttpClient {
     public Single<HttpResponse> get(String url) {
         HttpRequest request = new HttpRequest();
@@ -116,5 +154,15 @@ abstract class HttpClient {
 
     public abstract Single<HttpResponse> send(HttpRequest request);
 
+    /**
+     * Sends a request without buffering the response body. The returned Single completes as soon as the
+     * response headers have been received.
+     */
+    public Single<StreamingHttpResponse> sendStreaming(HttpRequest request) {
+        // Clients that can't read responses incrementally deliver the whole body as a single chunk.
+        return send(request).map(response -> new StreamingHttpResponse(response.getStatusCode(), response.getStatusText(),
+                Observable.just(response.getContent())));
+    }
+
     public abstract WebSocketWrapper createWebSocket(String url, Map<String, String> headers);
 }
\ No newline at end of file
@@ -3,22 +3,35 @@
 
 package com.microsoft.signalr;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import io.reactivex.Single;
+import okhttp3.OkHttpClient;
 
 /**
  * A builder for configuring {@link HubConnection} instances.
  */
 public class HttpHubConnectionBuilder {
     private final String url;
+    private final List<String> additionalUrls = new ArrayList<>();
+    private boolean selectByLatency;
     private Transport transport;
     private HttpClient httpClient;
+    private OkHttpClient okHttpClient;
+    private boolean isolateCookies = true;
+    private boolean nioWebSockets;
+    private boolean lowFootprint;
     private boolean skipNegotiate;
     private Single<String> accessTokenProvider;
     private long handshakeResponseTimeout = 0;
     private Map<String, String> headers;
+    private final List<HubConnectionMetrics> metrics = new ArrayList<>();
+    private final List<HubConnectionEventListener> eventListeners = new ArrayList<>();
+    private final List<HubInvocationInterceptor> interceptors = new ArrayList<>();
 
     HttpHubConnectionBuilder(String url) {
         this.url = url;
@@ -46,6 +59,88 @@ public class HttpHubConnectionBuilder {
         return this;
     }
 
+    /**
+     * Sets the {@link OkHttpClient} that the {@link HubConnection} should share its connection pool, dispatcher and TLS configuration with.
+     * If this isn't set, all {@link HubConnection}s in the process share a single default client. The Server-Sent Events and
+     * Long Polling transports hold a request open for as long as the connection is, so their requests don't count towards
+     * the limits of the client's {@link okhttp3.Dispatcher}, they run on its executor with a dispatcher of their own.
+     *
+     * @param okHttpClient The {@link OkHttpClient} to share.
+     * @return This instance of the HttpHubConnectionBuilder.
+     */
+    public HttpHubConnectionBuilder withOkHttpClient(OkHttpClient okHttpClient) {
+        this.okHttpClient = okHttpClient;
+        return this;
+    }
+
+    /**
+     * Indicates whether the {@link HubConnection} should keep its cookies separate from other connections.
+     * When set to false the cookie jar of the shared {@link OkHttpClient} is used. Defaults to true.
+     *
+     * @param isolateCookies Boolean indicating if the {@link HubConnection} should use its own cookie jar.
+     * @return This instance of the HttpHubConnectionBuilder.
+     */
+    public HttpHubConnectionBuilder shouldIsolateCookies(boolean isolateCookies) {
+        this.isolateCookies = isolateCookies;
+        return this;
+    }
+
+    /**
+     * Adds URLs of other deployments of the same hub, for example in other regions. If connecting to one URL fails
+     * the {@link HubConnection} tries the next one.
+     *
+     * @param urls The URLs of the other deployments of the SignalR hub.
+     * @return This instance of the HttpHubConnectionBuilder.
+     */
+    public HttpHubConnectionBuilder withAdditionalUrls(String... urls) {
+        this.additionalUrls.addAll(Arrays.asList(urls));
+        return this;
+    }
+
+    /**
+     * Indicates whether the {@link HubConnection} should pick the hub URL and transport that connected the fastest
+     * recently, instead of always trying them in order. Latency is measured across all connections in the process, when
+     * they connect, and a failure counts against a URL or transport for a few minutes. A URL or transport that wasn't
+     * tried for a few minutes gets one connection to measure it, so the choice adapts when latencies change. Defaults
+     * to false.
+     *
+     * @param selectByLatency Boolean indicating if the {@link HubConnection} should select by measured latency.
+     * @return This instance of the HttpHubConnectionBuilder.
+     */
+    public HttpHubConnectionBuilder shouldSelectByLatency(boolean selectByLatency) {
+        this.selectByLatency = selectByLatency;
+        return this;
+    }
+
+    /**
+     * Indicates whether the WebSockets transport should use a client that shares a few selector threads between all
+     * connections in the process, instead of OkHttp's thread per connection. Use this when a process holds thousands of
+     * connections. It only supports ws:// URLs, and hub method handlers run on the shared threads so they must not block.
+     * Defaults to false.
+     *
+     * @param nioWebSockets Boolean indicating if the {@link HubConnection} should use the shared selector threads.
+     * @return This instance of the HttpHubConnectionBuilder.
+     */
+    public HttpHubConnectionBuilder shouldUseNioWebSockets(boolean nioWebSockets) {
+        this.nioWebSockets = nioWebSockets;
+        return this;
+    }
+
+    /**
+     * Indicates whether the {@link HubConnection} should cost as little as possible while it is connected but idle, for
+     * processes that hold many connections that rarely send. ws:// WebSockets then use the shared selector threads of
+     * {@link #shouldUseNioWebSockets}, so that the connection has no thread of its own, and the keep alive timer only
+     * runs when a ping or the server timeout is due, instead of every second. Hub method handlers of ws:// connections
+     * run on the shared threads so they must not block. Defaults to false.
+     *
+     * @param lowFootprint Boolean indicating if the {@link HubConnection} should keep its idle footprint low.
+     * @return This instance of the HttpHubConnectionBuilder.
+     */
+    public HttpHubConnectionBuilder shouldUseLowFootprint(boolean lowFootprint) {
+        this.lowFootprint = lowFootprint;
+        return this;
+    }
+
     /**
      * Indicates to the {@link HubConnection} that it should skip the negotiate process.
      * Note: This option only works with the Websockets transport and the Azure SignalR Service require the negotiate step.
@@ -106,12 +201,112 @@ public class HttpHubConnectionBuilder {
         return this;
     }
 
+    /**
+     * Adds a listener for measurements of the {@link HubConnection}, such as message counts and sizes, parse times and
+     * invocation latencies. Listeners are called in the order they were added. Nothing is measured when none is added.
+     *
+     * @param metrics The listener to report measurements to.
+     * @return This instance of the HttpHubConnectionBuilder.
+     */
+    public HttpHubConnectionBuilder withMetrics(HubConnectionMetrics metrics) {
+        this.metrics.add(metrics);
+        return this;
+    }
+
+    /**
+     * Adds a listener for the phases of starting and stopping the {@link HubConnection}, to find out where the time to
+     * connect goes. Listeners are called in the order they were added.
+     *
+     * @param eventListener The listener to report the phases to.
+     * @return This instance of the HttpHubConnectionBuilder.
+     */
+    public HttpHubConnectionBuilder withEventListener(HubConnectionEventListener eventListener) {
+        this.eventListeners.add(eventListener);
+        return this;
+    }
+
+    /**
+     * Adds an interceptor that reads and writes the headers of the invocations the {@link HubConnection} sends and
+     * receives. Interceptors run in the order they were added.
+     *
+     * @param interceptor The interceptor to add.
+     * @return This instance of the HttpHubConnectionBuilder.
+     */
+    public HttpHubConnectionBuilder withInvocationInterceptor(HubInvocationInterceptor interceptor) {
+        this.interceptors.add(interceptor);
+        return this;
+    }
+
     /**
      * Builds a new instance of {@link HubConnection}.
      *
      * @return A new instance of {@link HubConnection}.
      */
     public HubConnection build() {
-        return new HubConnection(url, transport, skipNegotiate, httpClient, accessTokenProvider, handshakeResponseTimeout, headers);
+        return new HubConnection(this);
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    List<String> getAdditionalUrls() {
+        return additionalUrls;
+    }
+
+    boolean isSelectByLatency() {
+        return selectByLatency;
+    }
+
+    Transport getTransport() {
+        return transport;
+    }
+
+    HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
+    boolean isIsolateCookies() {
+        return isolateCookies;
+    }
+
+    boolean isNioWebSockets() {
+        return nioWebSockets;
+    }
+
+    boolean isLowFootprint() {
+        return lowFootprint;
+    }
+
+    boolean isSkipNegotiate() {
+        return skipNegotiate;
+    }
+
+    Single<String> getAccessTokenProvider() {
+        return accessTokenProvider;
+    }
+
+    long getHandshakeResponseTimeout() {
+        return handshakeResponseTimeout;
+    }
+
+    Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    List<HubConnectionMetrics> getMetrics() {
+        return metrics;
+    }
+
+    List<HubConnectionEventListener> getEventListeners() {
+        return eventListeners;
+    }
+
+    List<HubInvocationInterceptor> getInvocationInterceptors() {
+        return interceptors;
     }
 }
@@ -0,0 +1,131 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.reactivex.Completable;
+import io.reactivex.subjects.CompletableSubject;
+
+/**
+ * Sends messages for the HTTP based transports. The server only accepts one POST per connection at a time,
+ * so messages queued while a POST is in flight are batched into the body of the next one.
+ */
+class HttpSendQueue {
+    private final HttpClient client;
+    private final String url;
+    private final Map<String, String> headers;
+    private final Lock lock = new ReentrantLock();
+    private StringBuilder pendingMessages;
+    private CompletableSubject pendingSend;
+    private boolean sending;
+    private boolean closed;
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpSendQueue.class);
+
+    public HttpSendQueue(HttpClient client, String url, Map<String, String> headers) {
+        this.client = client;
+        this.url = url;
+        this.headers = headers;
+    }
+
+    /**
+     * Queues a message to be sent.
+     *
+     * @param message The message to send.
+     * @return A Completable that completes when the POST containing the message has been accepted by the server.
+     */
+    public Completable send(String message) {
+        CompletableSubject result;
+        boolean startSending = false;
+        lock.lock();
+        try {
+            if (closed) {
+                return Completable.error(new IllegalStateException("Cannot send messages after the transport has stopped."));
+            }
+
+            if (pendingMessages == null) {
+                pendingMessages = new StringBuilder();
+                pendingSend = CompletableSubject.create();
+            }
+            pendingMessages.append(message);
+            result = pendingSend;
+
+            if (!sending) {
+                sending = true;
+                startSending = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (startSending) {
+            sendPending();
+        }
+        return result;
+    }
+
+    /**
+     * Stops sending. Messages that haven't been sent yet fail.
+     */
+    public void close() {
+        CompletableSubject unsent;
+        lock.lock();
+        try {
+            closed = true;
+            unsent = pendingSend;
+            pendingMessages = null;
+            pendingSend = null;
+        } finally {
+            lock.unlock();
+        }
+
+        if (unsent != null) {
+            unsent.onError(new IllegalStateException("The transport stopped before the message was sent."));
+        }
+    }
+
+    private void sendPending() {
+        String batch;
+        CompletableSubject batchSend;
+        lock.lock();
+        try {
+            if (pendingMessages == null || closed) {
+                sending = false;
+                return;
+            }
+
+            batch = pendingMessages.toString();
+            batchSend = pendingSend;
+            pendingMessages = null;
+            pendingSend = null;
+        } finally {
+            lock.unlock();
+        }
+
+        HttpRequest request = new HttpRequest();
+        request.addHeaders(headers);
+        request.setBody(batch);
+        client.post(url, request).subscribe(response -> {
+            if (response.getStatusCode() != 200) {
+                RuntimeException exception = new RuntimeException(String.format("Unexpected status code returned from send: %d %s.",
+                        response.getStatusCode(), response.getStatusText()));
+                logger.error("Error sending messages: {}", exception.getMessage());
+                batchSend.onError(exception);
+            } else {
+                batchSend.onComplete();
+            }
+            sendPending();
+        }, error -> {
+            logger.error("Error sending messages: {}", error.getMessage());
+            batchSend.onError(error);
+            sendPending();
+        });
+    }
+}
@@ -0,0 +1,106 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads the arguments of an invocation one after the other, as they are parsed. Used by {@link HubMethodBinder}s,
+ * which read each argument with the method that matches its parameter type.
+ */
+public final class HubArgumentReader {
+    private final JsonReader reader;
+    private final Gson gson;
+    private final int parameterCount;
+    private int argumentCount;
+
+    HubArgumentReader(JsonReader reader, Gson gson, int parameterCount) {
+        this.reader = reader;
+        this.gson = gson;
+        this.parameterCount = parameterCount;
+    }
+
+    /**
+     * @return The next argument as a boolean.
+     * @throws IOException If the argument isn't a boolean.
+     */
+    public boolean readBoolean() throws IOException {
+        next();
+        return reader.nextBoolean();
+    }
+
+    /**
+     * @return The next argument as an int.
+     * @throws IOException If the argument isn't a number.
+     */
+    public int readInt() throws IOException {
+        next();
+        return reader.nextInt();
+    }
+
+    /**
+     * @return The next argument as a long.
+     * @throws IOException If the argument isn't a number.
+     */
+    public long readLong() throws IOException {
+        next();
+        return reader.nextLong();
+    }
+
+    /**
+     * @return The next argument as a double.
+     * @throws IOException If the argument isn't a number.
+     */
+    public double readDouble() throws IOException {
+        next();
+        return reader.nextDouble();
+    }
+
+    /**
+     * @return The next argument as a String, or null.
+     * @throws IOException If the argument can't be read.
+     */
+    public String readString() throws IOException {
+        next();
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    /**
+     * @param type The type of the argument.
+     * @param <T> The type of the argument.
+     * @return The next argument, bound to the type.
+     * @throws IOException If the argument can't be read.
+     */
+    public <T> T read(Class<T> type) throws IOException {
+        next();
+        return gson.fromJson(reader, type);
+    }
+
+    /**
+     * @param type The type of the argument, which can be generic, see {@link TypeReference}.
+     * @param <T> The type of the argument.
+     * @return The next argument, bound to the type.
+     * @throws IOException If the argument can't be read.
+     */
+    public <T> T read(Type type) throws IOException {
+        next();
+        return gson.fromJson(reader, type);
+    }
+
+    private void next() throws IOException {
+        if (reader.peek() == JsonToken.END_ARRAY) {
+            throw new RuntimeException(String.format("Invocation provides %d argument(s) but target expects %d.", argumentCount, parameterCount));
+        }
+        argumentCount++;
+    }
+}
@@ -0,0 +1,87 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes the arguments of an invocation one after the other. Used by generated {@link HubProxy} implementations, which
+ * write each argument with the method that matches its parameter type.
+ */
+public final class HubArgumentWriter {
+    private final JsonWriter writer;
+    private final Gson gson;
+
+    HubArgumentWriter(JsonWriter writer, Gson gson) {
+        this.writer = writer;
+        this.gson = gson;
+    }
+
+    /**
+     * @param value The next argument.
+     * @throws IOException If the argument can't be written.
+     */
+    public void writeBoolean(boolean value) throws IOException {
+        writer.value(value);
+    }
+
+    /**
+     * @param value The next argument.
+     * @throws IOException If the argument can't be written.
+     */
+    public void writeInt(int value) throws IOException {
+        writer.value(value);
+    }
+
+    /**
+     * @param value The next argument.
+     * @throws IOException If the argument can't be written.
+     */
+    public void writeLong(long value) throws IOException {
+        writer.value(value);
+    }
+
+    /**
+     * @param value The next argument.
+     * @throws IOException If the argument is NaN or infinite.
+     */
+    public void writeDouble(double value) throws IOException {
+        writer.value(value);
+    }
+
+    /**
+     * @param value The next argument, or null.
+     * @throws IOException If the argument can't be written.
+     */
+    public void writeString(String value) throws IOException {
+        writer.value(value);
+    }
+
+    /**
+     * Writes an argument as its runtime class, the way {@link HubConnection#send(String, Object...)} does.
+     *
+     * @param value The next argument, or null.
+     * @throws IOException If the argument can't be written.
+     */
+    public void write(Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+            return;
+        }
+        gson.toJson(value, value.getClass(), writer);
+    }
+
+    /**
+     * @param value The next argument, or null.
+     * @param type The type of the argument, which can be generic, see {@link TypeReference}.
+     * @throws IOException If the argument can't be written.
+     */
+    public void write(Object value, Type type) throws IOException {
+        gson.toJson(value, type, writer);
+    }
+}
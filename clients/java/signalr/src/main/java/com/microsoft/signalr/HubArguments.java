@@ -0,0 +1,18 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.IOException;
+
+/**
+ * Writes the arguments of one invocation. Generated {@link HubProxy} implementations pass one to
+ * {@link HubConnection#invoke(HubProxyMethod, HubResultReader, HubArguments)} and the related methods.
+ */
+public interface HubArguments {
+    /**
+     * @param writer The writer to write each argument to, in order.
+     * @throws IOException If an argument can't be written.
+     */
+    void write(HubArgumentWriter writer) throws IOException;
+}
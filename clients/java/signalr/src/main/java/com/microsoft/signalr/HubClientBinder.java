@@ -0,0 +1,24 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.List;
+
+/**
+ * Registers the {@link HubMethodName} methods of a client class with a connection. The signalr-processor annotation
+ * processor generates one for every such class, named after it with a _HubBinder suffix, which
+ * {@link HubConnection#register(Object)} finds.
+ *
+ * @param <T> The type of the client.
+ */
+public interface HubClientBinder<T> {
+    /**
+     * Registers the methods of the client.
+     *
+     * @param connection The connection to register the methods with.
+     * @param client The client to call the methods on.
+     * @return The registration of each method.
+     */
+    List<Subscription> bind(HubConnection connection, T client);
+}
@@ -0,0 +1,67 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the generated {@link HubClientBinder}s of a client class and of the classes and interfaces it extends. They
+ * are looked up by name once per class, and cached.
+ */
+final class HubClientBinders {
+    private static final String SUFFIX = "_HubBinder";
+    private static final Map<Class<?>, List<HubClientBinder<Object>>> binders = new ConcurrentHashMap<>();
+
+    private HubClientBinders() {
+    }
+
+    static List<HubClientBinder<Object>> get(Class<?> clientClass) {
+        List<HubClientBinder<Object>> found = binders.get(clientClass);
+        if (found == null) {
+            found = new ArrayList<>();
+            find(clientClass, found, new ArrayList<>());
+            if (found.isEmpty()) {
+                throw new RuntimeException(String.format("No generated binder was found for %s. Is signalr-processor on the annotation processor path?",
+                        clientClass.getName()));
+            }
+            found = Collections.unmodifiableList(found);
+            binders.put(clientClass, found);
+        }
+        return found;
+    }
+
+    private static void find(Class<?> type, List<HubClientBinder<Object>> found, List<Class<?>> visited) {
+        if (type == null || type == Object.class || visited.contains(type)) {
+            return;
+        }
+        visited.add(type);
+
+        HubClientBinder<Object> binder = load(type);
+        if (binder != null) {
+            found.add(binder);
+        }
+        find(type.getSuperclass(), found, visited);
+        for (Class<?> implemented : type.getInterfaces()) {
+            find(implemented, found, visited);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HubClientBinder<Object> load(Class<?> type) {
+        // Nested classes are generated as Outer_Inner_HubBinder.
+        String name = type.getName().replace('$', '_') + SUFFIX;
+        try {
+            Class<?> binderClass = Class.forName(name, true, type.getClassLoader());
+            return (HubClientBinder<Object>) binderClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException ex) {
+            return null;
+        } catch (ReflectiveOperationException ex) {
+            throw new RuntimeException(String.format("Failed to create the binder %s.", name), ex);
+        }
+    }
+}
@@ -3,14 +3,16 @@
 
 package com.microsoft.signalr;
 
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -23,6 +25,8 @@ import org.slf4j.LoggerFactory;
 import io.reactivex.Completable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.*;
 
 /**
@@ -30,11 +34,21 @@ import io.reactivex.subjects.*;
  */
 public class HubConnection {
     private static final String RECORD_SEPARATOR = "\u001e";
-    private static final List<Class<?>> emptyArray = new ArrayList<>();
+    private static final List<Type> emptyArray = new ArrayList<>();
     private static final int MAX_NEGOTIATE_ATTEMPTS = 100;
-
-    private final String baseUrl;
+    private static final String[] TRANSPORT_PREFERENCE = { "WebSockets", "ServerSentEvents", "LongPolling" };
+
+    private final List<String> baseUrls = new ArrayList<>();
+    private String baseUrl;
+    private final boolean selectByLatency;
+    private final boolean lowFootprint;
+    private final LatencyTracker latencyTracker;
+    private long endpointStartTime;
+    private long transportStartTime;
     private Transport transport;
+    private boolean customTransport = false;
+    private String transportName;
+    private Set<String> availableTransports;
     private OnReceiveCallBack callback;
     private final CallbackMap handlers = new CallbackMap();
     private HubProtocol protocol;
@@ -48,7 +62,7 @@ public class HubConnection {
     private ConnectionState connectionState = null;
     private final HttpClient httpClient;
     private String stopError;
-    private Timer pingTimer = null;
+    private ScheduledFuture<?> pingTimer = null;
     private final AtomicLong nextServerTimeout = new AtomicLong();
     private final AtomicLong nextPingActivation = new AtomicLong();
     private long keepAliveInterval = 15*1000;
@@ -56,7 +70,15 @@ public class HubConnection {
     private long tickRate = 1000;
     private CompletableSubject handshakeResponseSubject;
     private long handshakeResponseTimeout = 15*1000;
-    private final Logger logger = LoggerFactory.getLogger(HubConnection.class);
+    // Null unless set on the builder, so measuring costs nothing when nobody listens.
+    private final HubConnectionMetrics metrics;
+    // Starting and stopping are rare, so a listener that does nothing stands in when none is set.
+    private final HubConnectionEventListener eventListener;
+    private static final HubConnectionEventListener NO_EVENT_LISTENER = new HubConnectionEventListener() {
+    };
+    private final List<HubInvocationInterceptor> interceptors = new ArrayList<>();
+    private long connectedTime;
+    private static final Logger logger = LoggerFactory.getLogger(HubConnection.class);
 
     /**
      * Sets the server timeout interval for the connection.
@@ -99,40 +121,55 @@ public class HubConnection {
         this.tickRate = tickRateInMilliseconds;
     }
 
-    HubConnection(String url, Transport transport, boolean skipNegotiate, HttpClient httpClient,
-                  Single<String> accessTokenProvider, long handshakeResponseTimeout, Map<String, String> headers) {
+    HubConnection(HttpHubConnectionBuilder builder) {
+        String url = builder.getUrl();
         if (url == null || url.isEmpty()) {
             throw new IllegalArgumentException("A valid url is required.");
         }
 
         this.baseUrl = url;
-        this.protocol = new JsonHubProtocol();
+        this.baseUrls.add(url);
+        for (String additionalUrl : builder.getAdditionalUrls()) {
+            if (additionalUrl == null || additionalUrl.isEmpty()) {
+                throw new IllegalArgumentException("A valid url is required.");
+            }
+            this.baseUrls.add(additionalUrl);
+        }
+        this.selectByLatency = builder.isSelectByLatency();
+        this.latencyTracker = selectByLatency ? LatencyTracker.getDefault() : null;
+        this.lowFootprint = builder.isLowFootprint();
+        this.protocol = JsonHubProtocol.getInstance();
 
-        if (accessTokenProvider != null) {
-            this.accessTokenProvider = accessTokenProvider;
+        if (builder.getAccessTokenProvider() != null) {
+            this.accessTokenProvider = builder.getAccessTokenProvider();
         } else {
             this.accessTokenProvider = Single.just("");
         }
 
-        if (httpClient != null) {
-            this.httpClient = httpClient;
+        if (builder.getHttpClient() != null) {
+            this.httpClient = builder.getHttpClient();
         } else {
-            this.httpClient = new DefaultHttpClient();
+            this.httpClient = new DefaultHttpClient(builder);
         }
 
-        if (transport != null) {
-            this.transport = transport;
+        if (builder.getTransport() != null) {
+            this.transport = builder.getTransport();
+            this.customTransport = true;
         }
 
-        if (handshakeResponseTimeout > 0) {
-            this.handshakeResponseTimeout = handshakeResponseTimeout;
+        if (builder.getHandshakeResponseTimeout() > 0) {
+            this.handshakeResponseTimeout = builder.getHandshakeResponseTimeout();
         }
 
-        if (headers != null) {
-            this.headers.putAll(headers);
+        if (builder.getHeaders() != null) {
+            this.headers.putAll(builder.getHeaders());
         }
 
-        this.skipNegotiate = skipNegotiate;
+        this.skipNegotiate = builder.isSkipNegotiate();
+        this.metrics = CompositeHubConnectionMetrics.of(builder.getMetrics());
+        HubConnectionEventListener eventListener = CompositeHubConnectionEventListener.of(builder.getEventListeners());
+        this.eventListener = eventListener != null ? eventListener : NO_EVENT_LISTENER;
+        this.interceptors.addAll(builder.getInvocationInterceptors());
 
         this.callback = (payload) -> {
             resetServerTimeout();
@@ -155,6 +192,7 @@ public class HubConnection {
                     throw exception;
                 }
                 handshakeReceived = true;
+                this.eventListener.handshakeResponseReceived(this);
                 handshakeResponseSubject.onComplete();
 
                 payload = payload.substring(handshakeLength);
@@ -164,10 +202,21 @@ public class HubConnection {
                 }
             }
 
-            HubMessage[] messages = protocol.parseMessages(payload, connectionState);
+            HubMessage[] messages;
+            if (metrics == null) {
+                messages = protocol.parseMessages(payload, connectionState);
+            } else {
+                long parseStart = System.nanoTime();
+                messages = protocol.parseMessages(payload, connectionState);
+                metrics.payloadReceived(payload.length(), messages.length, System.nanoTime() - parseStart);
+            }
 
-            for (HubMessage message : messages) {
+            for (int i = 0; i < messages.length; i++) {
+                HubMessage message = messages[i];
                 logger.debug("Received message of type {}.", message.getMessageType());
+                if (metrics != null) {
+                    metrics.messageReceived(message.getMessageType(), getTarget(message), messages.length - i - 1);
+                }
                 switch (message.getMessageType()) {
                     case INVOCATION_BINDING_FAILURE:
                         InvocationBindingFailureMessage msg = (InvocationBindingFailureMessage)message;
@@ -175,10 +224,22 @@ public class HubConnection {
                         break;
                     case INVOCATION:
                         InvocationMessage invocationMessage = (InvocationMessage) message;
+                        interceptReceive(invocationMessage, invocationMessage.getTarget());
                         List<InvocationHandler> handlers = this.handlers.get(invocationMessage.getTarget());
                         if (handlers != null) {
+                            long dispatchStart = metrics != null ? System.nanoTime() : 0;
+                            PrimitiveArguments primitiveArguments = invocationMessage.getPrimitiveArguments();
                             for (InvocationHandler handler : handlers) {
-                                handler.getAction().invoke(invocationMessage.getArguments());
+                                if (handler.getMethodBinder() != null) {
+                                    handler.invokeBound(invocationMessage.getBoundArguments());
+                                } else if (primitiveArguments != null && handler.getPrimitiveAction() != null) {
+                                    handler.getPrimitiveAction().invoke(primitiveArguments);
+                                } else {
+                                    handler.getAction().invoke(invocationMessage.getArguments());
+                                }
+                            }
+                            if (metrics != null) {
+                                metrics.handlersInvoked(invocationMessage.getTarget(), System.nanoTime() - dispatchStart);
                             }
                         } else {
                             logger.warn("Failed to find handler for '{}' method.", invocationMessage.getTarget());
@@ -199,6 +260,12 @@ public class HubConnection {
                             logger.warn("Dropped unsolicited Completion message for invocation '{}'.", completionMessage.getInvocationId());
                             continue;
                         }
+                        interceptReceive(completionMessage, irq.getTarget());
+                        // Report the completion before the caller can observe it, so the pending count is up to date.
+                        if (metrics != null) {
+                            metrics.invocationCompleted(irq.getTarget(), System.nanoTime() - irq.getStartTime(),
+                                    completionMessage.getError() == null, connectionState.getPendingInvocationCount());
+                        }
                         irq.complete(completionMessage);
                         break;
                     case STREAM_ITEM:
@@ -209,7 +276,11 @@ public class HubConnection {
                             continue;
                         }
 
+                        interceptReceive(streamItem, streamInvocationRequest.getTarget());
                         streamInvocationRequest.addItem(streamItem);
+                        if (metrics != null) {
+                            metrics.streamItemReceived(streamInvocationRequest.getTarget());
+                        }
                         break;
                     case STREAM_INVOCATION:
                     case CANCEL_INVOCATION:
@@ -221,22 +292,99 @@ public class HubConnection {
         };
     }
 
+    // A single timer thread serves every connection in the process, so idle connections don't each cost a thread.
+    // The tasks only check timestamps and queue sends. Anything that can run user code, like stopping a connection,
+    // which runs the closed callbacks, is handed off to an io thread, so a callback that blocks, say to reconnect,
+    // doesn't hold up the pings and timeouts of every other connection.
+    static ScheduledExecutorService getScheduler() {
+        return SchedulerHolder.INSTANCE;
+    }
+
+    private static class SchedulerHolder {
+        static final ScheduledExecutorService INSTANCE = createScheduler();
+
+        private static ScheduledExecutorService createScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "signalr-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Stopped connections cancel their timers, don't keep them queued until they would have fired.
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+
     private void timeoutHandshakeResponse(long timeout, TimeUnit unit) {
-        ScheduledExecutorService scheduledThreadPool = Executors.newSingleThreadScheduledExecutor();
-        scheduledThreadPool.schedule(() -> {
+        CompletableSubject handshakeResponse = handshakeResponseSubject;
+        // The error runs the callbacks of start() on the thread it is raised on, so it is raised on an io thread.
+        ScheduledFuture<?> handshakeTimeout = getScheduler().schedule(() -> Schedulers.io().scheduleDirect(() -> {
             // If onError is called on a completed subject the global error handler is called
-            if (!(handshakeResponseSubject.hasComplete() || handshakeResponseSubject.hasThrowable()))
+            if (!(handshakeResponse.hasComplete() || handshakeResponse.hasThrowable()))
             {
-                handshakeResponseSubject.onError(
+                handshakeResponse.onError(
                     new TimeoutException("Timed out waiting for the server to respond to the handshake message."));
             }
-        }, timeout, unit);
+        }), timeout, unit);
+        // Don't keep the timeout, and the connection it refers to, queued once the handshake is over.
+        handshakeResponse.subscribe(() -> handshakeTimeout.cancel(false), error -> handshakeTimeout.cancel(false));
+    }
+
+    /**
+     * Stops the connection if the server timed out and sends a ping if one is due.
+     *
+     * @return False if the connection was stopped.
+     */
+    private boolean checkKeepAlive() {
+        try {
+            if (System.currentTimeMillis() > nextServerTimeout.get()) {
+                if (metrics != null) {
+                    metrics.serverTimeoutElapsed();
+                }
+                Schedulers.io().scheduleDirect(() -> stop("Server timeout elapsed without receiving a message from the server."));
+                return false;
+            }
+
+            if (System.currentTimeMillis() > nextPingActivation.get()) {
+                sendHubMessage(PingMessage.getInstance());
+                if (metrics != null) {
+                    metrics.pingSent();
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            logger.warn("Error sending ping: {}.", e.getMessage());
+            // The connection is probably in a bad or closed state now, throwing
+            // stops the timer from triggering again
+            throw e;
+        }
+    }
+
+    // In the low footprint mode the check runs when the next ping or the server timeout is due rather than every tick,
+    // so an idle connection only wakes up the timer thread once per keep alive interval.
+    private void scheduleKeepAlive(ConnectionState state, long delay) {
+        pingTimer = getScheduler().schedule(() -> {
+            if (!checkKeepAlive()) {
+                return;
+            }
+            hubConnectionStateLock.lock();
+            try {
+                // A stopped connection cancels the timer, but this run may have started already.
+                if (connectionState == state) {
+                    long nextCheck = Math.min(nextPingActivation.get(), nextServerTimeout.get()) + 1;
+                    scheduleKeepAlive(state, Math.max(0, nextCheck - System.currentTimeMillis()));
+                }
+            } finally {
+                hubConnectionStateLock.unlock();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
     }
 
     private Single<NegotiateResponse> handleNegotiate(String url) {
         HttpRequest request = new HttpRequest();
         request.addHeaders(this.headers);
 
+        eventListener.negotiateStart(this, url);
         return httpClient.post(Negotiate.resolveNegotiateUrl(url), request).map((response) -> {
             if (response.getStatusCode() != 200) {
                 throw new RuntimeException(String.format("Unexpected status code returned from negotiate: %d %s.", response.getStatusCode(), response.getStatusText()));
@@ -256,8 +404,9 @@ public class HubConnection {
                 this.headers.put("Authorization", "Bearer " + token);
             }
 
+            eventListener.negotiateEnd(this, url, negotiateResponse.getRedirectUrl());
             return negotiateResponse;
-        });
+        }).doOnError(error -> eventListener.negotiateFailed(this, url, error));
     }
 
     /**
@@ -279,85 +428,164 @@ public class HubConnection {
             return Completable.complete();
         }
 
+        eventListener.connectStart(this);
         handshakeResponseSubject = CompletableSubject.create();
         handshakeReceived = false;
         CompletableSubject tokenCompletable = CompletableSubject.create();
+        eventListener.accessTokenStart(this);
         accessTokenProvider.subscribe(token -> {
             if (token != null && !token.isEmpty()) {
                 this.headers.put("Authorization", "Bearer " + token);
             }
+            eventListener.accessTokenEnd(this);
             tokenCompletable.onComplete();
         });
 
         stopError = null;
-        Single<String> negotiate = null;
-        if (!skipNegotiate) {
-            negotiate = tokenCompletable.andThen(Single.defer(() -> startNegotiate(baseUrl, 0)));
-        } else {
-            negotiate = tokenCompletable.andThen(Single.defer(() -> Single.just(baseUrl)));
-        }
+        Completable connect = tokenCompletable.andThen(Completable.defer(() -> connectToEndpoint(new HashSet<>())));
 
         CompletableSubject start = CompletableSubject.create();
 
-        negotiate.flatMapCompletable(url -> {
-            logger.debug("Starting HubConnection.");
-            if (transport == null) {
-                transport = new WebSocketTransport(headers, httpClient);
-            }
-
-            transport.setOnReceive(this.callback);
-            transport.setOnClose((message) -> stopConnection(message));
-
-            return transport.start(url).andThen(Completable.defer(() -> {
-                String handshake = HandshakeProtocol.createHandshakeRequestMessage(
-                        new HandshakeRequestMessage(protocol.getName(), protocol.getVersion()));
-
-                return transport.send(handshake).andThen(Completable.defer(() -> {
-                    timeoutHandshakeResponse(handshakeResponseTimeout, TimeUnit.MILLISECONDS);
-                    return handshakeResponseSubject.andThen(Completable.defer(() -> {
-                        hubConnectionStateLock.lock();
-                        try {
-                            connectionState = new ConnectionState(this);
-                            hubConnectionState = HubConnectionState.CONNECTED;
-                            logger.info("HubConnection started.");
-
-                            resetServerTimeout();
-                            this.pingTimer = new Timer();
-                            this.pingTimer.schedule(new TimerTask() {
-                                @Override
-                                public void run() {
-                                    try {
-                                        if (System.currentTimeMillis() > nextServerTimeout.get()) {
-                                            stop("Server timeout elapsed without receiving a message from the server.");
-                                            return;
-                                        }
-
-                                        if (System.currentTimeMillis() > nextPingActivation.get()) {
-                                            sendHubMessage(PingMessage.getInstance());
-                                        }
-                                    } catch (Exception e) {
-                                        logger.warn("Error sending ping: {}.", e.getMessage());
-                                        // The connection is probably in a bad or closed state now, cleanup the timer so
-                                        // it stops triggering
-                                        pingTimer.cancel();
-                                    }
-                                }
-                            }, new Date(0), tickRate);
-                        } finally {
-                            hubConnectionStateLock.unlock();
+        connect.andThen(Completable.defer(() -> {
+            String handshake = HandshakeProtocol.createHandshakeRequestMessage(
+                    new HandshakeRequestMessage(protocol.getName(), protocol.getVersion()));
+
+            eventListener.handshakeStart(this);
+            return transport.send(handshake).andThen(Completable.defer(() -> {
+                eventListener.handshakeRequestSent(this);
+                timeoutHandshakeResponse(handshakeResponseTimeout, TimeUnit.MILLISECONDS);
+                return handshakeResponseSubject.andThen(Completable.defer(() -> {
+                    hubConnectionStateLock.lock();
+                    try {
+                        connectionState = new ConnectionState(this);
+                        hubConnectionState = HubConnectionState.CONNECTED;
+                        connectedTime = System.nanoTime();
+                        logger.info("HubConnection started.");
+                        recordConnectLatency();
+
+                        resetServerTimeout();
+                        if (lowFootprint) {
+                            scheduleKeepAlive(connectionState, 0);
+                        } else {
+                            this.pingTimer = getScheduler().scheduleAtFixedRate(this::checkKeepAlive, 0, tickRate, TimeUnit.MILLISECONDS);
                         }
+                    } finally {
+                        hubConnectionStateLock.unlock();
+                    }
 
-                        return Completable.complete();
-                    }));
+                    eventListener.connectEnd(this);
+                    return Completable.complete();
                 }));
             }));
         // subscribe makes this a "hot" completable so this runs immediately
-        }).subscribeWith(start);
+        })).doOnError(error -> eventListener.connectFailed(this, error)).subscribeWith(start);
 
         return start;
     }
 
-    private Single<String> startNegotiate(String url, int negotiateAttempts) {
+    private Completable connectToEndpoint(Set<String> failedEndpoints) {
+        baseUrl = selectEndpoint(failedEndpoints);
+        String endpoint = baseUrl;
+        transportName = null;
+        endpointStartTime = System.nanoTime();
+        logger.debug("Starting HubConnection.");
+
+        Set<String> failedTransports = new HashSet<>();
+        Completable connect;
+        if (!skipNegotiate) {
+            connect = startNegotiate(endpoint, 0, failedTransports).flatMapCompletable(url -> startTransport(url, failedTransports));
+        } else {
+            connect = startTransport(endpoint, failedTransports);
+        }
+
+        return connect.onErrorResumeNext(error -> {
+            if (selectByLatency) {
+                latencyTracker.recordFailure(endpoint);
+            }
+
+            failedEndpoints.add(endpoint);
+            if (customTransport || failedEndpoints.size() == baseUrls.size()) {
+                return Completable.error(error);
+            }
+
+            logger.warn("Failed to connect to {}: {}. Trying the next hub url.", endpoint, error.getMessage());
+            handshakeResponseSubject = CompletableSubject.create();
+            handshakeReceived = false;
+            return connectToEndpoint(failedEndpoints);
+        });
+    }
+
+    private String selectEndpoint(Set<String> failedEndpoints) {
+        List<String> candidates = new ArrayList<>();
+        for (String url : baseUrls) {
+            if (!failedEndpoints.contains(url)) {
+                candidates.add(url);
+            }
+        }
+
+        if (!selectByLatency) {
+            return candidates.get(0);
+        }
+        return candidates.get(latencyTracker.select(candidates));
+    }
+
+    private void recordConnectLatency() {
+        if (!selectByLatency) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        latencyTracker.recordLatency(baseUrl, TimeUnit.NANOSECONDS.toMillis(now - endpointStartTime));
+        if (transportName != null && !customTransport) {
+            latencyTracker.recordLatency(transportKey(transportName), TimeUnit.NANOSECONDS.toMillis(now - transportStartTime));
+        }
+    }
+
+    private String transportKey(String transportName) {
+        return baseUrl + " " + transportName;
+    }
+
+    private Completable startTransport(String url, Set<String> failedTransports) {
+        if (transport == null) {
+            transport = new WebSocketTransport(headers, httpClient);
+        }
+
+        transport.setOnReceive(this.callback);
+        transport.setOnClose((message) -> stopConnection(message));
+
+        // Without negotiate the transport is always WebSockets.
+        String startedTransport = customTransport ? null : transportName != null ? transportName : "WebSockets";
+        transportStartTime = System.nanoTime();
+        Completable start = Completable.defer(() -> {
+            eventListener.transportStart(this, startedTransport, url);
+            return transport.start(url);
+        }).doOnComplete(() -> eventListener.transportEnd(this, startedTransport))
+            .doOnError(error -> eventListener.transportFailed(this, startedTransport, error));
+
+        return start.onErrorResumeNext(error -> {
+            if (customTransport || skipNegotiate) {
+                return Completable.error(error);
+            }
+
+            if (selectByLatency) {
+                latencyTracker.recordFailure(transportKey(transportName));
+            }
+
+            // Proxies and firewalls can get in the way of some transports, so fall back to the next one the server
+            // supports. The connection id of the failed attempt can't be reused, so negotiate again before trying it.
+            failedTransports.add(transportName);
+            if (selectTransport(availableTransports, failedTransports) == null) {
+                return Completable.error(error);
+            }
+
+            logger.warn("Failed to start the {} transport: {}. Falling back to the next available transport.", transportName, error.getMessage());
+            handshakeResponseSubject = CompletableSubject.create();
+            handshakeReceived = false;
+            return startNegotiate(baseUrl, 0, failedTransports).flatMapCompletable(newUrl -> startTransport(newUrl, failedTransports));
+        });
+    }
+
+    private Single<String> startNegotiate(String url, int negotiateAttempts, Set<String> failedTransports) {
         if (hubConnectionState != HubConnectionState.DISCONNECTED) {
             return Single.just(null);
         }
@@ -368,9 +596,14 @@ public class HubConnection {
             }
 
             if (response.getRedirectUrl() == null) {
-                if (!response.getAvailableTransports().contains("WebSockets")) {
+                availableTransports = response.getAvailableTransports();
+                transportName = selectTransport(availableTransports, failedTransports);
+                if (transportName == null) {
                     throw new RuntimeException("There were no compatible transports on the server.");
                 }
+                if (!customTransport) {
+                    transport = createTransport(transportName);
+                }
 
                 String finalUrl = url;
                 if (response.getConnectionId() != null) {
@@ -384,10 +617,44 @@ public class HubConnection {
                 return Single.just(finalUrl);
             }
 
-            return startNegotiate(response.getRedirectUrl(), negotiateAttempts + 1);
+            return startNegotiate(response.getRedirectUrl(), negotiateAttempts + 1, failedTransports);
         });
     }
 
+    private String selectTransport(Set<String> availableTransports, Set<String> failedTransports) {
+        // Prefer WebSockets, the HTTP based transports are for clients whose network doesn't allow WebSocket upgrades.
+        List<String> candidates = new ArrayList<>();
+        for (String transportName : TRANSPORT_PREFERENCE) {
+            if (availableTransports.contains(transportName) && !failedTransports.contains(transportName)) {
+                candidates.add(transportName);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (!selectByLatency) {
+            return candidates.get(0);
+        }
+
+        List<String> keys = new ArrayList<>();
+        for (String transportName : candidates) {
+            keys.add(transportKey(transportName));
+        }
+        return candidates.get(latencyTracker.select(keys));
+    }
+
+    private Transport createTransport(String transportName) {
+        switch (transportName) {
+            case "ServerSentEvents":
+                return new ServerSentEventsTransport(headers, httpClient);
+            case "LongPolling":
+                return new LongPollingTransport(headers, httpClient);
+            default:
+                return new WebSocketTransport(headers, httpClient);
+        }
+    }
+
     /**
      * Stops a connection to the server.
      *
@@ -425,6 +692,7 @@ public class HubConnection {
 
     private void stopConnection(String errorMessage) {
         RuntimeException exception = null;
+        long connectedDuration;
         hubConnectionStateLock.lock();
         try {
             // errorMessage gets passed in from the transport. An already existing stopError value
@@ -436,16 +704,30 @@ public class HubConnection {
                 exception = new RuntimeException(errorMessage);
                 logger.error("HubConnection disconnected with an error {}.", errorMessage);
             }
+            if (connectionState == null) {
+                // The transport closed before the connection was established, start() reports the failure.
+                if (!(handshakeResponseSubject.hasComplete() || handshakeResponseSubject.hasThrowable())) {
+                    handshakeResponseSubject.onError(exception != null ? exception
+                            : new RuntimeException("The transport closed before the handshake completed."));
+                }
+                return;
+            }
             connectionState.cancelOutstandingInvocations(exception);
             connectionState = null;
+            if (pingTimer != null) {
+                pingTimer.cancel(false);
+                pingTimer = null;
+            }
             logger.info("HubConnection stopped.");
             hubConnectionState = HubConnectionState.DISCONNECTED;
+            connectedDuration = System.nanoTime() - connectedTime;
             handshakeResponseSubject.onComplete();
         } finally {
             hubConnectionStateLock.unlock();
         }
 
         // Do not run these callbacks inside the hubConnectionStateLock
+        eventListener.connectionClosed(this, errorMessage, connectedDuration);
         if (onClosedCallbackList != null) {
             for (OnClosedCallback callback : onClosedCallbackList) {
                 callback.invoke(exception);
@@ -466,6 +748,7 @@ public class HubConnection {
         }
 
         InvocationMessage invocationMessage = new InvocationMessage(null, method, args);
+        interceptSend(invocationMessage, method);
         sendHubMessage(invocationMessage);
     }
 
@@ -482,30 +765,129 @@ public class HubConnection {
     public <T> Single<T> invoke(Class<T> returnType, String method, Object... args) {
         String id = connectionState.getNextInvocationId();
         InvocationMessage invocationMessage = new InvocationMessage(id, method, args);
+        InvocationRequest irq = new InvocationRequest(returnType, id, method);
+
+        // Primitive types can't be cast with the Class cast function
+        return invoke(invocationMessage, irq, returnType.isPrimitive() ? result -> (T) result : returnType::cast);
+    }
+
+    /**
+     * Invokes a hub method on the server using the specified method name and arguments. The return value is bound to
+     * its type as it is parsed, and the type can be generic, see {@link TypeReference}.
+     *
+     * @param returnType The expected return type.
+     * @param method The name of the server method to invoke.
+     * @param args The arguments used to invoke the server method.
+     * @param <T> The expected return type.
+     * @return A Single that yields the return value when the invocation has completed.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Single<T> invoke(Type returnType, String method, Object... args) {
+        String id = connectionState.getNextInvocationId();
+        InvocationMessage invocationMessage = new InvocationMessage(id, method, args);
+        InvocationRequest irq = new InvocationRequest(returnType, id, method);
+
+        return invoke(invocationMessage, irq, result -> (T) result);
+    }
+
+    /**
+     * Invokes a hub method on the server using the specified method name and arguments. The return value is bound to
+     * its generic type as it is parsed.
+     *
+     * @param returnType The expected return type, such as {@code new TypeReference<List<Order>>() { }}.
+     * @param method The name of the server method to invoke.
+     * @param args The arguments used to invoke the server method.
+     * @param <T> The expected return type.
+     * @return A Single that yields the return value when the invocation has completed.
+     */
+    public <T> Single<T> invoke(TypeReference<T> returnType, String method, Object... args) {
+        return invoke(returnType.getType(), method, args);
+    }
+
+    /**
+     * Invokes a hub method of a {@link HubProxy} without waiting for a response. This is called by the generated proxy
+     * implementations, use {@link #createProxy(Class)} instead.
+     *
+     * @param method The server method to invoke.
+     * @param arguments Writes the arguments used to invoke the server method.
+     */
+    public void send(HubProxyMethod method, HubArguments arguments) {
+        if (hubConnectionState != HubConnectionState.CONNECTED) {
+            throw new RuntimeException("The 'send' method cannot be called if the connection is not active");
+        }
+
+        InvocationMessage invocationMessage = new InvocationMessage(null, method, arguments);
+        interceptSend(invocationMessage, method.getName());
+        sendHubMessage(invocationMessage);
+    }
 
+    /**
+     * Invokes a hub method of a {@link HubProxy} that doesn't return a value. This is called by the generated proxy
+     * implementations, use {@link #createProxy(Class)} instead.
+     *
+     * @param method The server method to invoke.
+     * @param arguments Writes the arguments used to invoke the server method.
+     * @return A Completable that completes when the invocation has completed.
+     */
+    public Completable invoke(HubProxyMethod method, HubArguments arguments) {
+        String id = connectionState.getNextInvocationId();
+        InvocationRequest irq = new InvocationRequest(Object.class, id, method.getName());
+        addInvocation(irq);
+
+        CompletableSubject subject = CompletableSubject.create();
+        irq.getPendingCall().subscribe(result -> { }, error -> subject.onError(error), () -> subject.onComplete());
+
+        InvocationMessage invocationMessage = new InvocationMessage(id, method, arguments);
+        interceptSend(invocationMessage, method.getName());
+        sendHubMessage(invocationMessage);
+
+        return subject;
+    }
+
+    /**
+     * Invokes a hub method of a {@link HubProxy}. This is called by the generated proxy implementations, use
+     * {@link #createProxy(Class)} instead.
+     *
+     * @param method The server method to invoke.
+     * @param resultReader Reads the return value.
+     * @param arguments Writes the arguments used to invoke the server method.
+     * @param <T> The expected return type.
+     * @return A Single that yields the return value when the invocation has completed.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Single<T> invoke(HubProxyMethod method, HubResultReader<T> resultReader, HubArguments arguments) {
+        String id = connectionState.getNextInvocationId();
+        InvocationMessage invocationMessage = new InvocationMessage(id, method, arguments);
+        InvocationRequest irq = new InvocationRequest(resultReader, id, method.getName());
+
+        return invoke(invocationMessage, irq, result -> (T) result);
+    }
+
+    private <T> Single<T> invoke(InvocationMessage invocationMessage, InvocationRequest irq, Function<Object, T> cast) {
         SingleSubject<T> subject = SingleSubject.create();
-        InvocationRequest irq = new InvocationRequest(returnType, id);
-        connectionState.addInvocation(irq);
+        addInvocation(irq);
 
         // forward the invocation result or error to the user
         // run continuations on a separate thread
         Subject<Object> pendingCall = irq.getPendingCall();
-        pendingCall.subscribe(result -> {
-            // Primitive types can't be cast with the Class cast function
-            if (returnType.isPrimitive()) {
-                subject.onSuccess((T)result);
-            } else {
-                subject.onSuccess(returnType.cast(result));
-            }
-        }, error -> subject.onError(error));
+        pendingCall.subscribe(result -> subject.onSuccess(cast.apply(result)), error -> subject.onError(error));
 
         // Make sure the actual send is after setting up the callbacks otherwise there is a race
         // where the map doesn't have the callbacks yet when the response is returned
+        interceptSend(invocationMessage, irq.getTarget());
         sendHubMessage(invocationMessage);
 
         return subject;
     }
 
+    private void addInvocation(InvocationRequest irq) {
+        connectionState.addInvocation(irq);
+        if (metrics != null) {
+            irq.setStartTime(System.nanoTime());
+            metrics.invocationStarted(irq.getTarget(), connectionState.getPendingInvocationCount());
+        }
+    }
+
     /**
      * Invokes a streaming hub method on the server using the specified name and arguments.
      *
@@ -518,23 +900,77 @@ public class HubConnection {
     @SuppressWarnings("unchecked")
     public <T> Observable<T> stream(Class<T> returnType, String method, Object ... args) {
         String invocationId = connectionState.getNextInvocationId();
-        AtomicInteger subscriptionCount = new AtomicInteger();
         StreamInvocationMessage streamInvocationMessage = new StreamInvocationMessage(invocationId, method, args);
-        InvocationRequest irq = new InvocationRequest(returnType, invocationId);
-        connectionState.addInvocation(irq);
+        InvocationRequest irq = new InvocationRequest(returnType, invocationId, method);
+
+        // Primitive types can't be cast with the Class cast function
+        return stream(streamInvocationMessage, irq, returnType.isPrimitive() ? result -> (T) result : returnType::cast);
+    }
+
+    /**
+     * Invokes a streaming hub method on the server using the specified name and arguments. Each item is bound to its
+     * type as it is parsed, and the type can be generic, see {@link TypeReference}.
+     *
+     * @param returnType The expected type of the stream items.
+     * @param method The name of the server method to invoke.
+     * @param args The arguments used to invoke the server method.
+     * @param <T> The expected type of the stream items.
+     * @return An observable that yields the streaming results from the server.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Observable<T> stream(Type returnType, String method, Object ... args) {
+        String invocationId = connectionState.getNextInvocationId();
+        StreamInvocationMessage streamInvocationMessage = new StreamInvocationMessage(invocationId, method, args);
+        InvocationRequest irq = new InvocationRequest(returnType, invocationId, method);
+
+        return stream(streamInvocationMessage, irq, result -> (T) result);
+    }
+
+    /**
+     * Invokes a streaming hub method on the server using the specified name and arguments. Each item is bound to its
+     * generic type as it is parsed.
+     *
+     * @param returnType The expected type of the stream items, such as {@code new TypeReference<List<Order>>() { }}.
+     * @param method The name of the server method to invoke.
+     * @param args The arguments used to invoke the server method.
+     * @param <T> The expected type of the stream items.
+     * @return An observable that yields the streaming results from the server.
+     */
+    public <T> Observable<T> stream(TypeReference<T> returnType, String method, Object ... args) {
+        return stream(returnType.getType(), method, args);
+    }
+
+    /**
+     * Invokes a streaming hub method of a {@link HubProxy}. This is called by the generated proxy implementations, use
+     * {@link #createProxy(Class)} instead.
+     *
+     * @param method The server method to invoke.
+     * @param itemReader Reads each stream item.
+     * @param arguments Writes the arguments used to invoke the server method.
+     * @param <T> The expected type of the stream items.
+     * @return An observable that yields the streaming results from the server.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Observable<T> stream(HubProxyMethod method, HubResultReader<T> itemReader, HubArguments arguments) {
+        String invocationId = connectionState.getNextInvocationId();
+        StreamInvocationMessage streamInvocationMessage = new StreamInvocationMessage(invocationId, method, arguments);
+        InvocationRequest irq = new InvocationRequest(itemReader, invocationId, method.getName());
+
+        return stream(streamInvocationMessage, irq, result -> (T) result);
+    }
+
+    private <T> Observable<T> stream(StreamInvocationMessage streamInvocationMessage, InvocationRequest irq, Function<Object, T> cast) {
+        String invocationId = irq.getInvocationId();
+        String method = irq.getTarget();
+        AtomicInteger subscriptionCount = new AtomicInteger();
+        addInvocation(irq);
         ReplaySubject<T> subject = ReplaySubject.create();
 
         Subject<Object> pendingCall = irq.getPendingCall();
-        pendingCall.subscribe(result -> {
-            // Primitive types can't be cast with the Class cast function
-            if (returnType.isPrimitive()) {
-                subject.onNext((T)result);
-            } else {
-                subject.onNext(returnType.cast(result));
-            }
-        }, error -> subject.onError(error),
+        pendingCall.subscribe(result -> subject.onNext(cast.apply(result)), error -> subject.onError(error),
                 () -> subject.onComplete());
 
+        interceptSend(streamInvocationMessage, method);
         sendHubMessage(streamInvocationMessage);
         Observable<T> observable = subject.doOnSubscribe((subscriber) -> subscriptionCount.incrementAndGet());
 
@@ -542,12 +978,107 @@ public class HubConnection {
             if (subscriptionCount.decrementAndGet() == 0) {
                 CancelInvocationMessage cancelInvocationMessage = new CancelInvocationMessage(invocationId);
                 sendHubMessage(cancelInvocationMessage);
-                connectionState.tryRemoveInvocation(invocationId);
+                if (connectionState.tryRemoveInvocation(invocationId) != null && metrics != null) {
+                    metrics.invocationCompleted(method, System.nanoTime() - irq.getStartTime(), false,
+                            connectionState.getPendingInvocationCount());
+                }
+                subject.onComplete();
+            }
+        });
+    }
+
+    /**
+     * Invokes a streaming hub method on the server that yields ints, and calls a callback with each item without boxing it.
+     *
+     * @param method The name of the server method to invoke.
+     * @param onItem The callback to call with each item, on the thread that received it.
+     * @param args The arguments used to invoke the server method.
+     * @return A Completable that completes when the stream ends. Disposing it cancels the stream.
+     */
+    public Completable streamInts(String method, IntAction onItem, Object ... args) {
+        return streamPrimitives(int.class, item -> onItem.invoke((int) item), method, args);
+    }
+
+    /**
+     * Invokes a streaming hub method on the server that yields longs, and calls a callback with each item without boxing
+     * it.
+     *
+     * @param method The name of the server method to invoke.
+     * @param onItem The callback to call with each item, on the thread that received it.
+     * @param args The arguments used to invoke the server method.
+     * @return A Completable that completes when the stream ends. Disposing it cancels the stream.
+     */
+    public Completable streamLongs(String method, LongAction onItem, Object ... args) {
+        return streamPrimitives(long.class, onItem, method, args);
+    }
+
+    /**
+     * Invokes a streaming hub method on the server that yields doubles, and calls a callback with each item without
+     * boxing it.
+     *
+     * @param method The name of the server method to invoke.
+     * @param onItem The callback to call with each item, on the thread that received it.
+     * @param args The arguments used to invoke the server method.
+     * @return A Completable that completes when the stream ends. Disposing it cancels the stream.
+     */
+    public Completable streamDoubles(String method, DoubleAction onItem, Object ... args) {
+        return streamPrimitives(double.class, item -> onItem.invoke(Double.longBitsToDouble(item)), method, args);
+    }
+
+    private Completable streamPrimitives(Class<?> itemType, LongAction onItem, String method, Object ... args) {
+        String invocationId = connectionState.getNextInvocationId();
+        AtomicInteger subscriptionCount = new AtomicInteger();
+        StreamInvocationMessage streamInvocationMessage = new StreamInvocationMessage(invocationId, method, args);
+        InvocationRequest irq = new InvocationRequest(itemType, invocationId, method, onItem);
+        addInvocation(irq);
+        CompletableSubject subject = CompletableSubject.create();
+
+        // The items go straight to onItem, the pending call only completes or fails.
+        irq.getPendingCall().subscribe(result -> { }, error -> subject.onError(error), () -> subject.onComplete());
+
+        interceptSend(streamInvocationMessage, method);
+        sendHubMessage(streamInvocationMessage);
+        Completable completable = subject.doOnSubscribe((subscriber) -> subscriptionCount.incrementAndGet());
+
+        return completable.doOnDispose(() -> {
+            if (subscriptionCount.decrementAndGet() == 0) {
+                CancelInvocationMessage cancelInvocationMessage = new CancelInvocationMessage(invocationId);
+                sendHubMessage(cancelInvocationMessage);
+                if (connectionState.tryRemoveInvocation(invocationId) != null && metrics != null) {
+                    metrics.invocationCompleted(method, System.nanoTime() - irq.getStartTime(), false,
+                            connectionState.getPendingInvocationCount());
+                }
                 subject.onComplete();
             }
         });
     }
 
+    private void interceptReceive(HubInvocationMessage message, String target) {
+        if (interceptors.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> headers = message.getHeaders() != null
+                ? Collections.unmodifiableMap(message.getHeaders()) : Collections.emptyMap();
+        for (HubInvocationInterceptor interceptor : interceptors) {
+            interceptor.onReceive(message.getMessageType(), target, headers);
+        }
+    }
+
+    private void interceptSend(HubInvocationMessage message, String target) {
+        if (interceptors.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (HubInvocationInterceptor interceptor : interceptors) {
+            interceptor.onSend(message.getMessageType(), target, headers);
+        }
+        if (!headers.isEmpty()) {
+            message.setHeaders(headers);
+        }
+    }
+
     private void sendHubMessage(HubMessage message) {
         String serializedMessage = protocol.writeMessage(message);
         if (message.getMessageType() == HubMessageType.INVOCATION ) {
@@ -558,10 +1089,24 @@ public class HubConnection {
             logger.debug("Sending {} message.", message.getMessageType().name());
         }
         transport.send(serializedMessage);
+        if (metrics != null) {
+            metrics.messageSent(message.getMessageType(), getTarget(message), serializedMessage.length());
+        }
 
         resetKeepAlive();
     }
 
+    private static String getTarget(HubMessage message) {
+        switch (message.getMessageType()) {
+            case INVOCATION:
+                return ((InvocationMessage) message).getTarget();
+            case STREAM_INVOCATION:
+                return ((StreamInvocationMessage) message).getTarget();
+            default:
+                return null;
+        }
+    }
+
     private void resetServerTimeout() {
         this.nextServerTimeout.set(System.currentTimeMillis() + serverTimeout);
     }
@@ -798,17 +1343,532 @@ public class HubConnection {
         return registerHandler(target, action, param1, param2, param3, param4, param5, param6, param7, param8);
     }
 
-    private Subscription registerHandler(String target, ActionBase action, Class<?>... types) {
-        InvocationHandler handler = handlers.put(target, action, types);
-        logger.debug("Registering handler for client method: '{}'.", target);
-        return new Subscription(handlers, handler, target);
-    }
-
-    private final class ConnectionState implements InvocationBinder {
-        private final HubConnection connection;
-        private final AtomicInteger nextId = new AtomicInteger(0);
-        private final HashMap<String, InvocationRequest> pendingInvocations = new HashMap<>();
-        private final Lock lock = new ReentrantLock();
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the parameter types, which can be generic, see {@link TypeReference}.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter.
+     * @param <T1>     The first parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    @SuppressWarnings("unchecked")
+    public <T1> Subscription on(String target, Action1<T1> callback, Type param1) {
+        ActionBase action = params -> callback.invoke((T1) params[0]);
+        return registerHandler(target, action, param1);
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the parameter types, which can be generic, see {@link TypeReference}.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter.
+     * @param param2   The type of the second parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    @SuppressWarnings("unchecked")
+    public <T1, T2> Subscription on(String target, Action2<T1, T2> callback, Type param1, Type param2) {
+        ActionBase action = params -> callback.invoke((T1) params[0], (T2) params[1]);
+        return registerHandler(target, action, param1, param2);
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the parameter types, which can be generic, see {@link TypeReference}.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    @SuppressWarnings("unchecked")
+    public <T1, T2, T3> Subscription on(String target, Action3<T1, T2, T3> callback,
+                                        Type param1, Type param2, Type param3) {
+        ActionBase action = params -> {
+            callback.invoke((T1) params[0], (T2) params[1], (T3) params[2]);
+        };
+        return registerHandler(target, action, param1, param2, param3);
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the parameter types, which can be generic, see {@link TypeReference}.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param param4   The type of the fourth parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @param <T4>     The fourth parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    @SuppressWarnings("unchecked")
+    public <T1, T2, T3, T4> Subscription on(String target, Action4<T1, T2, T3, T4> callback,
+                                            Type param1, Type param2, Type param3, Type param4) {
+        ActionBase action = params -> {
+            callback.invoke((T1) params[0], (T2) params[1], (T3) params[2], (T4) params[3]);
+        };
+        return registerHandler(target, action, param1, param2, param3, param4);
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the parameter types, which can be generic, see {@link TypeReference}.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param param4   The type of the fourth parameter.
+     * @param param5   The type of the fifth parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @param <T4>     The fourth parameter type.
+     * @param <T5>     The fifth parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    @SuppressWarnings("unchecked")
+    public <T1, T2, T3, T4, T5> Subscription on(String target, Action5<T1, T2, T3, T4, T5> callback,
+                                                Type param1, Type param2, Type param3, Type param4, Type param5) {
+        ActionBase action = params -> {
+            callback.invoke((T1) params[0], (T2) params[1], (T3) params[2], (T4) params[3],
+                    (T5) params[4]);
+        };
+        return registerHandler(target, action, param1, param2, param3, param4, param5);
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the parameter types, which can be generic, see {@link TypeReference}.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param param4   The type of the fourth parameter.
+     * @param param5   The type of the fifth parameter.
+     * @param param6   The type of the sixth parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @param <T4>     The fourth parameter type.
+     * @param <T5>     The fifth parameter type.
+     * @param <T6>     The sixth parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    @SuppressWarnings("unchecked")
+    public <T1, T2, T3, T4, T5, T6> Subscription on(String target, Action6<T1, T2, T3, T4, T5, T6> callback,
+                                                    Type param1, Type param2, Type param3, Type param4, Type param5, Type param6) {
+        ActionBase action = params -> {
+            callback.invoke((T1) params[0], (T2) params[1], (T3) params[2], (T4) params[3],
+                    (T5) params[4], (T6) params[5]);
+        };
+        return registerHandler(target, action, param1, param2, param3, param4, param5, param6);
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the parameter types, which can be generic, see {@link TypeReference}.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param param4   The type of the fourth parameter.
+     * @param param5   The type of the fifth parameter.
+     * @param param6   The type of the sixth parameter.
+     * @param param7   The type of the seventh parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @param <T4>     The fourth parameter type.
+     * @param <T5>     The fifth parameter type.
+     * @param <T6>     The sixth parameter type.
+     * @param <T7>     The seventh parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    @SuppressWarnings("unchecked")
+    public <T1, T2, T3, T4, T5, T6, T7> Subscription on(String target, Action7<T1, T2, T3, T4, T5, T6, T7> callback,
+                                                        Type param1, Type param2, Type param3, Type param4, Type param5, Type param6, Type param7) {
+        ActionBase action = params -> {
+            callback.invoke((T1) params[0], (T2) params[1], (T3) params[2], (T4) params[3],
+                    (T5) params[4], (T6) params[5], (T7) params[6]);
+        };
+        return registerHandler(target, action, param1, param2, param3, param4, param5, param6, param7);
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the parameter types, which can be generic, see {@link TypeReference}.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param param4   The type of the fourth parameter.
+     * @param param5   The type of the fifth parameter.
+     * @param param6   The type of the sixth parameter.
+     * @param param7   The type of the seventh parameter.
+     * @param param8   The type of the eighth parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @param <T4>     The fourth parameter type.
+     * @param <T5>     The fifth parameter type.
+     * @param <T6>     The sixth parameter type.
+     * @param <T7>     The seventh parameter type.
+     * @param <T8>     The eighth parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    @SuppressWarnings("unchecked")
+    public <T1, T2, T3, T4, T5, T6, T7, T8> Subscription on(String target, Action8<T1, T2, T3, T4, T5, T6, T7, T8> callback,
+                                                            Type param1, Type param2, Type param3, Type param4, Type param5, Type param6, Type param7, Type param8) {
+        ActionBase action = params -> {
+            callback.invoke((T1) params[0], (T2) params[1], (T3) params[2], (T4) params[3],
+                    (T5) params[4], (T6) params[5], (T7) params[6], (T8) params[7]);
+        };
+        return registerHandler(target, action, param1, param2, param3, param4, param5, param6, param7, param8);
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the generic parameter types, which are checked against the handler at compile time.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter, such as {@code new TypeReference<List<Order>>() { }}.
+     * @param <T1>     The first parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public <T1> Subscription on(String target, Action1<T1> callback, TypeReference<T1> param1) {
+        return on(target, callback, param1.getType());
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the generic parameter types, which are checked against the handler at compile time.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter, such as {@code new TypeReference<List<Order>>() { }}.
+     * @param param2   The type of the second parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public <T1, T2> Subscription on(String target, Action2<T1, T2> callback,
+                                    TypeReference<T1> param1, TypeReference<T2> param2) {
+        return on(target, callback, param1.getType(), param2.getType());
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the generic parameter types, which are checked against the handler at compile time.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter, such as {@code new TypeReference<List<Order>>() { }}.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public <T1, T2, T3> Subscription on(String target, Action3<T1, T2, T3> callback,
+                                        TypeReference<T1> param1, TypeReference<T2> param2, TypeReference<T3> param3) {
+        return on(target, callback, param1.getType(), param2.getType(), param3.getType());
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the generic parameter types, which are checked against the handler at compile time.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter, such as {@code new TypeReference<List<Order>>() { }}.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param param4   The type of the fourth parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @param <T4>     The fourth parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public <T1, T2, T3, T4> Subscription on(String target, Action4<T1, T2, T3, T4> callback,
+                                            TypeReference<T1> param1, TypeReference<T2> param2,
+                                            TypeReference<T3> param3, TypeReference<T4> param4) {
+        return on(target, callback, param1.getType(), param2.getType(), param3.getType(), param4.getType());
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the generic parameter types, which are checked against the handler at compile time.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter, such as {@code new TypeReference<List<Order>>() { }}.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param param4   The type of the fourth parameter.
+     * @param param5   The type of the fifth parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @param <T4>     The fourth parameter type.
+     * @param <T5>     The fifth parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public <T1, T2, T3, T4, T5> Subscription on(String target, Action5<T1, T2, T3, T4, T5> callback,
+                                                TypeReference<T1> param1, TypeReference<T2> param2,
+                                                TypeReference<T3> param3, TypeReference<T4> param4,
+                                                TypeReference<T5> param5) {
+        return on(target, callback, param1.getType(), param2.getType(), param3.getType(), param4.getType(),
+                param5.getType());
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the generic parameter types, which are checked against the handler at compile time.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter, such as {@code new TypeReference<List<Order>>() { }}.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param param4   The type of the fourth parameter.
+     * @param param5   The type of the fifth parameter.
+     * @param param6   The type of the sixth parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @param <T4>     The fourth parameter type.
+     * @param <T5>     The fifth parameter type.
+     * @param <T6>     The sixth parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public <T1, T2, T3, T4, T5, T6> Subscription on(String target, Action6<T1, T2, T3, T4, T5, T6> callback,
+                                                    TypeReference<T1> param1, TypeReference<T2> param2,
+                                                    TypeReference<T3> param3, TypeReference<T4> param4,
+                                                    TypeReference<T5> param5, TypeReference<T6> param6) {
+        return on(target, callback, param1.getType(), param2.getType(), param3.getType(), param4.getType(),
+                param5.getType(), param6.getType());
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the generic parameter types, which are checked against the handler at compile time.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter, such as {@code new TypeReference<List<Order>>() { }}.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param param4   The type of the fourth parameter.
+     * @param param5   The type of the fifth parameter.
+     * @param param6   The type of the sixth parameter.
+     * @param param7   The type of the seventh parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @param <T4>     The fourth parameter type.
+     * @param <T5>     The fifth parameter type.
+     * @param <T6>     The sixth parameter type.
+     * @param <T7>     The seventh parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public <T1, T2, T3, T4, T5, T6, T7> Subscription on(String target, Action7<T1, T2, T3, T4, T5, T6, T7> callback,
+                                                        TypeReference<T1> param1, TypeReference<T2> param2,
+                                                        TypeReference<T3> param3, TypeReference<T4> param4,
+                                                        TypeReference<T5> param5, TypeReference<T6> param6,
+                                                        TypeReference<T7> param7) {
+        return on(target, callback, param1.getType(), param2.getType(), param3.getType(), param4.getType(),
+                param5.getType(), param6.getType(), param7.getType());
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked. The
+     * arguments are bound to the generic parameter types, which are checked against the handler at compile time.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @param param1   The type of the first parameter, such as {@code new TypeReference<List<Order>>() { }}.
+     * @param param2   The type of the second parameter.
+     * @param param3   The type of the third parameter.
+     * @param param4   The type of the fourth parameter.
+     * @param param5   The type of the fifth parameter.
+     * @param param6   The type of the sixth parameter.
+     * @param param7   The type of the seventh parameter.
+     * @param param8   The type of the eighth parameter.
+     * @param <T1>     The first parameter type.
+     * @param <T2>     The second parameter type.
+     * @param <T3>     The third parameter type.
+     * @param <T4>     The fourth parameter type.
+     * @param <T5>     The fifth parameter type.
+     * @param <T6>     The sixth parameter type.
+     * @param <T7>     The seventh parameter type.
+     * @param <T8>     The eighth parameter type.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public <T1, T2, T3, T4, T5, T6, T7, T8> Subscription on(String target, Action8<T1, T2, T3, T4, T5, T6, T7, T8> callback,
+                                                            TypeReference<T1> param1, TypeReference<T2> param2,
+                                                            TypeReference<T3> param3, TypeReference<T4> param4,
+                                                            TypeReference<T5> param5, TypeReference<T6> param6,
+                                                            TypeReference<T7> param7, TypeReference<T8> param8) {
+        return on(target, callback, param1.getType(), param2.getType(), param3.getType(), param4.getType(),
+                param5.getType(), param6.getType(), param7.getType(), param8.getType());
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked with an int
+     * argument. The argument is read without boxing it.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public Subscription onInt(String target, IntAction callback) {
+        ActionBase action = params -> callback.invoke(((Number) params[0]).intValue());
+        PrimitiveActionBase primitiveAction = params -> callback.invoke(params.getInt(0));
+        return registerHandler(target, action, primitiveAction, int.class);
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked with a long
+     * argument. The argument is read without boxing it.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public Subscription onLong(String target, LongAction callback) {
+        ActionBase action = params -> callback.invoke(((Number) params[0]).longValue());
+        PrimitiveActionBase primitiveAction = params -> callback.invoke(params.getLong(0));
+        return registerHandler(target, action, primitiveAction, long.class);
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked with a
+     * double argument. The argument is read without boxing it.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public Subscription onDouble(String target, DoubleAction callback) {
+        ActionBase action = params -> callback.invoke(((Number) params[0]).doubleValue());
+        PrimitiveActionBase primitiveAction = params -> callback.invoke(params.getDouble(0));
+        return registerHandler(target, action, primitiveAction, double.class);
+    }
+
+    /**
+     * Registers a handler that will be invoked when the hub method with the specified method name is invoked with a long
+     * and a double argument, such as a timestamp and a price. The arguments are read without boxing them.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public Subscription onLongDouble(String target, LongDoubleAction callback) {
+        ActionBase action = params -> callback.invoke(((Number) params[0]).longValue(), ((Number) params[1]).doubleValue());
+        PrimitiveActionBase primitiveAction = params -> callback.invoke(params.getLong(0), params.getDouble(1));
+        return registerHandler(target, action, primitiveAction, long.class, double.class);
+    }
+
+    /**
+     * Registers a handler that will be invoked with the JSON array of arguments, as it was received, when the hub method
+     * with the specified method name is invoked. The arguments aren't bound, so they can be forwarded without reading
+     * them. A method can't have both raw handlers and handlers with typed parameters.
+     *
+     * @param target   The name of the hub method to define.
+     * @param callback The handler that will be raised when the hub method is invoked.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    public Subscription onRaw(String target, RawAction callback) {
+        // The protocol passes the raw arguments as the only argument.
+        ActionBase action = params -> callback.invoke(target, (String) params[0]);
+        return registerHandler(target, action, RawAction.class);
+    }
+
+    /**
+     * Registers the {@link HubMethodName} methods of a client, using the binders that the signalr-processor annotation
+     * processor generated for its class and the classes and interfaces it extends.
+     *
+     * @param client The client to call the methods on.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from all the methods.
+     */
+    public Subscription register(Object client) {
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (HubClientBinder<Object> binder : HubClientBinders.get(client.getClass())) {
+            subscriptions.addAll(binder.bind(this, client));
+        }
+        return new CompositeSubscription(subscriptions);
+    }
+
+    /**
+     * Creates an implementation of a {@link HubProxy} interface that invokes the hub methods it declares on this
+     * connection, using the implementation that the signalr-processor annotation processor generated for it.
+     *
+     * @param hub The interface of the hub.
+     * @param <T> The interface of the hub.
+     * @return The proxy.
+     */
+    public <T> T createProxy(Class<T> hub) {
+        return HubProxies.create(hub, this);
+    }
+
+    /**
+     * Registers a client method whose arguments are read by a generated binder. This is called by the generated
+     * {@link HubClientBinder}s, use {@link #register(Object)} instead.
+     *
+     * @param target The name of the hub method to define.
+     * @param binder The binder that reads the arguments and calls the method.
+     * @param client The client to call the method on.
+     * @param <T> The type of the client.
+     * @return A {@link Subscription} that can be disposed to unsubscribe from the hub method.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Subscription on(String target, HubMethodBinder<T> binder, T client) {
+        InvocationHandler handler = handlers.put(target, new InvocationHandler((HubMethodBinder<Object>) binder, client));
+        logger.debug("Registering handler for client method: '{}'.", target);
+        return new Subscription(handlers, handler, target);
+    }
+
+    private Subscription registerHandler(String target, ActionBase action, Type... types) {
+        return registerHandler(target, action, null, types);
+    }
+
+    private Subscription registerHandler(String target, ActionBase action, PrimitiveActionBase primitiveAction, Type... types) {
+        InvocationHandler handler = handlers.put(target, action, primitiveAction, types);
+        logger.debug("Registering handler for client method: '{}'.", target);
+        return new Subscription(handlers, handler, target);
+    }
+
+    private final class ConnectionState implements InvocationBinder {
+        private final HubConnection connection;
+        private final AtomicInteger nextId = new AtomicInteger(0);
+        private final HashMap<String, InvocationRequest> pendingInvocations = new HashMap<>();
+        private final Lock lock = new ReentrantLock();
 
         public ConnectionState(HubConnection connection) {
             this.connection = connection;
@@ -850,6 +1910,15 @@ public class HubConnection {
             }
         }
 
+        public int getPendingInvocationCount() {
+            lock.lock();
+            try {
+                return pendingInvocations.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
         public InvocationRequest getInvocation(String id) {
             lock.lock();
             try {
@@ -869,7 +1938,7 @@ public class HubConnection {
         }
 
         @Override
-        public Class<?> getReturnType(String invocationId) {
+        public Type getReturnType(String invocationId) {
             InvocationRequest irq = getInvocation(invocationId);
             if (irq == null) {
                 return null;
@@ -879,7 +1948,17 @@ public class HubConnection {
         }
 
         @Override
-        public List<Class<?>> getParameterTypes(String methodName) {
+        public HubResultReader<?> getResultReader(String invocationId) {
+            InvocationRequest irq = getInvocation(invocationId);
+            if (irq == null) {
+                return null;
+            }
+
+            return irq.getResultReader();
+        }
+
+        @Override
+        public List<Type> getParameterTypes(String methodName) {
             List<InvocationHandler> handlers = connection.handlers.get(methodName);
             if (handlers == null) {
                 logger.warn("Failed to find handler for '{}' method.", methodName);
@@ -890,7 +1969,17 @@ public class HubConnection {
                 throw new RuntimeException(String.format("There are no callbacks registered for the method '%s'.", methodName));
             }
 
-            return handlers.get(0).getClasses();
+            return handlers.get(0).getTypes();
+        }
+
+        @Override
+        public HubMethodBinder<?> getMethodBinder(String methodName) {
+            List<InvocationHandler> handlers = connection.handlers.get(methodName);
+            if (handlers == null || handlers.isEmpty()) {
+                return null;
+            }
+
+            return handlers.get(0).getMethodBinder();
         }
     }
 }
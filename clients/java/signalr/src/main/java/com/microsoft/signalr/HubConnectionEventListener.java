@@ -0,0 +1,151 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+/**
+ * Listens to the phases of starting and stopping a {@link HubConnection}, added with
+ * {@link HttpHubConnectionBuilder#withEventListener}. Like OkHttp's EventListener, events carry no timestamps,
+ * listeners take their own with {@link System#nanoTime()} to measure how long each phase took.
+ *
+ * <p>A start calls {@link #connectStart}, then the token, negotiate, transport and handshake phases, and ends with
+ * {@link #connectEnd} or {@link #connectFailed}. Negotiate runs once per redirect, and negotiate and transport run again
+ * when a transport or hub URL fails and the next one is tried. Transport start includes the WebSocket upgrade.</p>
+ *
+ * <p>Every method has an empty default, so implementations only override what they record. Methods are called on the
+ * thread doing the work and must not throw.</p>
+ */
+public interface HubConnectionEventListener {
+    /**
+     * Called when {@link HubConnection#start()} begins to connect.
+     *
+     * @param connection The connection.
+     */
+    default void connectStart(HubConnection connection) {
+    }
+
+    /**
+     * Called before the access token provider is subscribed to.
+     *
+     * @param connection The connection.
+     */
+    default void accessTokenStart(HubConnection connection) {
+    }
+
+    /**
+     * Called once the access token provider returned a token.
+     *
+     * @param connection The connection.
+     */
+    default void accessTokenEnd(HubConnection connection) {
+    }
+
+    /**
+     * Called before a negotiate request is sent.
+     *
+     * @param connection The connection.
+     * @param url The hub URL negotiate is sent for, which is the redirect URL after a redirect.
+     */
+    default void negotiateStart(HubConnection connection, String url) {
+    }
+
+    /**
+     * Called when the negotiate response was received.
+     *
+     * @param connection The connection.
+     * @param url The hub URL negotiate was sent for.
+     * @param redirectUrl The URL the server redirected to, or null if it didn't.
+     */
+    default void negotiateEnd(HubConnection connection, String url, String redirectUrl) {
+    }
+
+    /**
+     * Called when the negotiate request failed or returned an error.
+     *
+     * @param connection The connection.
+     * @param url The hub URL negotiate was sent for.
+     * @param error The error.
+     */
+    default void negotiateFailed(HubConnection connection, String url, Throwable error) {
+    }
+
+    /**
+     * Called before the transport is started.
+     *
+     * @param connection The connection.
+     * @param transport The name of the transport, or null for a transport set on the builder.
+     * @param url The URL the transport connects to.
+     */
+    default void transportStart(HubConnection connection, String transport, String url) {
+    }
+
+    /**
+     * Called once the transport is connected.
+     *
+     * @param connection The connection.
+     * @param transport The name of the transport, or null for a transport set on the builder.
+     */
+    default void transportEnd(HubConnection connection, String transport) {
+    }
+
+    /**
+     * Called when the transport failed to connect.
+     *
+     * @param connection The connection.
+     * @param transport The name of the transport, or null for a transport set on the builder.
+     * @param error The error.
+     */
+    default void transportFailed(HubConnection connection, String transport, Throwable error) {
+    }
+
+    /**
+     * Called before the handshake request is sent.
+     *
+     * @param connection The connection.
+     */
+    default void handshakeStart(HubConnection connection) {
+    }
+
+    /**
+     * Called once the transport has sent the handshake request.
+     *
+     * @param connection The connection.
+     */
+    default void handshakeRequestSent(HubConnection connection) {
+    }
+
+    /**
+     * Called when a successful handshake response was received.
+     *
+     * @param connection The connection.
+     */
+    default void handshakeResponseReceived(HubConnection connection) {
+    }
+
+    /**
+     * Called when the connection is started.
+     *
+     * @param connection The connection.
+     */
+    default void connectEnd(HubConnection connection) {
+    }
+
+    /**
+     * Called when starting the connection failed.
+     *
+     * @param connection The connection.
+     * @param error The error.
+     */
+    default void connectFailed(HubConnection connection, Throwable error) {
+    }
+
+    /**
+     * Called when a started connection closed.
+     *
+     * @param connection The connection.
+     * @param error The reason the connection closed, or null if it was stopped without an error.
+     * @param connectedDuration How long the connection was connected, in nanoseconds.
+     */
+    default void connectionClosed(HubConnection connection, String error, long connectedDuration) {
+    }
+}
@@ -0,0 +1,94 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+/**
+ * Receives measurements from a {@link HubConnection}, added with {@link HttpHubConnectionBuilder#withMetrics}.
+ * Every method has an empty default, so implementations only override what they record.
+ *
+ * <p>Methods are called synchronously on the thread doing the work, often the transport's receive thread, so they must
+ * be fast and must not throw. Durations are in nanoseconds and lengths are in characters of the serialized message.</p>
+ */
+public interface HubConnectionMetrics {
+    /**
+     * Called after a message was handed to the transport.
+     *
+     * @param type The type of the message.
+     * @param target The name of the hub method for invocations, otherwise null.
+     * @param length The length of the serialized message.
+     */
+    default void messageSent(HubMessageType type, String target, int length) {
+    }
+
+    /**
+     * Called for each payload the transport receives, after it has been parsed. Parsing includes binding the arguments
+     * and results to their types.
+     *
+     * @param length The length of the payload.
+     * @param messageCount The number of messages in the payload.
+     * @param parseDuration The time it took to parse the payload.
+     */
+    default void payloadReceived(int length, int messageCount, long parseDuration) {
+    }
+
+    /**
+     * Called for each message received, before it is dispatched. Messages of a payload are dispatched one after the
+     * other on the receive thread, so pendingDispatch is how many messages are queued up behind this one.
+     *
+     * @param type The type of the message.
+     * @param target The name of the client method for invocations, otherwise null.
+     * @param pendingDispatch The number of messages of the same payload still to be dispatched.
+     */
+    default void messageReceived(HubMessageType type, String target, int pendingDispatch) {
+    }
+
+    /**
+     * Called after the handlers registered for a client method have run.
+     *
+     * @param target The name of the client method.
+     * @param duration The time it took to run all the handlers.
+     */
+    default void handlersInvoked(String target, long duration) {
+    }
+
+    /**
+     * Called when an invoke or a stream is sent to the server.
+     *
+     * @param target The name of the hub method.
+     * @param pendingInvocations The number of invocations waiting for the server, including this one.
+     */
+    default void invocationStarted(String target, int pendingInvocations) {
+    }
+
+    /**
+     * Called when the server completes an invoke or a stream, or the client cancels a stream.
+     *
+     * @param target The name of the hub method.
+     * @param duration The time from sending the invocation until it completed.
+     * @param succeeded False if the server returned an error or the stream was cancelled.
+     * @param pendingInvocations The number of invocations still waiting for the server.
+     */
+    default void invocationCompleted(String target, long duration, boolean succeeded, int pendingInvocations) {
+    }
+
+    /**
+     * Called for each item received for a stream.
+     *
+     * @param target The name of the streaming hub method.
+     */
+    default void streamItemReceived(String target) {
+    }
+
+    /**
+     * Called when a keep alive ping was sent because nothing else was sent for the keep alive interval.
+     */
+    default void pingSent() {
+    }
+
+    /**
+     * Called when the server timeout elapsed without a message from the server, just before the connection stops.
+     */
+    default void serverTimeoutElapsed() {
+    }
+}
@@ -0,0 +1,35 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.Map;
+
+/**
+ * Reads and writes the headers of invocation messages, for example to propagate a trace context or to stamp send times
+ * that the other side can measure one-way latency with. Set with {@link HttpHubConnectionBuilder#withInvocationInterceptor}.
+ *
+ * <p>Methods are called on the thread sending or receiving the message and must not block.</p>
+ */
+public interface HubInvocationInterceptor {
+    /**
+     * Called before an invocation or a stream invocation is sent. Headers put in the map are sent with it.
+     *
+     * @param type The type of the message.
+     * @param target The name of the hub method.
+     * @param headers The headers of the message, empty unless an interceptor before this one added some.
+     */
+    default void onSend(HubMessageType type, String target, Map<String, String> headers) {
+    }
+
+    /**
+     * Called when an invocation, a stream item or a completion is received, before it is dispatched.
+     *
+     * @param type The type of the message.
+     * @param target The name of the client method for invocations, of the hub method that was invoked for stream items
+     *               and completions.
+     * @param headers The headers of the message, empty if it had none. The map can't be changed.
+     */
+    default void onReceive(HubMessageType type, String target, Map<String, String> headers) {
+    }
+}
@@ -0,0 +1,22 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.Map;
+
+/**
+ * A base class for the hub messages that belong to an invocation, which are the ones that can carry headers.
+ */
+abstract class HubInvocationMessage extends HubMessage {
+    // Left null rather than empty so that messages without headers don't get a "headers" property.
+    private Map<String, String> headers;
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+}
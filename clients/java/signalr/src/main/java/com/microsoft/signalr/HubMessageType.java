@@ -3,7 +3,10 @@
 
 package com.microsoft.signalr;
 
-enum HubMessageType {
+/**
+ * The types of messages of the SignalR hub protocol.
+ */
+public enum HubMessageType {
     INVOCATION(1),
     STREAM_ITEM(2),
     COMPLETION(3),
@@ -0,0 +1,36 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.IOException;
+
+/**
+ * Reads the arguments of one client method and calls it with them. Implementations are generated for methods marked
+ * with {@link HubMethodName}, and are registered with {@link HubConnection#on(String, HubMethodBinder, Object)}.
+ *
+ * @param <T> The type of the client.
+ */
+public interface HubMethodBinder<T> {
+    /**
+     * @return The number of parameters of the method.
+     */
+    int getParameterCount();
+
+    /**
+     * Reads the arguments of an invocation, as it is parsed.
+     *
+     * @param reader The reader to read each argument from.
+     * @return The arguments, in whatever form {@link #invoke} takes them.
+     * @throws IOException If an argument can't be read.
+     */
+    Object readArguments(HubArgumentReader reader) throws IOException;
+
+    /**
+     * Calls the method.
+     *
+     * @param client The client to call the method on.
+     * @param arguments The arguments returned by {@link #readArguments}.
+     */
+    void invoke(T client, Object arguments);
+}
@@ -0,0 +1,26 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a client class as the handler of a hub method, for {@link HubConnection#register(Object)}. The
+ * signalr-processor annotation processor generates a {@link HubClientBinder} for every class with such methods, which
+ * reads the arguments straight into the parameter types without reflection. Methods must return void and can't be
+ * private or static.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface HubMethodName {
+    /**
+     * @return The name of the hub method the server invokes.
+     */
+    String value();
+}
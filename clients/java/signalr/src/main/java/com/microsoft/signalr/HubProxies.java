@@ -0,0 +1,51 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the generated implementations of {@link HubProxy} interfaces. They are looked up by name once per interface,
+ * and their constructors are cached.
+ */
+final class HubProxies {
+    private static final String SUFFIX = "_HubProxy";
+    private static final Map<Class<?>, Constructor<?>> constructors = new ConcurrentHashMap<>();
+
+    private HubProxies() {
+    }
+
+    static <T> T create(Class<T> hub, HubConnection connection) {
+        Constructor<?> constructor = constructors.get(hub);
+        if (constructor == null) {
+            constructor = find(hub);
+            constructors.put(hub, constructor);
+        }
+
+        try {
+            return hub.cast(constructor.newInstance(connection));
+        } catch (ReflectiveOperationException ex) {
+            throw new RuntimeException(String.format("Failed to create the proxy %s.", constructor.getDeclaringClass().getName()), ex);
+        }
+    }
+
+    private static Constructor<?> find(Class<?> hub) {
+        if (!hub.isInterface()) {
+            throw new RuntimeException(String.format("%s is not an interface.", hub.getName()));
+        }
+
+        // Nested interfaces are generated as Outer_Inner_HubProxy.
+        String name = hub.getName().replace('$', '_') + SUFFIX;
+        try {
+            return Class.forName(name, true, hub.getClassLoader()).getConstructor(HubConnection.class);
+        } catch (ClassNotFoundException ex) {
+            throw new RuntimeException(String.format("No generated proxy was found for %s. Is signalr-processor on the annotation processor path?",
+                    hub.getName()));
+        } catch (ReflectiveOperationException ex) {
+            throw new RuntimeException(String.format("Failed to find the constructor of the proxy %s.", name), ex);
+        }
+    }
+}
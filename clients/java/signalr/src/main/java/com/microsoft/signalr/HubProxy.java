@@ -0,0 +1,23 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an interface that declares the methods of a server hub, for {@link HubConnection#createProxy(Class)}. The
+ * signalr-processor annotation processor generates an implementation that writes the arguments of each method without
+ * reflection. Methods that return void are sent, methods that return a Completable or a Single are invoked and methods
+ * that return an Observable are streamed. They invoke the hub method of the same name, unless they are marked with
+ * {@link HubMethodName}.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface HubProxy {
+}
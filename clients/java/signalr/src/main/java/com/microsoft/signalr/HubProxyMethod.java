@@ -0,0 +1,52 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A hub method called by a generated {@link HubProxy} implementation. The name and the JSON that precedes the arguments
+ * of its invocations are encoded once, when the proxy class is loaded.
+ */
+public final class HubProxyMethod {
+    private final String name;
+    private final String encodedTarget;
+
+    /**
+     * @param name The name of the server method.
+     */
+    public HubProxyMethod(String name) {
+        this.name = name.intern();
+
+        StringWriter target = new StringWriter();
+        try {
+            JsonWriter writer = new JsonWriter(target);
+            writer.setLenient(true);
+            writer.value(name);
+            writer.close();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        this.encodedTarget = "\"target\":" + target + ",\"arguments\":";
+    }
+
+    /**
+     * @return The name of the server method.
+     */
+    public String getName() {
+        return name;
+    }
+
+    String getEncodedTarget() {
+        return encodedTarget;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
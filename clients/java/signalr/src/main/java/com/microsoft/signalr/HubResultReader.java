@@ -0,0 +1,21 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.IOException;
+
+/**
+ * Reads the result of an invocation or the items of a stream as they are parsed. Generated {@link HubProxy}
+ * implementations create one per method, which reads the result with the method that matches its type.
+ *
+ * @param <T> The type of the result.
+ */
+public interface HubResultReader<T> {
+    /**
+     * @param reader The reader to read the result from. It is only called for results that aren't null.
+     * @return The result.
+     * @throws IOException If the result can't be read.
+     */
+    T read(HubArgumentReader reader) throws IOException;
+}
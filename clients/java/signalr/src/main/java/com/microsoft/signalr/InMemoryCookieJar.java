@@ -0,0 +1,238 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import okhttp3.Cookie;
+import okhttp3.CookieJar;
+import okhttp3.HttpUrl;
+
+/**
+ * A {@link CookieJar} that indexes cookies by domain and path so that loading the cookies for a request
+ * only looks at the cookies that could possibly match it. Reads don't take a lock, writes are serialized.
+ */
+final class InMemoryCookieJar implements CookieJar {
+    // Comparator.comparingLong and Map.computeIfAbsent are only available on Android API Level 24 and above, so this
+    // class sticks to what ConcurrentMap had before Java 8.
+    private static final Comparator<Cookie> EXPIRY_ORDER = new Comparator<Cookie>() {
+        @Override
+        public int compare(Cookie first, Cookie second) {
+            return Long.compare(first.expiresAt(), second.expiresAt());
+        }
+    };
+
+    // domain -> path -> name -> cookie
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, Cookie>>> cookies = new ConcurrentHashMap<>();
+    // Persistent cookies ordered by expiry. Replaced cookies are left in the queue and skipped when they expire.
+    private final PriorityQueue<Cookie> expirations = new PriorityQueue<>(11, EXPIRY_ORDER);
+    private final Lock writeLock = new ReentrantLock();
+    private volatile long nextExpiration = Long.MAX_VALUE;
+    private int persistentCookieCount;
+
+    @Override
+    public void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
+        long now = System.currentTimeMillis();
+        writeLock.lock();
+        try {
+            for (Cookie cookie : cookies) {
+                if (cookie.expiresAt() <= now) {
+                    // Servers delete cookies by sending them with an expiry date in the past.
+                    remove(cookie);
+                } else {
+                    add(cookie);
+                }
+            }
+
+            evictExpired(now);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Cookie> loadForRequest(HttpUrl url) {
+        long now = System.currentTimeMillis();
+        if (now >= nextExpiration) {
+            writeLock.lock();
+            try {
+                evictExpired(now);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        List<Cookie> matchedCookies = null;
+        String domain = url.host();
+        while (domain != null) {
+            ConcurrentMap<String, ConcurrentMap<String, Cookie>> paths = this.cookies.get(domain);
+            if (paths != null) {
+                matchedCookies = addPathMatches(paths, url, now, matchedCookies);
+            }
+            domain = parentDomain(domain);
+        }
+
+        if (matchedCookies == null) {
+            return Collections.emptyList();
+        }
+        return matchedCookies;
+    }
+
+    // For testing purposes
+    int size() {
+        int count = 0;
+        for (ConcurrentMap<String, ConcurrentMap<String, Cookie>> paths : cookies.values()) {
+            for (ConcurrentMap<String, Cookie> names : paths.values()) {
+                count += names.size();
+            }
+        }
+        return count;
+    }
+
+    private static List<Cookie> addPathMatches(ConcurrentMap<String, ConcurrentMap<String, Cookie>> paths, HttpUrl url, long now,
+            List<Cookie> matchedCookies) {
+        // Walk from the most specific path to the root so that cookies with longer paths are sent first.
+        String path = url.encodedPath();
+        matchedCookies = addMatches(paths.get(path), url, now, matchedCookies);
+        for (int i = path.lastIndexOf('/'); i >= 0; i = path.lastIndexOf('/', i - 1)) {
+            if (i + 1 < path.length()) {
+                matchedCookies = addMatches(paths.get(path.substring(0, i + 1)), url, now, matchedCookies);
+            }
+            if (i > 0) {
+                matchedCookies = addMatches(paths.get(path.substring(0, i)), url, now, matchedCookies);
+            }
+        }
+        return matchedCookies;
+    }
+
+    private static List<Cookie> addMatches(ConcurrentMap<String, Cookie> names, HttpUrl url, long now,
+            List<Cookie> matchedCookies) {
+        if (names == null) {
+            return matchedCookies;
+        }
+
+        for (Cookie cookie : names.values()) {
+            // Cookie.matches takes care of host-only and secure cookies.
+            if (cookie.expiresAt() > now && cookie.matches(url)) {
+                if (matchedCookies == null) {
+                    matchedCookies = new ArrayList<>();
+                }
+                matchedCookies.add(cookie);
+            }
+        }
+        return matchedCookies;
+    }
+
+    private static String parentDomain(String domain) {
+        int dot = domain.indexOf('.');
+        if (dot < 0 || dot == domain.length() - 1) {
+            return null;
+        }
+        return domain.substring(dot + 1);
+    }
+
+    private void add(Cookie cookie) {
+        ConcurrentMap<String, ConcurrentMap<String, Cookie>> paths = cookies.get(cookie.domain());
+        if (paths == null) {
+            paths = new ConcurrentHashMap<>();
+            ConcurrentMap<String, ConcurrentMap<String, Cookie>> existing = cookies.putIfAbsent(cookie.domain(), paths);
+            if (existing != null) {
+                paths = existing;
+            }
+        }
+        ConcurrentMap<String, Cookie> names = paths.get(cookie.path());
+        if (names == null) {
+            names = new ConcurrentHashMap<>();
+            ConcurrentMap<String, Cookie> existing = paths.putIfAbsent(cookie.path(), names);
+            if (existing != null) {
+                names = existing;
+            }
+        }
+        Cookie previous = names.put(cookie.name(), cookie);
+        if (previous != null && previous.persistent()) {
+            persistentCookieCount--;
+        }
+
+        if (cookie.persistent()) {
+            persistentCookieCount++;
+            expirations.add(cookie);
+            nextExpiration = expirations.peek().expiresAt();
+            compactExpirations();
+        }
+    }
+
+    private void remove(Cookie cookie) {
+        ConcurrentMap<String, ConcurrentMap<String, Cookie>> paths = cookies.get(cookie.domain());
+        if (paths == null) {
+            return;
+        }
+        ConcurrentMap<String, Cookie> names = paths.get(cookie.path());
+        if (names == null) {
+            return;
+        }
+
+        Cookie removed = names.remove(cookie.name());
+        if (removed != null && removed.persistent()) {
+            persistentCookieCount--;
+        }
+        removeIfEmpty(cookie, paths, names);
+    }
+
+    private void evictExpired(long now) {
+        Cookie cookie = expirations.peek();
+        while (cookie != null && cookie.expiresAt() <= now) {
+            expirations.poll();
+
+            ConcurrentMap<String, ConcurrentMap<String, Cookie>> paths = cookies.get(cookie.domain());
+            ConcurrentMap<String, Cookie> names = paths != null ? paths.get(cookie.path()) : null;
+            // Only evict the cookie if it hasn't been replaced since it was queued.
+            if (names != null && names.remove(cookie.name(), cookie)) {
+                persistentCookieCount--;
+                removeIfEmpty(cookie, paths, names);
+            }
+
+            cookie = expirations.peek();
+        }
+
+        nextExpiration = cookie != null ? cookie.expiresAt() : Long.MAX_VALUE;
+    }
+
+    private void compactExpirations() {
+        // Replaced cookies stay in the queue until they expire, rebuild it if they start to dominate.
+        if (expirations.size() <= 2 * persistentCookieCount + 16) {
+            return;
+        }
+
+        expirations.clear();
+        for (ConcurrentMap<String, ConcurrentMap<String, Cookie>> paths : cookies.values()) {
+            for (ConcurrentMap<String, Cookie> names : paths.values()) {
+                for (Cookie cookie : names.values()) {
+                    if (cookie.persistent()) {
+                        expirations.add(cookie);
+                    }
+                }
+            }
+        }
+        Cookie next = expirations.peek();
+        nextExpiration = next != null ? next.expiresAt() : Long.MAX_VALUE;
+    }
+
+    private void removeIfEmpty(Cookie cookie, ConcurrentMap<String, ConcurrentMap<String, Cookie>> paths,
+            ConcurrentMap<String, Cookie> names) {
+        if (names.isEmpty()) {
+            paths.remove(cookie.path(), names);
+            if (paths.isEmpty()) {
+                cookies.remove(cookie.domain(), paths);
+            }
+        }
+    }
+}
@@ -3,9 +3,27 @@
 
 package com.microsoft.signalr;
 
+import java.lang.reflect.Type;
 import java.util.List;
 
 interface InvocationBinder {
-    Class<?> getReturnType(String invocationId);
-    List<Class<?>> getParameterTypes(String methodName);
+    Type getReturnType(String invocationId);
+    List<? extends Type> getParameterTypes(String methodName);
+
+    /**
+     * @param methodName The name of the hub method.
+     * @return The generated binder that reads the arguments of the method, if its parameter types are
+     * {@link HubMethodBinder}.
+     */
+    default HubMethodBinder<?> getMethodBinder(String methodName) {
+        return null;
+    }
+
+    /**
+     * @param invocationId The id of the invocation.
+     * @return The generated reader of the result of the invocation, if it was made through a {@link HubProxy}.
+     */
+    default HubResultReader<?> getResultReader(String invocationId) {
+        return null;
+    }
 }
\ No newline at end of file
@@ -3,23 +3,69 @@
 
 package com.microsoft.signalr;
 
+import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 class InvocationHandler {
-    private final List<Class<?>> classes;
+    private final List<Type> types;
     private final ActionBase action;
+    private final PrimitiveActionBase primitiveAction;
+    private final HubMethodBinder<Object> methodBinder;
+    private final Object client;
 
-    InvocationHandler(ActionBase action, Class<?>... classes) {
+    InvocationHandler(ActionBase action, Type... types) {
+        this(action, null, types);
+    }
+
+    InvocationHandler(ActionBase action, PrimitiveActionBase primitiveAction, Type... types) {
         this.action = action;
-        this.classes = Arrays.asList(classes);
+        this.primitiveAction = primitiveAction;
+        this.methodBinder = null;
+        this.client = null;
+        this.types = Arrays.asList(types);
+    }
+
+    // The arguments of a handler with a generated binder are read by the binder, so its only parameter type is
+    // HubMethodBinder.
+    InvocationHandler(HubMethodBinder<Object> methodBinder, Object client) {
+        this.action = null;
+        this.primitiveAction = null;
+        this.methodBinder = methodBinder;
+        this.client = client;
+        this.types = Collections.singletonList(HubMethodBinder.class);
     }
 
-    public List<Class<?>> getClasses() {
-        return classes;
+    public List<Type> getTypes() {
+        return types;
     }
 
     public ActionBase getAction() {
         return action;
     }
+
+    public PrimitiveActionBase getPrimitiveAction() {
+        return primitiveAction;
+    }
+
+    public HubMethodBinder<Object> getMethodBinder() {
+        return methodBinder;
+    }
+
+    public void invokeBound(Object arguments) {
+        methodBinder.invoke(client, arguments);
+    }
+
+    /**
+     * @return Whether the handler takes the arguments as raw JSON, in which case its only parameter type is
+     * {@link RawAction}.
+     */
+    public boolean isRaw() {
+        return isRaw(types);
+    }
+
+    static boolean isRaw(List<? extends Type> types) {
+        return types.size() == 1 && types.get(0) == RawAction.class;
+    }
 }
\ No newline at end of file
@@ -3,16 +3,56 @@
 
 package com.microsoft.signalr;
 
-class InvocationMessage extends HubMessage {
+class InvocationMessage extends HubInvocationMessage {
     private final int type = HubMessageType.INVOCATION.value;
     private final String invocationId;
     private final String target;
-    private final Object[] arguments;
+    private Object[] arguments;
+    private final transient PrimitiveArguments primitiveArguments;
+    private final transient HubMethodBinder<?> methodBinder;
+    private final transient Object boundArguments;
+    private final transient HubProxyMethod proxyMethod;
+    private final transient HubArguments proxyArguments;
 
     public InvocationMessage(String invocationId, String target, Object[] args) {
         this.invocationId = invocationId;
         this.target = target;
         this.arguments = args;
+        this.primitiveArguments = null;
+        this.methodBinder = null;
+        this.boundArguments = null;
+        this.proxyMethod = null;
+        this.proxyArguments = null;
+    }
+
+    InvocationMessage(String invocationId, String target, PrimitiveArguments args) {
+        this.invocationId = invocationId;
+        this.target = target;
+        this.primitiveArguments = args;
+        this.methodBinder = null;
+        this.boundArguments = null;
+        this.proxyMethod = null;
+        this.proxyArguments = null;
+    }
+
+    InvocationMessage(String invocationId, String target, HubMethodBinder<?> methodBinder, Object boundArguments) {
+        this.invocationId = invocationId;
+        this.target = target;
+        this.primitiveArguments = null;
+        this.methodBinder = methodBinder;
+        this.boundArguments = boundArguments;
+        this.proxyMethod = null;
+        this.proxyArguments = null;
+    }
+
+    InvocationMessage(String invocationId, HubProxyMethod method, HubArguments arguments) {
+        this.invocationId = invocationId;
+        this.target = method.getName();
+        this.primitiveArguments = null;
+        this.methodBinder = null;
+        this.boundArguments = null;
+        this.proxyMethod = method;
+        this.proxyArguments = arguments;
     }
 
     public String getInvocationId() {
@@ -24,9 +64,39 @@ class InvocationMessage extends HubMessage {
     }
 
     public Object[] getArguments() {
+        // Only boxed if a handler that isn't primitive-specialized asks for them.
+        if (arguments == null && primitiveArguments != null) {
+            arguments = primitiveArguments.box();
+        }
         return arguments;
     }
 
+    PrimitiveArguments getPrimitiveArguments() {
+        return primitiveArguments;
+    }
+
+    /**
+     * @return The binder that read the arguments, or null if they were bound to their classes.
+     */
+    HubMethodBinder<?> getMethodBinder() {
+        return methodBinder;
+    }
+
+    Object getBoundArguments() {
+        return boundArguments;
+    }
+
+    /**
+     * @return The proxy method that is invoked, or null if the arguments are in {@link #getArguments()}.
+     */
+    HubProxyMethod getProxyMethod() {
+        return proxyMethod;
+    }
+
+    HubArguments getProxyArguments() {
+        return proxyArguments;
+    }
+
     @Override
     public HubMessageType getMessageType() {
         return HubMessageType.INVOCATION;
@@ -3,19 +3,45 @@
 
 package com.microsoft.signalr;
 
+import java.lang.reflect.Type;
 import java.util.concurrent.CancellationException;
 
 import io.reactivex.subjects.ReplaySubject;
 import io.reactivex.subjects.Subject;
 
 class InvocationRequest {
-    private final Class<?> returnType;
+    private final Type returnType;
     private final Subject<Object> pendingCall = ReplaySubject.create();
     private final String invocationId;
+    private final String target;
+    private long startTime;
+    private final LongAction primitiveItemAction;
+    private final HubResultReader<?> resultReader;
 
-    InvocationRequest(Class<?> returnType, String invocationId) {
+    InvocationRequest(Type returnType, String invocationId, String target) {
+        this(returnType, invocationId, target, null);
+    }
+
+    /**
+     * @param resultReader Reads the result or the stream items in place of the return type.
+     */
+    InvocationRequest(HubResultReader<?> resultReader, String invocationId, String target) {
+        this.returnType = Object.class;
+        this.invocationId = invocationId;
+        this.target = target;
+        this.primitiveItemAction = null;
+        this.resultReader = resultReader;
+    }
+
+    /**
+     * @param primitiveItemAction Called with each stream item instead of the pending call, doubles as their raw bits.
+     */
+    InvocationRequest(Type returnType, String invocationId, String target, LongAction primitiveItemAction) {
         this.returnType = returnType;
         this.invocationId = invocationId;
+        this.target = target;
+        this.primitiveItemAction = primitiveItemAction;
+        this.resultReader = null;
     }
 
     public void complete(CompletionMessage completion) {
@@ -30,7 +56,13 @@ class InvocationRequest {
     }
 
     public void addItem(StreamItem streamItem) {
-        if (streamItem.getItem() != null) {
+        if (primitiveItemAction != null) {
+            if (streamItem.hasPrimitiveItem()) {
+                primitiveItemAction.invoke(streamItem.getPrimitiveItem());
+            } else if (streamItem.getItem() != null) {
+                primitiveItemAction.invoke(PrimitiveArguments.unbox(streamItem.getItem(), returnType));
+            }
+        } else if (streamItem.getItem() != null) {
             pendingCall.onNext(streamItem.getItem());
         }
     }
@@ -47,11 +79,31 @@ class InvocationRequest {
         return pendingCall;
     }
 
-    public Class<?> getReturnType() {
+    public Type getReturnType() {
         return returnType;
     }
 
+    public HubResultReader<?> getResultReader() {
+        return resultReader;
+    }
+
     public String getInvocationId() {
         return invocationId;
     }
-}
\ No newline at end of file
+
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * Only set when the connection has metrics to report the duration of the invocation to, which spares the clock read
+     * on every invocation otherwise.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+}
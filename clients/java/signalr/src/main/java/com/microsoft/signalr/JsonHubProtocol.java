@@ -5,20 +5,37 @@ package com.microsoft.signalr;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
+/**
+ * The JSON hub protocol. It keeps no state between calls, and Gson and its parser are thread safe, so a single instance
+ * is shared by every connection in the process. The type adapters Gson creates for the classes of the arguments and
+ * results are then created once, rather than once for each connection.
+ */
 class JsonHubProtocol implements HubProtocol {
-    private final JsonParser jsonParser = new JsonParser();
-    private final Gson gson = new Gson();
+    private static final JsonParser jsonParser = new JsonParser();
+    // Gson escapes '=' by default, which would turn the base64 padding of every binary argument into six characters.
+    private static final Gson gson = BinaryTypeAdapters.register(new GsonBuilder()).disableHtmlEscaping().create();
     private static final String RECORD_SEPARATOR = "\u001e";
+    private static final JsonHubProtocol instance = new JsonHubProtocol();
+
+    static JsonHubProtocol getInstance() {
+        return instance;
+    }
 
     @Override
     public String getName() {
@@ -50,10 +67,17 @@ class JsonHubProtocol implements HubProtocol {
                 String target = null;
                 String error = null;
                 ArrayList<Object> arguments = null;
+                boolean rawArguments = false;
+                HubMethodBinder<?> methodBinder = null;
+                Object boundArguments = null;
+                PrimitiveArguments primitiveArguments = null;
                 JsonArray argumentsToken = null;
                 Object result = null;
+                Class<?> primitiveResultType = null;
+                long primitiveResult = 0;
                 Exception argumentBindingException = null;
                 JsonElement resultToken = null;
+                Map<String, String> headers = null;
                 JsonReader reader = new JsonReader(new StringReader(str));
                 reader.beginObject();
 
@@ -74,19 +98,36 @@ class JsonHubProtocol implements HubProtocol {
                             break;
                         case "result":
                         case "item":
-                            if (invocationId == null || binder.getReturnType(invocationId) == null) {
+                            HubResultReader<?> resultReader = invocationId != null ? binder.getResultReader(invocationId) : null;
+                            Type returnType = invocationId != null ? binder.getReturnType(invocationId) : null;
+                            if (resultReader != null) {
+                                result = readResult(reader, resultReader);
+                            } else if (returnType == null) {
                                 resultToken = jsonParser.parse(reader);
+                            } else if (PrimitiveArguments.isPrimitive(returnType) && reader.peek() != JsonToken.NULL) {
+                                primitiveResultType = (Class<?>) returnType;
+                                primitiveResult = PrimitiveArguments.read(reader, returnType);
                             } else {
-                                result = gson.fromJson(reader, binder.getReturnType(invocationId));
+                                result = gson.fromJson(reader, returnType);
                             }
                             break;
                         case "arguments":
                             if (target != null) {
                                 boolean startedArray = false;
                                 try {
-                                    List<Class<?>> types = binder.getParameterTypes(target);
+                                    List<? extends Type> types = binder.getParameterTypes(target);
                                     startedArray = true;
-                                    arguments = bindArguments(reader, types);
+                                    if (InvocationHandler.isRaw(types)) {
+                                        reader.skipValue();
+                                        rawArguments = true;
+                                    } else if (isBound(types)) {
+                                        methodBinder = binder.getMethodBinder(target);
+                                        boundArguments = readBoundArguments(reader, methodBinder);
+                                    } else if (PrimitiveArguments.arePrimitive(types)) {
+                                        primitiveArguments = bindPrimitiveArguments(reader, types);
+                                    } else {
+                                        arguments = bindArguments(reader, types);
+                                    }
                                 } catch (Exception ex) {
                                     argumentBindingException = ex;
 
@@ -107,7 +148,8 @@ class JsonHubProtocol implements HubProtocol {
                             }
                             break;
                         case "headers":
-                            throw new RuntimeException("Headers not implemented yet.");
+                            headers = readHeaders(reader);
+                            break;
                         default:
                             // Skip unknown property, allows new clients to still work with old protocols
                             reader.skipValue();
@@ -118,18 +160,38 @@ class JsonHubProtocol implements HubProtocol {
                 reader.endObject();
                 reader.close();
 
+                int messageCount = hubMessages.size();
                 switch (messageType) {
                     case INVOCATION:
                         if (argumentsToken != null) {
                             try {
-                                List<Class<?>> types = binder.getParameterTypes(target);
-                                arguments = bindArguments(argumentsToken, types);
+                                List<? extends Type> types = binder.getParameterTypes(target);
+                                if (InvocationHandler.isRaw(types)) {
+                                    rawArguments = true;
+                                } else if (isBound(types)) {
+                                    methodBinder = binder.getMethodBinder(target);
+                                    JsonReader argumentsReader = new JsonReader(new StringReader(argumentsToken.toString()));
+                                    boundArguments = readBoundArguments(argumentsReader, methodBinder);
+                                } else {
+                                    arguments = bindArguments(argumentsToken, types);
+                                }
                             } catch (Exception ex) {
                                 argumentBindingException = ex;
                             }
                         }
                         if (argumentBindingException != null) {
                             hubMessages.add(new InvocationBindingFailureMessage(invocationId, target, argumentBindingException));
+                        } else if (rawArguments) {
+                            // Raw handlers get the arguments as they were sent, as the only argument.
+                            String rawJson = readRawProperty(str, "arguments");
+                            if (rawJson == null) {
+                                throw new RuntimeException(String.format("Failed to find the arguments of the invocation of '%s'.", target));
+                            }
+                            hubMessages.add(new InvocationMessage(invocationId, target, new Object[] { rawJson }));
+                        } else if (methodBinder != null) {
+                            hubMessages.add(new InvocationMessage(invocationId, target, methodBinder, boundArguments));
+                        } else if (primitiveArguments != null) {
+                            hubMessages.add(new InvocationMessage(invocationId, target, primitiveArguments));
                         } else {
                             if (arguments == null) {
                                 hubMessages.add(new InvocationMessage(invocationId, target, new Object[0]));
@@ -139,18 +201,22 @@ class JsonHubProtocol implements HubProtocol {
                         }
                         break;
                     case COMPLETION:
-                        if (resultToken != null) {
-                            Class<?> returnType = binder.getReturnType(invocationId);
-                            result = gson.fromJson(resultToken, returnType != null ? returnType : Object.class);
+                        if (primitiveResultType != null) {
+                            result = PrimitiveArguments.box(primitiveResult, primitiveResultType);
+                        } else if (resultToken != null) {
+                            result = bindResult(resultToken, binder, invocationId);
                         }
                         hubMessages.add(new CompletionMessage(invocationId, result, error));
                         break;
                     case STREAM_ITEM:
                         if (resultToken != null) {
-                            Class<?> returnType = binder.getReturnType(invocationId);
-                            result = gson.fromJson(resultToken, returnType != null ? returnType : Object.class);
+                            result = bindResult(resultToken, binder, invocationId);
+                        }
+                        if (primitiveResultType != null) {
+                            hubMessages.add(new StreamItem(invocationId, primitiveResultType, primitiveResult));
+                        } else {
+                            hubMessages.add(new StreamItem(invocationId, result));
                         }
-                        hubMessages.add(new StreamItem(invocationId, result));
                         break;
                     case STREAM_INVOCATION:
                     case CANCEL_INVOCATION:
@@ -168,6 +234,13 @@ class JsonHubProtocol implements HubProtocol {
                     default:
                         break;
                 }
+
+                if (headers != null && hubMessages.size() > messageCount) {
+                    HubMessage hubMessage = hubMessages.get(messageCount);
+                    if (hubMessage instanceof HubInvocationMessage) {
+                        ((HubInvocationMessage) hubMessage).setHeaders(headers);
+                    }
+                }
             }
         } catch (IOException ex) {
             throw new RuntimeException("Error reading JSON.", ex);
@@ -178,10 +251,249 @@ class JsonHubProtocol implements HubProtocol {
 
     @Override
     public String writeMessage(HubMessage hubMessage) {
-        return gson.toJson(hubMessage) + RECORD_SEPARATOR;
+        HubMessageType messageType = hubMessage.getMessageType();
+        if (hubMessage instanceof InvocationMessage) {
+            InvocationMessage invocation = (InvocationMessage) hubMessage;
+            if (invocation.getProxyMethod() != null) {
+                return writeProxyInvocation(messageType, invocation.getInvocationId(), invocation.getProxyMethod(),
+                        invocation.getProxyArguments(), invocation.getHeaders());
+            }
+        } else if (hubMessage instanceof StreamInvocationMessage) {
+            StreamInvocationMessage invocation = (StreamInvocationMessage) hubMessage;
+            if (invocation.getProxyMethod() != null) {
+                return writeProxyInvocation(messageType, invocation.getInvocationId(), invocation.getProxyMethod(),
+                        invocation.getProxyArguments(), invocation.getHeaders());
+            }
+        }
+
+        // The messages are written property by property, in the order Gson used to write their fields, rather than by
+        // reflecting over the message classes. Only the arguments and results, whose classes are the application's, go
+        // through Gson.
+        StringWriter message = new StringWriter();
+        try {
+            JsonWriter writer = gson.newJsonWriter(message);
+            writer.beginObject();
+            writer.name("type").value(messageType.value);
+            switch (messageType) {
+                case INVOCATION:
+                    InvocationMessage invocation = (InvocationMessage) hubMessage;
+                    writer.name("invocationId").value(invocation.getInvocationId());
+                    writer.name("target").value(invocation.getTarget());
+                    writeArguments(writer, invocation.getArguments());
+                    break;
+                case STREAM_INVOCATION:
+                    StreamInvocationMessage streamInvocation = (StreamInvocationMessage) hubMessage;
+                    writer.name("invocationId").value(streamInvocation.getInvocationId());
+                    writer.name("target").value(streamInvocation.getTarget());
+                    writeArguments(writer, streamInvocation.getArguments());
+                    break;
+                case STREAM_ITEM:
+                    StreamItem streamItem = (StreamItem) hubMessage;
+                    writer.name("invocationId").value(streamItem.getInvocationId());
+                    writeValue(writer.name("item"), streamItem.getItem());
+                    break;
+                case COMPLETION:
+                    CompletionMessage completion = (CompletionMessage) hubMessage;
+                    writer.name("invocationId").value(completion.getInvocationId());
+                    writeValue(writer.name("result"), completion.getResult());
+                    writer.name("error").value(completion.getError());
+                    break;
+                case CANCEL_INVOCATION:
+                    writer.name("invocationId").value(((CancelInvocationMessage) hubMessage).getInvocationId());
+                    break;
+                case CLOSE:
+                    writer.name("error").value(((CloseMessage) hubMessage).getError());
+                    break;
+                default:
+                    break;
+            }
+            if (hubMessage instanceof HubInvocationMessage) {
+                writeHeaders(writer, ((HubInvocationMessage) hubMessage).getHeaders());
+            }
+            writer.endObject();
+            writer.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException(String.format("Error writing the %s message.", messageType), ex);
+        }
+        return message.append(RECORD_SEPARATOR).toString();
+    }
+
+    private void writeArguments(JsonWriter writer, Object[] arguments) throws IOException {
+        if (arguments == null) {
+            return;
+        }
+        writer.name("arguments").beginArray();
+        for (Object argument : arguments) {
+            writeValue(writer, argument);
+        }
+        writer.endArray();
+    }
+
+    // Values are written as their runtime class, like Gson does for a field or an array element declared as Object. A
+    // null value inside an object leaves out the property, and inside an array is written as null.
+    private void writeValue(JsonWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else {
+            gson.toJson(value, value.getClass(), writer);
+        }
+    }
+
+    private static void writeHeaders(JsonWriter writer, Map<String, String> headers) throws IOException {
+        if (headers == null) {
+            return;
+        }
+        writeHeaderValues(writer.name("headers"), headers);
+    }
+
+    private static void writeHeaderValues(JsonWriter writer, Map<String, String> headers) throws IOException {
+        writer.beginObject();
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            writer.name(header.getKey()).value(header.getValue());
+        }
+        writer.endObject();
+    }
+
+    // Everything before the arguments was encoded when the proxy was loaded, and the proxy writes each argument as its
+    // parameter type, so nothing is looked up by reflection.
+    private String writeProxyInvocation(HubMessageType messageType, String invocationId, HubProxyMethod method,
+            HubArguments arguments, Map<String, String> headers) {
+        StringWriter message = new StringWriter();
+        message.append("{\"type\":").append(Integer.toString(messageType.value)).append(',');
+        if (invocationId != null) {
+            // Invocation ids are numbers, so they don't need escaping.
+            message.append("\"invocationId\":\"").append(invocationId).append("\",");
+        }
+        message.append(method.getEncodedTarget());
+        try {
+            JsonWriter writer = gson.newJsonWriter(message);
+            writer.beginArray();
+            arguments.write(new HubArgumentWriter(writer, gson));
+            writer.endArray();
+            writer.flush();
+            if (headers != null) {
+                // The arguments array was a whole JSON document to its writer, so the headers get a writer of their own.
+                message.append(",\"headers\":");
+                JsonWriter headerWriter = gson.newJsonWriter(message);
+                writeHeaderValues(headerWriter, headers);
+                headerWriter.flush();
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(String.format("Error writing the arguments of '%s'.", method.getName()), ex);
+        }
+        return message.append('}').append(RECORD_SEPARATOR).toString();
+    }
+
+    private Object bindResult(JsonElement resultToken, InvocationBinder binder, String invocationId) throws IOException {
+        HubResultReader<?> resultReader = binder.getResultReader(invocationId);
+        if (resultReader != null) {
+            return readResult(new JsonReader(new StringReader(resultToken.toString())), resultReader);
+        }
+        Type returnType = binder.getReturnType(invocationId);
+        return gson.fromJson(resultToken, returnType != null ? returnType : Object.class);
+    }
+
+    private Object readResult(JsonReader reader, HubResultReader<?> resultReader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return resultReader.read(new HubArgumentReader(reader, gson, 1));
+    }
+
+    // Finds the JSON of a property of the message object without parsing it, so raw handlers get it as it was sent.
+    private static String readRawProperty(String json, String name) {
+        int depth = 0;
+        int i = 0;
+        while (i < json.length()) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                int end = skipString(json, i);
+                if (depth == 1 && end - i == name.length() + 2 && json.startsWith(name, i + 1)) {
+                    int colon = skipWhitespace(json, end);
+                    if (colon < json.length() && json.charAt(colon) == ':') {
+                        int start = skipWhitespace(json, colon + 1);
+                        return json.substring(start, skipRawValue(json, start));
+                    }
+                }
+                i = end;
+            } else {
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+                i++;
+            }
+        }
+        return null;
+    }
+
+    private static int skipRawValue(String json, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < json.length()) {
+            char c = json.charAt(i);
+            if (c == '"') {
+                i = skipString(json, i);
+                if (depth == 0) {
+                    return i;
+                }
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            } else if (depth == 0 && (c == ',' || Character.isWhitespace(c))) {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    // Returns the index after the closing quote of the string starting at the given index.
+    private static int skipString(String json, int start) {
+        int i = start + 1;
+        while (i < json.length()) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '"') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return i;
     }
 
-    private ArrayList<Object> bindArguments(JsonArray argumentsToken, List<Class<?>> paramTypes) {
+    private static int skipWhitespace(String json, int start) {
+        int i = start;
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Map<String, String> readHeaders(JsonReader reader) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            headers.put(reader.nextName(), reader.nextString());
+        }
+        reader.endObject();
+        return headers;
+    }
+
+    private ArrayList<Object> bindArguments(JsonArray argumentsToken, List<? extends Type> paramTypes) {
         if (argumentsToken.size() != paramTypes.size()) {
             throw new RuntimeException(String.format("Invocation provides %d argument(s) but target expects %d.", argumentsToken.size(), paramTypes.size()));
         }
@@ -197,7 +509,55 @@ class JsonHubProtocol implements HubProtocol {
         return arguments;
     }
 
-    private ArrayList<Object> bindArguments(JsonReader reader, List<Class<?>> paramTypes) throws IOException {
+    private static boolean isBound(List<? extends Type> types) {
+        return types.size() == 1 && types.get(0) == HubMethodBinder.class;
+    }
+
+    // Lets the generated binder read each argument straight into its parameter type.
+    private Object readBoundArguments(JsonReader reader, HubMethodBinder<?> methodBinder) throws IOException {
+        reader.beginArray();
+        int paramCount = methodBinder.getParameterCount();
+        Object arguments = methodBinder.readArguments(new HubArgumentReader(reader, gson, paramCount));
+        int argCount = paramCount;
+        while (reader.peek() != JsonToken.END_ARRAY) {
+            reader.skipValue();
+            argCount++;
+        }
+
+        if (paramCount != argCount) {
+            throw new RuntimeException(String.format("Invocation provides %d argument(s) but target expects %d.", argCount, paramCount));
+        }
+
+        reader.endArray();
+
+        return arguments;
+    }
+
+    // Reads int, long and double parameters without boxing them, the same way as bindArguments below.
+    private static PrimitiveArguments bindPrimitiveArguments(JsonReader reader, List<? extends Type> paramTypes) throws IOException {
+        reader.beginArray();
+        int paramCount = paramTypes.size();
+        int argCount = 0;
+        long[] values = new long[paramCount];
+        while (reader.peek() != JsonToken.END_ARRAY) {
+            if (argCount < paramCount) {
+                values[argCount] = PrimitiveArguments.read(reader, paramTypes.get(argCount));
+            } else {
+                reader.skipValue();
+            }
+            argCount++;
+        }
+
+        if (paramCount != argCount) {
+            throw new RuntimeException(String.format("Invocation provides %d argument(s) but target expects %d.", argCount, paramCount));
+        }
+
+        reader.endArray();
+
+        return new PrimitiveArguments(paramTypes, values);
+    }
+
+    private ArrayList<Object> bindArguments(JsonReader reader, List<? extends Type> paramTypes) throws IOException {
         reader.beginArray();
         int paramCount = paramTypes.size();
         int argCount = 0;
@@ -0,0 +1,169 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a decaying average of how long it took to connect to each hub endpoint and transport, so connections can
+ * pick the fastest one. The default instance is shared by every connection in the process.
+ */
+class LatencyTracker {
+    private static final long DEFAULT_HALF_LIFE = 5 * 60 * 1000;
+    // A failed attempt counts as a very slow one for a half-life, so a flaky endpoint loses out until it has recovered.
+    private static final long FAILURE_PENALTY = 30 * 1000;
+    // Even back to back samples move the average by this much.
+    private static final double MIN_SAMPLE_WEIGHT = 0.2;
+
+    private static final LatencyTracker DEFAULT = new LatencyTracker(DEFAULT_HALF_LIFE, new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    });
+
+    // Guarded by itself. Samples are only recorded when connections start, so the lock is never contended for long, and
+    // ConcurrentHashMap.compute and LongSupplier are only available on Android API Level 24 and above.
+    private final Map<String, Estimate> estimates = new HashMap<>();
+    private final long halfLife;
+    private final Clock clock;
+
+    LatencyTracker(long halfLifeInMilliseconds, Clock clock) {
+        this.halfLife = halfLifeInMilliseconds;
+        this.clock = clock;
+    }
+
+    static LatencyTracker getDefault() {
+        return DEFAULT;
+    }
+
+    public void recordLatency(String key, long latencyInMilliseconds) {
+        long now = clock.currentTimeMillis();
+        synchronized (estimates) {
+            Estimate estimate = getOrCreate(key);
+            if (estimate.isMeasured()) {
+                // The longer it has been since the last sample, the less the old average counts.
+                double weight = 1 - Math.pow(2, -(double) (now - estimate.updatedAt) / halfLife);
+                weight = Math.max(MIN_SAMPLE_WEIGHT, weight);
+                estimate.average += weight * (latencyInMilliseconds - estimate.average);
+            } else {
+                estimate.average = latencyInMilliseconds;
+            }
+            estimate.updatedAt = now;
+            estimate.checkedAt = now;
+        }
+    }
+
+    public void recordFailure(String key) {
+        long now = clock.currentTimeMillis();
+        synchronized (estimates) {
+            Estimate estimate = getOrCreate(key);
+            estimate.failed = true;
+            estimate.failedAt = now;
+            estimate.checkedAt = now;
+        }
+    }
+
+    /**
+     * Picks one of the candidates. The one with the lowest average latency is picked, counting a failure in the last
+     * half-life as a very slow sample, and the first one when none of them was measured. A candidate that wasn't tried
+     * for a half-life, because it was never measured or lost out, is probed once in a while: when the fastest candidate
+     * was measured in the last half-life, the first candidate that wasn't tried for a half-life is picked instead, and
+     * it isn't probed again for another half-life. This way a failure or a slow sample doesn't keep a candidate away for
+     * good, and no candidate gets more than one connection per half-life just to measure it.
+     *
+     * @param candidates The keys to pick from, in order of preference.
+     * @return The index of the picked candidate, or -1 if there are no candidates.
+     */
+    public int select(List<String> candidates) {
+        if (candidates.isEmpty()) {
+            return -1;
+        }
+
+        long now = clock.currentTimeMillis();
+        synchronized (estimates) {
+            int selected = 0;
+            double lowest = Double.MAX_VALUE;
+            for (int i = 0; i < candidates.size(); i++) {
+                Estimate estimate = estimates.get(candidates.get(i));
+                if (estimate == null) {
+                    continue;
+                }
+
+                double score = estimate.getScore(now);
+                if (score < lowest) {
+                    lowest = score;
+                    selected = i;
+                }
+            }
+
+            // Only probe while what's known about the fastest candidate is recent, otherwise the probe wouldn't tell
+            // more than connecting to it does.
+            Estimate fastest = estimates.get(candidates.get(selected));
+            if (fastest == null || isDue(fastest, now)) {
+                return selected;
+            }
+
+            for (int i = 0; i < candidates.size(); i++) {
+                Estimate estimate = estimates.get(candidates.get(i));
+                if (estimate == null || isDue(estimate, now)) {
+                    getOrCreate(candidates.get(i)).checkedAt = now;
+                    return i;
+                }
+            }
+            return selected;
+        }
+    }
+
+    // For testing purposes
+    Double getAverage(String key) {
+        synchronized (estimates) {
+            Estimate estimate = estimates.get(key);
+            return estimate == null || !estimate.isMeasured() ? null : estimate.average;
+        }
+    }
+
+    private boolean isDue(Estimate estimate, long now) {
+        return now - estimate.checkedAt >= halfLife;
+    }
+
+    private Estimate getOrCreate(String key) {
+        Estimate estimate = estimates.get(key);
+        if (estimate == null) {
+            estimate = new Estimate();
+            estimates.put(key, estimate);
+        }
+        return estimate;
+    }
+
+    interface Clock {
+        // We can't use the @FunctionalInterface annotation or LongSupplier because they're only
+        // available on Android API Level 24 and above.
+        long currentTimeMillis();
+    }
+
+    private final class Estimate {
+        private double average = Double.NaN;
+        // When the last sample was recorded.
+        private long updatedAt;
+        // When the candidate was last sampled, failed or picked for a probe.
+        private long checkedAt;
+        private boolean failed;
+        private long failedAt;
+
+        boolean isMeasured() {
+            return !Double.isNaN(average);
+        }
+
+        double getScore(long now) {
+            double score = isMeasured() ? average : Double.MAX_VALUE;
+            if (failed && now - failedAt < halfLife) {
+                score = isMeasured() ? score + FAILURE_PENALTY : FAILURE_PENALTY;
+            }
+            return score;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.reactivex.Completable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subjects.CompletableSubject;
+
+class LongPollingTransport implements Transport {
+    private OnReceiveCallBack onReceiveCallBack;
+    private TransportOnClosedCallback onClose;
+    private String url;
+    private final HttpClient client;
+    private final Map<String, String> headers;
+    private HttpSendQueue sendQueue;
+    private volatile Disposable pendingPoll;
+    private AtomicBoolean closed;
+    private volatile boolean active;
+
+    // Polls are pipelined, so responses are handed to onReceive in the order the polls were issued.
+    private final Object deliveryLock = new Object();
+    private long nextPollSequence;
+    private long nextDeliverySequence;
+
+    private static final Logger logger = LoggerFactory.getLogger(LongPollingTransport.class);
+
+    public LongPollingTransport(Map<String, String> headers, HttpClient client) {
+        this.client = client;
+        this.headers = headers;
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    @Override
+    public Completable start(String url) {
+        this.url = url;
+        this.closed = new AtomicBoolean();
+        this.sendQueue = new HttpSendQueue(client, url, headers);
+        synchronized (deliveryLock) {
+            nextPollSequence = 0;
+            nextDeliverySequence = 0;
+        }
+        logger.debug("Starting LongPolling connection.");
+
+        // The server completes the first poll immediately to signal that the connection is established.
+        CompletableSubject startSubject = CompletableSubject.create();
+        client.get(url, createPollRequest()).subscribe(response -> {
+            if (response.getStatusCode() != 200) {
+                startSubject.onError(new RuntimeException(String.format("Unexpected status code returned from LongPolling connection: %d %s.",
+                        response.getStatusCode(), response.getStatusText())));
+                return;
+            }
+
+            pendingPoll = null;
+            active = true;
+            logger.info("LongPolling transport connected to: {}.", url);
+            startSubject.onComplete();
+            poll();
+        }, error -> startSubject.onError(error));
+
+        return startSubject;
+    }
+
+    private HttpRequest createPollRequest() {
+        HttpRequest request = new HttpRequest();
+        request.addHeaders(headers);
+        return request;
+    }
+
+    private void poll() {
+        if (!active) {
+            return;
+        }
+
+        HttpRequest request = createPollRequest();
+        request.setUrl(url);
+        request.setMethod("GET");
+        long sequence;
+        synchronized (deliveryLock) {
+            sequence = nextPollSequence++;
+        }
+
+        pendingPoll = client.sendStreaming(request).subscribe(response -> {
+            if (response.getStatusCode() == 204) {
+                logger.info("LongPolling transport terminated by server.");
+                complete(sequence, null, true, null);
+                return;
+            }
+
+            if (response.getStatusCode() != 200) {
+                logger.error("Unexpected response code from LongPolling poll: {}.", response.getStatusCode());
+                complete(sequence, null, true, String.format("Unexpected status code returned from LongPolling poll: %d %s.",
+                        response.getStatusCode(), response.getStatusText()));
+                return;
+            }
+
+            // Once the server has sent the response headers it is committed to writing this response, so the next
+            // poll can be issued now rather than after the body has been read and processed.
+            poll();
+
+            String payload;
+            try {
+                payload = response.getContent().collectInto(new StringBuilder(), StringBuilder::append).blockingGet().toString();
+            } catch (RuntimeException ex) {
+                logger.error("LongPolling poll failed: {}.", ex.getMessage());
+                complete(sequence, null, true, ex.getMessage());
+                return;
+            }
+
+            complete(sequence, payload, false, null);
+        }, error -> {
+            logger.error("LongPolling poll failed: {}.", error.getMessage());
+            complete(sequence, null, true, error.getMessage());
+        });
+    }
+
+    private void complete(long sequence, String payload, boolean closing, String closeReason) {
+        synchronized (deliveryLock) {
+            // Wait for the earlier polls, so that a poll which ends the connection doesn't drop messages that are still
+            // being read from the previous one.
+            while (active && sequence != nextDeliverySequence) {
+                try {
+                    deliveryLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            try {
+                if (!active) {
+                    return;
+                }
+
+                // An empty response means the poll timed out on the server.
+                if (payload != null && !payload.isEmpty()) {
+                    onReceive(payload);
+                }
+                if (closing) {
+                    close(closeReason);
+                }
+            } finally {
+                nextDeliverySequence++;
+                deliveryLock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public Completable send(String message) {
+        if (!active) {
+            return Completable.error(new IllegalStateException("Cannot send until the transport is connected."));
+        }
+        return sendQueue.send(message);
+    }
+
+    @Override
+    public void setOnReceive(OnReceiveCallBack callback) {
+        this.onReceiveCallBack = callback;
+        logger.debug("OnReceived callback has been set.");
+    }
+
+    @Override
+    public void onReceive(String message) {
+        this.onReceiveCallBack.invoke(message);
+    }
+
+    @Override
+    public void setOnClose(TransportOnClosedCallback onCloseCallback) {
+        this.onClose = onCloseCallback;
+    }
+
+    @Override
+    public Completable stop() {
+        logger.debug("Stopping LongPolling connection.");
+        deactivate();
+
+        // Let the server know the connection is done, it will complete the outstanding poll with a 204.
+        CompletableSubject stopSubject = CompletableSubject.create();
+        client.delete(url, createPollRequest()).subscribe(response -> {
+            close(null);
+            stopSubject.onComplete();
+        }, error -> {
+            logger.debug("Error sending DELETE request: {}.", error.getMessage());
+            close(null);
+            stopSubject.onComplete();
+        });
+
+        return stopSubject;
+    }
+
+    private void deactivate() {
+        active = false;
+        Disposable poll = pendingPoll;
+        if (poll != null) {
+            // Only aborts a poll that is still waiting for its response, a response that is being read is left to finish.
+            poll.dispose();
+        }
+        sendQueue.close();
+        synchronized (deliveryLock) {
+            deliveryLock.notifyAll();
+        }
+    }
+
+    private void close(String reason) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        deactivate();
+        logger.info("LongPolling connection stopping with reason '{}'.", reason);
+        if (onClose != null) {
+            onClose.invoke(reason);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A small, fixed set of selector threads that drive the sockets of every {@link NioWebSocketWrapper} in the process.
+ * Each thread owns a direct read buffer and a direct write buffer that are reused for all of its sockets, so an idle
+ * connection costs neither a thread nor a buffer.
+ */
+final class NioEventLoop {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Worker[] workers;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+
+    private static final Logger logger = LoggerFactory.getLogger(NioEventLoop.class);
+
+    NioEventLoop(int threadCount) {
+        workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = new Worker("signalr-nio-" + i);
+        }
+    }
+
+    static NioEventLoop getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Picks the worker a new socket should be registered with. Sockets are spread over the workers round-robin and
+     * stay on the same worker for their whole lifetime.
+     *
+     * @return The worker for the socket.
+     */
+    Worker next() {
+        // Math.floorMod is only available on Android API Level 24 and above. Masking the sign bit keeps the index
+        // positive once the counter wraps around.
+        return workers[(nextWorker.getAndIncrement() & Integer.MAX_VALUE) % workers.length];
+    }
+
+    interface Handler {
+        void onSelected(SelectionKey key) throws IOException;
+
+        void onFailure(Throwable error);
+    }
+
+    static final class Worker implements Runnable {
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final Thread thread;
+
+        private Worker(String name) {
+            try {
+                selector = Selector.open();
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to open a selector for the NIO event loop.", e);
+            }
+
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        Selector getSelector() {
+            return selector;
+        }
+
+        // Only to be used on the worker thread, and only until the handler returns.
+        ByteBuffer getReadBuffer() {
+            return readBuffer;
+        }
+
+        // Only to be used on the worker thread, and only until the handler returns.
+        ByteBuffer getWriteBuffer() {
+            return writeBuffer;
+        }
+
+        boolean inEventLoop() {
+            return Thread.currentThread() == thread;
+        }
+
+        void execute(Runnable task) {
+            tasks.add(task);
+            if (!inEventLoop()) {
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    selector.select();
+                    runTasks();
+
+                    Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                    while (selectedKeys.hasNext()) {
+                        SelectionKey key = selectedKeys.next();
+                        selectedKeys.remove();
+                        Handler handler = (Handler) key.attachment();
+                        try {
+                            if (key.isValid()) {
+                                handler.onSelected(key);
+                            }
+                        } catch (Exception e) {
+                            handler.onFailure(e);
+                        }
+                    }
+                } catch (Throwable e) {
+                    // Never let one misbehaving connection take down the loop for every other connection.
+                    logger.error("Unexpected error in the NIO event loop.", e);
+                }
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    logger.error("Unexpected error running a task on the NIO event loop.", e);
+                }
+            }
+        }
+    }
+
+    // Created on first use so that processes which never use the NIO WebSocket client never start the threads.
+    private static class DefaultHolder {
+        static final NioEventLoop INSTANCE = new NioEventLoop(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    }
+}
@@ -0,0 +1,624 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.reactivex.Completable;
+import io.reactivex.subjects.CompletableSubject;
+import okio.ByteString;
+
+/**
+ * A WebSocket client that runs on the shared {@link NioEventLoop} instead of a reader thread per connection.
+ * Only plain ws:// URLs are supported. Messages are received on an event loop thread that is shared with
+ * other connections, so receive callbacks must not block.
+ */
+class NioWebSocketWrapper extends WebSocketWrapper implements NioEventLoop.Handler {
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final long CONNECT_TIMEOUT = 10 * 1000;
+    private static final long CLOSE_TIMEOUT = 5 * 1000;
+    private static final int MAX_HANDSHAKE_RESPONSE_SIZE = 16 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024;
+
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_BINARY = 0x2;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+
+    private final String url;
+    private final Map<String, String> headers;
+    private final NioEventLoop.Worker worker;
+    private OnReceiveCallBack onReceive;
+    private WebSocketOnClosedCallback onClose;
+    private final CompletableSubject startSubject = CompletableSubject.create();
+    private final CompletableSubject closeSubject = CompletableSubject.create();
+
+    // Everything below is only touched on the event loop thread, except pendingWrites which is guarded by itself.
+    private SocketChannel channel;
+    private SelectionKey selectionKey;
+    private String secWebSocketKey;
+    private ByteBuffer handshakeResponse;
+    private boolean upgraded;
+    private boolean closeSent;
+    private boolean closed;
+    private ByteBuffer inbound;
+    private ByteArrayOutputStream fragments;
+    private final ArrayDeque<PendingWrite> pendingWrites = new ArrayDeque<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private static final Logger logger = LoggerFactory.getLogger(NioWebSocketWrapper.class);
+
+    public NioWebSocketWrapper(String url, Map<String, String> headers) {
+        this(url, headers, NioEventLoop.getDefault());
+    }
+
+    NioWebSocketWrapper(String url, Map<String, String> headers, NioEventLoop eventLoop) {
+        this.url = url;
+        this.headers = headers;
+        this.worker = eventLoop.next();
+    }
+
+    // For testing purposes
+    Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public Completable start() {
+        URI uri = URI.create(url);
+        if (!"ws".equalsIgnoreCase(uri.getScheme())) {
+            return Completable.error(new RuntimeException(String.format("The NIO WebSocket client doesn't support '%s' URLs.", uri.getScheme())));
+        }
+
+        InetSocketAddress address;
+        try {
+            address = new InetSocketAddress(uri.getHost(), uri.getPort() == -1 ? 80 : uri.getPort());
+        } catch (IllegalArgumentException e) {
+            return Completable.error(e);
+        }
+        if (address.isUnresolved()) {
+            return Completable.error(new RuntimeException(String.format("Unable to resolve host '%s'.", uri.getHost())));
+        }
+
+        byte[] nonce = new byte[16];
+        ThreadLocalRandom.current().nextBytes(nonce);
+        // java.util.Base64 is only available on Android API Level 26 and above.
+        secWebSocketKey = ByteString.of(nonce).base64();
+        byte[] upgradeRequest = createUpgradeRequest(uri).getBytes(StandardCharsets.ISO_8859_1);
+
+        worker.execute(() -> connect(address, upgradeRequest));
+        HubConnection.getScheduler().schedule(() -> worker.execute(() -> {
+            if (!upgraded) {
+                onFailure(new TimeoutException("Timed out connecting the WebSocket."));
+            }
+        }), CONNECT_TIMEOUT, TimeUnit.MILLISECONDS);
+
+        return startSubject;
+    }
+
+    @Override
+    public Completable stop() {
+        worker.execute(() -> {
+            if (closed) {
+                return;
+            }
+            if (!upgraded) {
+                onFailure(new RuntimeException("The WebSocket was stopped before it connected."));
+                return;
+            }
+
+            sendClose(1000, "HubConnection stopped.");
+            HubConnection.getScheduler().schedule(() -> worker.execute(() -> {
+                if (!closed) {
+                    logger.debug("The server didn't close the WebSocket in time, closing the socket.");
+                    closeConnection(1006, "The server didn't complete the close handshake.");
+                }
+            }), CLOSE_TIMEOUT, TimeUnit.MILLISECONDS);
+        });
+        return closeSubject;
+    }
+
+    @Override
+    public Completable send(String message) {
+        CompletableSubject sendSubject = CompletableSubject.create();
+        enqueue(encodeFrame(OPCODE_TEXT, message.getBytes(StandardCharsets.UTF_8)), sendSubject);
+        // Completes once the frame has been written to the socket.
+        return sendSubject;
+    }
+
+    @Override
+    public void setOnReceive(OnReceiveCallBack onReceive) {
+        this.onReceive = onReceive;
+    }
+
+    @Override
+    public void setOnClose(WebSocketOnClosedCallback onClose) {
+        this.onClose = onClose;
+    }
+
+    private String createUpgradeRequest(URI uri) {
+        String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+        if (uri.getRawQuery() != null) {
+            path += "?" + uri.getRawQuery();
+        }
+
+        StringBuilder request = new StringBuilder();
+        request.append("GET ").append(path).append(" HTTP/1.1\r\n");
+        request.append("Host: ").append(uri.getHost());
+        if (uri.getPort() != -1) {
+            request.append(':').append(uri.getPort());
+        }
+        request.append("\r\n");
+        request.append("Upgrade: websocket\r\n");
+        request.append("Connection: Upgrade\r\n");
+        request.append("Sec-WebSocket-Key: ").append(secWebSocketKey).append("\r\n");
+        request.append("Sec-WebSocket-Version: 13\r\n");
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            request.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+        }
+        request.append("\r\n");
+        return request.toString();
+    }
+
+    private void connect(InetSocketAddress address, byte[] upgradeRequest) {
+        if (closed) {
+            return;
+        }
+
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            selectionKey = channel.register(worker.getSelector(), SelectionKey.OP_CONNECT, this);
+            synchronized (pendingWrites) {
+                // The upgrade request goes out before anything that was sent early.
+                pendingWrites.addFirst(new PendingWrite(ByteBuffer.wrap(upgradeRequest), null));
+            }
+            if (channel.connect(address)) {
+                onConnected();
+            }
+        } catch (IOException e) {
+            onFailure(e);
+        }
+    }
+
+    private void onConnected() {
+        selectionKey.interestOps(SelectionKey.OP_READ);
+        handshakeResponse = ByteBuffer.allocate(1024);
+        flush();
+    }
+
+    @Override
+    public void onSelected(SelectionKey key) throws IOException {
+        if (key.isConnectable()) {
+            if (channel.finishConnect()) {
+                onConnected();
+            }
+        }
+        if (key.isValid() && key.isWritable()) {
+            flush();
+        }
+        if (key.isValid() && key.isReadable()) {
+            read();
+        }
+    }
+
+    private void read() throws IOException {
+        ByteBuffer buffer = worker.getReadBuffer();
+        buffer.clear();
+        int read = channel.read(buffer);
+        if (read == -1) {
+            if (!closed) {
+                onFailure(new IOException("The server closed the connection without completing the WebSocket close handshake."));
+            }
+            return;
+        }
+        buffer.flip();
+
+        if (!upgraded) {
+            readHandshakeResponse(buffer);
+            if (!upgraded) {
+                return;
+            }
+        }
+
+        // Frames are parsed straight out of the shared read buffer. Only a frame that is split across reads is copied
+        // into a buffer of the connection's own.
+        ByteBuffer source = buffer;
+        if (inbound != null && inbound.position() > 0) {
+            inbound = ensureCapacity(inbound, buffer.remaining());
+            inbound.put(buffer);
+            inbound.flip();
+            source = inbound;
+        }
+
+        int incompleteFrameLength = readFrames(source);
+        if (closed) {
+            return;
+        }
+
+        if (source == inbound) {
+            inbound.compact();
+        } else if (buffer.hasRemaining()) {
+            inbound = ensureCapacity(inbound, buffer.remaining());
+            inbound.put(buffer);
+        }
+
+        if (incompleteFrameLength > 0) {
+            // Size the buffer for the whole frame up front instead of growing it read by read.
+            inbound = ensureCapacity(inbound, incompleteFrameLength - inbound.position());
+        } else if (inbound != null && inbound.position() == 0 && inbound.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            // Don't hold on to the memory of a large message while the connection is idle.
+            inbound = null;
+        }
+    }
+
+    private void readHandshakeResponse(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            handshakeResponse = ensureCapacity(handshakeResponse, 1);
+            handshakeResponse.put(buffer.get());
+            int length = handshakeResponse.position();
+            if (length >= 4 && handshakeResponse.get(length - 4) == '\r' && handshakeResponse.get(length - 3) == '\n'
+                    && handshakeResponse.get(length - 2) == '\r' && handshakeResponse.get(length - 1) == '\n') {
+                String response = new String(handshakeResponse.array(), 0, length, StandardCharsets.ISO_8859_1);
+                handshakeResponse = null;
+                checkHandshakeResponse(response);
+                return;
+            }
+            if (length > MAX_HANDSHAKE_RESPONSE_SIZE) {
+                throw new IOException("The WebSocket upgrade response was too large.");
+            }
+        }
+    }
+
+    private void checkHandshakeResponse(String response) throws IOException {
+        String[] lines = response.split("\r\n");
+        String[] statusLine = lines[0].split(" ", 3);
+        if (statusLine.length < 2 || !statusLine[1].equals("101")) {
+            throw new IOException(String.format("Unexpected status code returned from WebSocket upgrade: %s.", lines[0]));
+        }
+
+        String accept = null;
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0 && lines[i].substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Accept")) {
+                accept = lines[i].substring(colon + 1).trim();
+            }
+        }
+        if (!computeAccept(secWebSocketKey).equals(accept)) {
+            throw new IOException("The server returned an invalid Sec-WebSocket-Accept header.");
+        }
+
+        upgraded = true;
+        logger.debug("WebSocket connected to {}.", url);
+        startSubject.onComplete();
+    }
+
+    // Returns the length of the incomplete frame at the end of the buffer, if its header could be read.
+    private int readFrames(ByteBuffer buffer) throws IOException {
+        while (!closed && buffer.remaining() >= 2) {
+            int frameStart = buffer.position();
+            int first = buffer.get() & 0xFF;
+            int second = buffer.get() & 0xFF;
+            boolean fin = (first & 0x80) != 0;
+            int opcode = first & 0x0F;
+            boolean masked = (second & 0x80) != 0;
+            long payloadLength = second & 0x7F;
+            int extendedLength = payloadLength == 126 ? 2 : payloadLength == 127 ? 8 : 0;
+            int headerLength = 2 + extendedLength + (masked ? 4 : 0);
+            if (buffer.remaining() < headerLength - 2) {
+                buffer.position(frameStart);
+                return 0;
+            }
+            if (extendedLength == 2) {
+                payloadLength = buffer.getShort() & 0xFFFF;
+            } else if (extendedLength == 8) {
+                payloadLength = buffer.getLong();
+            }
+            if (payloadLength < 0 || payloadLength > Integer.MAX_VALUE - 16) {
+                throw new IOException("The WebSocket frame is too large.");
+            }
+
+            byte[] mask = null;
+            if (masked) {
+                mask = new byte[4];
+                buffer.get(mask);
+            }
+            if (buffer.remaining() < payloadLength) {
+                buffer.position(frameStart);
+                return headerLength + (int) payloadLength;
+            }
+
+            byte[] payload = new byte[(int) payloadLength];
+            buffer.get(payload);
+            if (mask != null) {
+                for (int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i & 3];
+                }
+            }
+            onFrame(fin, opcode, payload);
+        }
+        return 0;
+    }
+
+    private void onFrame(boolean fin, int opcode, byte[] payload) throws IOException {
+        switch (opcode) {
+            case OPCODE_TEXT:
+            case OPCODE_BINARY:
+                if (fin) {
+                    onMessage(payload);
+                } else {
+                    fragments = new ByteArrayOutputStream(payload.length * 2);
+                    fragments.write(payload);
+                }
+                break;
+            case OPCODE_CONTINUATION:
+                if (fragments == null) {
+                    throw new IOException("Received a continuation frame without a message to continue.");
+                }
+                fragments.write(payload);
+                if (fin) {
+                    byte[] message = fragments.toByteArray();
+                    fragments = null;
+                    onMessage(message);
+                }
+                break;
+            case OPCODE_PING:
+                enqueue(encodeFrame(OPCODE_PONG, payload), null);
+                break;
+            case OPCODE_PONG:
+                break;
+            case OPCODE_CLOSE:
+                int code = 1005;
+                String reason = "";
+                if (payload.length >= 2) {
+                    code = ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF);
+                    reason = new String(payload, 2, payload.length - 2, StandardCharsets.UTF_8);
+                }
+                if (!closeSent) {
+                    // Echo the close frame, the connection is closed once it has been written.
+                    sendClose(code, "");
+                }
+                closeConnection(code, reason);
+                break;
+            default:
+                throw new IOException(String.format("Received a WebSocket frame with unknown opcode %d.", opcode));
+        }
+    }
+
+    private void onMessage(byte[] payload) {
+        onReceive.invoke(new String(payload, StandardCharsets.UTF_8));
+    }
+
+    private void sendClose(int code, String reason) {
+        byte[] reasonBytes = reason.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[2 + reasonBytes.length];
+        payload[0] = (byte) (code >> 8);
+        payload[1] = (byte) code;
+        System.arraycopy(reasonBytes, 0, payload, 2, reasonBytes.length);
+        closeSent = true;
+        enqueue(encodeFrame(OPCODE_CLOSE, payload), null);
+        flush();
+    }
+
+    private void enqueue(ByteBuffer frame, CompletableSubject sendSubject) {
+        synchronized (pendingWrites) {
+            if (closed) {
+                if (sendSubject != null) {
+                    sendSubject.onError(new IllegalStateException("Cannot send messages after the WebSocket has closed."));
+                }
+                return;
+            }
+            pendingWrites.add(new PendingWrite(frame, sendSubject));
+        }
+
+        if (worker.inEventLoop()) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            // Any number of sends from other threads share one trip to the event loop.
+            worker.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    private void flush() {
+        if (channel == null || !channel.isConnected() || closed) {
+            return;
+        }
+
+        ByteBuffer out = worker.getWriteBuffer();
+        List<CompletableSubject> completed = new ArrayList<>();
+        try {
+            while (true) {
+                out.clear();
+                synchronized (pendingWrites) {
+                    for (PendingWrite write : pendingWrites) {
+                        if (!out.hasRemaining()) {
+                            break;
+                        }
+                        ByteBuffer data = write.data.duplicate();
+                        if (data.remaining() > out.remaining()) {
+                            data.limit(data.position() + out.remaining());
+                        }
+                        out.put(data);
+                    }
+                }
+                out.flip();
+                if (!out.hasRemaining()) {
+                    selectionKey.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+
+                int written = channel.write(out);
+                synchronized (pendingWrites) {
+                    while (written > 0) {
+                        PendingWrite write = pendingWrites.peek();
+                        int consumed = Math.min(written, write.data.remaining());
+                        write.data.position(write.data.position() + consumed);
+                        written -= consumed;
+                        if (!write.data.hasRemaining()) {
+                            pendingWrites.poll();
+                            if (write.sendSubject != null) {
+                                completed.add(write.sendSubject);
+                            }
+                        }
+                    }
+                }
+
+                if (out.hasRemaining()) {
+                    // The socket buffer is full, continue once it's writable again.
+                    selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            onFailure(e);
+        } finally {
+            for (CompletableSubject sendSubject : completed) {
+                sendSubject.onComplete();
+            }
+        }
+    }
+
+    @Override
+    public void onFailure(Throwable error) {
+        if (closed) {
+            return;
+        }
+
+        logger.error("WebSocket closed from an error: {}.", error.getMessage());
+        shutdown(error);
+        closeSubject.onError(new RuntimeException(error));
+        onClose.invoke(null, error.getMessage());
+        checkStartFailure();
+    }
+
+    private void closeConnection(int code, String reason) {
+        if (closed) {
+            return;
+        }
+
+        // Give the close frame a chance to go out before the socket is closed.
+        flush();
+        shutdown(null);
+        onClose.invoke(code, reason);
+        closeSubject.onComplete();
+        checkStartFailure();
+    }
+
+    private void shutdown(Throwable error) {
+        List<PendingWrite> unsent;
+        synchronized (pendingWrites) {
+            closed = true;
+            unsent = new ArrayList<>(pendingWrites);
+            pendingWrites.clear();
+        }
+
+        if (selectionKey != null) {
+            selectionKey.cancel();
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Error closing the WebSocket: {}.", e.getMessage());
+            }
+        }
+        inbound = null;
+        fragments = null;
+
+        for (PendingWrite write : unsent) {
+            if (write.sendSubject != null) {
+                write.sendSubject.onError(error != null ? error : new IllegalStateException("The WebSocket closed before the message was sent."));
+            }
+        }
+    }
+
+    private void checkStartFailure() {
+        // If the start task hasn't completed yet, then we need to complete it
+        // exceptionally.
+        if (!startSubject.hasComplete() && !startSubject.hasThrowable()) {
+            startSubject.onError(new RuntimeException("There was an error starting the WebSocket transport."));
+        }
+    }
+
+    private static ByteBuffer encodeFrame(int opcode, byte[] payload) {
+        int headerLength = payload.length < 126 ? 2 : payload.length <= 0xFFFF ? 4 : 10;
+        ByteBuffer frame = ByteBuffer.allocate(headerLength + 4 + payload.length);
+        frame.put((byte) (0x80 | opcode));
+        if (payload.length < 126) {
+            frame.put((byte) (0x80 | payload.length));
+        } else if (payload.length <= 0xFFFF) {
+            frame.put((byte) (0x80 | 126));
+            frame.putShort((short) payload.length);
+        } else {
+            frame.put((byte) (0x80 | 127));
+            frame.putLong(payload.length);
+        }
+
+        // Client frames have to be masked.
+        byte[] mask = new byte[4];
+        ThreadLocalRandom.current().nextBytes(mask);
+        frame.put(mask);
+        for (int i = 0; i < payload.length; i++) {
+            frame.put((byte) (payload[i] ^ mask[i & 3]));
+        }
+        frame.flip();
+        return frame;
+    }
+
+    static String computeAccept(String key) {
+        return ByteString.encodeString(key + WEBSOCKET_GUID, StandardCharsets.ISO_8859_1).sha1().base64();
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int additional) {
+        if (buffer == null) {
+            return ByteBuffer.allocate(Math.max(1024, additional));
+        }
+        if (buffer.remaining() >= additional) {
+            return buffer;
+        }
+
+        ByteBuffer resized = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + additional));
+        buffer.flip();
+        resized.put(buffer);
+        return resized;
+    }
+
+    private static class PendingWrite {
+        private final ByteBuffer data;
+        private final CompletableSubject sendSubject;
+
+        PendingWrite(ByteBuffer data, CompletableSubject sendSubject) {
+            this.data = data;
+            this.sendSubject = sendSubject;
+        }
+    }
+}
@@ -27,7 +27,7 @@ class OkHttpWebSocketWrapper extends WebSocketWrapper {
     private CompletableSubject startSubject = CompletableSubject.create();
     private CompletableSubject closeSubject = CompletableSubject.create();
 
-    private final Logger logger = LoggerFactory.getLogger(OkHttpWebSocketWrapper.class);
+    private static final Logger logger = LoggerFactory.getLogger(OkHttpWebSocketWrapper.class);
 
     public OkHttpWebSocketWrapper(String url, Map<String, String> headers, OkHttpClient client) {
         this.url = url;
@@ -0,0 +1,93 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+
+/**
+ * The arguments of an invocation whose parameters are all int, long or double, read straight from the JSON without
+ * boxing them. Each value is kept in a long, doubles as their raw bits.
+ */
+final class PrimitiveArguments {
+    private final List<? extends Type> types;
+    private final long[] values;
+
+    PrimitiveArguments(List<? extends Type> types, long[] values) {
+        this.types = types;
+        this.values = values;
+    }
+
+    static boolean isPrimitive(Type type) {
+        return type == int.class || type == long.class || type == double.class;
+    }
+
+    static boolean arePrimitive(List<? extends Type> types) {
+        if (types.isEmpty()) {
+            return false;
+        }
+
+        for (Type type : types) {
+            if (!isPrimitive(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long read(JsonReader reader, Type type) throws IOException {
+        if (type == double.class) {
+            return Double.doubleToRawLongBits(reader.nextDouble());
+        }
+        if (type == long.class) {
+            return reader.nextLong();
+        }
+        return reader.nextInt();
+    }
+
+    static Object box(long value, Type type) {
+        if (type == double.class) {
+            return Double.longBitsToDouble(value);
+        }
+        if (type == long.class) {
+            return value;
+        }
+        return (int) value;
+    }
+
+    static long unbox(Object value, Type type) {
+        Number number = (Number) value;
+        if (type == double.class) {
+            return Double.doubleToRawLongBits(number.doubleValue());
+        }
+        return number.longValue();
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    int getInt(int index) {
+        return (int) values[index];
+    }
+
+    long getLong(int index) {
+        return values[index];
+    }
+
+    double getDouble(int index) {
+        return Double.longBitsToDouble(values[index]);
+    }
+
+    Object[] box() {
+        Object[] arguments = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            arguments[i] = box(values[i], types.get(i));
+        }
+        return arguments;
+    }
+}
@@ -0,0 +1,208 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.reactivex.Completable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.DisposableObserver;
+import io.reactivex.subjects.CompletableSubject;
+
+class ServerSentEventsTransport implements Transport {
+    private OnReceiveCallBack onReceiveCallBack;
+    private TransportOnClosedCallback onClose;
+    private String url;
+    private final HttpClient client;
+    private final Map<String, String> headers;
+    private HttpSendQueue sendQueue;
+    private Disposable connectRequest;
+    private Disposable eventStream;
+    private AtomicBoolean closed;
+
+    // Parser state, only touched by the thread reading the event stream.
+    private final StringBuilder line = new StringBuilder();
+    private StringBuilder data;
+    private boolean skipLineFeed;
+
+    private static final Logger logger = LoggerFactory.getLogger(ServerSentEventsTransport.class);
+
+    public ServerSentEventsTransport(Map<String, String> headers, HttpClient client) {
+        this.client = client;
+        this.headers = headers;
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    @Override
+    public Completable start(String url) {
+        this.url = url;
+        this.closed = new AtomicBoolean();
+        this.sendQueue = new HttpSendQueue(client, url, headers);
+        resetParser();
+        logger.debug("Starting ServerSentEvents connection.");
+
+        HttpRequest request = new HttpRequest();
+        request.setUrl(url);
+        request.setMethod("GET");
+        request.addHeaders(headers);
+        request.addHeader("Accept", "text/event-stream");
+
+        AtomicBoolean closed = this.closed;
+        CompletableSubject startSubject = CompletableSubject.create();
+        DisposableObserver<String> eventStream = new DisposableObserver<String>() {
+            @Override
+            public void onNext(String chunk) {
+                parse(chunk);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                logger.error("ServerSentEvents connection closed from an error: {}.", error.getMessage());
+                close(closed, error.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+                close(closed, null);
+            }
+        };
+        this.eventStream = eventStream;
+
+        this.connectRequest = client.sendStreaming(request).subscribe(response -> {
+            if (response.getStatusCode() != 200) {
+                // Drain the error body so the underlying connection is released.
+                response.getContent().subscribe(chunk -> { }, error -> { });
+                startSubject.onError(new RuntimeException(String.format("Unexpected status code returned from ServerSentEvents connection: %d %s.",
+                        response.getStatusCode(), response.getStatusText())));
+                return;
+            }
+
+            logger.info("ServerSentEvents transport connected to: {}.", url);
+            startSubject.onComplete();
+            response.getContent().subscribe(eventStream);
+        }, error -> startSubject.onError(error));
+
+        return startSubject;
+    }
+
+    @Override
+    public Completable send(String message) {
+        return sendQueue.send(message);
+    }
+
+    @Override
+    public void setOnReceive(OnReceiveCallBack callback) {
+        this.onReceiveCallBack = callback;
+        logger.debug("OnReceived callback has been set.");
+    }
+
+    @Override
+    public void onReceive(String message) {
+        this.onReceiveCallBack.invoke(message);
+    }
+
+    @Override
+    public void setOnClose(TransportOnClosedCallback onCloseCallback) {
+        this.onClose = onCloseCallback;
+    }
+
+    @Override
+    public Completable stop() {
+        // Disposing the event stream aborts the request, which is how the spec expects the client to end the connection.
+        // Any of them can be missing if the transport is stopped before it started or start failed early.
+        if (connectRequest != null) {
+            connectRequest.dispose();
+        }
+        if (eventStream != null) {
+            eventStream.dispose();
+        }
+        if (closed != null) {
+            close(closed, null);
+        }
+        logger.info("ServerSentEvents connection stopped.");
+        return Completable.complete();
+    }
+
+    private void close(AtomicBoolean closed, String reason) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        sendQueue.close();
+        logger.info("ServerSentEvents connection stopping with reason '{}'.", reason);
+        if (onClose != null) {
+            onClose.invoke(reason);
+        }
+    }
+
+    private void resetParser() {
+        line.setLength(0);
+        data = null;
+        skipLineFeed = false;
+    }
+
+    private void parse(String chunk) {
+        // Lines can end with \r\n, \n or \r and a line ending can be split across chunks.
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+
+            if (c == '\r' || c == '\n') {
+                skipLineFeed = c == '\r';
+                processLine();
+                line.setLength(0);
+            } else {
+                line.append(c);
+            }
+        }
+    }
+
+    private void processLine() {
+        if (line.length() == 0) {
+            // A blank line dispatches the event.
+            if (data != null) {
+                String message = data.toString();
+                data = null;
+                onReceive(message);
+            }
+            return;
+        }
+
+        if (line.charAt(0) == ':') {
+            // Comment line.
+            return;
+        }
+
+        int colon = line.indexOf(":");
+        int fieldLength = colon < 0 ? line.length() : colon;
+        if (fieldLength != 4 || line.lastIndexOf("data", 0) != 0) {
+            // SignalR only uses unnamed events, so everything except the data field is ignored.
+            return;
+        }
+
+        int valueStart = colon < 0 ? line.length() : colon + 1;
+        if (valueStart < line.length() && line.charAt(valueStart) == ' ') {
+            valueStart++;
+        }
+
+        if (data == null) {
+            data = new StringBuilder();
+        } else {
+            data.append('\n');
+        }
+        data.append(line, valueStart, line.length());
+    }
+}
@@ -3,16 +3,28 @@
 
 package com.microsoft.signalr;
 
-final class StreamInvocationMessage extends HubMessage {
+final class StreamInvocationMessage extends HubInvocationMessage {
     private final int type = HubMessageType.STREAM_INVOCATION.value;
     private final String invocationId;
     private final String target;
     private final Object[] arguments;
+    private final transient HubProxyMethod proxyMethod;
+    private final transient HubArguments proxyArguments;
 
     public StreamInvocationMessage(String invocationId, String target, Object[] args) {
         this.invocationId = invocationId;
         this.target = target;
         this.arguments = args;
+        this.proxyMethod = null;
+        this.proxyArguments = null;
+    }
+
+    StreamInvocationMessage(String invocationId, HubProxyMethod method, HubArguments arguments) {
+        this.invocationId = invocationId;
+        this.target = method.getName();
+        this.arguments = null;
+        this.proxyMethod = method;
+        this.proxyArguments = arguments;
     }
 
     public String getInvocationId() {
@@ -27,6 +39,17 @@ final class StreamInvocationMessage extends HubMessage {
         return arguments;
     }
 
+    /**
+     * @return The proxy method that is streamed, or null if the arguments are in {@link #getArguments()}.
+     */
+    HubProxyMethod getProxyMethod() {
+        return proxyMethod;
+    }
+
+    HubArguments getProxyArguments() {
+        return proxyArguments;
+    }
+
     @Override
     public HubMessageType getMessageType() {
         return HubMessageType.STREAM_INVOCATION;
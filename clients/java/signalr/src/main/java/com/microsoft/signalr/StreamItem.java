@@ -3,14 +3,24 @@
 
 package com.microsoft.signalr;
 
-final class StreamItem extends HubMessage {
+final class StreamItem extends HubInvocationMessage {
     private final int type = HubMessageType.STREAM_ITEM.value;
     private final String invocationId;
-    private final Object item;
+    private Object item;
+    private final transient Class<?> primitiveType;
+    private final transient long primitiveItem;
 
     public StreamItem(String invocationId, Object item) {
         this.invocationId = invocationId;
         this.item = item;
+        this.primitiveType = null;
+        this.primitiveItem = 0;
+    }
+
+    StreamItem(String invocationId, Class<?> primitiveType, long primitiveItem) {
+        this.invocationId = invocationId;
+        this.primitiveType = primitiveType;
+        this.primitiveItem = primitiveItem;
     }
 
     public String getInvocationId() {
@@ -18,9 +28,23 @@ final class StreamItem extends HubMessage {
     }
 
     public Object getItem() {
+        if (item == null && primitiveType != null) {
+            item = PrimitiveArguments.box(primitiveItem, primitiveType);
+        }
         return item;
     }
 
+    boolean hasPrimitiveItem() {
+        return primitiveType != null;
+    }
+
+    /**
+     * @return The item as it was read, doubles as their raw bits.
+     */
+    long getPrimitiveItem() {
+        return primitiveItem;
+    }
+
     @Override
     public HubMessageType getMessageType() {
         return HubMessageType.STREAM_ITEM;
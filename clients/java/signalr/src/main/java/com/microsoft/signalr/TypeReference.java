@@ -0,0 +1,39 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Captures a generic type such as {@code List<Order>}, which a {@link Class} can't express. Create it as an anonymous
+ * subclass, {@code new TypeReference<List<Order>>() { }}, and keep it in a constant, since the type is read from the
+ * subclass when it is created.
+ *
+ * @param <T> The type to capture.
+ */
+public abstract class TypeReference<T> {
+    private final Type type;
+
+    protected TypeReference() {
+        Type superclass = getClass().getGenericSuperclass();
+        if (!(superclass instanceof ParameterizedType)) {
+            throw new RuntimeException("A TypeReference must be created with a type argument.");
+        }
+        this.type = ((ParameterizedType) superclass).getActualTypeArguments()[0];
+    }
+
+    /**
+     * @return The captured type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        // Type.getTypeName is only available on Android API Level 26 and above.
+        return type.toString();
+    }
+}
@@ -18,7 +18,7 @@ class WebSocketTransport implements Transport {
     private final HttpClient client;
     private final Map<String, String> headers;
 
-    private final Logger logger = LoggerFactory.getLogger(WebSocketTransport.class);
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketTransport.class);
 
     private static final String HTTP = "http";
     private static final String HTTPS = "https";
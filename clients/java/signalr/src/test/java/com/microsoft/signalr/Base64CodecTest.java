@@ -0,0 +1,46 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class Base64CodecTest {
+    @Test
+    public void encodesAndDecodesLikeJavaUtilBase64() {
+        Random random = new Random(42);
+        for (int length = 0; length < 64; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            String expected = Base64.getEncoder().encodeToString(bytes);
+
+            assertEquals(expected, Base64Codec.encode(bytes));
+            assertArrayEquals(bytes, Base64Codec.decode(expected));
+            assertArrayEquals(bytes, Base64Codec.decode(Base64.getEncoder().withoutPadding().encodeToString(bytes)));
+        }
+    }
+
+    @Test
+    public void encodesTheRemainingBytesOfABufferWithoutMovingIt() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 0, 1, 2, 3, 4 });
+        buffer.position(1);
+        buffer.limit(4);
+
+        assertEquals("AQID", Base64Codec.encode(buffer));
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void invalidStringsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Base64Codec.decode("AQI*"));
+        assertThrows(IllegalArgumentException.class, () -> Base64Codec.decode("AQIDB"));
+        assertThrows(IllegalArgumentException.class, () -> Base64Codec.decode("AQ="));
+        assertThrows(IllegalArgumentException.class, () -> Base64Codec.decode("AQ\u00e9D"));
+    }
+}
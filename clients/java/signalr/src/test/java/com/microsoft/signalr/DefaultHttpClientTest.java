@@ -0,0 +1,101 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+
+import okhttp3.Cookie;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+
+class DefaultHttpClientTest {
+    private static final String URL = "http://example.com";
+
+    @Test
+    public void defaultClientsShareConnectionPoolAndDispatcher() {
+        OkHttpClient first = new DefaultHttpClient().getOkHttpClient();
+        OkHttpClient second = new DefaultHttpClient().getOkHttpClient();
+
+        assertSame(first.connectionPool(), second.connectionPool());
+        assertSame(first.dispatcher(), second.dispatcher());
+        assertSame(DefaultHttpClient.getSharedClient().connectionPool(), first.connectionPool());
+    }
+
+    @Test
+    public void defaultClientsHaveIsolatedCookiesByDefault() {
+        OkHttpClient first = new DefaultHttpClient().getOkHttpClient();
+        OkHttpClient second = new DefaultHttpClient().getOkHttpClient();
+
+        assertNotSame(first.cookieJar(), second.cookieJar());
+    }
+
+    @Test
+    public void clientsShareCookiesWhenNotIsolated() {
+        OkHttpClient first = new DefaultHttpClient(HubConnectionBuilder.create(URL).shouldIsolateCookies(false)).getOkHttpClient();
+        OkHttpClient second = new DefaultHttpClient(HubConnectionBuilder.create(URL).shouldIsolateCookies(false)).getOkHttpClient();
+
+        assertSame(first.cookieJar(), second.cookieJar());
+    }
+
+    @Test
+    public void providedOkHttpClientIsShared() {
+        OkHttpClient okHttpClient = new OkHttpClient();
+        OkHttpClient isolated = new DefaultHttpClient(HubConnectionBuilder.create(URL).withOkHttpClient(okHttpClient)).getOkHttpClient();
+        OkHttpClient shared = new DefaultHttpClient(HubConnectionBuilder.create(URL).withOkHttpClient(okHttpClient)
+                .shouldIsolateCookies(false)).getOkHttpClient();
+
+        assertSame(okHttpClient.connectionPool(), isolated.connectionPool());
+        assertSame(okHttpClient.dispatcher(), isolated.dispatcher());
+        assertNotSame(okHttpClient.cookieJar(), isolated.cookieJar());
+        assertSame(okHttpClient, shared);
+    }
+
+    @Test
+    public void streamingRequestsDontCountTowardsTheLimitsOfAProvidedClient() {
+        OkHttpClient okHttpClient = new OkHttpClient();
+        OkHttpClient streaming = new DefaultHttpClient(HubConnectionBuilder.create(URL).withOkHttpClient(okHttpClient))
+                .getStreamingClient();
+
+        assertNotSame(okHttpClient.dispatcher(), streaming.dispatcher());
+        assertSame(okHttpClient.dispatcher().executorService(), streaming.dispatcher().executorService());
+        assertEquals(Integer.MAX_VALUE, streaming.dispatcher().getMaxRequests());
+        assertEquals(Integer.MAX_VALUE, streaming.dispatcher().getMaxRequestsPerHost());
+        assertSame(okHttpClient.connectionPool(), streaming.connectionPool());
+    }
+
+    @Test
+    public void streamingRequestsShareTheDispatcherOfTheDefaultClient() {
+        OkHttpClient streaming = new DefaultHttpClient().getStreamingClient();
+
+        assertSame(DefaultHttpClient.getSharedClient().dispatcher(), streaming.dispatcher());
+    }
+
+    @Test
+    public void nioWebSocketsSendCookiesFromCookieJar() {
+        DefaultHttpClient client = new DefaultHttpClient(HubConnectionBuilder.create(URL).shouldUseNioWebSockets(true));
+        HttpUrl url = HttpUrl.get("http://example.com/hub");
+        client.getOkHttpClient().cookieJar().saveFromResponse(url, Arrays.asList(
+                Cookie.parse(url, "ARRAffinity=1; Path=/"), Cookie.parse(url, "session=2; Path=/")));
+
+        WebSocketWrapper webSocket = client.createWebSocket("ws://example.com/hub?id=123", new HashMap<>());
+
+        assertTrue(webSocket instanceof NioWebSocketWrapper);
+        String cookies = ((NioWebSocketWrapper) webSocket).getHeaders().get("Cookie");
+        assertEquals(new HashSet<>(Arrays.asList("ARRAffinity=1", "session=2")), new HashSet<>(Arrays.asList(cookies.split("; "))));
+    }
+
+    @Test
+    public void plainNioWebSocketsLeaveSecureWebSocketsOnOkHttp() {
+        DefaultHttpClient client = new DefaultHttpClient(HubConnectionBuilder.create(URL).shouldUseLowFootprint(true));
+
+        assertTrue(client.createWebSocket("ws://example.com/hub?id=123", new HashMap<>()) instanceof NioWebSocketWrapper);
+        assertTrue(client.createWebSocket("wss://example.com/hub?id=123", new HashMap<>()) instanceof OkHttpWebSocketWrapper);
+    }
+}
@@ -30,6 +30,13 @@ class HandshakeProtocolTest {
         assertEquals(hsr.getHandshakeError(), "Requested protocol 'messagepack' is not available.");
     }
 
+    @Test
+    public void VerifyParseHandshakeResponseMessageWithOtherProperties() {
+        String handshakeResponse = "{\"minorVersion\":1,\"error\":null,\"extra\":{\"error\":\"nested\"}}";
+        HandshakeResponseMessage hsr = HandshakeProtocol.parseHandshakeResponse(handshakeResponse);
+        assertNull(hsr.getHandshakeError());
+    }
+
     @Test
     public void InvalidHandshakeResponse() {
         String handshakeResponseWithError = "{\"error\": \"Requested proto";
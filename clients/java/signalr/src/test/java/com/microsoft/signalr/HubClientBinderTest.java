@@ -0,0 +1,126 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class HubClientBinderTest {
+    private static final String RECORD_SEPARATOR = "\u001e";
+
+    static class Order {
+        String id;
+        int quantity;
+    }
+
+    static class Client {
+        final List<String> calls = new ArrayList<>();
+
+        @HubMethodName("message")
+        void onMessage(String message) {
+            calls.add("message " + message);
+        }
+
+        @HubMethodName("orders")
+        void onOrders(long time, List<Order> orders) {
+            calls.add("orders " + time + " " + orders.get(0).id + " " + orders.get(0).quantity + " " + orders.size());
+        }
+    }
+
+    @Test
+    public void registeredClientReceivesBoundArguments() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        Client client = new Client();
+        hubConnection.register(client);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        mockTransport.receiveMessage("{\"type\":1,\"target\":\"message\",\"arguments\":[\"hello\"]}" + RECORD_SEPARATOR
+                + "{\"type\":1,\"target\":\"orders\",\"arguments\":[1540000000000,[{\"id\":\"a\",\"quantity\":2},{\"id\":\"b\"}]]}" + RECORD_SEPARATOR
+                + "{\"arguments\":[null],\"type\":1,\"target\":\"message\"}" + RECORD_SEPARATOR);
+
+        assertEquals(3, client.calls.size());
+        assertEquals("message hello", client.calls.get(0));
+        // The generic parameter is bound to Order, not to a map.
+        assertEquals("orders 1540000000000 a 2 2", client.calls.get(1));
+        assertEquals("message null", client.calls.get(2));
+    }
+
+    @Test
+    public void subclassesUseTheBinderOfTheirSuperclass() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        List<String> messages = new ArrayList<>();
+        hubConnection.register(new Client() {
+            @Override
+            void onMessage(String message) {
+                messages.add(message);
+            }
+        });
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        mockTransport.receiveMessage("{\"type\":1,\"target\":\"message\",\"arguments\":[\"hello\"]}" + RECORD_SEPARATOR);
+
+        assertEquals("hello", messages.get(0));
+    }
+
+    @Test
+    public void unsubscribeRemovesEveryMethod() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        Client client = new Client();
+        Subscription subscription = hubConnection.register(client);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        subscription.unsubscribe();
+        mockTransport.receiveMessage("{\"type\":1,\"target\":\"message\",\"arguments\":[\"hello\"]}" + RECORD_SEPARATOR);
+
+        assertTrue(client.calls.isEmpty());
+    }
+
+    @Test
+    public void wrongArgumentCountIsABindingFailure() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        Client client = new Client();
+        hubConnection.register(client);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        mockTransport.receiveMessage("{\"type\":1,\"target\":\"orders\",\"arguments\":[1]}" + RECORD_SEPARATOR
+                + "{\"type\":1,\"target\":\"message\",\"arguments\":[\"a\",\"b\"]}" + RECORD_SEPARATOR
+                + "{\"type\":1,\"target\":\"message\",\"arguments\":[\"c\"]}" + RECORD_SEPARATOR);
+
+        assertEquals(1, client.calls.size());
+        assertEquals("message c", client.calls.get(0));
+    }
+
+    @Test
+    public void classesWithoutABinderCannotBeRegistered() {
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", new MockTransport());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> hubConnection.register(new Object() { }));
+        assertTrue(exception.getMessage().startsWith("No generated binder was found for"));
+    }
+
+    @Test
+    public void boundMethodsCannotShareATargetWithOtherHandlers() {
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", new MockTransport());
+        hubConnection.on("message", message -> { }, String.class);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> hubConnection.register(new Client()));
+        assertEquals("The method 'message' is already handled by a different binder.", exception.getMessage());
+    }
+
+    @Test
+    public void typeReferenceCapturesTheGenericType() {
+        TypeReference<List<Order>> reference = new TypeReference<List<Order>>() { };
+
+        assertEquals("java.util.List<com.microsoft.signalr.HubClientBinderTest$Order>", reference.toString());
+    }
+}
@@ -0,0 +1,65 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+// Written the way signalr-processor generates the binder of HubClientBinderTest.Client.
+public final class HubClientBinderTest_Client_HubBinder implements HubClientBinder<HubClientBinderTest.Client> {
+    private static final Type METHOD1_TYPE1 = new TypeReference<List<HubClientBinderTest.Order>>() { }.getType();
+
+    static final HubMethodBinder<HubClientBinderTest.Client> METHOD0 = new HubMethodBinder<HubClientBinderTest.Client>() {
+        @Override
+        public int getParameterCount() {
+            return 1;
+        }
+
+        @Override
+        public Object readArguments(HubArgumentReader reader) throws IOException {
+            return reader.readString();
+        }
+
+        @Override
+        public void invoke(HubClientBinderTest.Client client, Object arguments) {
+            client.onMessage((String) arguments);
+        }
+    };
+
+    static final HubMethodBinder<HubClientBinderTest.Client> METHOD1 = new HubMethodBinder<HubClientBinderTest.Client>() {
+        @Override
+        public int getParameterCount() {
+            return 2;
+        }
+
+        @Override
+        public Object readArguments(HubArgumentReader reader) throws IOException {
+            Method1Arguments arguments = new Method1Arguments();
+            arguments.p0 = reader.readLong();
+            arguments.p1 = reader.read(METHOD1_TYPE1);
+            return arguments;
+        }
+
+        @Override
+        public void invoke(HubClientBinderTest.Client client, Object arguments) {
+            Method1Arguments a = (Method1Arguments) arguments;
+            client.onOrders(a.p0, a.p1);
+        }
+    };
+
+    private static final class Method1Arguments {
+        long p0;
+        List<HubClientBinderTest.Order> p1;
+    }
+
+    @Override
+    public List<Subscription> bind(HubConnection connection, HubClientBinderTest.Client client) {
+        List<Subscription> subscriptions = new ArrayList<>();
+        subscriptions.add(connection.on("message", METHOD0, client));
+        subscriptions.add(connection.on("orders", METHOD1, client));
+        return subscriptions;
+    }
+}
@@ -0,0 +1,216 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.reactivex.Completable;
+import io.reactivex.Single;
+
+class HubConnectionEventListenerTest {
+    private static final String RECORD_SEPARATOR = "\u001e";
+
+    private static class RecordingEventListener implements HubConnectionEventListener {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void connectStart(HubConnection connection) {
+            events.add("connectStart");
+        }
+
+        @Override
+        public void accessTokenStart(HubConnection connection) {
+            events.add("accessTokenStart");
+        }
+
+        @Override
+        public void accessTokenEnd(HubConnection connection) {
+            events.add("accessTokenEnd");
+        }
+
+        @Override
+        public void negotiateStart(HubConnection connection, String url) {
+            events.add("negotiateStart " + url);
+        }
+
+        @Override
+        public void negotiateEnd(HubConnection connection, String url, String redirectUrl) {
+            events.add("negotiateEnd " + url + " " + redirectUrl);
+        }
+
+        @Override
+        public void negotiateFailed(HubConnection connection, String url, Throwable error) {
+            events.add("negotiateFailed " + url + " " + error.getMessage());
+        }
+
+        @Override
+        public void transportStart(HubConnection connection, String transport, String url) {
+            events.add("transportStart " + transport + " " + url);
+        }
+
+        @Override
+        public void transportEnd(HubConnection connection, String transport) {
+            events.add("transportEnd " + transport);
+        }
+
+        @Override
+        public void transportFailed(HubConnection connection, String transport, Throwable error) {
+            events.add("transportFailed " + transport + " " + error.getMessage());
+        }
+
+        @Override
+        public void handshakeStart(HubConnection connection) {
+            events.add("handshakeStart");
+        }
+
+        @Override
+        public void handshakeRequestSent(HubConnection connection) {
+            events.add("handshakeRequestSent");
+        }
+
+        @Override
+        public void handshakeResponseReceived(HubConnection connection) {
+            events.add("handshakeResponseReceived");
+        }
+
+        @Override
+        public void connectEnd(HubConnection connection) {
+            events.add("connectEnd");
+        }
+
+        @Override
+        public void connectFailed(HubConnection connection, Throwable error) {
+            events.add("connectFailed " + error.getMessage());
+        }
+
+        @Override
+        public void connectionClosed(HubConnection connection, String error, long connectedDuration) {
+            assertTrue(connectedDuration >= 0);
+            events.add("connectionClosed " + error);
+        }
+    }
+
+    @Test
+    public void startReportsEveryPhaseInOrder() {
+        RecordingEventListener listener = new RecordingEventListener();
+        MockTransport mockTransport = new MockTransport(false);
+        HubConnection hubConnection = HubConnectionBuilder.create("http://example.com")
+                .withTransport(mockTransport)
+                .withHttpClient(new TestHttpClient())
+                .shouldSkipNegotiate(true)
+                .withEventListener(listener)
+                .build();
+
+        Completable start = hubConnection.start();
+        mockTransport.receiveMessage("{}" + RECORD_SEPARATOR);
+        start.timeout(1, TimeUnit.SECONDS).blockingAwait();
+        hubConnection.stop().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        assertEquals(Arrays.asList(
+                "connectStart",
+                "accessTokenStart",
+                "accessTokenEnd",
+                "transportStart null http://example.com",
+                "transportEnd null",
+                "handshakeStart",
+                "handshakeRequestSent",
+                "handshakeResponseReceived",
+                "connectEnd",
+                "connectionClosed null"), listener.events);
+    }
+
+    @Test
+    public void everyAddedListenerIsCalled() {
+        RecordingEventListener first = new RecordingEventListener();
+        RecordingEventListener second = new RecordingEventListener();
+        MockTransport mockTransport = new MockTransport(false);
+        HubConnection hubConnection = HubConnectionBuilder.create("http://example.com")
+                .withTransport(mockTransport)
+                .withHttpClient(new TestHttpClient())
+                .shouldSkipNegotiate(true)
+                .withEventListener(first)
+                .withEventListener(second)
+                .build();
+
+        Completable start = hubConnection.start();
+        mockTransport.receiveMessage("{}" + RECORD_SEPARATOR);
+        start.timeout(1, TimeUnit.SECONDS).blockingAwait();
+        hubConnection.stop().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        assertEquals(10, first.events.size());
+        assertEquals(first.events, second.events);
+    }
+
+    @Test
+    public void everyNegotiateHopIsReported() {
+        RecordingEventListener listener = new RecordingEventListener();
+        TestHttpClient client = new TestHttpClient()
+                .on("POST", "http://example.com/negotiate",
+                    (req) -> Single.just(new HttpResponse(200, "", "{\"url\":\"http://redirect.example.com\"}")))
+                .on("POST", "http://redirect.example.com/negotiate",
+                    (req) -> Single.just(new HttpResponse(200, "",
+                        "{\"connectionId\":\"bVOiRPG8-6YiJ6d7ZcTOVQ\",\""
+                                + "availableTransports\":[{\"transport\":\"WebSockets\",\"transferFormats\":[\"Text\",\"Binary\"]}]}")));
+        HubConnection hubConnection = HubConnectionBuilder.create("http://example.com")
+                .withTransport(new MockTransport())
+                .withHttpClient(client)
+                .withEventListener(listener)
+                .build();
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        assertEquals(Arrays.asList(
+                "negotiateStart http://example.com",
+                "negotiateEnd http://example.com http://redirect.example.com",
+                "negotiateStart http://redirect.example.com",
+                "negotiateEnd http://redirect.example.com null",
+                "transportStart null http://redirect.example.com?id=bVOiRPG8-6YiJ6d7ZcTOVQ"),
+                listener.events.subList(3, 8));
+    }
+
+    @Test
+    public void failedStartReportsTheFailedPhase() {
+        RecordingEventListener listener = new RecordingEventListener();
+        TestHttpClient client = new TestHttpClient().on("POST",
+                (req) -> Single.just(new HttpResponse(404, "", "")));
+        HubConnection hubConnection = HubConnectionBuilder.create("http://example.com")
+                .withHttpClient(client)
+                .withEventListener(listener)
+                .build();
+
+        assertThrows(RuntimeException.class, () -> hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait());
+
+        assertEquals(Arrays.asList(
+                "connectStart",
+                "accessTokenStart",
+                "accessTokenEnd",
+                "negotiateStart http://example.com",
+                "negotiateFailed http://example.com Unexpected status code returned from negotiate: 404 .",
+                "connectFailed Unexpected status code returned from negotiate: 404 ."), listener.events);
+    }
+
+    @Test
+    public void closeReportsTheError() {
+        RecordingEventListener listener = new RecordingEventListener();
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = HubConnectionBuilder.create("http://example.com")
+                .withTransport(mockTransport)
+                .withHttpClient(new TestHttpClient())
+                .shouldSkipNegotiate(true)
+                .withEventListener(listener)
+                .build();
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        mockTransport.stopWithError("Connection reset.");
+
+        assertEquals("connectionClosed Connection reset.", listener.events.get(listener.events.size() - 1));
+    }
+}
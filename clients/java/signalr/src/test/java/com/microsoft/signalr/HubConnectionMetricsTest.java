@@ -0,0 +1,182 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.reactivex.disposables.Disposable;
+
+class HubConnectionMetricsTest {
+    private static final String RECORD_SEPARATOR = "\u001e";
+
+    private static class RecordingMetrics implements HubConnectionMetrics {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void messageSent(HubMessageType type, String target, int length) {
+            events.add(String.format("sent %s %s %d", type, target, length));
+        }
+
+        @Override
+        public void payloadReceived(int length, int messageCount, long parseDuration) {
+            assertTrue(parseDuration >= 0);
+            events.add(String.format("payload %d %d", length, messageCount));
+        }
+
+        @Override
+        public void messageReceived(HubMessageType type, String target, int pendingDispatch) {
+            events.add(String.format("received %s %s %d", type, target, pendingDispatch));
+        }
+
+        @Override
+        public void handlersInvoked(String target, long duration) {
+            assertTrue(duration >= 0);
+            events.add("handlers " + target);
+        }
+
+        @Override
+        public void invocationStarted(String target, int pendingInvocations) {
+            events.add(String.format("started %s %d", target, pendingInvocations));
+        }
+
+        @Override
+        public void invocationCompleted(String target, long duration, boolean succeeded, int pendingInvocations) {
+            assertTrue(duration >= 0);
+            events.add(String.format("completed %s %s %d", target, succeeded, pendingInvocations));
+        }
+
+        @Override
+        public void streamItemReceived(String target) {
+            events.add("item " + target);
+        }
+
+        @Override
+        public void pingSent() {
+            events.add("ping");
+        }
+
+        @Override
+        public void serverTimeoutElapsed() {
+            events.add("timeout");
+        }
+    }
+
+    private static HubConnection createHubConnection(MockTransport transport, HubConnectionMetrics metrics) {
+        return HubConnectionBuilder.create("http://example.com")
+                .withTransport(transport)
+                .withHttpClient(new TestHttpClient())
+                .shouldSkipNegotiate(true)
+                .withMetrics(metrics)
+                .build();
+    }
+
+    @Test
+    public void sendReportsTheTypeTargetAndLength() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        HubConnection hubConnection = createHubConnection(new MockTransport(), metrics);
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        hubConnection.send("inc", 1);
+
+        String expected = "{\"type\":1,\"target\":\"inc\",\"arguments\":[1]}" + RECORD_SEPARATOR;
+        assertTrue(metrics.events.contains("sent INVOCATION inc " + expected.length()));
+    }
+
+    @Test
+    public void everyAddedMetricsListenerIsCalled() {
+        RecordingMetrics first = new RecordingMetrics();
+        RecordingMetrics second = new RecordingMetrics();
+        HubConnection hubConnection = HubConnectionBuilder.create("http://example.com")
+                .withTransport(new MockTransport())
+                .withHttpClient(new TestHttpClient())
+                .shouldSkipNegotiate(true)
+                .withMetrics(first)
+                .withMetrics(second)
+                .build();
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        hubConnection.send("inc", 1);
+
+        String expected = "{\"type\":1,\"target\":\"inc\",\"arguments\":[1]}" + RECORD_SEPARATOR;
+        assertTrue(first.events.contains("sent INVOCATION inc " + expected.length()));
+        assertTrue(second.events.contains("sent INVOCATION inc " + expected.length()));
+    }
+
+    @Test
+    public void invokeReportsStartAndCompletion() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = createHubConnection(mockTransport, metrics);
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        hubConnection.invoke(Integer.class, "add", 1, 2);
+        hubConnection.invoke(Integer.class, "fail");
+        mockTransport.receiveMessage("{\"type\":3,\"invocationId\":\"1\",\"result\":3}" + RECORD_SEPARATOR
+                + "{\"type\":3,\"invocationId\":\"2\",\"error\":\"error\"}" + RECORD_SEPARATOR);
+
+        assertTrue(metrics.events.contains("started add 1"));
+        assertTrue(metrics.events.contains("started fail 2"));
+        assertTrue(metrics.events.contains("payload 87 2"));
+        assertTrue(metrics.events.contains("received COMPLETION null 1"));
+        assertTrue(metrics.events.contains("received COMPLETION null 0"));
+        assertTrue(metrics.events.contains("completed add true 1"));
+        assertTrue(metrics.events.contains("completed fail false 0"));
+    }
+
+    @Test
+    public void handlerDispatchIsReported() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = createHubConnection(mockTransport, metrics);
+        hubConnection.on("inc", () -> { });
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        mockTransport.receiveMessage("{\"type\":1,\"target\":\"inc\",\"arguments\":[]}" + RECORD_SEPARATOR);
+
+        int received = metrics.events.indexOf("received INVOCATION inc 0");
+        assertTrue(received >= 0);
+        assertEquals(received + 1, metrics.events.indexOf("handlers inc"));
+    }
+
+    @Test
+    public void streamItemsAndCancellationAreReported() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = createHubConnection(mockTransport, metrics);
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        Disposable subscription = hubConnection.stream(String.class, "echo", "message").subscribe();
+        mockTransport.receiveMessage("{\"type\":2,\"invocationId\":\"1\",\"item\":\"hello\"}" + RECORD_SEPARATOR);
+        mockTransport.receiveMessage("{\"type\":2,\"invocationId\":\"1\",\"item\":\"world\"}" + RECORD_SEPARATOR);
+        subscription.dispose();
+
+        assertEquals(2, metrics.events.stream().filter(event -> event.equals("item echo")).count());
+        assertTrue(metrics.events.contains("sent CANCEL_INVOCATION null 30"));
+        assertTrue(metrics.events.contains("completed echo false 0"));
+    }
+
+    @Test
+    public void pingsAndServerTimeoutsAreReported() throws InterruptedException {
+        RecordingMetrics metrics = new RecordingMetrics();
+        HubConnection hubConnection = createHubConnection(new MockTransport(), metrics);
+        hubConnection.setTickRate(1);
+        hubConnection.setKeepAliveInterval(1);
+        hubConnection.setServerTimeout(100);
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (hubConnection.getConnectionState() == HubConnectionState.CONNECTED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(metrics.events.contains("ping"));
+        assertTrue(metrics.events.contains("timeout"));
+    }
+}
@@ -5,13 +5,17 @@ package com.microsoft.signalr;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.reflect.Type;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.Test;
@@ -699,6 +703,123 @@ class HubConnectionTest {
         assertEquals("Invocation was canceled.", hasException.getMessage());
     }
 
+    @Test
+    public void primitiveHandlersReceiveTheirArguments() {
+        AtomicReference<String> values = new AtomicReference<>("");
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+
+        hubConnection.onInt("int", value -> values.getAndUpdate(v -> v + " int " + value));
+        hubConnection.onLong("long", value -> values.getAndUpdate(v -> v + " long " + value));
+        hubConnection.onDouble("double", value -> values.getAndUpdate(v -> v + " double " + value));
+        hubConnection.onLongDouble("tick", (time, price) -> values.getAndUpdate(v -> v + " tick " + time + " " + price));
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        mockTransport.receiveMessage("{\"type\":1,\"target\":\"int\",\"arguments\":[42]}" + RECORD_SEPARATOR
+                + "{\"type\":1,\"target\":\"long\",\"arguments\":[9007199254740993]}" + RECORD_SEPARATOR
+                + "{\"type\":1,\"target\":\"double\",\"arguments\":[12.5]}" + RECORD_SEPARATOR
+                + "{\"type\":1,\"target\":\"tick\",\"arguments\":[1540000000000,101.25]}" + RECORD_SEPARATOR
+                + "{\"type\":1,\"arguments\":[1540000000001,101.5],\"target\":\"tick\"}" + RECORD_SEPARATOR);
+
+        assertEquals(" int 42 long 9007199254740993 double 12.5 tick 1540000000000 101.25 tick 1540000000001 101.5", values.get());
+    }
+
+    @Test
+    public void primitiveAndBoxedHandlersCanShareATarget() {
+        AtomicReference<Double> primitive = new AtomicReference<>();
+        AtomicReference<Double> boxed = new AtomicReference<>();
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+
+        hubConnection.onDouble("price", primitive::set);
+        hubConnection.on("price", boxed::set, Double.class);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        mockTransport.receiveMessage("{\"type\":1,\"target\":\"price\",\"arguments\":[12.5]}" + RECORD_SEPARATOR);
+
+        assertEquals(Double.valueOf(12.5), primitive.get());
+        assertEquals(Double.valueOf(12.5), boxed.get());
+    }
+
+    @Test
+    public void streamDoublesCallsBackWithEachItem() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        AtomicReference<String> items = new AtomicReference<>("");
+        AtomicBoolean completed = new AtomicBoolean();
+        hubConnection.streamDoubles("prices", item -> items.getAndUpdate(v -> v + " " + item), "MSFT")
+                .subscribe(() -> completed.set(true));
+
+        assertEquals("{\"type\":4,\"invocationId\":\"1\",\"target\":\"prices\",\"arguments\":[\"MSFT\"]}" + RECORD_SEPARATOR,
+                mockTransport.getSentMessages()[1]);
+
+        mockTransport.receiveMessage("{\"type\":2,\"invocationId\":\"1\",\"item\":101.25}" + RECORD_SEPARATOR
+                + "{\"type\":2,\"item\":101.5,\"invocationId\":\"1\"}" + RECORD_SEPARATOR);
+        assertFalse(completed.get());
+
+        mockTransport.receiveMessage("{\"type\":3,\"invocationId\":\"1\"}" + RECORD_SEPARATOR);
+
+        assertEquals(" 101.25 101.5", items.get());
+        assertTrue(completed.get());
+    }
+
+    @Test
+    public void disposingAPrimitiveStreamCancelsIt() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        AtomicInteger count = new AtomicInteger();
+        Disposable subscription = hubConnection.streamLongs("counter", item -> count.incrementAndGet()).subscribe();
+        mockTransport.receiveMessage("{\"type\":2,\"invocationId\":\"1\",\"item\":1}" + RECORD_SEPARATOR);
+        subscription.dispose();
+        mockTransport.receiveMessage("{\"type\":2,\"invocationId\":\"1\",\"item\":2}" + RECORD_SEPARATOR);
+
+        assertEquals(1, count.get());
+        assertEquals("{\"type\":5,\"invocationId\":\"1\"}" + RECORD_SEPARATOR, mockTransport.getSentMessages()[2]);
+    }
+
+    @Test
+    public void streamOfPrimitiveTypeStillYieldsBoxedItems() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        Observable<Integer> result = hubConnection.stream(int.class, "counter");
+        mockTransport.receiveMessage("{\"type\":2,\"invocationId\":\"1\",\"item\":42}" + RECORD_SEPARATOR);
+
+        assertEquals(Integer.valueOf(42), result.timeout(1000, TimeUnit.MILLISECONDS).blockingFirst());
+    }
+
+    @Test
+    public void rawHandlersReceiveTheArgumentsAsSent() {
+        AtomicReference<String> value = new AtomicReference<>();
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+
+        hubConnection.onRaw("forward", (target, arguments) -> value.set(target + " " + arguments));
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        mockTransport.receiveMessage("{\"type\":1,\"target\":\"forward\",\"arguments\":[{\"id\":1,\"tags\":[\"a\",\"b\"]},42]}" + RECORD_SEPARATOR);
+
+        assertEquals("forward [{\"id\":1,\"tags\":[\"a\",\"b\"]},42]", value.get());
+    }
+
+    @Test
+    public void rawAndTypedHandlersCannotShareATarget() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+
+        hubConnection.onRaw("forward", (target, arguments) -> { });
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> hubConnection.on("forward", value -> { }, String.class));
+        assertEquals("The method 'forward' can't have both raw handlers and handlers with typed parameters.", exception.getMessage());
+
+        hubConnection.on("typed", value -> { }, String.class);
+        assertThrows(RuntimeException.class, () -> hubConnection.onRaw("typed", (target, arguments) -> { }));
+    }
+
     @Test
     public void sendWithNoParamsTriggersOnHandler() {
         AtomicReference<Integer> value = new AtomicReference<>(0);
@@ -1020,6 +1141,82 @@ class HubConnectionTest {
         assertEquals(false, custom.bools[1]);
     }
 
+    @Test
+    public void handlersBindGenericParameterTypes()  {
+        AtomicReference<List<Custom>> value = new AtomicReference<>();
+
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+
+        Type customList = new TypeReference<List<Custom>>() { }.getType();
+        hubConnection.on("inc", (String name, List<Custom> customs) -> {
+            assertEquals("A", name);
+            value.set(customs);
+        }, String.class, customList);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        mockTransport.receiveMessage("{\"type\":1,\"target\":\"inc\",\"arguments\":[\"A\",[{\"number\":1,\"str\":\"B\"}]]}" + RECORD_SEPARATOR);
+
+        // The list holds Custom objects rather than the maps Gson binds to List.class.
+        Custom custom = value.get().get(0);
+        assertEquals(1, custom.number);
+        assertEquals("B", custom.str);
+    }
+
+    @Test
+    public void handlersBindTypeReferenceParameterTypes()  {
+        AtomicReference<List<Custom>> value = new AtomicReference<>();
+
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+
+        // The handler's parameters are inferred from the type references.
+        hubConnection.on("inc", (name, customs) -> {
+            assertEquals("A", name);
+            value.set(customs);
+        }, new TypeReference<String>() { }, new TypeReference<List<Custom>>() { });
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        mockTransport.receiveMessage("{\"type\":1,\"target\":\"inc\",\"arguments\":[\"A\",[{\"number\":1,\"str\":\"B\"}]]}" + RECORD_SEPARATOR);
+
+        Custom custom = value.get().get(0);
+        assertEquals(1, custom.number);
+        assertEquals("B", custom.str);
+    }
+
+    @Test
+    public void invokeBindsGenericReturnTypes() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        Single<List<Custom>> result = hubConnection.invoke(new TypeReference<List<Custom>>() { }, "echo", "message");
+        mockTransport.receiveMessage("{\"type\":3,\"invocationId\":\"1\",\"result\":[{\"number\":1,\"str\":\"A\"},{\"number\":2}]}" + RECORD_SEPARATOR);
+
+        List<Custom> customs = result.timeout(1000, TimeUnit.MILLISECONDS).blockingGet();
+        assertEquals(2, customs.size());
+        assertEquals("A", customs.get(0).str);
+        assertEquals(2, customs.get(1).number);
+    }
+
+    @Test
+    public void streamBindsGenericItemTypes() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        Observable<Map<String, Integer>> result = hubConnection.stream(new TypeReference<Map<String, Integer>>() { }, "echo", "message");
+        // The item comes before the invocation id, so it is bound once the id is known.
+        mockTransport.receiveMessage("{\"type\":2,\"item\":{\"a\":1},\"invocationId\":\"1\"}" + RECORD_SEPARATOR
+                + "{\"type\":3,\"invocationId\":\"1\"}" + RECORD_SEPARATOR);
+
+        Map<String, Integer> item = result.blockingFirst();
+        // Bound to Object, the number would have been a Double.
+        assertEquals(Integer.valueOf(1), item.get("a"));
+    }
+
     @Test
     public void receiveHandshakeResponseAndMessage() {
         AtomicReference<Double> value = new AtomicReference<Double>(0.0);
@@ -1190,6 +1387,136 @@ class HubConnectionTest {
         assertEquals("{\"protocol\":\"json\",\"version\":1}" + RECORD_SEPARATOR, sentMessages[0]);
     }
 
+    @Test
+    public void negotiateWithoutWebSocketsConnectsWithServerSentEvents() {
+        TestHttpClient client = new TestHttpClient()
+                .on("POST", "http://example.com/negotiate",
+                    (req) -> Single.just(new HttpResponse(200, "",
+                        "{\"connectionId\":\"bVOiRPG8-6YiJ6d7ZcTOVQ\",\""
+                                + "availableTransports\":[{\"transport\":\"ServerSentEvents\",\"transferFormats\":[\"Text\"]}]}")))
+                .on("GET", (req) -> Single.never());
+
+        HubConnection hubConnection = HubConnectionBuilder
+                .create("http://example.com")
+                .withHttpClient(client)
+                .build();
+
+        hubConnection.start();
+
+        List<HttpRequest> sentRequests = client.getSentRequests();
+        assertEquals(2, sentRequests.size());
+        assertEquals("GET", sentRequests.get(1).getMethod());
+        assertEquals("http://example.com?id=bVOiRPG8-6YiJ6d7ZcTOVQ", sentRequests.get(1).getUrl());
+        assertEquals("text/event-stream", sentRequests.get(1).getHeaders().get("Accept"));
+    }
+
+    @Test
+    public void negotiateFallsBackToLongPollingWhenOtherTransportsFail() {
+        AtomicInteger negotiateCount = new AtomicInteger();
+        TestHttpClient client = new TestHttpClient()
+                .on("POST", "http://example.com/negotiate",
+                    (req) -> Single.just(new HttpResponse(200, "",
+                        "{\"connectionId\":\"connection" + negotiateCount.incrementAndGet() + "\",\""
+                                + "availableTransports\":[{\"transport\":\"WebSockets\",\"transferFormats\":[\"Text\",\"Binary\"]},"
+                                + "{\"transport\":\"LongPolling\",\"transferFormats\":[\"Text\",\"Binary\"]}]}")))
+                .on("GET", (req) -> Single.never());
+
+        HubConnection hubConnection = HubConnectionBuilder
+                .create("http://example.com")
+                .withHttpClient(client)
+                .build();
+
+        hubConnection.start();
+
+        // The WebSocket can't be created, so a new connection is negotiated for long polling.
+        List<HttpRequest> sentRequests = client.getSentRequests();
+        assertEquals(3, sentRequests.size());
+        assertEquals("http://example.com/negotiate", sentRequests.get(1).getUrl());
+        assertEquals("GET", sentRequests.get(2).getMethod());
+        assertEquals("http://example.com?id=connection2", sentRequests.get(2).getUrl());
+    }
+
+    @Test
+    public void startFailsWhenOnlyTransportFailsToStart() {
+        TestHttpClient client = new TestHttpClient().on("POST", "http://example.com/negotiate",
+                (req) -> Single.just(new HttpResponse(200, "",
+                        "{\"connectionId\":\"bVOiRPG8-6YiJ6d7ZcTOVQ\",\""
+                                + "availableTransports\":[{\"transport\":\"WebSockets\",\"transferFormats\":[\"Text\",\"Binary\"]}]}")));
+
+        HubConnection hubConnection = HubConnectionBuilder
+                .create("http://example.com")
+                .withHttpClient(client)
+                .build();
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait());
+        assertEquals("WebSockets isn't supported in testing currently.", exception.getMessage());
+        assertEquals(1, client.getSentRequests().size());
+    }
+
+    @Test
+    public void startTriesAdditionalUrlsWhenConnectingFails() {
+        TestHttpClient client = new TestHttpClient()
+                .on("POST", "http://first.example.com/negotiate", (req) -> Single.just(new HttpResponse(503, "", "")))
+                .on("POST", "http://second.example.com/negotiate",
+                    (req) -> Single.just(new HttpResponse(200, "",
+                        "{\"connectionId\":\"bVOiRPG8-6YiJ6d7ZcTOVQ\",\""
+                                + "availableTransports\":[{\"transport\":\"LongPolling\",\"transferFormats\":[\"Text\",\"Binary\"]}]}")))
+                .on("GET", (req) -> Single.never());
+
+        HubConnection hubConnection = HubConnectionBuilder
+                .create("http://first.example.com")
+                .withAdditionalUrls("http://second.example.com")
+                .withHttpClient(client)
+                .build();
+
+        hubConnection.start();
+
+        List<HttpRequest> sentRequests = client.getSentRequests();
+        assertEquals(3, sentRequests.size());
+        assertEquals("http://second.example.com/negotiate", sentRequests.get(1).getUrl());
+        assertEquals("http://second.example.com?id=bVOiRPG8-6YiJ6d7ZcTOVQ", sentRequests.get(2).getUrl());
+    }
+
+    @Test
+    public void startSelectsFastestUrlWhenSelectingByLatency() {
+        LatencyTracker.getDefault().recordLatency("http://slow.latency.example.com", 500);
+        LatencyTracker.getDefault().recordLatency("http://fast.latency.example.com", 20);
+        TestHttpClient client = new TestHttpClient()
+                .on("POST", (req) -> Single.just(new HttpResponse(200, "",
+                        "{\"connectionId\":\"bVOiRPG8-6YiJ6d7ZcTOVQ\",\""
+                                + "availableTransports\":[{\"transport\":\"LongPolling\",\"transferFormats\":[\"Text\",\"Binary\"]}]}")))
+                .on("GET", (req) -> Single.never());
+
+        HubConnection hubConnection = HubConnectionBuilder
+                .create("http://slow.latency.example.com")
+                .withAdditionalUrls("http://fast.latency.example.com")
+                .shouldSelectByLatency(true)
+                .withHttpClient(client)
+                .build();
+
+        hubConnection.start();
+
+        assertEquals("http://fast.latency.example.com/negotiate", client.getSentRequests().get(0).getUrl());
+    }
+
+    @Test
+    public void negotiateWithNoSupportedTransportsThrowsFromStart() {
+        TestHttpClient client = new TestHttpClient().on("POST", "http://example.com/negotiate",
+                (req) -> Single.just(new HttpResponse(200, "",
+                        "{\"connectionId\":\"bVOiRPG8-6YiJ6d7ZcTOVQ\",\""
+                                + "availableTransports\":[{\"transport\":\"Unknown\",\"transferFormats\":[\"Text\"]}]}")));
+
+        HubConnection hubConnection = HubConnectionBuilder
+                .create("http://example.com")
+                .withHttpClient(client)
+                .build();
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait());
+        assertEquals("There were no compatible transports on the server.", exception.getMessage());
+    }
+
     @Test
     public void negotiateThatReturnsErrorThrowsFromStart() {
         TestHttpClient client = new TestHttpClient().on("POST", "http://example.com/negotiate",
@@ -1293,6 +1620,49 @@ class HubConnectionTest {
         assertEquals("Server timeout elapsed without receiving a message from the server.", closedSubject.timeout(1, TimeUnit.SECONDS).blockingGet().getMessage());
     }
 
+    @Test
+    public void blockingClosedCallbackDoesNotStopThePingsOfOtherConnections() throws InterruptedException {
+        HubConnection timedOut = TestUtils.createHubConnection("http://example.com");
+        timedOut.setServerTimeout(1);
+        timedOut.setTickRate(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        CountDownLatch reconnected = new CountDownLatch(1);
+        timedOut.onClosed((e) -> {
+            closed.countDown();
+            try {
+                // Stands in for reconnecting from the callback.
+                reconnected.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        timedOut.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        assertTrue(closed.await(1, TimeUnit.SECONDS));
+
+        CountDownLatch pingsSent = new CountDownLatch(2);
+        HubConnection pinging = HubConnectionBuilder.create("http://example.com")
+                .withTransport(new MockTransport(true, false))
+                .withHttpClient(new TestHttpClient())
+                .shouldSkipNegotiate(true)
+                .withMetrics(new HubConnectionMetrics() {
+                    @Override
+                    public void pingSent() {
+                        pingsSent.countDown();
+                    }
+                })
+                .build();
+        pinging.setKeepAliveInterval(1);
+        pinging.setTickRate(1);
+        pinging.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        try {
+            assertTrue(pingsSent.await(1, TimeUnit.SECONDS));
+        } finally {
+            reconnected.countDown();
+            pinging.stop();
+        }
+    }
+
     @Test
     public void connectionSendsPingsRegularly() throws InterruptedException {
         MockTransport mockTransport = new MockTransport(true, false);
@@ -1312,6 +1682,49 @@ class HubConnectionTest {
         }
     }
 
+    @Test
+    public void lowFootprintConnectionSendsPingsWhenTheyAreDue() throws InterruptedException {
+        MockTransport mockTransport = new MockTransport(true, false);
+        HubConnection hubConnection = HubConnectionBuilder.create("http://example.com")
+                .withTransport(mockTransport)
+                .withHttpClient(new TestHttpClient())
+                .shouldSkipNegotiate(true)
+                .shouldUseLowFootprint(true)
+                .build();
+        hubConnection.setKeepAliveInterval(20);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        TimeUnit.MILLISECONDS.sleep(110);
+        hubConnection.stop();
+
+        String[] sentMessages = mockTransport.getSentMessages();
+        // One ping per keep alive interval, rather than one per tick.
+        assertTrue(sentMessages.length > 2 && sentMessages.length < 8, "Sent " + sentMessages.length + " messages.");
+        for (int i = 1; i < sentMessages.length; i++) {
+            assertEquals("{\"type\":6}" + RECORD_SEPARATOR, sentMessages[i]);
+        }
+    }
+
+    @Test
+    public void lowFootprintConnectionTimesOutIfServerDoesNotSendMessage() {
+        HubConnection hubConnection = HubConnectionBuilder.create("http://example.com")
+                .withTransport(new MockTransport(true))
+                .withHttpClient(new TestHttpClient())
+                .shouldSkipNegotiate(true)
+                .shouldUseLowFootprint(true)
+                .build();
+        hubConnection.setServerTimeout(50);
+        SingleSubject<Exception> closedSubject = SingleSubject.create();
+        hubConnection.onClosed((e) -> {
+            closedSubject.onSuccess(e);
+        });
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        assertEquals("Server timeout elapsed without receiving a message from the server.", closedSubject.timeout(1, TimeUnit.SECONDS).blockingGet().getMessage());
+    }
+
     @Test
     public void headersAreSetAndSentThroughBuilder() {
         AtomicReference<String> header = new AtomicReference<>();
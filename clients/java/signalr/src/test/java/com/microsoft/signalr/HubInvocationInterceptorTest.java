@@ -0,0 +1,97 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class HubInvocationInterceptorTest {
+    private static final String RECORD_SEPARATOR = "\u001e";
+
+    private static HubConnection createHubConnection(MockTransport transport, HubInvocationInterceptor... interceptors) {
+        HttpHubConnectionBuilder builder = HubConnectionBuilder.create("http://example.com")
+                .withTransport(transport)
+                .withHttpClient(new TestHttpClient())
+                .shouldSkipNegotiate(true);
+        for (HubInvocationInterceptor interceptor : interceptors) {
+            builder.withInvocationInterceptor(interceptor);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void interceptorsAddHeadersToOutgoingInvocations() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = createHubConnection(mockTransport,
+                new HubInvocationInterceptor() {
+                    @Override
+                    public void onSend(HubMessageType type, String target, Map<String, String> headers) {
+                        headers.put("traceparent", "trace");
+                    }
+                },
+                new HubInvocationInterceptor() {
+                    @Override
+                    public void onSend(HubMessageType type, String target, Map<String, String> headers) {
+                        headers.put("seen", headers.get("traceparent") + " " + type + " " + target);
+                    }
+                });
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        hubConnection.send("inc", 1);
+        hubConnection.invoke(Integer.class, "add", 1, 2);
+        hubConnection.stream(Integer.class, "count", 1).subscribe();
+
+        List<String> sentMessages = Arrays.asList(mockTransport.getSentMessages());
+        assertTrue(sentMessages.contains("{\"type\":1,\"target\":\"inc\",\"arguments\":[1],"
+                + "\"headers\":{\"traceparent\":\"trace\",\"seen\":\"trace INVOCATION inc\"}}" + RECORD_SEPARATOR));
+        assertTrue(sentMessages.contains("{\"type\":1,\"invocationId\":\"1\",\"target\":\"add\",\"arguments\":[1,2],"
+                + "\"headers\":{\"traceparent\":\"trace\",\"seen\":\"trace INVOCATION add\"}}" + RECORD_SEPARATOR));
+        assertTrue(sentMessages.contains("{\"type\":4,\"invocationId\":\"2\",\"target\":\"count\",\"arguments\":[1],"
+                + "\"headers\":{\"traceparent\":\"trace\",\"seen\":\"trace STREAM_INVOCATION count\"}}" + RECORD_SEPARATOR));
+    }
+
+    @Test
+    public void messagesWithoutHeadersAreUnchanged() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = createHubConnection(mockTransport, new HubInvocationInterceptor() { });
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        hubConnection.send("inc", 1);
+
+        assertTrue(Arrays.asList(mockTransport.getSentMessages())
+                .contains("{\"type\":1,\"target\":\"inc\",\"arguments\":[1]}" + RECORD_SEPARATOR));
+    }
+
+    @Test
+    public void interceptorsReadHeadersOfIncomingMessages() {
+        List<String> received = new ArrayList<>();
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = createHubConnection(mockTransport, new HubInvocationInterceptor() {
+            @Override
+            public void onReceive(HubMessageType type, String target, Map<String, String> headers) {
+                received.add(type + " " + target + " " + headers);
+                assertThrows(UnsupportedOperationException.class, () -> headers.put("a", "b"));
+            }
+        });
+        hubConnection.on("inc", () -> { });
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        hubConnection.invoke(Integer.class, "add", 1, 2);
+        hubConnection.stream(Integer.class, "count", 1).subscribe();
+        mockTransport.receiveMessage("{\"type\":1,\"target\":\"inc\",\"arguments\":[],\"headers\":{\"sent\":\"1\"}}" + RECORD_SEPARATOR
+                + "{\"type\":3,\"invocationId\":\"1\",\"result\":3,\"headers\":{\"server\":\"2\"}}" + RECORD_SEPARATOR
+                + "{\"type\":2,\"invocationId\":\"2\",\"item\":1}" + RECORD_SEPARATOR);
+
+        assertEquals("INVOCATION inc {sent=1}", received.get(0));
+        assertEquals("COMPLETION add {server=2}", received.get(1));
+        assertEquals("STREAM_ITEM count {}", received.get(2));
+    }
+}
@@ -0,0 +1,159 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.reactivex.Completable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+
+class HubProxyTest {
+    private static final String RECORD_SEPARATOR = "\u001e";
+
+    static class Order {
+        String id;
+        int quantity;
+
+        Order(String id, int quantity) {
+            this.id = id;
+            this.quantity = quantity;
+        }
+    }
+
+    @HubProxy
+    interface ChatHub {
+        void post(String room, Order order);
+
+        Completable join(String room);
+
+        Single<Long> count(String room);
+
+        @HubMethodName("GetOrders")
+        Single<List<Order>> getOrders(int first, List<String> ids);
+
+        Observable<Order> watch(String room, double minimum);
+    }
+
+    @Test
+    public void sendWritesEachArgumentAsItsParameterType() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        ChatHub hub = hubConnection.createProxy(ChatHub.class);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        hub.post("lobby", new Order("a", 2));
+        hub.post(null, null);
+
+        String[] messages = mockTransport.getSentMessages();
+        assertEquals("{\"type\":1,\"target\":\"post\",\"arguments\":[\"lobby\",{\"id\":\"a\",\"quantity\":2}]}" + RECORD_SEPARATOR, messages[1]);
+        assertEquals("{\"type\":1,\"target\":\"post\",\"arguments\":[null,null]}" + RECORD_SEPARATOR, messages[2]);
+    }
+
+    @Test
+    public void invokeReadsTheResultWithTheProxysReader() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        ChatHub hub = hubConnection.createProxy(ChatHub.class);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        Single<Long> count = hub.count("lobby");
+        assertEquals("{\"type\":1,\"invocationId\":\"1\",\"target\":\"count\",\"arguments\":[\"lobby\"]}" + RECORD_SEPARATOR,
+                mockTransport.getSentMessages()[1]);
+
+        mockTransport.receiveMessage("{\"type\":3,\"invocationId\":\"1\",\"result\":9007199254740993}" + RECORD_SEPARATOR);
+        assertEquals(9007199254740993L, (long) count.timeout(1, TimeUnit.SECONDS).blockingGet());
+    }
+
+    @Test
+    public void genericResultsAreBoundToTheirType() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        ChatHub hub = hubConnection.createProxy(ChatHub.class);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        Single<List<Order>> orders = hub.getOrders(1, Arrays.asList("a", "b"));
+        assertEquals("{\"type\":1,\"invocationId\":\"1\",\"target\":\"GetOrders\",\"arguments\":[1,[\"a\",\"b\"]]}" + RECORD_SEPARATOR,
+                mockTransport.getSentMessages()[1]);
+
+        // The result comes before the id here, so it is read once the id is known.
+        mockTransport.receiveMessage("{\"type\":3,\"result\":[{\"id\":\"a\",\"quantity\":3}],\"invocationId\":\"1\"}" + RECORD_SEPARATOR);
+        List<Order> result = orders.timeout(1, TimeUnit.SECONDS).blockingGet();
+        assertEquals(1, result.size());
+        assertEquals("a", result.get(0).id);
+        assertEquals(3, result.get(0).quantity);
+    }
+
+    @Test
+    public void invocationsWithoutAResultComplete() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        ChatHub hub = hubConnection.createProxy(ChatHub.class);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        Completable join = hub.join("lobby");
+        mockTransport.receiveMessage("{\"type\":3,\"invocationId\":\"1\"}" + RECORD_SEPARATOR);
+
+        assertTrue(join.blockingAwait(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void streamReadsEachItem() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com", mockTransport);
+        ChatHub hub = hubConnection.createProxy(ChatHub.class);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        Observable<Order> orders = hub.watch("lobby", 0.5);
+        assertEquals("{\"type\":4,\"invocationId\":\"1\",\"target\":\"watch\",\"arguments\":[\"lobby\",0.5]}" + RECORD_SEPARATOR,
+                mockTransport.getSentMessages()[1]);
+
+        mockTransport.receiveMessage("{\"type\":2,\"invocationId\":\"1\",\"item\":{\"id\":\"a\",\"quantity\":1}}" + RECORD_SEPARATOR
+                + "{\"type\":2,\"invocationId\":\"1\",\"item\":{\"id\":\"b\",\"quantity\":2}}" + RECORD_SEPARATOR
+                + "{\"type\":3,\"invocationId\":\"1\"}" + RECORD_SEPARATOR);
+
+        List<Order> items = orders.toList().timeout(1, TimeUnit.SECONDS).blockingGet();
+        assertEquals(2, items.size());
+        assertEquals("b", items.get(1).id);
+    }
+
+    @Test
+    public void headersAreWrittenAfterTheArguments() {
+        MockTransport mockTransport = new MockTransport();
+        HubConnection hubConnection = HubConnectionBuilder.create("http://example.com")
+                .withTransport(mockTransport)
+                .withHttpClient(new TestHttpClient())
+                .shouldSkipNegotiate(true)
+                .withInvocationInterceptor(new HubInvocationInterceptor() {
+                    @Override
+                    public void onSend(HubMessageType type, String target, Map<String, String> headers) {
+                        headers.put("trace", "1");
+                    }
+                })
+                .build();
+        ChatHub hub = hubConnection.createProxy(ChatHub.class);
+
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        hub.post("lobby", null);
+
+        assertEquals("{\"type\":1,\"target\":\"post\",\"arguments\":[\"lobby\",null],\"headers\":{\"trace\":\"1\"}}" + RECORD_SEPARATOR,
+                mockTransport.getSentMessages()[1]);
+    }
+
+    @Test
+    public void interfacesWithoutAProxyCannotBeCreated() {
+        HubConnection hubConnection = TestUtils.createHubConnection("http://example.com");
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> hubConnection.createProxy(Runnable.class));
+        assertEquals("No generated proxy was found for java.lang.Runnable. Is signalr-processor on the annotation processor path?",
+                exception.getMessage());
+    }
+}
@@ -0,0 +1,73 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import io.reactivex.Completable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+
+// Written the way signalr-processor generates the proxy of HubProxyTest.ChatHub.
+public final class HubProxyTest_ChatHub_HubProxy implements HubProxyTest.ChatHub {
+    private static final HubProxyMethod METHOD0 = new HubProxyMethod("post");
+
+    private static final HubProxyMethod METHOD1 = new HubProxyMethod("join");
+
+    private static final HubProxyMethod METHOD2 = new HubProxyMethod("count");
+    private static final HubResultReader<Long> METHOD2_RESULT = reader -> reader.readLong();
+
+    private static final HubProxyMethod METHOD3 = new HubProxyMethod("GetOrders");
+    private static final Type METHOD3_TYPE1 = new TypeReference<List<String>>() { }.getType();
+    private static final Type METHOD3_RESULT_TYPE = new TypeReference<List<HubProxyTest.Order>>() { }.getType();
+    private static final HubResultReader<List<HubProxyTest.Order>> METHOD3_RESULT = reader -> reader.read(METHOD3_RESULT_TYPE);
+
+    private static final HubProxyMethod METHOD4 = new HubProxyMethod("watch");
+    private static final HubResultReader<HubProxyTest.Order> METHOD4_RESULT = reader -> reader.read(HubProxyTest.Order.class);
+
+    private final HubConnection connection;
+
+    public HubProxyTest_ChatHub_HubProxy(HubConnection connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public void post(String p0, HubProxyTest.Order p1) {
+        connection.send(METHOD0, writer -> {
+            writer.writeString(p0);
+            writer.write(p1);
+        });
+    }
+
+    @Override
+    public Completable join(String p0) {
+        return connection.invoke(METHOD1, writer -> {
+            writer.writeString(p0);
+        });
+    }
+
+    @Override
+    public Single<Long> count(String p0) {
+        return connection.invoke(METHOD2, METHOD2_RESULT, writer -> {
+            writer.writeString(p0);
+        });
+    }
+
+    @Override
+    public Single<List<HubProxyTest.Order>> getOrders(int p0, List<String> p1) {
+        return connection.invoke(METHOD3, METHOD3_RESULT, writer -> {
+            writer.writeInt(p0);
+            writer.write(p1, METHOD3_TYPE1);
+        });
+    }
+
+    @Override
+    public Observable<HubProxyTest.Order> watch(String p0, double p1) {
+        return connection.stream(METHOD4, METHOD4_RESULT, writer -> {
+            writer.writeString(p0);
+            writer.writeDouble(p1);
+        });
+    }
+}
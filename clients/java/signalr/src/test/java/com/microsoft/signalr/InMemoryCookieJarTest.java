@@ -0,0 +1,132 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import okhttp3.Cookie;
+import okhttp3.HttpUrl;
+
+class InMemoryCookieJarTest {
+    private static final HttpUrl url = HttpUrl.get("http://example.com/hubs/chat/negotiate");
+
+    private static void save(InMemoryCookieJar jar, HttpUrl url, String... setCookies) {
+        for (String setCookie : setCookies) {
+            jar.saveFromResponse(url, Collections.singletonList(Cookie.parse(url, setCookie)));
+        }
+    }
+
+    private static String[] load(InMemoryCookieJar jar, HttpUrl url) {
+        List<Cookie> cookies = jar.loadForRequest(url);
+        String[] values = new String[cookies.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = cookies.get(i).name() + "=" + cookies.get(i).value();
+        }
+        return values;
+    }
+
+    @Test
+    public void savedCookieIsLoaded() {
+        InMemoryCookieJar jar = new InMemoryCookieJar();
+        save(jar, url, "ARRAffinity=1; Path=/");
+
+        assertArrayEquals(new String[] { "ARRAffinity=1" }, load(jar, url));
+    }
+
+    @Test
+    public void updatedCookieReplacesExistingCookie() {
+        InMemoryCookieJar jar = new InMemoryCookieJar();
+        save(jar, url, "ARRAffinity=1; Path=/", "ARRAffinity=2; Path=/");
+
+        assertArrayEquals(new String[] { "ARRAffinity=2" }, load(jar, url));
+        assertEquals(1, jar.size());
+    }
+
+    @Test
+    public void cookiesWithSameNameAndDifferentPathsAreKept() {
+        InMemoryCookieJar jar = new InMemoryCookieJar();
+        save(jar, url, "id=root; Path=/", "id=hubs; Path=/hubs");
+
+        assertArrayEquals(new String[] { "id=hubs", "id=root" }, load(jar, url));
+        assertArrayEquals(new String[] { "id=root" }, load(jar, HttpUrl.get("http://example.com/other")));
+    }
+
+    @Test
+    public void pathMustMatchOnSegmentBoundary() {
+        InMemoryCookieJar jar = new InMemoryCookieJar();
+        save(jar, url, "a=1; Path=/hub");
+
+        assertArrayEquals(new String[0], load(jar, HttpUrl.get("http://example.com/hubs")));
+        assertArrayEquals(new String[] { "a=1" }, load(jar, HttpUrl.get("http://example.com/hub")));
+        assertArrayEquals(new String[] { "a=1" }, load(jar, HttpUrl.get("http://example.com/hub/")));
+        assertArrayEquals(new String[] { "a=1" }, load(jar, HttpUrl.get("http://example.com/hub/chat")));
+    }
+
+    @Test
+    public void domainCookiesAreSentToSubdomains() {
+        InMemoryCookieJar jar = new InMemoryCookieJar();
+        HttpUrl subdomain = HttpUrl.get("http://chat.example.com/");
+        save(jar, subdomain, "shared=1; Domain=example.com; Path=/", "hostOnly=1; Path=/");
+
+        assertArrayEquals(new String[] { "shared=1" }, load(jar, HttpUrl.get("http://other.example.com/")));
+        assertEquals(2, load(jar, subdomain).length);
+        assertArrayEquals(new String[0], load(jar, HttpUrl.get("http://example.org/")));
+    }
+
+    @Test
+    public void secureCookiesAreNotSentOverHttp() {
+        InMemoryCookieJar jar = new InMemoryCookieJar();
+        HttpUrl secureUrl = HttpUrl.get("https://example.com/");
+        save(jar, secureUrl, "secure=1; Path=/; Secure");
+
+        assertArrayEquals(new String[] { "secure=1" }, load(jar, secureUrl));
+        assertArrayEquals(new String[0], load(jar, HttpUrl.get("http://example.com/")));
+    }
+
+    @Test
+    public void expiredCookieFromServerDeletesCookie() {
+        InMemoryCookieJar jar = new InMemoryCookieJar();
+        save(jar, url, "session=1; Path=/", "session=; Path=/; Max-Age=0");
+
+        assertArrayEquals(new String[0], load(jar, url));
+        assertEquals(0, jar.size());
+    }
+
+    @Test
+    public void expiredCookiesAreEvicted() throws InterruptedException {
+        InMemoryCookieJar jar = new InMemoryCookieJar();
+        Cookie shortLived = new Cookie.Builder().name("short").value("1").domain("example.com").path("/")
+                .expiresAt(System.currentTimeMillis() + 50).build();
+        Cookie session = new Cookie.Builder().name("session").value("1").domain("example.com").path("/").build();
+        jar.saveFromResponse(url, Arrays.asList(shortLived, session));
+        assertEquals(2, load(jar, url).length);
+
+        Thread.sleep(100);
+
+        assertArrayEquals(new String[] { "session=1" }, load(jar, url));
+        assertEquals(1, jar.size());
+    }
+
+    @Test
+    public void replacedPersistentCookieIsNotEvictedByOldExpiry() throws InterruptedException {
+        InMemoryCookieJar jar = new InMemoryCookieJar();
+        long now = System.currentTimeMillis();
+        Cookie original = new Cookie.Builder().name("a").value("1").domain("example.com").path("/")
+                .expiresAt(now + 50).build();
+        Cookie replacement = new Cookie.Builder().name("a").value("2").domain("example.com").path("/")
+                .expiresAt(now + 60 * 1000).build();
+        jar.saveFromResponse(url, Collections.singletonList(original));
+        jar.saveFromResponse(url, Collections.singletonList(replacement));
+
+        Thread.sleep(100);
+
+        assertArrayEquals(new String[] { "a=2" }, load(jar, url));
+    }
+}
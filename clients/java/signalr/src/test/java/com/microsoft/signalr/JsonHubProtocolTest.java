@@ -5,12 +5,21 @@ package com.microsoft.signalr;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
+import okio.ByteString;
+
 
 class JsonHubProtocolTest {
     private JsonHubProtocol jsonHubProtocol = new JsonHubProtocol();
@@ -38,6 +47,60 @@ class JsonHubProtocolTest {
         assertEquals(expectedResult, result);
     }
 
+    @Test
+    public void verifyWriteEveryMessageType() {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", 1);
+        item.put("tags", Arrays.asList("a", null));
+
+        assertEquals("{\"type\":1,\"invocationId\":\"1\",\"target\":\"test\",\"arguments\":[null,1.5,true]}\u001E",
+                jsonHubProtocol.writeMessage(new InvocationMessage("1", "test", new Object[] {null, 1.5, true})));
+        assertEquals("{\"type\":4,\"invocationId\":\"2\",\"target\":\"stream\",\"arguments\":[]}\u001E",
+                jsonHubProtocol.writeMessage(new StreamInvocationMessage("2", "stream", new Object[0])));
+        assertEquals("{\"type\":2,\"invocationId\":\"2\",\"item\":{\"id\":1,\"tags\":[\"a\",null]}}\u001E",
+                jsonHubProtocol.writeMessage(new StreamItem("2", item)));
+        assertEquals("{\"type\":3,\"invocationId\":\"1\",\"result\":42}\u001E",
+                jsonHubProtocol.writeMessage(new CompletionMessage("1", 42, null)));
+        assertEquals("{\"type\":3,\"invocationId\":\"1\",\"error\":\"Failed <here>\"}\u001E",
+                jsonHubProtocol.writeMessage(new CompletionMessage("1", null, "Failed <here>")));
+        assertEquals("{\"type\":3,\"invocationId\":\"1\"}\u001E",
+                jsonHubProtocol.writeMessage(new CompletionMessage("1", null, null)));
+        assertEquals("{\"type\":5,\"invocationId\":\"2\"}\u001E",
+                jsonHubProtocol.writeMessage(new CancelInvocationMessage("2")));
+        assertEquals("{\"type\":6}\u001E", jsonHubProtocol.writeMessage(PingMessage.getInstance()));
+        assertEquals("{\"type\":7,\"error\":\"Closed\"}\u001E", jsonHubProtocol.writeMessage(new CloseMessage("Closed")));
+    }
+
+    @Test
+    public void sharedInstanceCanBeUsedFromManyThreads() throws Exception {
+        JsonHubProtocol protocol = JsonHubProtocol.getInstance();
+        assertSame(protocol, JsonHubProtocol.getInstance());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String argument = "thread" + i;
+                results.add(executor.submit(() -> {
+                    TestBinder binder = new TestBinder(new InvocationMessage(null, "test", new Object[] { argument }));
+                    for (int j = 0; j < 1000; j++) {
+                        String message = protocol.writeMessage(new InvocationMessage(null, "test", new Object[] { argument }));
+                        InvocationMessage parsed = (InvocationMessage) protocol.parseMessages(message, binder)[0];
+                        if (!argument.equals(parsed.getArguments()[0])) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void parsePingMessage() {
         String stringifiedMessage = "{\"type\":6}\u001E";
@@ -281,6 +344,214 @@ class JsonHubProtocolTest {
         assertEquals("Message is incomplete.", exception.getMessage());
     }
 
+    @Test
+    public void verifyWriteMessageWithHeaders() {
+        InvocationMessage invocationMessage = new InvocationMessage("1", "test", new Object[] {"42"});
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+        invocationMessage.setHeaders(headers);
+
+        String result = jsonHubProtocol.writeMessage(invocationMessage);
+
+        String expectedResult = "{\"type\":1,\"invocationId\":\"1\",\"target\":\"test\",\"arguments\":[\"42\"],"
+                + "\"headers\":{\"traceparent\":\"00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01\"}}\u001E";
+        assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void parseInvocationMessageWithHeaders() {
+        String stringifiedMessage = "{\"type\":1,\"headers\":{\"a\":\"1\",\"b\":\"2\"},\"target\":\"test\",\"arguments\":[42]}\u001E";
+        TestBinder binder = new TestBinder(new InvocationMessage(null, "test", new Object[] { 42 }));
+
+        HubMessage[] messages = jsonHubProtocol.parseMessages(stringifiedMessage, binder);
+
+        assertEquals(1, messages.length);
+        InvocationMessage invocationMessage = (InvocationMessage) messages[0];
+        assertEquals(42, invocationMessage.getArguments()[0]);
+        assertEquals("1", invocationMessage.getHeaders().get("a"));
+        assertEquals("2", invocationMessage.getHeaders().get("b"));
+    }
+
+    @Test
+    public void parseCompletionMessageWithHeaders() {
+        String stringifiedMessage = "{\"type\":3,\"invocationId\":\"1\",\"result\":42,\"headers\":{\"sent\":\"1540000000000\"}}\u001E"
+                + "{\"type\":3,\"invocationId\":\"2\",\"result\":42}\u001E";
+        TestBinder binder = new TestBinder(new CompletionMessage("1", 42, null));
+
+        HubMessage[] messages = jsonHubProtocol.parseMessages(stringifiedMessage, binder);
+
+        assertEquals(2, messages.length);
+        assertEquals("1540000000000", ((CompletionMessage) messages[0]).getHeaders().get("sent"));
+        assertNull(((CompletionMessage) messages[1]).getHeaders());
+    }
+
+    @Test
+    public void binaryArgumentsAreWrittenAsBase64() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 0, 1, 2, 3, 4 });
+        buffer.position(1);
+        InvocationMessage invocationMessage = new InvocationMessage(null, "test",
+                new Object[] { new byte[] { 1, 2, 3 }, buffer, ByteString.of((byte) 1, (byte) 2, (byte) 3), null });
+
+        String result = jsonHubProtocol.writeMessage(invocationMessage);
+
+        assertEquals("{\"type\":1,\"target\":\"test\",\"arguments\":[\"AQID\",\"AQIDBA==\",\"AQID\",null]}\u001E", result);
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void binaryResultIsWrittenAsBase64() {
+        CompletionMessage completionMessage = new CompletionMessage("1", new byte[] { (byte) 0xff, 0 }, null);
+
+        String result = jsonHubProtocol.writeMessage(completionMessage);
+
+        assertEquals("{\"type\":3,\"invocationId\":\"1\",\"result\":\"/wA=\"}\u001E", result);
+    }
+
+    @Test
+    public void parseBase64Arguments() {
+        String stringifiedMessage = "{\"type\":1,\"target\":\"test\",\"arguments\":[\"AQID\",\"AQID\",null]}\u001E";
+        TestBinder binder = new TestBinder(new InvocationMessage(null, "test",
+                new Object[] { new byte[0], ByteString.EMPTY, new byte[0] }));
+
+        HubMessage[] messages = jsonHubProtocol.parseMessages(stringifiedMessage, binder);
+
+        InvocationMessage invocationMessage = (InvocationMessage) messages[0];
+        assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) invocationMessage.getArguments()[0]);
+        assertEquals(ByteString.of((byte) 1, (byte) 2, (byte) 3), invocationMessage.getArguments()[1]);
+        assertNull(invocationMessage.getArguments()[2]);
+    }
+
+    @Test
+    public void parseBase64Result() {
+        String stringifiedMessage = "{\"type\":3,\"invocationId\":\"1\",\"result\":\"AQID\"}\u001E"
+                + "{\"result\":\"AQID\",\"type\":3,\"invocationId\":\"1\"}\u001E";
+        TestBinder binder = new TestBinder(new CompletionMessage("1", ByteBuffer.allocate(0), null));
+
+        HubMessage[] messages = jsonHubProtocol.parseMessages(stringifiedMessage, binder);
+
+        assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), ((CompletionMessage) messages[0]).getResult());
+        assertEquals(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), ((CompletionMessage) messages[1]).getResult());
+    }
+
+    @Test
+    public void parseBinaryArgumentWrittenAsNumberArray() {
+        String stringifiedMessage = "{\"type\":1,\"target\":\"test\",\"arguments\":[[1,2,255]]}\u001E";
+        TestBinder binder = new TestBinder(new InvocationMessage(null, "test", new Object[] { new byte[0] }));
+
+        HubMessage[] messages = jsonHubProtocol.parseMessages(stringifiedMessage, binder);
+
+        assertArrayEquals(new byte[] { 1, 2, (byte) 255 }, (byte[]) ((InvocationMessage) messages[0]).getArguments()[0]);
+    }
+
+    @Test
+    public void invalidBase64FailsArgumentBinding() {
+        String stringifiedMessage = "{\"type\":1,\"target\":\"test\",\"arguments\":[\"not base64!\"]}\u001E";
+        TestBinder binder = new TestBinder(new InvocationMessage(null, "test", new Object[] { new byte[0] }));
+
+        HubMessage[] messages = jsonHubProtocol.parseMessages(stringifiedMessage, binder);
+
+        InvocationBindingFailureMessage message = (InvocationBindingFailureMessage) messages[0];
+        assertEquals("Binary data is not valid base64.", message.getException().getMessage());
+    }
+
+    @Test
+    public void parsePrimitiveArgumentsWithoutBoxing() {
+        String stringifiedMessage = "{\"type\":1,\"target\":\"test\",\"arguments\":[42,1540000000000,12.5]}\u001E";
+        InvocationBinder binder = new InvocationBinder() {
+            @Override
+            public Class<?> getReturnType(String invocationId) {
+                return null;
+            }
+
+            @Override
+            public List<Class<?>> getParameterTypes(String methodName) {
+                return Arrays.asList(int.class, long.class, double.class);
+            }
+        };
+
+        HubMessage[] messages = jsonHubProtocol.parseMessages(stringifiedMessage, binder);
+
+        InvocationMessage invocationMessage = (InvocationMessage) messages[0];
+        PrimitiveArguments arguments = invocationMessage.getPrimitiveArguments();
+        assertEquals(3, arguments.size());
+        assertEquals(42, arguments.getInt(0));
+        assertEquals(1540000000000L, arguments.getLong(1));
+        assertEquals(12.5, arguments.getDouble(2));
+        assertArrayEquals(new Object[] { 42, 1540000000000L, 12.5 }, invocationMessage.getArguments());
+    }
+
+    @Test
+    public void parsePrimitiveArgumentsWithWrongCount() {
+        String stringifiedMessage = "{\"type\":1,\"target\":\"test\",\"arguments\":[42,12.5]}\u001E";
+        InvocationBinder binder = new InvocationBinder() {
+            @Override
+            public Class<?> getReturnType(String invocationId) {
+                return null;
+            }
+
+            @Override
+            public List<Class<?>> getParameterTypes(String methodName) {
+                return Arrays.asList(double.class);
+            }
+        };
+
+        HubMessage[] messages = jsonHubProtocol.parseMessages(stringifiedMessage, binder);
+
+        InvocationBindingFailureMessage message = (InvocationBindingFailureMessage) messages[0];
+        assertEquals("Invocation provides 2 argument(s) but target expects 1.", message.getException().getMessage());
+    }
+
+    @Test
+    public void parsePrimitiveStreamItem() {
+        String stringifiedMessage = "{\"type\":2,\"invocationId\":\"1\",\"item\":12.5}\u001E"
+                + "{\"type\":2,\"invocationId\":\"1\",\"item\":null}\u001E";
+        InvocationBinder binder = new InvocationBinder() {
+            @Override
+            public Class<?> getReturnType(String invocationId) {
+                return double.class;
+            }
+
+            @Override
+            public List<Class<?>> getParameterTypes(String methodName) {
+                return null;
+            }
+        };
+
+        HubMessage[] messages = jsonHubProtocol.parseMessages(stringifiedMessage, binder);
+
+        StreamItem streamItem = (StreamItem) messages[0];
+        assertTrue(streamItem.hasPrimitiveItem());
+        assertEquals(12.5, Double.longBitsToDouble(streamItem.getPrimitiveItem()));
+        assertEquals(12.5, streamItem.getItem());
+        assertFalse(((StreamItem) messages[1]).hasPrimitiveItem());
+        assertNull(((StreamItem) messages[1]).getItem());
+    }
+
+    @Test
+    public void parseRawArguments() {
+        String arguments = "[ {\"a\":[1,2],\"b\":\"x]\\\"}\"}, \"arguments\", null ]";
+        String stringifiedMessage = "{\"type\":1,\"headers\":{\"arguments\":\"[]\"},\"target\":\"arguments\",\"arguments\": "
+                + arguments + " }\u001E"
+                + "{\"arguments\":" + arguments + ",\"type\":1,\"target\":\"arguments\"}\u001E";
+        InvocationBinder binder = new InvocationBinder() {
+            @Override
+            public Class<?> getReturnType(String invocationId) {
+                return null;
+            }
+
+            @Override
+            public List<Class<?>> getParameterTypes(String methodName) {
+                return Arrays.asList(RawAction.class);
+            }
+        };
+
+        HubMessage[] messages = jsonHubProtocol.parseMessages(stringifiedMessage, binder);
+
+        assertEquals(2, messages.length);
+        assertArrayEquals(new Object[] { arguments }, ((InvocationMessage) messages[0]).getArguments());
+        assertArrayEquals(new Object[] { arguments }, ((InvocationMessage) messages[1]).getArguments());
+    }
+
     private class TestBinder implements InvocationBinder {
         private Class<?>[] paramTypes = null;
         private Class<?> returnType = null;
@@ -0,0 +1,129 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyTrackerTest {
+    private static final long HALF_LIFE = 1000;
+
+    @Test
+    public void selectReturnsMinusOneWithoutCandidates() {
+        LatencyTracker tracker = new LatencyTracker(HALF_LIFE, () -> 0);
+
+        assertEquals(-1, tracker.select(Collections.emptyList()));
+    }
+
+    @Test
+    public void firstCandidateIsSelectedWithoutMeasurements() {
+        LatencyTracker tracker = new LatencyTracker(HALF_LIFE, () -> 0);
+
+        assertEquals(0, tracker.select(Arrays.asList("a", "b", "c")));
+    }
+
+    @Test
+    public void unmeasuredCandidatesAreProbedOncePerHalfLife() {
+        AtomicLong now = new AtomicLong();
+        LatencyTracker tracker = new LatencyTracker(HALF_LIFE, now::get);
+        tracker.recordLatency("b", 10);
+
+        assertEquals(0, tracker.select(Arrays.asList("a", "b", "c")));
+        assertEquals(2, tracker.select(Arrays.asList("a", "b", "c")));
+        assertEquals(1, tracker.select(Arrays.asList("a", "b", "c")));
+
+        now.set(HALF_LIFE);
+        tracker.recordLatency("b", 10);
+        assertEquals(0, tracker.select(Arrays.asList("a", "b", "c")));
+    }
+
+    @Test
+    public void fastestCandidateIsSelected() {
+        LatencyTracker tracker = new LatencyTracker(HALF_LIFE, () -> 0);
+        tracker.recordLatency("a", 100);
+        tracker.recordLatency("b", 20);
+        tracker.recordLatency("c", 50);
+
+        assertEquals(1, tracker.select(Arrays.asList("a", "b", "c")));
+    }
+
+    @Test
+    public void samplesAreAveraged() {
+        LatencyTracker tracker = new LatencyTracker(HALF_LIFE, () -> 0);
+        tracker.recordLatency("a", 100);
+        tracker.recordLatency("a", 200);
+
+        assertEquals(120, tracker.getAverage("a"), 0.001);
+    }
+
+    @Test
+    public void oldSamplesDecay() {
+        AtomicLong now = new AtomicLong();
+        LatencyTracker tracker = new LatencyTracker(HALF_LIFE, now::get);
+        tracker.recordLatency("a", 100);
+
+        now.set(HALF_LIFE);
+        tracker.recordLatency("a", 200);
+
+        assertEquals(150, tracker.getAverage("a"), 0.001);
+    }
+
+    @Test
+    public void failuresArePenalized() {
+        LatencyTracker tracker = new LatencyTracker(HALF_LIFE, () -> 0);
+        tracker.recordLatency("a", 100);
+        tracker.recordLatency("b", 200);
+        tracker.recordFailure("a");
+
+        assertEquals(1, tracker.select(Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void failedCandidateIsSelectedAgainAfterAHalfLife() {
+        AtomicLong now = new AtomicLong();
+        LatencyTracker tracker = new LatencyTracker(HALF_LIFE, now::get);
+        tracker.recordLatency("a", 50);
+        tracker.recordLatency("b", 100);
+        tracker.recordFailure("a");
+        assertEquals(1, tracker.select(Arrays.asList("a", "b")));
+
+        now.set(HALF_LIFE - 1);
+        tracker.recordLatency("b", 100);
+        assertEquals(1, tracker.select(Arrays.asList("a", "b")));
+
+        now.set(HALF_LIFE);
+        tracker.recordLatency("b", 100);
+        assertEquals(0, tracker.select(Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void slowerCandidatesAreProbedAgainAfterAHalfLife() {
+        AtomicLong now = new AtomicLong();
+        LatencyTracker tracker = new LatencyTracker(HALF_LIFE, now::get);
+        tracker.recordLatency("a", 500);
+        tracker.recordLatency("b", 10);
+        assertEquals(1, tracker.select(Arrays.asList("a", "b")));
+
+        now.set(HALF_LIFE);
+        tracker.recordLatency("b", 10);
+        assertEquals(0, tracker.select(Arrays.asList("a", "b")));
+        assertEquals(1, tracker.select(Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void fastestCandidateIsSelectedWithoutProbingWhenItsMeasurementIsOld() {
+        AtomicLong now = new AtomicLong();
+        LatencyTracker tracker = new LatencyTracker(HALF_LIFE, now::get);
+        tracker.recordLatency("a", 10);
+        now.set(100 * HALF_LIFE);
+        tracker.recordLatency("b", 500);
+
+        assertEquals(0, tracker.select(Arrays.asList("a", "b", "c")));
+    }
+}
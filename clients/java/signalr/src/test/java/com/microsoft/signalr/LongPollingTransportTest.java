@@ -0,0 +1,266 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.SingleSubject;
+
+class LongPollingTransportTest {
+    @Test
+    public void startWaitsForInitialPollAndStartsPolling() {
+        PollingTestHttpClient client = new PollingTestHttpClient();
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Authorization", "Bearer token");
+        LongPollingTransport transport = new LongPollingTransport(headers, client);
+        transport.setOnReceive(message -> { });
+
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        HttpRequest initialPoll = client.getSentRequests().get(0);
+        assertEquals("GET", initialPoll.getMethod());
+        assertEquals("http://example.com/hub?id=123", initialPoll.getUrl());
+        assertEquals("Bearer token", initialPoll.getHeaders().get("Authorization"));
+        assertEquals(1, client.getPolls().size());
+        assertEquals("Bearer token", client.getPollRequests().get(0).getHeaders().get("Authorization"));
+    }
+
+    @Test
+    public void startFailsForNon200Response() {
+        PollingTestHttpClient client = new PollingTestHttpClient();
+        client.setInitialPollResponse(new HttpResponse(404, "", ""));
+        LongPollingTransport transport = new LongPollingTransport(new HashMap<>(), client);
+        transport.setOnReceive(message -> { });
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait());
+        assertEquals("Unexpected status code returned from LongPolling connection: 404 .", exception.getMessage());
+        assertEquals(0, client.getPolls().size());
+    }
+
+    @Test
+    public void nextPollIsIssuedBeforeResponseBodyIsRead() {
+        PollingTestHttpClient client = new PollingTestHttpClient();
+        LongPollingTransport transport = new LongPollingTransport(new HashMap<>(), client);
+        List<String> messages = new CopyOnWriteArrayList<>();
+        transport.setOnReceive(message -> messages.add(message));
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        PublishSubject<String> body = PublishSubject.create();
+        AtomicBoolean bodySubscribed = new AtomicBoolean();
+        new Thread(() -> client.getPolls().get(0).onSuccess(
+                new StreamingHttpResponse(200, "", body.doOnSubscribe(d -> bodySubscribed.set(true))))).start();
+
+        waitFor(() -> bodySubscribed.get());
+        assertEquals(2, client.getPolls().size());
+        assertTrue(messages.isEmpty());
+
+        body.onNext("first\u001e");
+        body.onNext("second\u001e");
+        body.onComplete();
+
+        waitFor(() -> !messages.isEmpty());
+        assertEquals("first\u001esecond\u001e", messages.get(0));
+    }
+
+    @Test
+    public void responsesAreDeliveredInPollOrder() {
+        PollingTestHttpClient client = new PollingTestHttpClient();
+        LongPollingTransport transport = new LongPollingTransport(new HashMap<>(), client);
+        List<String> messages = new CopyOnWriteArrayList<>();
+        transport.setOnReceive(message -> messages.add(message));
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        // The first response is still being read when the second one arrives.
+        PublishSubject<String> firstBody = PublishSubject.create();
+        new Thread(() -> client.getPolls().get(0).onSuccess(new StreamingHttpResponse(200, "", firstBody))).start();
+        waitFor(() -> client.getPolls().size() == 2 && firstBody.hasObservers());
+        new Thread(() -> client.getPolls().get(1).onSuccess(new StreamingHttpResponse(200, "", Observable.just("second")))).start();
+        waitFor(() -> client.getPolls().size() == 3);
+
+        firstBody.onNext("first");
+        firstBody.onComplete();
+
+        waitFor(() -> messages.size() == 2);
+        assertEquals("first", messages.get(0));
+        assertEquals("second", messages.get(1));
+    }
+
+    @Test
+    public void emptyResponseIsNotDelivered() {
+        PollingTestHttpClient client = new PollingTestHttpClient();
+        LongPollingTransport transport = new LongPollingTransport(new HashMap<>(), client);
+        List<String> messages = new CopyOnWriteArrayList<>();
+        transport.setOnReceive(message -> messages.add(message));
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        client.getPolls().get(0).onSuccess(new StreamingHttpResponse(200, "", Observable.empty()));
+
+        assertEquals(2, client.getPolls().size());
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    public void noContentResponseClosesTransportAfterEarlierResponses() {
+        PollingTestHttpClient client = new PollingTestHttpClient();
+        LongPollingTransport transport = new LongPollingTransport(new HashMap<>(), client);
+        List<String> messages = new CopyOnWriteArrayList<>();
+        AtomicReference<String> closeReason = new AtomicReference<>("not closed");
+        transport.setOnReceive(message -> messages.add(message));
+        transport.setOnClose(reason -> closeReason.set(reason));
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        PublishSubject<String> firstBody = PublishSubject.create();
+        new Thread(() -> client.getPolls().get(0).onSuccess(new StreamingHttpResponse(200, "", firstBody))).start();
+        waitFor(() -> client.getPolls().size() == 2 && firstBody.hasObservers());
+        new Thread(() -> client.getPolls().get(1).onSuccess(new StreamingHttpResponse(204, "", Observable.empty()))).start();
+
+        firstBody.onNext("{\"type\":7}\u001e");
+        firstBody.onComplete();
+
+        waitFor(() -> closeReason.get() == null);
+        assertEquals(1, messages.size());
+        assertEquals(2, client.getPolls().size());
+    }
+
+    @Test
+    public void pollErrorClosesTransportWithError() {
+        PollingTestHttpClient client = new PollingTestHttpClient();
+        LongPollingTransport transport = new LongPollingTransport(new HashMap<>(), client);
+        AtomicReference<String> closeReason = new AtomicReference<>();
+        transport.setOnReceive(message -> { });
+        transport.setOnClose(reason -> closeReason.set(reason));
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        client.getPolls().get(0).onSuccess(new StreamingHttpResponse(500, "Internal Server Error", Observable.empty()));
+
+        assertEquals("Unexpected status code returned from LongPolling poll: 500 Internal Server Error.", closeReason.get());
+        assertThrows(IllegalStateException.class, () -> transport.send("a\u001e").blockingAwait());
+    }
+
+    @Test
+    public void sendsAreBatchedWhileAPostIsInFlight() {
+        PollingTestHttpClient client = new PollingTestHttpClient();
+        SingleSubject<HttpResponse> firstPost = SingleSubject.create();
+        List<String> postedBodies = new ArrayList<>();
+        client.setPostHandler(request -> {
+            postedBodies.add(request.getBody());
+            if (postedBodies.size() == 1) {
+                return firstPost;
+            }
+            return Single.just(new HttpResponse(200, "", ""));
+        });
+        LongPollingTransport transport = new LongPollingTransport(new HashMap<>(), client);
+        transport.setOnReceive(message -> { });
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        transport.send("a\u001e");
+        transport.send("b\u001e");
+        transport.send("c\u001e");
+        assertEquals(1, postedBodies.size());
+
+        firstPost.onSuccess(new HttpResponse(200, "", ""));
+
+        assertEquals(2, postedBodies.size());
+        assertEquals("a\u001e", postedBodies.get(0));
+        assertEquals("b\u001ec\u001e", postedBodies.get(1));
+    }
+
+    @Test
+    public void stopSendsDeleteAndInvokesOnClose() {
+        PollingTestHttpClient client = new PollingTestHttpClient();
+        LongPollingTransport transport = new LongPollingTransport(new HashMap<>(), client);
+        AtomicReference<String> closeReason = new AtomicReference<>("not closed");
+        transport.setOnReceive(message -> { });
+        transport.setOnClose(reason -> closeReason.set(reason));
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        transport.stop().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        HttpRequest delete = client.getSentRequests().get(client.getSentRequests().size() - 1);
+        assertEquals("DELETE", delete.getMethod());
+        assertEquals("http://example.com/hub?id=123", delete.getUrl());
+        assertNull(closeReason.get());
+        assertFalse(client.getPolls().get(0).hasObservers());
+    }
+
+    private static void waitFor(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for the condition.");
+            }
+            Thread.yield();
+        }
+    }
+
+    class PollingTestHttpClient extends HttpClient {
+        private final List<HttpRequest> sentRequests = new ArrayList<>();
+        private final List<HttpRequest> pollRequests = new ArrayList<>();
+        private final List<SingleSubject<StreamingHttpResponse>> polls = new ArrayList<>();
+        private HttpResponse initialPollResponse = new HttpResponse(200, "", "");
+        private TestHttpClient.TestHttpRequestHandler postHandler = request -> Single.just(new HttpResponse(200, "", ""));
+
+        @Override
+        public synchronized Single<HttpResponse> send(HttpRequest request) {
+            sentRequests.add(request);
+            switch (request.getMethod()) {
+                case "POST":
+                    return postHandler.invoke(request);
+                case "DELETE":
+                    return Single.just(new HttpResponse(202, "", ""));
+                default:
+                    return Single.just(initialPollResponse);
+            }
+        }
+
+        @Override
+        public synchronized Single<StreamingHttpResponse> sendStreaming(HttpRequest request) {
+            SingleSubject<StreamingHttpResponse> poll = SingleSubject.create();
+            pollRequests.add(request);
+            polls.add(poll);
+            return poll;
+        }
+
+        @Override
+        public WebSocketWrapper createWebSocket(String url, Map<String, String> headers) {
+            throw new RuntimeException("WebSockets isn't supported in testing currently.");
+        }
+
+        public void setInitialPollResponse(HttpResponse initialPollResponse) {
+            this.initialPollResponse = initialPollResponse;
+        }
+
+        public void setPostHandler(TestHttpClient.TestHttpRequestHandler postHandler) {
+            this.postHandler = postHandler;
+        }
+
+        public synchronized List<HttpRequest> getSentRequests() {
+            return new ArrayList<>(sentRequests);
+        }
+
+        public synchronized List<HttpRequest> getPollRequests() {
+            return new ArrayList<>(pollRequests);
+        }
+
+        public synchronized List<SingleSubject<StreamingHttpResponse>> getPolls() {
+            return new ArrayList<>(polls);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class NioWebSocketWrapperTest {
+    private static final NioEventLoop eventLoop = new NioEventLoop(1);
+    private TestWebSocketServer server;
+
+    @AfterEach
+    public void stopServer() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void computeAcceptMatchesTheRfcSample() {
+        assertEquals("s3pPLMBiTxaQ9kYGzzhZRbK+xOo=", NioWebSocketWrapper.computeAccept("dGhlIHNhbXBsZSBub25jZQ=="));
+    }
+
+    @Test
+    public void startSendsUpgradeRequestWithHeaders() throws Exception {
+        server = new TestWebSocketServer();
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Authorization", "Bearer token");
+        NioWebSocketWrapper webSocket = createWebSocket("/hub?id=123", headers);
+
+        webSocket.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+
+        String request = server.getUpgradeRequest();
+        assertTrue(request.startsWith("GET /hub?id=123 HTTP/1.1\r\n"));
+        assertTrue(request.contains("Authorization: Bearer token\r\n"));
+        assertTrue(request.contains("Sec-WebSocket-Version: 13\r\n"));
+    }
+
+    @Test
+    public void messagesAreSentAndReceived() throws Exception {
+        server = new TestWebSocketServer();
+        NioWebSocketWrapper webSocket = createWebSocket("/hub", new HashMap<>());
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        webSocket.setOnReceive(received::add);
+        webSocket.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+
+        webSocket.send("hello").timeout(5, TimeUnit.SECONDS).blockingAwait();
+        assertEquals("hello", server.readTextFrame());
+
+        server.writeFrame(true, 0x1, "first".getBytes(StandardCharsets.UTF_8));
+        assertEquals("first", received.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void largeAndFragmentedMessagesAreReassembled() throws Exception {
+        server = new TestWebSocketServer();
+        NioWebSocketWrapper webSocket = createWebSocket("/hub", new HashMap<>());
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        webSocket.setOnReceive(received::add);
+        webSocket.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+
+        StringBuilder large = new StringBuilder();
+        while (large.length() < 200 * 1024) {
+            large.append("0123456789");
+        }
+        server.writeFrame(true, 0x1, large.toString().getBytes(StandardCharsets.UTF_8));
+        server.writeFrame(false, 0x1, "frag".getBytes(StandardCharsets.UTF_8));
+        server.writeFrame(true, 0x0, "mented".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(large.toString(), received.poll(5, TimeUnit.SECONDS));
+        assertEquals("fragmented", received.poll(5, TimeUnit.SECONDS));
+
+        webSocket.send(large.toString()).timeout(5, TimeUnit.SECONDS).blockingAwait();
+        assertEquals(large.toString(), server.readTextFrame());
+    }
+
+    @Test
+    public void pingIsAnsweredWithPong() throws Exception {
+        server = new TestWebSocketServer();
+        NioWebSocketWrapper webSocket = createWebSocket("/hub", new HashMap<>());
+        webSocket.setOnReceive(message -> { });
+        webSocket.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+
+        server.writeFrame(true, 0x9, "ping".getBytes(StandardCharsets.UTF_8));
+
+        Frame pong = server.readFrame();
+        assertEquals(0xA, pong.opcode);
+        assertEquals("ping", new String(pong.payload, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void stopPerformsCloseHandshake() throws Exception {
+        server = new TestWebSocketServer();
+        NioWebSocketWrapper webSocket = createWebSocket("/hub", new HashMap<>());
+        AtomicReference<Integer> closeCode = new AtomicReference<>();
+        webSocket.setOnReceive(message -> { });
+        webSocket.setOnClose((code, reason) -> closeCode.set(code));
+        webSocket.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+
+        webSocket.stop();
+        Frame close = server.readFrame();
+        assertEquals(0x8, close.opcode);
+        server.writeFrame(true, 0x8, close.payload);
+
+        webSocket.stop().timeout(5, TimeUnit.SECONDS).blockingAwait();
+        assertEquals(1000, (int) closeCode.get());
+    }
+
+    @Test
+    public void serverCloseInvokesOnClose() throws Exception {
+        server = new TestWebSocketServer();
+        NioWebSocketWrapper webSocket = createWebSocket("/hub", new HashMap<>());
+        CountDownLatch closed = new CountDownLatch(1);
+        AtomicReference<String> closeReason = new AtomicReference<>();
+        webSocket.setOnReceive(message -> { });
+        webSocket.setOnClose((code, reason) -> {
+            closeReason.set(code + " " + reason);
+            closed.countDown();
+        });
+        webSocket.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+
+        server.writeFrame(true, 0x8, new byte[] { 0x03, (byte) 0xE9, 'b', 'y', 'e' });
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertEquals("1001 bye", closeReason.get());
+        assertEquals(0x8, server.readFrame().opcode);
+        assertThrows(IllegalStateException.class, () -> webSocket.send("late").blockingAwait());
+    }
+
+    @Test
+    public void startFailsWhenUpgradeIsRejected() throws Exception {
+        server = new TestWebSocketServer("HTTP/1.1 404 Not Found");
+        NioWebSocketWrapper webSocket = createWebSocket("/hub", new HashMap<>());
+        AtomicReference<String> closeReason = new AtomicReference<>();
+        webSocket.setOnReceive(message -> { });
+        webSocket.setOnClose((code, reason) -> closeReason.set(reason));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> webSocket.start().timeout(5, TimeUnit.SECONDS).blockingAwait());
+        assertEquals("There was an error starting the WebSocket transport.", exception.getMessage());
+        assertEquals("Unexpected status code returned from WebSocket upgrade: HTTP/1.1 404 Not Found.", closeReason.get());
+    }
+
+    @Test
+    public void startFailsForSecureUrls() {
+        NioWebSocketWrapper webSocket = new NioWebSocketWrapper("wss://localhost/hub", new HashMap<>(), eventLoop);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> webSocket.start().timeout(5, TimeUnit.SECONDS).blockingAwait());
+        assertEquals("The NIO WebSocket client doesn't support 'wss' URLs.", exception.getMessage());
+    }
+
+    @Test
+    public void connectionsShareTheEventLoopThread() throws Exception {
+        List<TestWebSocketServer> servers = new ArrayList<>();
+        Set<String> receiveThreads = ConcurrentHashMap.newKeySet();
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        try {
+            for (int i = 0; i < 20; i++) {
+                TestWebSocketServer server = new TestWebSocketServer();
+                servers.add(server);
+                NioWebSocketWrapper webSocket = new NioWebSocketWrapper("ws://localhost:" + server.getPort() + "/hub", new HashMap<>(), eventLoop);
+                webSocket.setOnReceive(message -> {
+                    receiveThreads.add(Thread.currentThread().getName());
+                    received.add(message);
+                });
+                webSocket.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+            }
+
+            for (TestWebSocketServer server : servers) {
+                server.writeFrame(true, 0x1, "message".getBytes(StandardCharsets.UTF_8));
+            }
+            for (int i = 0; i < servers.size(); i++) {
+                assertEquals("message", received.poll(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, receiveThreads.size());
+        } finally {
+            for (TestWebSocketServer server : servers) {
+                server.close();
+            }
+        }
+    }
+
+    private NioWebSocketWrapper createWebSocket(String path, Map<String, String> headers) {
+        return new NioWebSocketWrapper("ws://localhost:" + server.getPort() + path, headers, eventLoop);
+    }
+
+    private static class Frame {
+        private final int opcode;
+        private final byte[] payload;
+
+        Frame(int opcode, byte[] payload) {
+            this.opcode = opcode;
+            this.payload = payload;
+        }
+    }
+
+    // A minimal blocking WebSocket server for a single connection.
+    private static class TestWebSocketServer {
+        private final ServerSocket serverSocket;
+        private final String statusLine;
+        private Socket socket;
+        private String upgradeRequest;
+
+        TestWebSocketServer() throws IOException {
+            this("HTTP/1.1 101 Switching Protocols");
+        }
+
+        TestWebSocketServer(String statusLine) throws IOException {
+            this.serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+            this.statusLine = statusLine;
+            Thread acceptThread = new Thread(this::accept);
+            acceptThread.setDaemon(true);
+            acceptThread.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private synchronized void accept() {
+            try {
+                socket = serverSocket.accept();
+                InputStream input = socket.getInputStream();
+                ByteArrayOutputStream request = new ByteArrayOutputStream();
+                while (!request.toString("ISO-8859-1").endsWith("\r\n\r\n")) {
+                    request.write(input.read());
+                }
+                upgradeRequest = request.toString("ISO-8859-1");
+
+                String key = null;
+                for (String line : upgradeRequest.split("\r\n")) {
+                    if (line.startsWith("Sec-WebSocket-Key: ")) {
+                        key = line.substring("Sec-WebSocket-Key: ".length());
+                    }
+                }
+                String response = statusLine + "\r\nUpgrade: websocket\r\nConnection: Upgrade\r\nSec-WebSocket-Accept: "
+                        + NioWebSocketWrapper.computeAccept(key) + "\r\n\r\n";
+                socket.getOutputStream().write(response.getBytes(StandardCharsets.ISO_8859_1));
+                notifyAll();
+            } catch (IOException e) {
+                // The test closed the server.
+            }
+        }
+
+        synchronized String getUpgradeRequest() throws InterruptedException {
+            while (upgradeRequest == null) {
+                wait();
+            }
+            return upgradeRequest;
+        }
+
+        private synchronized Socket getSocket() throws InterruptedException {
+            getUpgradeRequest();
+            return socket;
+        }
+
+        void writeFrame(boolean fin, int opcode, byte[] payload) throws Exception {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            frame.write((fin ? 0x80 : 0) | opcode);
+            if (payload.length < 126) {
+                frame.write(payload.length);
+            } else if (payload.length <= 0xFFFF) {
+                frame.write(126);
+                frame.write(payload.length >> 8);
+                frame.write(payload.length);
+            } else {
+                frame.write(127);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    frame.write((int) ((long) payload.length >> shift));
+                }
+            }
+            frame.write(payload);
+            OutputStream output = getSocket().getOutputStream();
+            output.write(frame.toByteArray());
+            output.flush();
+        }
+
+        Frame readFrame() throws Exception {
+            DataInputStream input = new DataInputStream(getSocket().getInputStream());
+            int first = input.readUnsignedByte();
+            int second = input.readUnsignedByte();
+            assertTrue((second & 0x80) != 0, "Client frames must be masked.");
+            long length = second & 0x7F;
+            if (length == 126) {
+                length = input.readUnsignedShort();
+            } else if (length == 127) {
+                length = input.readLong();
+            }
+            byte[] mask = new byte[4];
+            input.readFully(mask);
+            byte[] payload = new byte[(int) length];
+            input.readFully(payload);
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] ^= mask[i & 3];
+            }
+            return new Frame(first & 0x0F, payload);
+        }
+
+        String readTextFrame() throws Exception {
+            Frame frame = readFrame();
+            assertEquals(0x1, frame.opcode);
+            return new String(frame.payload, StandardCharsets.UTF_8);
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+            if (socket != null) {
+                socket.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import io.reactivex.Single;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.SingleSubject;
+
+class ServerSentEventsTransportTest {
+    @Test
+    public void startSendsEventStreamRequest() {
+        StreamingTestHttpClient client = new StreamingTestHttpClient(200);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Authorization", "Bearer token");
+        ServerSentEventsTransport transport = new ServerSentEventsTransport(headers, client);
+        transport.setOnReceive(message -> { });
+
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        HttpRequest request = client.getStreamingRequests().get(0);
+        assertEquals("GET", request.getMethod());
+        assertEquals("http://example.com/hub?id=123", request.getUrl());
+        assertEquals("text/event-stream", request.getHeaders().get("Accept"));
+        assertEquals("Bearer token", request.getHeaders().get("Authorization"));
+    }
+
+    @Test
+    public void startFailsForNon200Response() {
+        ServerSentEventsTransport transport = new ServerSentEventsTransport(new HashMap<>(), new StreamingTestHttpClient(404));
+        transport.setOnReceive(message -> { });
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait());
+        assertEquals("Unexpected status code returned from ServerSentEvents connection: 404 .", exception.getMessage());
+    }
+
+    @Test
+    public void stopBeforeStartDoesNotThrow() {
+        ServerSentEventsTransport transport = new ServerSentEventsTransport(new HashMap<>(), new StreamingTestHttpClient(200));
+        AtomicBoolean closed = new AtomicBoolean();
+        transport.setOnClose(reason -> closed.set(true));
+
+        assertTrue(transport.stop().blockingAwait(1, TimeUnit.SECONDS));
+        assertFalse(closed.get());
+    }
+
+    @Test
+    public void eventsAreParsedAcrossChunks() {
+        StreamingTestHttpClient client = new StreamingTestHttpClient(200);
+        ServerSentEventsTransport transport = new ServerSentEventsTransport(new HashMap<>(), client);
+        List<String> messages = new ArrayList<>();
+        transport.setOnReceive(message -> messages.add(message));
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        client.getContent().onNext("data: first\r");
+        client.getContent().onNext("\n\r\n:comment\r\nda");
+        client.getContent().onNext("ta: second\nevent: ignored\ndata:third\n\ndata: fourth\r\r");
+
+        assertEquals(3, messages.size());
+        assertEquals("first", messages.get(0));
+        assertEquals("second\nthird", messages.get(1));
+        assertEquals("fourth", messages.get(2));
+    }
+
+    @Test
+    public void sendsAreBatchedWhileAPostIsInFlight() {
+        StreamingTestHttpClient client = new StreamingTestHttpClient(200);
+        SingleSubject<HttpResponse> firstPost = SingleSubject.create();
+        List<String> postedBodies = new ArrayList<>();
+        client.setPostHandler(request -> {
+            postedBodies.add(request.getBody());
+            if (postedBodies.size() == 1) {
+                return firstPost;
+            }
+            return Single.just(new HttpResponse(200, "", ""));
+        });
+        ServerSentEventsTransport transport = new ServerSentEventsTransport(new HashMap<>(), client);
+        transport.setOnReceive(message -> { });
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        transport.send("a\u001e");
+        transport.send("b\u001e");
+        transport.send("c\u001e");
+        assertEquals(1, postedBodies.size());
+
+        firstPost.onSuccess(new HttpResponse(200, "", ""));
+
+        assertEquals(2, postedBodies.size());
+        assertEquals("a\u001e", postedBodies.get(0));
+        assertEquals("b\u001ec\u001e", postedBodies.get(1));
+    }
+
+    @Test
+    public void stopInvokesOnCloseAndAbortsStream() {
+        StreamingTestHttpClient client = new StreamingTestHttpClient(200);
+        ServerSentEventsTransport transport = new ServerSentEventsTransport(new HashMap<>(), client);
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicReference<String> closeReason = new AtomicReference<>("not closed");
+        transport.setOnReceive(message -> { });
+        transport.setOnClose(reason -> {
+            closed.set(true);
+            closeReason.set(reason);
+        });
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        transport.stop().timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        assertTrue(closed.get());
+        assertNull(closeReason.get());
+        assertFalse(client.getContent().hasObservers());
+    }
+
+    @Test
+    public void streamErrorClosesTransportWithError() {
+        StreamingTestHttpClient client = new StreamingTestHttpClient(200);
+        ServerSentEventsTransport transport = new ServerSentEventsTransport(new HashMap<>(), client);
+        AtomicReference<String> closeReason = new AtomicReference<>();
+        transport.setOnReceive(message -> { });
+        transport.setOnClose(reason -> closeReason.set(reason));
+        transport.start("http://example.com/hub?id=123").timeout(1, TimeUnit.SECONDS).blockingAwait();
+
+        client.getContent().onError(new RuntimeException("Connection reset."));
+
+        assertEquals("Connection reset.", closeReason.get());
+    }
+
+    class StreamingTestHttpClient extends HttpClient {
+        private final int statusCode;
+        private final PublishSubject<String> content = PublishSubject.create();
+        private final List<HttpRequest> streamingRequests = new ArrayList<>();
+        private TestHttpClient.TestHttpRequestHandler postHandler = request -> Single.just(new HttpResponse(200, "", ""));
+
+        StreamingTestHttpClient(int statusCode) {
+            this.statusCode = statusCode;
+        }
+
+        @Override
+        public Single<HttpResponse> send(HttpRequest request) {
+            return postHandler.invoke(request);
+        }
+
+        @Override
+        public Single<StreamingHttpResponse> sendStreaming(HttpRequest request) {
+            streamingRequests.add(request);
+            return Single.just(new StreamingHttpResponse(statusCode, "", content));
+        }
+
+        @Override
+        public WebSocketWrapper createWebSocket(String url, Map<String, String> headers) {
+            throw new RuntimeException("WebSockets isn't supported in testing currently.");
+        }
+
+        public void setPostHandler(TestHttpClient.TestHttpRequestHandler postHandler) {
+            this.postHandler = postHandler;
+        }
+
+        public PublishSubject<String> getContent() {
+            return content;
+        }
+
+        public List<HttpRequest> getStreamingRequests() {
+            return streamingRequests;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * A stand-in for a hub on the other end of an {@link InMemoryTransport}. It answers the handshake and dispatches the
+ * invocations it receives to the methods registered with it, using the JSON hub protocol the same way an ASP.NET Core
+ * hub does, including its error messages.
+ */
+final class InMemoryHubServer {
+    private static final String RECORD_SEPARATOR = "\u001e";
+
+    private final InMemoryTransport transport;
+    private final Map<String, Method> methods = new ConcurrentHashMap<>();
+    private final Map<String, Disposable> streams = new ConcurrentHashMap<>();
+    private final JsonHubProtocol protocol = JsonHubProtocol.getInstance();
+    private final JsonParser jsonParser = new JsonParser();
+    private final Gson gson = new Gson();
+    private volatile boolean handshakeReceived;
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryHubServer.class);
+
+    /**
+     * Creates the server and starts its end of the connection.
+     *
+     * @param transport The server end of the connection, see {@link InMemoryTransport#getPeer()}.
+     */
+    InMemoryHubServer(InMemoryTransport transport) {
+        this.transport = transport;
+        transport.setOnReceive(this::onReceive);
+        transport.setOnClose(error -> onClose());
+        transport.start(null);
+    }
+
+    interface HubMethod {
+        Object invoke(Object[] args) throws Exception;
+    }
+
+    interface StreamingHubMethod {
+        Observable<?> invoke(Object[] args) throws Exception;
+    }
+
+    InMemoryHubServer on(String name, HubMethod method, Class<?>... parameterTypes) {
+        methods.put(name, new Method(method, null, parameterTypes));
+        return this;
+    }
+
+    InMemoryHubServer onStream(String name, StreamingHubMethod method, Class<?>... parameterTypes) {
+        methods.put(name, new Method(null, method, parameterTypes));
+        return this;
+    }
+
+    /**
+     * Invokes a method on the client, like Clients.Caller.SendAsync does on the server.
+     *
+     * @param target The name of the client method.
+     * @param args The arguments for the client method.
+     */
+    void send(String target, Object... args) {
+        transport.send(protocol.writeMessage(new InvocationMessage(null, target, args)));
+    }
+
+    /**
+     * Sends a close message, which makes the client stop the connection.
+     *
+     * @param error The error to report to the client, or null for a graceful close.
+     */
+    void close(String error) {
+        JsonObject closeMessage = new JsonObject();
+        closeMessage.addProperty("type", HubMessageType.CLOSE.value);
+        if (error != null) {
+            closeMessage.addProperty("error", error);
+        }
+        transport.send(closeMessage.toString() + RECORD_SEPARATOR);
+    }
+
+    /**
+     * Drops the connection without a close message, the way a failed network would.
+     *
+     * @param error The error the client's transport reports.
+     */
+    void abort(String error) {
+        transport.close(error);
+    }
+
+    private void onReceive(String payload) {
+        int start = 0;
+        int end;
+        while ((end = payload.indexOf(RECORD_SEPARATOR, start)) != -1) {
+            String message = payload.substring(start, end);
+            start = end + 1;
+
+            if (!handshakeReceived) {
+                handshakeReceived = true;
+                processHandshake(message);
+            } else {
+                processMessage(message);
+            }
+        }
+    }
+
+    private void processHandshake(String message) {
+        JsonObject handshake = jsonParser.parse(message).getAsJsonObject();
+        String protocolName = handshake.get("protocol").getAsString();
+        if (!protocol.getName().equals(protocolName)) {
+            JsonObject response = new JsonObject();
+            response.addProperty("error", String.format("The protocol '%s' is not supported.", protocolName));
+            transport.send(response.toString() + RECORD_SEPARATOR);
+            transport.close(null);
+            return;
+        }
+
+        transport.send("{}" + RECORD_SEPARATOR);
+    }
+
+    private void processMessage(String message) {
+        JsonObject hubMessage = jsonParser.parse(message).getAsJsonObject();
+        int type = hubMessage.get("type").getAsInt();
+        JsonElement invocationIdToken = hubMessage.get("invocationId");
+        String invocationId = invocationIdToken == null ? null : invocationIdToken.getAsString();
+
+        if (type == HubMessageType.INVOCATION.value || type == HubMessageType.STREAM_INVOCATION.value) {
+            String target = hubMessage.get("target").getAsString();
+            JsonArray arguments = hubMessage.getAsJsonArray("arguments");
+            invoke(invocationId, target, arguments, type == HubMessageType.STREAM_INVOCATION.value);
+        } else if (type == HubMessageType.CANCEL_INVOCATION.value) {
+            Disposable stream = streams.remove(invocationId);
+            if (stream != null) {
+                stream.dispose();
+            }
+        }
+        // Pings need no answer and a close message is always followed by the transport closing.
+    }
+
+    private void invoke(String invocationId, String target, JsonArray arguments, boolean streaming) {
+        Method method = methods.get(target);
+        if (method == null) {
+            complete(invocationId, null, String.format("Unknown hub method '%s'", target));
+            return;
+        }
+
+        if (streaming && method.streamingMethod == null) {
+            complete(invocationId, null, String.format("The client attempted to invoke the non-streaming '%s' method with a streaming invocation.", target));
+            return;
+        }
+        if (!streaming && method.streamingMethod != null) {
+            complete(invocationId, null, String.format("The client attempted to invoke the streaming '%s' method with a non-streaming invocation.", target));
+            return;
+        }
+
+        Object[] args;
+        try {
+            args = bindArguments(arguments, method.parameterTypes);
+        } catch (RuntimeException e) {
+            complete(invocationId, null, String.format("Failed to invoke '%s' due to an error on the server. %s", target, e.getMessage()));
+            return;
+        }
+
+        try {
+            if (streaming) {
+                Disposable stream = method.streamingMethod.invoke(args).subscribe(
+                    item -> transport.send(protocol.writeMessage(new StreamItem(invocationId, item))),
+                    error -> {
+                        streams.remove(invocationId);
+                        complete(invocationId, null, getErrorMessage(target, error));
+                    },
+                    () -> {
+                        streams.remove(invocationId);
+                        complete(invocationId, null, null);
+                    });
+                if (!stream.isDisposed()) {
+                    streams.put(invocationId, stream);
+                }
+            } else {
+                complete(invocationId, method.method.invoke(args), null);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to invoke '{}'.", target, e);
+            complete(invocationId, null, getErrorMessage(target, e));
+        }
+    }
+
+    private Object[] bindArguments(JsonArray arguments, Class<?>[] parameterTypes) {
+        int argumentCount = arguments == null ? 0 : arguments.size();
+        if (argumentCount != parameterTypes.length) {
+            throw new RuntimeException(String.format("Invocation provides %d argument(s) but target expects %d.", argumentCount, parameterTypes.length));
+        }
+
+        Object[] args = new Object[argumentCount];
+        for (int i = 0; i < argumentCount; i++) {
+            args[i] = gson.fromJson(arguments.get(i), parameterTypes[i]);
+        }
+        return args;
+    }
+
+    private void complete(String invocationId, Object result, String error) {
+        // Non-blocking invocations, made with send, don't get a completion.
+        if (invocationId == null) {
+            if (error != null) {
+                logger.error(error);
+            }
+            return;
+        }
+
+        transport.send(protocol.writeMessage(new CompletionMessage(invocationId, result, error)));
+    }
+
+    private static String getErrorMessage(String target, Throwable error) {
+        // Like ASP.NET Core, only the message of a HubException is sent to the client.
+        if (error instanceof HubException) {
+            return String.format("An unexpected error occurred invoking '%s' on the server. HubException: %s", target, error.getMessage());
+        }
+        return String.format("An unexpected error occurred invoking '%s' on the server.", target);
+    }
+
+    private void onClose() {
+        handshakeReceived = false;
+        for (Disposable stream : streams.values()) {
+            stream.dispose();
+        }
+        streams.clear();
+    }
+
+    private static final class Method {
+        private final HubMethod method;
+        private final StreamingHubMethod streamingMethod;
+        private final Class<?>[] parameterTypes;
+
+        Method(HubMethod method, StreamingHubMethod streamingMethod, Class<?>[] parameterTypes) {
+            this.method = method;
+            this.streamingMethod = streamingMethod;
+            this.parameterTypes = parameterTypes;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.reactivex.Completable;
+
+/**
+ * One end of a duplex in-memory connection. Whatever one end sends is received by the other end, in order, on a thread
+ * of the executor, the same way a network transport delivers messages on its I/O thread. Stopping either end closes
+ * both of them.
+ *
+ * <p>Pair it with an {@link InMemoryHubServer} on the other end to run a {@link HubConnection} without a network.</p>
+ */
+final class InMemoryTransport implements Transport {
+    private final InMemoryTransport peer;
+    private final Executor executor;
+    private final Queue<Object> inbound = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile OnReceiveCallBack onReceiveCallBack;
+    private volatile TransportOnClosedCallback onClose;
+    private volatile boolean started;
+    private volatile boolean closed;
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryTransport.class);
+
+    InMemoryTransport() {
+        this(SharedExecutorHolder.INSTANCE);
+    }
+
+    /**
+     * Creates the client end of a connection. Both ends deliver their messages on the given executor, one at a time.
+     *
+     * @param executor The executor that runs the receive callbacks of both ends.
+     */
+    InMemoryTransport(Executor executor) {
+        this.executor = executor;
+        this.peer = new InMemoryTransport(this, executor);
+    }
+
+    private InMemoryTransport(InMemoryTransport peer, Executor executor) {
+        this.executor = executor;
+        this.peer = peer;
+    }
+
+    /**
+     * Gets the other end of the connection, usually handed to an {@link InMemoryHubServer}.
+     *
+     * @return The other end of the connection.
+     */
+    InMemoryTransport getPeer() {
+        return peer;
+    }
+
+    @Override
+    public Completable start(String url) {
+        // A HubConnection can be started again after it was stopped, so reopen both ends.
+        closed = false;
+        peer.closed = false;
+        started = true;
+        scheduleDrain();
+        return Completable.complete();
+    }
+
+    @Override
+    public Completable send(String message) {
+        if (closed) {
+            return Completable.error(new RuntimeException("The in-memory transport is closed."));
+        }
+
+        peer.deliver(message);
+        return Completable.complete();
+    }
+
+    @Override
+    public void setOnReceive(OnReceiveCallBack callback) {
+        this.onReceiveCallBack = callback;
+    }
+
+    @Override
+    public void onReceive(String message) {
+        onReceiveCallBack.invoke(message);
+    }
+
+    @Override
+    public void setOnClose(TransportOnClosedCallback onCloseCallback) {
+        this.onClose = onCloseCallback;
+    }
+
+    @Override
+    public Completable stop() {
+        close(null);
+        return Completable.complete();
+    }
+
+    /**
+     * Closes both ends. The other end sees the error once it has received everything that was sent before.
+     *
+     * @param error The error to close the connection with, or null for a graceful close.
+     */
+    void close(String error) {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        peer.deliver(new Close(error));
+        TransportOnClosedCallback callback = onClose;
+        if (callback != null) {
+            callback.invoke(error);
+        }
+    }
+
+    private void deliver(Object message) {
+        inbound.add(message);
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (started && onReceiveCallBack != null && !inbound.isEmpty() && draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            Object message;
+            while ((message = inbound.poll()) != null) {
+                if (message instanceof Close) {
+                    if (!closed) {
+                        closed = true;
+                        TransportOnClosedCallback callback = onClose;
+                        if (callback != null) {
+                            callback.invoke(((Close) message).error);
+                        }
+                    }
+                    continue;
+                }
+
+                if (closed) {
+                    // Sent by the other end before it saw this end close.
+                    continue;
+                }
+
+                try {
+                    onReceive((String) message);
+                } catch (Exception e) {
+                    // Same as a network transport, a failing receive callback doesn't stop later messages.
+                    logger.error("Error processing an in-memory message.", e);
+                }
+            }
+        } finally {
+            draining.set(false);
+        }
+
+        // A message can be added after the queue was seen empty, but before draining was reset.
+        scheduleDrain();
+    }
+
+    private static final class Close {
+        private final String error;
+
+        Close(String error) {
+            this.error = error;
+        }
+    }
+
+    private static ExecutorService createSharedExecutor() {
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "signalr-in-memory");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Created on first use so that processes which never use the in-memory transport never start it.
+    private static class SharedExecutorHolder {
+        static final ExecutorService INSTANCE = createSharedExecutor();
+    }
+}
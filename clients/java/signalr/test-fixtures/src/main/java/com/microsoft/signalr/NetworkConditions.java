@@ -0,0 +1,66 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One direction of a simulated network link. Messages are delivered in order, like over TCP, after the configured
+ * latency plus a random jitter, and no faster than the configured bandwidth allows.
+ */
+final class NetworkConditions {
+    private final StandInHubServer server;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<String> deliver;
+    private final AtomicInteger pending = new AtomicInteger();
+    private long nextDeliveryTime;
+
+    NetworkConditions(StandInHubServer server, ScheduledExecutorService scheduler, Consumer<String> deliver) {
+        this.server = server;
+        this.scheduler = scheduler;
+        this.deliver = deliver;
+    }
+
+    void send(String message) {
+        long latency = server.getLatencyNanos();
+        long jitter = server.getJitterNanos();
+        long bytesPerSecond = server.getBytesPerSecond();
+
+        // Without any conditions there is nothing to wait for, unless earlier messages are still on their way.
+        if (latency == 0 && jitter == 0 && bytesPerSecond == 0 && pending.get() == 0) {
+            deliver.accept(message);
+            return;
+        }
+
+        long delay;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long transit = latency;
+            if (jitter > 0) {
+                transit += ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+            }
+
+            long deliveryTime = Math.max(now + Math.max(0, transit), nextDeliveryTime);
+            nextDeliveryTime = deliveryTime;
+            if (bytesPerSecond > 0) {
+                // Later messages queue up behind the time this one takes to transmit.
+                nextDeliveryTime += TimeUnit.SECONDS.toNanos(message.length()) / bytesPerSecond;
+            }
+            delay = deliveryTime - now;
+            pending.incrementAndGet();
+        }
+
+        scheduler.schedule(() -> {
+            try {
+                deliver.accept(message);
+            } finally {
+                pending.decrementAndGet();
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+    }
+}
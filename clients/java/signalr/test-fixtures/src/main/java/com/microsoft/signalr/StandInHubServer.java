@@ -0,0 +1,320 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import io.reactivex.Observable;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * A stand-in for benchmarkapps/BenchmarkServer, so that tests and benchmarks can run a {@link HubConnection} over a
+ * real socket on one machine, without a .NET runtime. It serves negotiate and WebSockets at /echo, with the methods
+ * of BenchmarkServer's EchoHub plus a streaming method, and can make the network slow, jittery, narrow or unreliable.
+ *
+ * <p>Hub methods: Echo(time) returns its argument, EchoAll(time) and Broadcast(duration) send "send" to every
+ * connection, SendPayload(payload) ignores its argument, GetCurrentTime() returns the time, and Stream(count, interval)
+ * streams count times, interval milliseconds apart. Times are ISO-8601 strings.</p>
+ */
+public final class StandInHubServer implements Closeable {
+    private static final String HUB_PATH = "/echo";
+
+    private final MockWebServer server = new MockWebServer();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+    private volatile long latencyNanos;
+    private volatile long jitterNanos;
+    private volatile long bytesPerSecond;
+    private volatile int disconnectAfterMessages;
+
+    private static final Logger logger = LoggerFactory.getLogger(StandInHubServer.class);
+
+    public StandInHubServer() {
+        // A single thread keeps the delayed messages of a connection in order.
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "signalr-stand-in-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler = scheduler;
+
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return StandInHubServer.this.dispatch(request);
+            }
+        });
+    }
+
+    /**
+     * Starts listening on a free port of the loopback interface.
+     *
+     * @return This instance of the StandInHubServer.
+     * @throws IOException If the server couldn't start listening.
+     */
+    public StandInHubServer start() throws IOException {
+        server.start();
+        return this;
+    }
+
+    /**
+     * Gets the URL to pass to {@link HubConnectionBuilder#create(String)}.
+     *
+     * @return The URL of the hub.
+     */
+    public String getUrl() {
+        return server.url(HUB_PATH).toString();
+    }
+
+    /**
+     * Delays every message in both directions, the way a network round trip of twice the latency would.
+     *
+     * @param latency The one-way delay.
+     * @param unit The unit of the delay.
+     * @return This instance of the StandInHubServer.
+     */
+    public StandInHubServer withLatency(long latency, TimeUnit unit) {
+        this.latencyNanos = unit.toNanos(latency);
+        return this;
+    }
+
+    /**
+     * Adds a random amount between -jitter and +jitter to the latency of every message. Messages still arrive in the
+     * order they were sent.
+     *
+     * @param jitter The largest deviation from the latency.
+     * @param unit The unit of the jitter.
+     * @return This instance of the StandInHubServer.
+     */
+    public StandInHubServer withJitter(long jitter, TimeUnit unit) {
+        this.jitterNanos = unit.toNanos(jitter);
+        return this;
+    }
+
+    /**
+     * Limits how fast each connection transfers messages in each direction. 0 means no limit, which is the default.
+     *
+     * @param bytesPerSecond The bandwidth of each direction of each connection.
+     * @return This instance of the StandInHubServer.
+     */
+    public StandInHubServer withBandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * Drops each connection, with an error, once the server has sent it the given number of messages after the
+     * handshake. 0 means never, which is the default.
+     *
+     * @param messages The number of messages after which connections are dropped.
+     * @return This instance of the StandInHubServer.
+     */
+    public StandInHubServer withDisconnectAfter(int messages) {
+        this.disconnectAfterMessages = messages;
+        return this;
+    }
+
+    /**
+     * Drops every open connection with an error, which the client handles the way it would a failed network.
+     */
+    public void disconnectAll() {
+        for (Connection connection : connections) {
+            connection.abort();
+        }
+    }
+
+    /**
+     * Sends a close message with the given error to every open connection, the way a server that shuts down would.
+     *
+     * @param error The error, or null for a graceful close.
+     */
+    public void closeAll(String error) {
+        for (Connection connection : connections) {
+            connection.hub.close(error);
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        disconnectAll();
+        scheduler.shutdownNow();
+        server.shutdown();
+    }
+
+    long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    long getJitterNanos() {
+        return jitterNanos;
+    }
+
+    long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    private MockResponse dispatch(RecordedRequest request) {
+        String path = request.getRequestUrl().encodedPath();
+        if (path.equals(HUB_PATH + "/negotiate") && request.getMethod().equals("POST")) {
+            return new MockResponse().setBody(createNegotiateResponse());
+        }
+
+        if (path.equals(HUB_PATH) && "websocket".equalsIgnoreCase(request.getHeader("Upgrade"))) {
+            return new MockResponse().withWebSocketUpgrade(new Connection());
+        }
+
+        return new MockResponse().setResponseCode(404);
+    }
+
+    private static String createNegotiateResponse() {
+        JsonArray transferFormats = new JsonArray();
+        transferFormats.add("Text");
+        transferFormats.add("Binary");
+        JsonObject webSockets = new JsonObject();
+        webSockets.addProperty("transport", "WebSockets");
+        webSockets.add("transferFormats", transferFormats);
+        JsonArray availableTransports = new JsonArray();
+        availableTransports.add(webSockets);
+
+        JsonObject negotiateResponse = new JsonObject();
+        negotiateResponse.addProperty("connectionId", UUID.randomUUID().toString());
+        negotiateResponse.add("availableTransports", availableTransports);
+        return negotiateResponse.toString();
+    }
+
+    private void broadcast(String target, Object... args) {
+        for (Connection connection : connections) {
+            connection.hub.send(target, args);
+        }
+    }
+
+    private void registerMethods(InMemoryHubServer hub) {
+        hub.on("Echo", args -> args[0], String.class)
+            .on("EchoAll", args -> {
+                broadcast("send", args[0]);
+                return null;
+            }, String.class)
+            .on("Broadcast", args -> {
+                // Like EchoHub, this holds up the connection's other invocations until the duration is over.
+                long end = System.nanoTime() + TimeUnit.SECONDS.toNanos((int) args[0]);
+                int sent = 0;
+                while (System.nanoTime() < end && !connections.isEmpty()) {
+                    broadcast("send", Instant.now().toString());
+                    sent++;
+                }
+                logger.info("Broadcast exited: Sent {} messages", sent);
+                return null;
+            }, int.class)
+            .on("SendPayload", args -> null, String.class)
+            .on("GetCurrentTime", args -> Instant.now().toString())
+            .onStream("Stream", args -> {
+                int count = (int) args[0];
+                int interval = (int) args[1];
+                Observable<Long> ticks = interval == 0
+                        ? Observable.rangeLong(0, count)
+                        : Observable.intervalRange(0, count, 0, interval, TimeUnit.MILLISECONDS);
+                return ticks.map(i -> Instant.now().toString());
+            }, int.class, int.class);
+    }
+
+    /**
+     * One WebSocket connection. The hub runs on one end of an {@link InMemoryTransport}, whose other end is bridged to
+     * the WebSocket through a {@link NetworkConditions} for each direction.
+     */
+    private final class Connection extends WebSocketListener {
+        private final InMemoryTransport bridge = new InMemoryTransport();
+        private final InMemoryHubServer hub = new InMemoryHubServer(bridge.getPeer());
+        private final AtomicInteger sentMessages = new AtomicInteger();
+        private volatile WebSocket webSocket;
+        private NetworkConditions toClient;
+        private NetworkConditions toServer;
+
+        Connection() {
+            registerMethods(hub);
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket, Response response) {
+            this.webSocket = webSocket;
+            toClient = new NetworkConditions(StandInHubServer.this, scheduler, this::sendToClient);
+            toServer = new NetworkConditions(StandInHubServer.this, scheduler, message -> bridge.send(message));
+
+            bridge.setOnReceive(message -> toClient.send(message));
+            // The hub closes its end when it rejects the handshake.
+            bridge.setOnClose(error -> {
+                webSocket.close(1000, null);
+                closed();
+            });
+            bridge.start(null);
+            connections.add(this);
+        }
+
+        private void sendToClient(String message) {
+            webSocket.send(message);
+
+            // The handshake response doesn't count.
+            int limit = disconnectAfterMessages;
+            if (limit > 0 && sentMessages.getAndIncrement() == limit) {
+                abort();
+            }
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text) {
+            toServer.send(text);
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            webSocket.close(1000, null);
+            closed();
+        }
+
+        @Override
+        public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+            closed();
+        }
+
+        void abort() {
+            WebSocket current = webSocket;
+            // MockWebServer's WebSockets can't be cancelled, and the client treats any code but 1000 as a failure.
+            if (current != null) {
+                current.close(1011, "The stand-in server dropped the connection.");
+            }
+            closed();
+        }
+
+        private void closed() {
+            if (connections.remove(this)) {
+                bridge.stop();
+            }
+        }
+    }
+}
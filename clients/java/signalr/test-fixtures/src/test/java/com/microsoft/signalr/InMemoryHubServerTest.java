@@ -0,0 +1,156 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+
+class InMemoryHubServerTest {
+    private InMemoryHubServer server;
+
+    private HubConnection createConnection() {
+        InMemoryTransport transport = new InMemoryTransport();
+        server = new InMemoryHubServer(transport.getPeer());
+        HubConnection hubConnection = HubConnectionBuilder.create("http://example.com")
+                .withTransport(transport)
+                .shouldSkipNegotiate(true)
+                .build();
+        hubConnection.start().timeout(1, TimeUnit.SECONDS).blockingAwait();
+        return hubConnection;
+    }
+
+    @Test
+    public void invokeReturnsTheResultOfTheHubMethod() {
+        HubConnection hubConnection = createConnection();
+        server.on("Add", args -> (int) args[0] + (int) args[1], int.class, int.class);
+
+        int result = hubConnection.invoke(Integer.class, "Add", 40, 2).timeout(1, TimeUnit.SECONDS).blockingGet();
+
+        assertEquals(42, result);
+        hubConnection.stop().blockingAwait();
+    }
+
+    @Test
+    public void sendRunsTheHubMethodWithoutACompletion() throws InterruptedException {
+        HubConnection hubConnection = createConnection();
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        server.on("Send", args -> {
+            received.add((String) args[0]);
+            return null;
+        }, String.class);
+
+        hubConnection.send("Send", "hello");
+
+        assertEquals("hello", received.poll(1, TimeUnit.SECONDS));
+        hubConnection.stop().blockingAwait();
+    }
+
+    @Test
+    public void streamSendsEveryItem() {
+        HubConnection hubConnection = createConnection();
+        server.onStream("Count", args -> Observable.range(0, (int) args[0]), int.class);
+
+        List<Integer> items = hubConnection.stream(Integer.class, "Count", 5).timeout(1, TimeUnit.SECONDS).toList().blockingGet();
+
+        assertArrayEquals(new Integer[] { 0, 1, 2, 3, 4 }, items.toArray());
+        hubConnection.stop().blockingAwait();
+    }
+
+    @Test
+    public void cancellingAStreamDisposesItOnTheServer() throws InterruptedException {
+        HubConnection hubConnection = createConnection();
+        CountDownLatch disposed = new CountDownLatch(1);
+        server.onStream("Forever", args -> Observable.never().doOnDispose(disposed::countDown));
+
+        Disposable subscription = hubConnection.stream(Integer.class, "Forever").subscribe();
+        // Wait for the server to have started the stream before cancelling it.
+        hubConnection.invoke(Integer.class, "Missing").onErrorReturnItem(0).timeout(1, TimeUnit.SECONDS).blockingGet();
+        subscription.dispose();
+
+        assertTrue(disposed.await(1, TimeUnit.SECONDS));
+        hubConnection.stop().blockingAwait();
+    }
+
+    @Test
+    public void errorsUseTheServerMessages() {
+        HubConnection hubConnection = createConnection();
+        server.on("Fail", args -> {
+            throw new IllegalStateException("Secret details.");
+        });
+        server.on("HubFail", args -> {
+            throw new HubException("Visible details.");
+        });
+        server.onStream("Stream", args -> Observable.empty());
+        server.on("Echo", args -> args[0], String.class);
+
+        Throwable exception = assertThrows(HubException.class,
+                () -> hubConnection.invoke(String.class, "Missing").timeout(1, TimeUnit.SECONDS).blockingGet());
+        assertEquals("Unknown hub method 'Missing'", exception.getMessage());
+
+        exception = assertThrows(HubException.class,
+                () -> hubConnection.invoke(String.class, "Fail").timeout(1, TimeUnit.SECONDS).blockingGet());
+        assertEquals("An unexpected error occurred invoking 'Fail' on the server.", exception.getMessage());
+
+        exception = assertThrows(HubException.class,
+                () -> hubConnection.invoke(String.class, "HubFail").timeout(1, TimeUnit.SECONDS).blockingGet());
+        assertEquals("An unexpected error occurred invoking 'HubFail' on the server. HubException: Visible details.", exception.getMessage());
+
+        exception = assertThrows(HubException.class,
+                () -> hubConnection.invoke(String.class, "Stream").timeout(1, TimeUnit.SECONDS).blockingGet());
+        assertEquals("The client attempted to invoke the streaming 'Stream' method with a non-streaming invocation.", exception.getMessage());
+
+        exception = assertThrows(HubException.class,
+                () -> hubConnection.invoke(String.class, "Echo", "a", "b").timeout(1, TimeUnit.SECONDS).blockingGet());
+        assertEquals("Failed to invoke 'Echo' due to an error on the server. Invocation provides 2 argument(s) but target expects 1.",
+                exception.getMessage());
+
+        hubConnection.stop().blockingAwait();
+    }
+
+    @Test
+    public void serverCanInvokeClientMethods() throws InterruptedException {
+        HubConnection hubConnection = createConnection();
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        hubConnection.on("message", received::add, String.class);
+
+        server.send("message", "from the server");
+
+        assertEquals("from the server", received.poll(1, TimeUnit.SECONDS));
+        hubConnection.stop().blockingAwait();
+    }
+
+    @Test
+    public void closeMessageStopsTheConnection() throws InterruptedException {
+        HubConnection hubConnection = createConnection();
+        BlockingQueue<String> closed = new LinkedBlockingQueue<>();
+        hubConnection.onClosed(exception -> closed.add(exception == null ? "no error" : exception.getMessage()));
+
+        server.close("Server is shutting down.");
+
+        assertEquals("Server is shutting down.", closed.poll(1, TimeUnit.SECONDS));
+        assertEquals(HubConnectionState.DISCONNECTED, hubConnection.getConnectionState());
+    }
+
+    @Test
+    public void abortClosesTheConnectionWithAnError() throws InterruptedException {
+        HubConnection hubConnection = createConnection();
+        BlockingQueue<String> closed = new LinkedBlockingQueue<>();
+        hubConnection.onClosed(exception -> closed.add(exception == null ? "no error" : exception.getMessage()));
+
+        server.abort("Connection reset.");
+
+        assertEquals("Connection reset.", closed.poll(1, TimeUnit.SECONDS));
+        assertEquals(HubConnectionState.DISCONNECTED, hubConnection.getConnectionState());
+    }
+}
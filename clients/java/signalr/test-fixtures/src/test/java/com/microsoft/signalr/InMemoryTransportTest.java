@@ -0,0 +1,146 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class InMemoryTransportTest {
+    @Test
+    public void messagesAreReceivedInOrderByTheOtherEnd() throws InterruptedException {
+        InMemoryTransport client = new InMemoryTransport();
+        InMemoryTransport server = client.getPeer();
+        List<String> received = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1000);
+        server.setOnReceive(message -> {
+            received.add(message);
+            done.countDown();
+        });
+        server.start(null).blockingAwait();
+        client.setOnReceive(message -> {});
+        client.start("http://example.com").blockingAwait();
+
+        for (int i = 0; i < 1000; i++) {
+            client.send(Integer.toString(i)).blockingAwait();
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.toString(i), received.get(i));
+        }
+    }
+
+    @Test
+    public void messagesSentBeforeTheOtherEndStartsAreKept() throws InterruptedException {
+        InMemoryTransport client = new InMemoryTransport();
+        InMemoryTransport server = client.getPeer();
+        client.setOnReceive(message -> {});
+        client.start("http://example.com").blockingAwait();
+        client.send("first").blockingAwait();
+
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        server.setOnReceive(received::add);
+        server.start(null).blockingAwait();
+
+        assertEquals("first", received.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void stopClosesBothEnds() throws InterruptedException {
+        InMemoryTransport client = new InMemoryTransport();
+        InMemoryTransport server = client.getPeer();
+        AtomicReference<String> clientClosed = new AtomicReference<>("not closed");
+        CountDownLatch serverClosed = new CountDownLatch(1);
+        AtomicReference<String> serverError = new AtomicReference<>("not closed");
+        client.setOnReceive(message -> {});
+        client.setOnClose(clientClosed::set);
+        server.setOnReceive(message -> {});
+        server.setOnClose(error -> {
+            serverError.set(error);
+            serverClosed.countDown();
+        });
+        server.start(null).blockingAwait();
+        client.start("http://example.com").blockingAwait();
+
+        client.stop().blockingAwait();
+
+        assertNull(clientClosed.get());
+        assertTrue(serverClosed.await(5, TimeUnit.SECONDS));
+        assertNull(serverError.get());
+
+        Throwable exception = assertThrows(RuntimeException.class, () -> client.send("message").blockingAwait());
+        assertEquals("The in-memory transport is closed.", exception.getMessage());
+    }
+
+    @Test
+    public void closeWithErrorIsSeenAfterEarlierMessages() throws InterruptedException {
+        InMemoryTransport client = new InMemoryTransport();
+        InMemoryTransport server = client.getPeer();
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        client.setOnReceive(message -> events.add("message " + message));
+        client.setOnClose(error -> events.add("closed " + error));
+        server.setOnReceive(message -> {});
+        server.start(null).blockingAwait();
+        client.start("http://example.com").blockingAwait();
+
+        server.send("one").blockingAwait();
+        server.send("two").blockingAwait();
+        server.close("Connection reset.");
+
+        assertEquals("message one", events.poll(5, TimeUnit.SECONDS));
+        assertEquals("message two", events.poll(5, TimeUnit.SECONDS));
+        assertEquals("closed Connection reset.", events.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void canBeStartedAgainAfterStopping() throws InterruptedException {
+        InMemoryTransport client = new InMemoryTransport();
+        InMemoryTransport server = client.getPeer();
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        CountDownLatch serverClosed = new CountDownLatch(1);
+        client.setOnReceive(message -> {});
+        client.setOnClose(error -> {});
+        server.setOnReceive(received::add);
+        server.setOnClose(error -> serverClosed.countDown());
+        server.start(null).blockingAwait();
+        client.start("http://example.com").blockingAwait();
+        client.stop().blockingAwait();
+        assertTrue(serverClosed.await(5, TimeUnit.SECONDS));
+
+        client.start("http://example.com").blockingAwait();
+        client.send("again").blockingAwait();
+
+        assertEquals("again", received.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failingReceiveCallbackDoesNotStopLaterMessages() throws InterruptedException {
+        InMemoryTransport client = new InMemoryTransport();
+        InMemoryTransport server = client.getPeer();
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        server.setOnReceive(message -> {
+            if (message.equals("bad")) {
+                throw new RuntimeException("Handler failed.");
+            }
+            received.add(message);
+        });
+        server.start(null).blockingAwait();
+        client.setOnReceive(message -> {});
+        client.start("http://example.com").blockingAwait();
+
+        client.send("bad").blockingAwait();
+        client.send("good").blockingAwait();
+
+        assertEquals("good", received.poll(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,148 @@
+// Copyright (c) .NET Foundation. All rights reserved.
+// Licensed under the Apache License, Version 2.0. See License.txt in the project root for license information.
+
+package com.microsoft.signalr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StandInHubServerTest {
+    private StandInHubServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new StandInHubServer().start();
+    }
+
+    @AfterEach
+    public void stopServer() throws IOException {
+        server.close();
+    }
+
+    private HubConnection connect() {
+        HubConnection hubConnection = HubConnectionBuilder.create(server.getUrl()).build();
+        hubConnection.start().timeout(5, TimeUnit.SECONDS).blockingAwait();
+        return hubConnection;
+    }
+
+    @Test
+    public void echoReturnsItsArgument() {
+        HubConnection hubConnection = connect();
+
+        String result = hubConnection.invoke(String.class, "Echo", "2018-10-19T00:00:00Z").timeout(5, TimeUnit.SECONDS).blockingGet();
+
+        assertEquals("2018-10-19T00:00:00Z", result);
+        hubConnection.stop().blockingAwait();
+    }
+
+    @Test
+    public void echoAllSendsToEveryConnection() throws InterruptedException {
+        HubConnection first = connect();
+        HubConnection second = connect();
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        first.on("send", time -> received.add("first " + time), String.class);
+        second.on("send", time -> received.add("second " + time), String.class);
+
+        first.send("EchoAll", "now");
+
+        String one = received.poll(5, TimeUnit.SECONDS);
+        String two = received.poll(5, TimeUnit.SECONDS);
+        assertTrue((one + two).contains("first now"));
+        assertTrue((one + two).contains("second now"));
+        first.stop().blockingAwait();
+        second.stop().blockingAwait();
+    }
+
+    @Test
+    public void streamSendsTheRequestedNumberOfItems() {
+        HubConnection hubConnection = connect();
+
+        List<String> items = hubConnection.stream(String.class, "Stream", 3, 10).timeout(5, TimeUnit.SECONDS).toList().blockingGet();
+
+        assertEquals(3, items.size());
+        hubConnection.stop().blockingAwait();
+    }
+
+    @Test
+    public void latencyDelaysBothDirections() {
+        HubConnection hubConnection = connect();
+        server.withLatency(100, TimeUnit.MILLISECONDS).withJitter(20, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        hubConnection.invoke(String.class, "GetCurrentTime").timeout(5, TimeUnit.SECONDS).blockingGet();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsed >= 160, String.format("The round trip took %dms.", elapsed));
+        hubConnection.stop().blockingAwait();
+    }
+
+    @Test
+    public void bandwidthLimitsTheTransferRate() {
+        HubConnection hubConnection = connect();
+        server.withBandwidth(50_000);
+
+        // 10 x 10KB at 50KB/s takes about 2 seconds each way.
+        char[] payload = new char[10_000];
+        Arrays.fill(payload, 'a');
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            hubConnection.send("SendPayload", new String(payload));
+        }
+        hubConnection.invoke(String.class, "GetCurrentTime").timeout(10, TimeUnit.SECONDS).blockingGet();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsed >= 1900, String.format("The transfer took %dms.", elapsed));
+        hubConnection.stop().blockingAwait();
+    }
+
+    @Test
+    public void connectionsAreDroppedAfterTheConfiguredNumberOfMessages() throws InterruptedException {
+        server.withDisconnectAfter(2);
+        HubConnection hubConnection = connect();
+        BlockingQueue<String> closed = new LinkedBlockingQueue<>();
+        hubConnection.onClosed(exception -> closed.add(exception == null ? "no error" : "error"));
+
+        hubConnection.invoke(String.class, "Echo", "one").timeout(5, TimeUnit.SECONDS).blockingGet();
+        hubConnection.invoke(String.class, "Echo", "two").timeout(5, TimeUnit.SECONDS).blockingGet();
+
+        assertEquals("error", closed.poll(5, TimeUnit.SECONDS));
+        assertEquals(HubConnectionState.DISCONNECTED, hubConnection.getConnectionState());
+    }
+
+    @Test
+    public void disconnectAllDropsEveryConnection() throws InterruptedException {
+        HubConnection first = connect();
+        HubConnection second = connect();
+        BlockingQueue<String> closed = new LinkedBlockingQueue<>();
+        first.onClosed(exception -> closed.add("first"));
+        second.onClosed(exception -> closed.add("second"));
+        assertEquals(2, server.getConnectionCount());
+
+        server.disconnectAll();
+
+        assertNotNull(closed.poll(5, TimeUnit.SECONDS));
+        assertNotNull(closed.poll(5, TimeUnit.SECONDS));
+        assertEquals(0, server.getConnectionCount());
+    }
+
+    @Test
+    public void closeAllSendsTheError() throws InterruptedException {
+        HubConnection hubConnection = connect();
+        BlockingQueue<String> closed = new LinkedBlockingQueue<>();
+        hubConnection.onClosed(exception -> closed.add(exception.getMessage()));
+
+        server.closeAll("Server is shutting down.");
+
+        assertEquals("Server is shutting down.", closed.poll(5, TimeUnit.SECONDS));
+    }
+}